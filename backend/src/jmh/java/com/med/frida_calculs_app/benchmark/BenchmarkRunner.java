@@ -0,0 +1,47 @@
+package com.med.frida_calculs_app.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point d'entrée des benchmarks JMH.
+ *
+ * Sans mode explicite, deux passes sont lancées : débit en ops/s, puis percentiles
+ * de latence (mode sample) en µs/op, chacune avec le profiler gc (allocation par opération).
+ * Les arguments JMH habituels restent utilisables, ex :
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CalculPartsBenchmark -wi 2 -i 3"
+ * </pre>
+ * Les résultats JSON sont écrits dans {@code target/}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+
+        if (!cli.getBenchModes().isEmpty()) {
+            lancer(cli, null, null, "target/jmh-result.json");
+            return;
+        }
+        lancer(cli, Mode.Throughput, TimeUnit.SECONDS, "target/jmh-debit.json");
+        lancer(cli, Mode.SampleTime, TimeUnit.MICROSECONDS, "target/jmh-latence.json");
+    }
+
+    private static void lancer(CommandLineOptions cli, Mode mode, TimeUnit unite, String fichier) throws Exception {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cli)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(fichier);
+        if (mode != null) {
+            builder.mode(mode).timeUnit(unite);
+        }
+        new Runner(builder.build()).run();
+    }
+}
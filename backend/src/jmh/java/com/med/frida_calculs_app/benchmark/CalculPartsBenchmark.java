@@ -0,0 +1,46 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.config.MoteurConfig;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link CalculPartsService#calculParts} sur les chemins
+ * simple, aoul, radd et wasiyya (double passe simulation + calcul réel),
+ * pour chacun des moteurs de calcul.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculPartsBenchmark {
+
+    @Param({"simple", "aoul", "radd", "wasiyya"})
+    public String scenario;
+
+    @Param({"classique", "primitif", "formes"})
+    public String moteur;
+
+    private CalculPartsService service;
+    private RequeteNormalisee request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new CalculPartsService(MoteurConfig.creerMoteur(moteur));
+        // Aucun de ces scénarios ne déclenche la substitution petits-enfants -> enfants,
+        // la requête n'est donc pas modifiée par le calcul et peut être réutilisée.
+        request = RequeteNormalisee.de(Scenarios.requete(scenario));
+    }
+
+    @Benchmark
+    public List<Heritier> calculParts() {
+        return service.calculParts(request);
+    }
+}
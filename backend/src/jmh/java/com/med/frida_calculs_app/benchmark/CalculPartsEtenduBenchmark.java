@@ -0,0 +1,37 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.CalculPartsEtenduService;
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link CalculPartsEtenduService#calculPartsEtendu} selon le nombre de tombes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculPartsEtenduBenchmark {
+
+    @Param({"1", "10", "500", "1000", "10000"})
+    public int nbTombes;
+
+    private CalculPartsEtenduService service;
+    private RequeteNormalisee request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new CalculPartsEtenduService(new CalculPartsService());
+        request = RequeteNormalisee.de(Scenarios.requeteEtendue(nbTombes));
+    }
+
+    @Benchmark
+    public CalculPartsEtenduService.CalculEtenduResult calculPartsEtendu() {
+        return service.calculPartsEtendu(request);
+    }
+}
@@ -0,0 +1,503 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.FridaCalculsAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Test de charge HTTP de {@code POST /calculate} : débit et latences (p50, p99) pour un nombre
+ * croissant de clients simultanés, pool de threads Tomcat ({@code plateforme}), threads virtuels
+ * ({@code virtuel}, {@code spring.threads.virtual.enabled}) et WebFlux sur Netty ({@code reactif},
+ * profil {@code reactif}).
+ *
+ * Chaque mode est mesuré dans son propre JVM limité à 512 Mo de tas, comme le conteneur, où
+ * l'application est démarrée sur un port libre. Chaque client est un thread virtuel qui enchaîne ses
+ * requêtes (scénarios simple, aoul, radd, wasiyya) ; une phase de chauffe précède chaque mesure.
+ * Client et serveur partagent les processeurs : les chiffres servent à comparer les modes entre eux,
+ * pas à dimensionner un serveur.
+ *
+ * Avec {@code inactifs=N}, le coût des connexions keep-alive inactives est d'abord mesuré, avant
+ * toute charge : N connexions font chacune une requête {@code GET /actuator/health} puis restent
+ * ouvertes ; tas après GC, threads et mémoire résidente sont relevés avant et après. Les sockets
+ * clientes vivent dans le même JVM et coûtent la même chose quel que soit le mode.
+ *
+ * Une réponse 503 (limite de concurrence) est comptée comme rejet et le client attend le délai
+ * {@code Retry-After} avant sa requête suivante. Les autres échecs sont des erreurs, détaillées par
+ * cause après le tableau : statut HTTP, ou classe de l'exception du client et de sa cause. Pendant
+ * chaque mesure, {@code /status} est interrogé toutes les 100 ms comme le ferait le healthcheck ;
+ * sa pire latence est relevée. Les options commençant par {@code --} sont passées à l'application
+ * (par exemple {@code --calcul.limite.enabled=false}).
+ *
+ * Avec {@code lourds=N} et {@code lots=N}, autant de clients de fond enchaînent, pendant les mesures,
+ * des requêtes {@code /calculate-extended} de {@code tombes=T} tombes et des lots NDJSON de 200
+ * requêtes multi-tombes, tous distincts (ni cache ni coalescence) ; les latences relevées restent
+ * celles de {@code /calculate}, ce qui montre l'isolation des couloirs
+ * ({@code --calcul.couloirs.enabled=false} pour comparer).
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.med.frida_calculs_app.benchmark.ChargeHttp \
+ *     -Djmh.args="clients=50,500,5000 duree=10 chauffe=5 modes=plateforme,virtuel,reactif inactifs=5000"
+ * </pre>
+ */
+public class ChargeHttp {
+
+    private static final String CHEMIN = "/api/v1/heritage/calculate";
+    private static final String SANTE = "/actuator/health";
+    private static final String RESULTAT = "resultat ";
+    private static final String INACTIFS = "inactifs ";
+    private static final String ERREURS = "erreurs ";
+    private static final AtomicLong REQUETES_LOURDES = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        // devtools relancerait ce main dans un nouveau chargeur de classes
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>();
+        List<String> proprietes = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                proprietes.add(arg);
+                continue;
+            }
+            String[] cleValeur = arg.split("=", 2);
+            options.put(cleValeur[0], cleValeur.length > 1 ? cleValeur[1] : "");
+        }
+        int[] clients = Arrays.stream(options.getOrDefault("clients", "50,500,5000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration duree = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duree", "10")));
+        Duration chauffe = Duration.ofSeconds(Long.parseLong(options.getOrDefault("chauffe", "5")));
+        String[] modes = options.getOrDefault("modes", "plateforme,virtuel,reactif").split(",");
+        int inactifs = Integer.parseInt(options.getOrDefault("inactifs", "0"));
+        Fond fond = new Fond(Integer.parseInt(options.getOrDefault("lourds", "0")),
+                Integer.parseInt(options.getOrDefault("lots", "0")),
+                Integer.parseInt(options.getOrDefault("tombes", "2000")));
+
+        if (options.containsKey("mode")) {
+            mesurer(options.get("mode"), proprietes, clients, duree, chauffe, inactifs, fond);
+            return;
+        }
+
+        // Un JVM par mode, comme les forks JMH : sinon le premier mode mesuré paie la compilation JIT
+        List<String> resultats = new ArrayList<>();
+        List<String> connexionsInactives = new ArrayList<>();
+        List<String> causesErreurs = new ArrayList<>();
+        for (String mode : modes) {
+            List<String> commande = new ArrayList<>(List.of(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xmx512m", "-cp", System.getProperty("java.class.path"), ChargeHttp.class.getName()));
+            commande.addAll(Arrays.asList(args));
+            commande.add("mode=" + mode);
+            Process fork = new ProcessBuilder(commande).redirectErrorStream(true).start();
+            try (BufferedReader sortie = fork.inputReader()) {
+                String ligne;
+                while ((ligne = sortie.readLine()) != null) {
+                    System.out.println(ligne);
+                    if (ligne.startsWith(RESULTAT)) {
+                        resultats.add(ligne.substring(RESULTAT.length()));
+                    } else if (ligne.startsWith(INACTIFS)) {
+                        connexionsInactives.add(ligne.substring(INACTIFS.length()));
+                    } else if (ligne.startsWith(ERREURS)) {
+                        causesErreurs.add(ligne.substring(ERREURS.length()));
+                    }
+                }
+            }
+            if (fork.waitFor() != 0) {
+                throw new IllegalStateException("Mesure du mode " + mode + " en échec");
+            }
+        }
+
+        System.out.printf("%n%-10s %8s %12s %10s %10s %8s %8s %14s %10s %10s%n",
+                "Mode", "Clients", "req/s", "p50 (ms)", "p99 (ms)", "Rejets", "Erreurs", "/status max",
+                "Fond ok", "Fond 503");
+        resultats.forEach(System.out::println);
+        if (!causesErreurs.isEmpty()) {
+            System.out.printf("%n%-10s %8s  %s%n", "Mode", "Clients", "Causes des erreurs");
+            causesErreurs.forEach(System.out::println);
+        }
+        if (!connexionsInactives.isEmpty()) {
+            System.out.printf("%n%-10s %10s %16s %16s %14s %8s%n",
+                    "Mode", "Connexions", "Tas (Ko/cnx)", "RSS (Ko/cnx)", "Threads (+)", "Erreurs");
+            connexionsInactives.forEach(System.out::println);
+        }
+    }
+
+    private static void mesurer(String mode, List<String> proprietes, int[] clients, Duration duree,
+                                Duration chauffe, int inactifs, Fond fond) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> corps = new ArrayList<>();
+        for (String scenario : List.of("simple", "aoul", "radd", "wasiyya")) {
+            corps.add(mapper.writeValueAsString(Scenarios.requete(scenario)));
+        }
+
+        try (ConfigurableApplicationContext contexte = demarrer(mode, proprietes)) {
+            int port = Integer.parseInt(contexte.getEnvironment().getProperty("local.server.port"));
+            String base = contexte.getEnvironment().getProperty("spring.webflux.base-path",
+                    contexte.getEnvironment().getProperty("server.servlet.context-path", ""));
+            URI uri = URI.create("http://localhost:" + port + base + CHEMIN);
+            if (inactifs > 0) {
+                // Avant la charge : les connexions recyclées par le serveur fausseraient la mesure
+                ouvrirInactives(port, base + SANTE, 200).connexions().forEach(ChargeHttp::fermer);
+                Thread.sleep(2000);
+                Empreinte avant = Empreinte.relever();
+                Ouverture ouverture = ouvrirInactives(port, base + SANTE, inactifs);
+                Thread.sleep(2000);
+                Empreinte apres = Empreinte.relever();
+                int ouvertes = ouverture.connexions().size();
+                System.out.printf(INACTIFS + "%-10s %10d %16.1f %16.1f %14d %8d%n", mode, ouvertes,
+                        (apres.tas() - avant.tas()) / 1024.0 / Math.max(1, ouvertes),
+                        (apres.rss() - avant.rss()) / 1024.0 / Math.max(1, ouvertes),
+                        apres.threads() - avant.threads(), ouverture.erreurs());
+                ouverture.connexions().forEach(ChargeHttp::fermer);
+            }
+            // Chauffe initiale plus longue : compilation JIT de Tomcat, Jackson et du calcul
+            charger(mode, uri, corps, clients[0], chauffe.multipliedBy(3), fond);
+            for (int nbClients : clients) {
+                charger(mode, uri, corps, nbClients, chauffe, fond);
+                Resultat r = charger(mode, uri, corps, nbClients, duree, fond);
+                System.out.printf(RESULTAT + "%-10s %8d %12.0f %10.2f %10.2f %8d %8d %14.2f %10d %10d%n",
+                        r.mode(), r.clients(), r.debit(), r.p50Ms(), r.p99Ms(), r.rejets(), r.erreurs(),
+                        r.statusMaxMs(), r.fondTermines(), r.fondRejets());
+                if (!r.causes().isEmpty()) {
+                    System.out.printf(ERREURS + "%-10s %8d  %s%n", r.mode(), r.clients(), r.causes());
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext demarrer(String mode, List<String> proprietes) {
+        // Arguments de ligne de commande : prioritaires sur application.properties
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtuel"),
+                "--logging.level.root=WARN",
+                "--logging.level.com.med.frida_calculs_app=WARN"));
+        if (mode.equals("reactif")) {
+            arguments.add("--spring.profiles.active=reactif");
+        }
+        arguments.addAll(proprietes);
+        return new SpringApplicationBuilder(FridaCalculsAppApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Ouvre {@code nombre} connexions keep-alive laissées inactives, chacune après une requête
+     * complète.
+     */
+    private static Ouverture ouvrirInactives(int port, String chemin, int nombre) {
+        List<Socket> connexions = Collections.synchronizedList(new ArrayList<>(nombre));
+        LongAdder erreurs = new LongAdder();
+        byte[] requete = ("GET " + chemin + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        // Quelques threads plateforme arrêtés avant le relevé : seuls les threads du serveur sont comptés
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < nombre; i++) {
+                executor.submit(() -> {
+                    Socket socket = new Socket();
+                    try {
+                        socket.connect(new InetSocketAddress("localhost", port), 30_000);
+                        socket.getOutputStream().write(requete);
+                        lireReponse(socket.getInputStream());
+                        connexions.add(socket);
+                    } catch (IOException e) {
+                        erreurs.increment();
+                        fermer(socket);
+                    }
+                });
+            }
+        }
+        return new Ouverture(connexions, erreurs.sum());
+    }
+
+    /**
+     * Lit une réponse HTTP/1.1 entière (longueur annoncée ou transfert par morceaux), sans fermer
+     * la connexion.
+     */
+    private static void lireReponse(InputStream entree) throws IOException {
+        StringBuilder lu = new StringBuilder();
+        int finEntete;
+        while ((finEntete = lu.indexOf("\r\n\r\n")) < 0) {
+            lireOctet(entree, lu);
+        }
+        String entete = lu.substring(0, finEntete).toLowerCase(Locale.ROOT);
+        int debutLongueur = entete.indexOf("content-length:");
+        if (debutLongueur >= 0) {
+            int finLigne = entete.indexOf("\r\n", debutLongueur);
+            int longueur = Integer.parseInt(entete.substring(debutLongueur + 15, finLigne < 0 ? entete.length() : finLigne).trim());
+            while (lu.length() < finEntete + 4 + longueur) {
+                lireOctet(entree, lu);
+            }
+        } else {
+            while (lu.indexOf("\r\n0\r\n\r\n", finEntete) < 0) {
+                lireOctet(entree, lu);
+            }
+        }
+    }
+
+    private static void lireOctet(InputStream entree, StringBuilder lu) throws IOException {
+        int octet = entree.read();
+        if (octet < 0) {
+            throw new IOException("Connexion fermée par le serveur");
+        }
+        lu.append((char) octet);
+    }
+
+    private static void fermer(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // connexion déjà perdue
+        }
+    }
+
+    private static Resultat charger(String mode, URI uri, List<String> corps, int nbClients, Duration duree,
+                                    Fond fond) {
+        Latences[] latences = new Latences[nbClients];
+        LongAdder erreurs = new LongAdder();
+        Map<String, LongAdder> causes = new ConcurrentHashMap<>();
+        LongAdder rejets = new LongAdder();
+        AtomicLong statusMax = new AtomicLong();
+        LongAdder fondTermines = new LongAdder();
+        LongAdder fondRejets = new LongAdder();
+        long debut = System.nanoTime();
+        long fin = debut + duree.toNanos();
+        try (HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> sonderStatus(http, uri.resolve("status"), fin, statusMax));
+            for (int c = 0; c < fond.lourds(); c++) {
+                executor.submit(() -> chargerFond(http, uri.resolve("calculate-extended"), "application/json",
+                        () -> requeteLourde(fond.tombes()), fin, fondTermines, fondRejets));
+            }
+            for (int c = 0; c < fond.lots(); c++) {
+                executor.submit(() -> chargerFond(http, uri.resolve("calculate-batch"), "application/x-ndjson",
+                        ChargeHttp::lot, fin, fondTermines, fondRejets));
+            }
+            for (int c = 0; c < nbClients; c++) {
+                Latences client = latences[c] = new Latences();
+                int premier = c;
+                executor.submit(() -> {
+                    int i = premier;
+                    while (System.nanoTime() < fin) {
+                        HttpRequest requete = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofSeconds(60))
+                                .POST(HttpRequest.BodyPublishers.ofString(corps.get(i++ % corps.size())))
+                                .build();
+                        long envoi = System.nanoTime();
+                        try {
+                            HttpResponse<Void> reponse = http.send(requete, HttpResponse.BodyHandlers.discarding());
+                            if (reponse.statusCode() == 200) {
+                                client.ajouter(System.nanoTime() - envoi);
+                            } else if (reponse.statusCode() == 503) {
+                                rejets.increment();
+                                Thread.sleep(Duration.ofSeconds(reponse.headers()
+                                        .firstValueAsLong("Retry-After").orElse(1)));
+                            } else {
+                                erreurs.increment();
+                                compter(causes, "HTTP " + reponse.statusCode());
+                            }
+                        } catch (IOException e) {
+                            erreurs.increment();
+                            compter(causes, cause(e));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        int total = 0;
+        for (Latences l : latences) {
+            total += l.taille;
+        }
+        long[] toutes = new long[total];
+        int position = 0;
+        for (Latences l : latences) {
+            System.arraycopy(l.valeurs, 0, toutes, position, l.taille);
+            position += l.taille;
+        }
+        Arrays.sort(toutes);
+        return new Resultat(mode, nbClients, total / secondes,
+                centile(toutes, 0.50) / 1e6, centile(toutes, 0.99) / 1e6, rejets.sum(), erreurs.sum(),
+                statusMax.get() / 1e6, fondTermines.sum(), fondRejets.sum(), new TreeMap<>(
+                        causes.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, c -> c.getValue().sum()))));
+    }
+
+    private static void compter(Map<String, LongAdder> causes, String cause) {
+        causes.computeIfAbsent(cause, c -> new LongAdder()).increment();
+    }
+
+    /**
+     * Classe de l'exception et de sa cause ; message d'une {@link IOException} ou d'une
+     * {@link SocketException} générique, qui seul distingue une connexion réinitialisée d'une
+     * connexion fermée.
+     */
+    private static String cause(Throwable e) {
+        String cause = e.getClass().getSimpleName();
+        if ((e.getClass() == IOException.class || e.getClass() == SocketException.class) && e.getMessage() != null) {
+            cause += "(" + e.getMessage() + ")";
+        }
+        if (e.getCause() != null && e.getCause() != e) {
+            cause += "/" + cause(e.getCause());
+        }
+        return cause;
+    }
+
+    /**
+     * Client de fond : enchaîne les requêtes lourdes jusqu'à {@code fin}, en respectant
+     * {@code Retry-After}.
+     */
+    private static void chargerFond(HttpClient http, URI uri, String type, Supplier<String> corps, long fin,
+                                    LongAdder termines, LongAdder rejets) {
+        while (System.nanoTime() < fin) {
+            HttpRequest requete = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", type)
+                    .timeout(Duration.ofSeconds(120))
+                    .POST(HttpRequest.BodyPublishers.ofString(corps.get()))
+                    .build();
+            try {
+                HttpResponse<Void> reponse = http.send(requete, HttpResponse.BodyHandlers.discarding());
+                if (reponse.statusCode() == 503) {
+                    rejets.increment();
+                    Thread.sleep(Duration.ofSeconds(reponse.headers().firstValueAsLong("Retry-After").orElse(1)));
+                } else {
+                    termines.increment();
+                }
+            } catch (IOException e) {
+                rejets.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Requête multi-tombes jamais vue : identifiants de tombes uniques.
+     */
+    private static String requeteLourde(int tombes) {
+        long numero = REQUETES_LOURDES.incrementAndGet();
+        StringBuilder json = new StringBuilder(tombes * 120)
+                .append("{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":1,\"nbGarcons\":1,\"tombes\":[");
+        for (int i = 0; i < tombes; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"identifiant\":\"t").append(numero).append('-').append(i)
+                    .append("\",\"sexeParentPredecede\":\"").append(i % 2 == 0 ? 'M' : 'F')
+                    .append("\",\"lienParente\":\"enfant\",\"nbDescendantsMales\":1,\"nbDescendantesFemelles\":")
+                    .append(i % 3).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String lot() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            ndjson.append(requeteLourde(10)).append('\n');
+        }
+        return ndjson.toString();
+    }
+
+    /**
+     * Interroge {@code /status} toutes les 100 ms jusqu'à {@code fin} et retient la pire latence.
+     */
+    private static void sonderStatus(HttpClient http, URI status, long fin, AtomicLong statusMax) {
+        HttpRequest requete = HttpRequest.newBuilder(status).timeout(Duration.ofSeconds(60)).GET().build();
+        while (System.nanoTime() < fin) {
+            long envoi = System.nanoTime();
+            try {
+                http.send(requete, HttpResponse.BodyHandlers.discarding());
+                statusMax.accumulateAndGet(System.nanoTime() - envoi, Math::max);
+                Thread.sleep(100);
+            } catch (IOException e) {
+                statusMax.accumulateAndGet(System.nanoTime() - envoi, Math::max);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static long centile(long[] triees, double q) {
+        return triees.length == 0 ? 0 : triees[Math.min(triees.length - 1, (int) Math.ceil(q * triees.length) - 1)];
+    }
+
+    /**
+     * Latences d'un client, en nanosecondes ; un seul thread écrit.
+     */
+    private static final class Latences {
+        long[] valeurs = new long[256];
+        int taille;
+
+        void ajouter(long latence) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = latence;
+        }
+    }
+
+    /**
+     * Tas occupé après GC, mémoire résidente du processus et threads vivants.
+     */
+    private record Empreinte(long tas, long rss, int threads) {
+
+        static Empreinte relever() throws IOException {
+            System.gc();
+            System.gc();
+            long tas = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            long rss = 0;
+            for (String ligne : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (ligne.startsWith("VmRSS:")) {
+                    rss = Long.parseLong(ligne.replaceAll("\\D", "")) * 1024;
+                }
+            }
+            return new Empreinte(tas, rss, ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+    }
+
+    private record Ouverture(List<Socket> connexions, long erreurs) {
+    }
+
+    /**
+     * Trafic de fond : clients multi-tombes, clients par lot, tombes par requête multi-tombes.
+     */
+    private record Fond(int lourds, int lots, int tombes) {
+    }
+
+    private record Resultat(String mode, int clients, double debit, double p50Ms, double p99Ms, long rejets,
+                            long erreurs, double statusMaxMs, long fondTermines, long fondRejets,
+                            Map<String, Long> causes) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.model.Fraction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmark des opérations de {@link Fraction} utilisées par le moteur,
+ * comparées à l'ancienne implémentation {@code int} ({@link FractionInt}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FractionBenchmark {
+
+    private List<Fraction> partsFixes;
+    private Fraction a;
+    private Fraction b;
+    private Fraction partCommune;
+
+    private List<FractionInt> partsFixesInt;
+    private FractionInt aInt;
+    private FractionInt bInt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Même forme que la liste des parts fixes de calculPartsInterne
+        partsFixes = List.of(
+                new Fraction(1, 8), new Fraction(1, 6), new Fraction(1, 6),
+                new Fraction(0), new Fraction(0), new Fraction(2, 3), new Fraction(0));
+        a = new Fraction(5, 24);
+        b = new Fraction(7, 36);
+        partCommune = new Fraction(18, 72, true);
+
+        partsFixesInt = List.of(
+                new FractionInt(1, 8), new FractionInt(1, 6), new FractionInt(1, 6),
+                new FractionInt(0, 1), new FractionInt(0, 1), new FractionInt(2, 3), new FractionInt(0, 1));
+        aInt = new FractionInt(5, 24);
+        bInt = new FractionInt(7, 36);
+    }
+
+    @Benchmark
+    public List<Fraction> reduireAuMemDenominateur() {
+        return Fraction.reduireAuMemDenominateur(partsFixes);
+    }
+
+    @Benchmark
+    public Fraction irreductible() {
+        // Chemin de Heritier.getPartIrreductible() à chaque sérialisation JSON
+        return partCommune.irreductible();
+    }
+
+    @Benchmark
+    public Fraction ajouter() {
+        return a.ajouter(b);
+    }
+
+    @Benchmark
+    public Fraction multiplierDiviser() {
+        return a.multiplier(b).diviser(3);
+    }
+
+    @Benchmark
+    public List<FractionInt> reduireAuMemDenominateurInt() {
+        return FractionInt.reduireAuMemDenominateur(partsFixesInt);
+    }
+
+    @Benchmark
+    public FractionInt ajouterInt() {
+        return aInt.ajouter(bInt);
+    }
+
+    @Benchmark
+    public FractionInt multiplierDiviserInt() {
+        return aInt.multiplier(bInt).diviser(3);
+    }
+}
@@ -0,0 +1,64 @@
+package com.med.frida_calculs_app.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ancienne implémentation de Fraction sur {@code int}, sans contrôle de dépassement.
+ * Conservée uniquement comme référence de comparaison dans {@link FractionBenchmark}.
+ */
+final class FractionInt {
+
+    final int numerateur;
+    final int denominateur;
+
+    FractionInt(int numerateur, int denominateur) {
+        this(numerateur, denominateur, false);
+    }
+
+    FractionInt(int numerateur, int denominateur, boolean nonReduire) {
+        if (denominateur == 0) {
+            throw new IllegalArgumentException("Le dénominateur ne peut pas être nul.");
+        }
+        if (!nonReduire) {
+            int gcd = pgcd(Math.abs(numerateur), Math.abs(denominateur));
+            numerateur /= gcd;
+            denominateur /= gcd;
+            if (denominateur < 0) {
+                numerateur = -numerateur;
+                denominateur = -denominateur;
+            }
+        }
+        this.numerateur = numerateur;
+        this.denominateur = denominateur;
+    }
+
+    FractionInt ajouter(FractionInt autre) {
+        return new FractionInt(numerateur * autre.denominateur + autre.numerateur * denominateur,
+                denominateur * autre.denominateur);
+    }
+
+    FractionInt multiplier(FractionInt autre) {
+        return new FractionInt(numerateur * autre.numerateur, denominateur * autre.denominateur);
+    }
+
+    FractionInt diviser(int nombre) {
+        return new FractionInt(numerateur, denominateur * nombre);
+    }
+
+    static List<FractionInt> reduireAuMemDenominateur(List<FractionInt> fractions) {
+        int pmc = 1;
+        for (FractionInt f : fractions) {
+            pmc = pmc * (f.denominateur / pgcd(pmc, f.denominateur));
+        }
+        List<FractionInt> resultat = new ArrayList<>();
+        for (FractionInt f : fractions) {
+            resultat.add(new FractionInt(f.numerateur * (pmc / f.denominateur), pmc, true));
+        }
+        return resultat;
+    }
+
+    private static int pgcd(int a, int b) {
+        return b == 0 ? a : pgcd(b, a % b);
+    }
+}
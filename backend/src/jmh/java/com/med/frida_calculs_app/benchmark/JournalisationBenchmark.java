@@ -0,0 +1,130 @@
+package com.med.frida_calculs_app.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.config.MoteurConfig;
+import com.med.frida_calculs_app.journal.JournalRequetes;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.HeritageResponse;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la journalisation d'une requête de calcul (validation, calcul, réponse), les lignes étant
+ * formatées avec le motif console de l'application puis écrites dans un flux vide :
+ *
+ * <ul>
+ * <li>{@code historique} : lignes INFO de réception et de fin du contrôleur, requête entière en DEBUG
+ * par le validateur, appender synchrone, paquet en DEBUG ;</li>
+ * <li>{@code journal} : {@link JournalRequetes} (une requête sur 100) derrière l'appender
+ * asynchrone, paquet en INFO ;</li>
+ * <li>{@code aucun} : sans journalisation, pour référence.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalisationBenchmark {
+
+    private static final String MOTIF = "%d{HH:mm:ss} %-5level %logger{36} - %msg %kvp{NONE}%n";
+
+    @Param({"historique", "journal", "aucun"})
+    public String journalisation;
+
+    private final Logger controleur = LoggerFactory.getLogger("com.med.frida_calculs_app.CalculsPartsController");
+    private final Logger validation = LoggerFactory.getLogger("com.med.frida_calculs_app.validator.FamilyRequestValidator");
+
+    private ValidateurRequete validateur;
+    private CalculPartsService service;
+    private JournalRequetes journal;
+    private FamilyRequest request;
+    private LoggerContext contexte;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validateur = new ValidateurRequete();
+        service = new CalculPartsService(MoteurConfig.creerMoteur("classique"));
+        journal = new JournalRequetes(Map.of(), 100, Duration.ofMillis(250));
+        request = Scenarios.requete("simple");
+
+        contexte = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexte.reset();
+        PatternLayoutEncoder encodeur = new PatternLayoutEncoder();
+        encodeur.setContext(contexte);
+        encodeur.setPattern(MOTIF);
+        encodeur.start();
+        OutputStreamAppender<ILoggingEvent> vide = new OutputStreamAppender<>();
+        vide.setContext(contexte);
+        vide.setEncoder(encodeur);
+        vide.setOutputStream(OutputStream.nullOutputStream());
+        vide.start();
+
+        Appender<ILoggingEvent> appender = vide;
+        if (journalisation.equals("journal")) {
+            AsyncAppender asynchrone = new AsyncAppender();
+            asynchrone.setContext(contexte);
+            asynchrone.setQueueSize(8192);
+            asynchrone.setIncludeCallerData(false);
+            asynchrone.addAppender(vide);
+            asynchrone.start();
+            appender = asynchrone;
+        }
+        ch.qos.logback.classic.Logger racine = contexte.getLogger(Logger.ROOT_LOGGER_NAME);
+        racine.setLevel(ch.qos.logback.classic.Level.INFO);
+        racine.addAppender(appender);
+        contexte.getLogger("com.med.frida_calculs_app").setLevel(switch (journalisation) {
+            case "historique" -> ch.qos.logback.classic.Level.DEBUG;
+            case "journal" -> ch.qos.logback.classic.Level.INFO;
+            default -> ch.qos.logback.classic.Level.OFF;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexte.stop();
+    }
+
+    @Benchmark
+    public HeritageResponse calcul() {
+        boolean historique = journalisation.equals("historique");
+        long debut = journal.debut();
+        if (historique) {
+            controleur.info(
+                    "Requête de calcul reçue: sexe={}, conjoint={}, père={}, mère={}, filles={}, garçons={}, soeurs={}, frères={}",
+                    request.getSexeDefunt(), request.getNbConjoints(), request.isPereVivant(),
+                    request.isMereVivante(), request.getNbFilles(), request.getNbGarcons(),
+                    request.getNbSoeurs(), request.getNbFreres());
+            validation.debug("Validation de la composition familiale: {}", request);
+        }
+        RequeteNormalisee requete = validateur.valider(request).requete();
+        List<Heritier> heritiers = service.calculParts(requete);
+        HeritageResponse response = HeritageResponse.fromCalculation(
+                requete, heritiers, "Calcul des parts d'héritage effectué avec succès");
+        if (historique) {
+            controleur.info("Calcul terminé: {} héritier(s), dénominateur commun: {}, calcul complet: {}",
+                    response.getNombreHeritiers(), response.getDenominateurCommun(),
+                    response.getCalculComplet());
+        } else if (journalisation.equals("journal")) {
+            journal.terminer("calculerHeritage", debut, 200, null, 0, heritiers.size(), request);
+        }
+        return response;
+    }
+}
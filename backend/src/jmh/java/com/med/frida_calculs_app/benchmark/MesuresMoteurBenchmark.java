@@ -0,0 +1,57 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.config.MoteurConfig;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.CatalogueFormes;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.moteur.MoteurCalcul;
+import com.med.frida_calculs_app.moteur.MoteurClassique;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des métriques de phases et de voies ({@link MesuresMoteur}) : chaque moteur appelé sans
+ * mesures (période 0), puis avec les mesures publiées dans un registre Prometheus, comme en
+ * production, chaque calcul chronométré (période 1) ou un sur 16.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesuresMoteurBenchmark {
+
+    @Param({"simple", "radd"})
+    public String scenario;
+
+    @Param({"classique", "primitif", "formes"})
+    public String moteur;
+
+    @Param({"0", "1", "16"})
+    public int periode;
+
+    private MoteurCalcul calcul;
+    private RequeteNormalisee request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MesuresMoteur m = periode > 0
+                ? new MesuresMoteur(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), periode)
+                : MesuresMoteur.INACTIVES;
+        CatalogueFormes catalogue = "formes".equals(moteur) ? new CatalogueFormes(new MoteurClassique()) : null;
+        calcul = MoteurConfig.creerMoteur(moteur, catalogue, m);
+        request = RequeteNormalisee.de(Scenarios.requete(scenario));
+    }
+
+    @Benchmark
+    public List<Heritier> calculer() {
+        return calcul.calculer(request, Fraction.UN);
+    }
+}
@@ -0,0 +1,49 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.config.MoteurConfig;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MoteurCalcul;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appel direct de {@link MoteurCalcul#calculer}, sans le service ni le cache, pour isoler
+ * les phases hajb / fard / aoul / asaba / radd / assemblage de chaque moteur.
+ *
+ * Les décisions du JIT sur ces phases peuvent être affichées avec :
+ * <pre>
+ * -Djmh.args="MoteurBenchmark -jvmArgsAppend '-XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation -XX:+PrintInlining'"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoteurBenchmark {
+
+    @Param({"simple", "aoul", "radd"})
+    public String scenario;
+
+    @Param({"classique", "primitif"})
+    public String moteur;
+
+    private MoteurCalcul calcul;
+    private RequeteNormalisee request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calcul = MoteurConfig.creerMoteur(moteur);
+        request = RequeteNormalisee.de(Scenarios.requete(scenario));
+    }
+
+    @Benchmark
+    public List<Heritier> calculer() {
+        return calcul.calculer(request, Fraction.UN);
+    }
+}
@@ -0,0 +1,47 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.PartsReduites;
+import com.med.frida_calculs_app.model.ReducteurDenominateurs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réduction au même dénominateur selon la taille de la liste de parts :
+ * {@link ReducteurDenominateurs} (numérateurs + base) contre l'API liste de {@link Fraction}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReductionBenchmark {
+
+    @Param({"7", "1000", "100000"})
+    private int taille;
+
+    private List<Fraction> parts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Dénominateurs typiques des parts de wasiyya : quelques dizaines de valeurs distinctes
+        parts = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            parts.add(new Fraction(1 + i % 7, 24L * (1 + i % 11)));
+        }
+    }
+
+    @Benchmark
+    public PartsReduites reduire() {
+        return ReducteurDenominateurs.reduire(parts);
+    }
+
+    @Benchmark
+    public List<Fraction> reduireAuMemDenominateur() {
+        return Fraction.reduireAuMemDenominateur(parts);
+    }
+}
@@ -0,0 +1,84 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.exception.InvalidFamilyCompositionException;
+import com.med.frida_calculs_app.exception.ReponsesErreur;
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.validator.ResultatValidation;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit des requêtes invalides, de la validation à la réponse 400 : résultat de validation
+ * renvoyé tel quel ({@code resultat}) contre exception sans pile levée puis convertie en
+ * réponse ({@code exception}), chemin des versions précédentes reproduit ici.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequeteInvalideBenchmark {
+
+    private static final String CHEMIN = "/api/v1/heritage/calculate";
+
+    /** Formulaire à moitié rempli, violation de champ, règle métier */
+    @Param({"vide", "champ-invalide", "regle-invalide"})
+    private String payload;
+
+    private FamilyRequest request;
+    private ValidateurRequete validateur;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = switch (payload) {
+            case "vide" -> FamilyRequest.builder().sexeDefunt("M").build();
+            case "champ-invalide" -> FamilyRequest.builder().sexeDefunt("M").nbFilles(-1).nbConjoints(9).build();
+            case "regle-invalide" -> FamilyRequest.builder().sexeDefunt("F").nbConjoints(2).build();
+            default -> throw new IllegalArgumentException(payload);
+        };
+        validateur = new ValidateurRequete();
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> resultat() {
+        ResultatValidation validation = validateur.valider(request);
+        return ReponsesErreur.invalide(validation, CHEMIN);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> exception() {
+        try {
+            exiger(validateur.valider(request));
+            throw new IllegalStateException("Requête valide: " + payload);
+        } catch (ViolationsException e) {
+            return ReponsesErreur.validation(e.violations, CHEMIN);
+        } catch (InvalidFamilyCompositionException e) {
+            return ReponsesErreur.composition(e.getMessage(), CHEMIN);
+        }
+    }
+
+    private static void exiger(ResultatValidation validation) {
+        if (validation.violations() != null) {
+            throw new ViolationsException(validation.violations());
+        }
+        if (!validation.estValide()) {
+            throw new InvalidFamilyCompositionException(validation.erreur());
+        }
+    }
+
+    private static final class ViolationsException extends RuntimeException {
+
+        private final List<ErrorResponse.ValidationError> violations;
+
+        ViolationsException(List<ErrorResponse.ValidationError> violations) {
+            super("Erreur de validation des données", null, false, false);
+            this.violations = violations;
+        }
+    }
+}
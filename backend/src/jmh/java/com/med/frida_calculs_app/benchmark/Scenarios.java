@@ -0,0 +1,78 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Tombe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compositions familiales de référence partagées par les benchmarks.
+ * Chaque scénario cible un chemin précis du moteur de calcul.
+ */
+final class Scenarios {
+
+    private Scenarios() {
+    }
+
+    /**
+     * Construit la requête correspondant au nom de scénario :
+     * simple (asaba des enfants), aoul, radd ou wasiyya (testament obligatoire).
+     */
+    static FamilyRequest requete(String scenario) {
+        return switch (scenario) {
+            // Épouse + père + mère + 2 filles + 1 garçon
+            case "simple" -> FamilyRequest.builder()
+                    .sexeDefunt("M").nbConjoints(1)
+                    .pereVivant(true).mereVivante(true)
+                    .nbFilles(2).nbGarcons(1)
+                    .build();
+            // Époux + mère + 2 soeurs : 1/2 + 1/6 + 2/3 > 1
+            case "aoul" -> FamilyRequest.builder()
+                    .sexeDefunt("F").nbConjoints(1)
+                    .mereVivante(true)
+                    .nbSoeurs(2)
+                    .build();
+            // Mère + 1 fille : reste redistribué
+            case "radd" -> FamilyRequest.builder()
+                    .sexeDefunt("M").nbConjoints(0)
+                    .mereVivante(true)
+                    .nbFilles(1)
+                    .build();
+            // Épouse + mère + 1 fille + petits-enfants d'un fils pré-décédé
+            case "wasiyya" -> FamilyRequest.builder()
+                    .sexeDefunt("M").nbConjoints(1)
+                    .mereVivante(true)
+                    .nbFilles(1)
+                    .nbPetitsFils(2).nbPetitesFilles(1)
+                    .sexeParentPredecede("M")
+                    .build();
+            default -> throw new IllegalArgumentException("Scénario inconnu: " + scenario);
+        };
+    }
+
+    /**
+     * Requête étendue avec {@code nbTombes} tombes alternant enfants / frères-soeurs
+     * et un nombre variable de descendants.
+     */
+    static ExtendedFamilyRequest requeteEtendue(int nbTombes) {
+        List<Tombe> tombes = new ArrayList<>(nbTombes);
+        for (int i = 0; i < nbTombes; i++) {
+            tombes.add(Tombe.builder()
+                    .identifiant("tombe_" + (i + 1))
+                    .lienParente(i % 3 == 2 ? "frere_soeur" : "enfant")
+                    .sexeParentPredecede(i % 2 == 0 ? "M" : "F")
+                    .nbDescendantsMales(1 + i % 3)
+                    .nbDescendantesFemelles(i % 4)
+                    .build());
+        }
+        return ExtendedFamilyRequest.builder()
+                .sexeDefunt("M").nbConjoints(1)
+                .mereVivante(true)
+                .nbFilles(1).nbGarcons(1)
+                .nbFreres(1)
+                .tombes(tombes)
+                .build();
+    }
+}
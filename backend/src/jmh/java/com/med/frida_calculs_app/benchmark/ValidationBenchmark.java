@@ -0,0 +1,70 @@
+package com.med.frida_calculs_app.benchmark;
+
+import com.med.frida_calculs_app.exception.InvalidFamilyCompositionException;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.validator.FamilyRequestValidator;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation d'une requête : chaîne historique (Bean Validation, {@link FamilyRequestValidator},
+ * normalisation) contre {@link ValidateurRequete} en une passe, pour une requête valide, une
+ * violation de champ et une règle métier non respectée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"valide", "champ-invalide", "regle-invalide"})
+    private String payload;
+
+    private FamilyRequest request;
+    private Validator beanValidator;
+    private FamilyRequestValidator chaine;
+    private ValidateurRequete validateur;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = switch (payload) {
+            case "valide" -> Scenarios.requete("wasiyya");
+            case "champ-invalide" -> FamilyRequest.builder().sexeDefunt("M").nbFilles(-1).nbConjoints(9).build();
+            case "regle-invalide" -> FamilyRequest.builder().sexeDefunt("M")
+                    .pereVivant(true).grandPerePaternelVivant(true).build();
+            default -> throw new IllegalArgumentException(payload);
+        };
+        beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+        chaine = new FamilyRequestValidator();
+        validateur = new ValidateurRequete();
+    }
+
+    @Benchmark
+    public Object chaine() {
+        Set<ConstraintViolation<FamilyRequest>> violations = beanValidator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations;
+        }
+        try {
+            chaine.validate(request);
+            chaine.validateIslamicRules(request);
+        } catch (InvalidFamilyCompositionException e) {
+            return e;
+        }
+        return RequeteNormalisee.de(request);
+    }
+
+    @Benchmark
+    public Object compilee() {
+        return validateur.valider(request);
+    }
+}
@@ -0,0 +1,350 @@
+package com.med.frida_calculs_app;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.med.frida_calculs_app.model.*;
+import com.med.frida_calculs_app.validator.ResultatValidation;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcul par lot : lit un tableau JSON ou un flux NDJSON de requêtes et écrit une ligne
+ * NDJSON ({@link LigneLot}) par élément, dans l'ordre de fin de calcul.
+ *
+ * La mémoire reste bornée quelle que soit la taille du lot :
+ * <ul>
+ * <li>les éléments sont lus un par un depuis le flux ;</li>
+ * <li>au plus {@code calcul.lot.en-vol-max} éléments sont en cours ou en attente d'écriture,
+ * la lecture est suspendue au-delà ;</li>
+ * <li>la déduplication ne retient que la position des {@code calcul.lot.dedup-max} derniers éléments
+ * distincts et ne fait que marquer la ligne d'un doublon ({@code doublonDe}) : aucun résultat n'est
+ * conservé par le lot, le doublon est calculé de nouveau. Il ne coûte qu'une lecture si le premier
+ * résultat est encore dans le cache des calculs ou en vol (coalescence), un calcul complet sinon
+ * (cache désactivé ou entrée évincée).</li>
+ * </ul>
+ * Chaque élément donne exactement une ligne, une ligne d'erreur 500 si son calcul n'a pas pu
+ * s'exécuter ou a échoué hors des erreurs prévues.
+ * Les éléments sont calculés par {@code calcul.lot.threads} threads, virtuels avec
+ * {@code spring.threads.virtual.enabled}.
+ * Un élément contenant le champ {@code tombes} est traité comme une requête multi-tombes.
+ */
+@Service
+@Slf4j
+public class CalculLotService {
+
+    static final String CHEMIN = "/api/v1/heritage/calculate-batch";
+
+    private final CalculPartsService calculPartsService;
+    private final CalculPartsEtenduService calculPartsEtenduService;
+    private final ValidateurRequete validateur;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final ExecutorService executor;
+    // Exécuteur du lot vu par Reactor : un calcul peut attendre un calcul partagé ou des phases parallèles
+    private final Scheduler planificateur;
+    private final int enVolMax;
+    private final int dedupMax;
+
+    @Autowired
+    public CalculLotService(CalculPartsService calculPartsService,
+                            CalculPartsEtenduService calculPartsEtenduService,
+                            ValidateurRequete validateur,
+                            ObjectMapper objectMapper,
+                            @Value("${calcul.lot.threads:0}") int threads,
+                            @Value("${calcul.lot.en-vol-max:256}") int enVolMax,
+                            @Value("${calcul.lot.dedup-max:4096}") int dedupMax,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuels) {
+        this.calculPartsService = calculPartsService;
+        this.calculPartsEtenduService = calculPartsEtenduService;
+        this.validateur = validateur;
+        this.objectMapper = objectMapper;
+        // Une ligne NDJSON ne doit pas contenir de retour à la ligne ; le flux de sortie reste ouvert
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.enVolMax = enVolMax;
+        this.dedupMax = dedupMax;
+        // Threads de calcul bornés dans les deux modes : le lot n'occupe pas plus de processeurs que
+        // son couloir n'a de places (calcul.lot.threads)
+        int nbThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadFactory fabrique = threadsVirtuels
+                ? Thread.ofVirtual().name("calcul-lot-", 0).factory()
+                : Thread.ofPlatform().name("calcul-lot").daemon().factory();
+        this.executor = Executors.newFixedThreadPool(nbThreads, fabrique);
+        this.planificateur = Schedulers.fromExecutorService(executor, "calcul-lot");
+        log.info("Calcul par lot: {} thread(s){}, {} élément(s) en vol au maximum",
+                nbThreads, threadsVirtuels ? " virtuels" : "", enVolMax);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Traite le lot lu sur {@code entree} et écrit les lignes de résultat sur {@code sortie}.
+     */
+    public void traiter(InputStream entree, OutputStream sortie) throws IOException {
+        BlockingQueue<LigneLot> terminees = new LinkedBlockingQueue<>();
+        Semaphore permis = new Semaphore(enVolMax);
+        Map<JsonNode, Long> vus = derniersVus();
+
+        long index = 0;
+        long nbDoublons = 0;
+        try (JsonParser parser = objectMapper.createParser(entree)) {
+            JsonToken jeton = parser.nextToken();
+            boolean tableau = jeton == JsonToken.START_ARRAY;
+            if (tableau) {
+                jeton = parser.nextToken();
+            }
+            while (jeton != null && !(tableau && jeton == JsonToken.END_ARRAY)) {
+                JsonNode noeud;
+                try {
+                    noeud = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    // Flux illisible : la suite ne peut pas être découpée en éléments
+                    attendrePermis(permis, terminees, sortie);
+                    terminees.add(ligneErreur(index, HttpStatus.BAD_REQUEST,
+                            "JSON invalide, lecture du lot interrompue: " + e.getOriginalMessage()));
+                    break;
+                }
+                attendrePermis(permis, terminees, sortie);
+
+                long i = index++;
+                Long premier = vus.putIfAbsent(noeud, i);
+                if (premier != null) {
+                    nbDoublons++;
+                }
+                lancer(i, noeud).whenComplete((ligne, erreur) -> terminees.add(terminer(i, premier, ligne, erreur)));
+                ecrireDisponibles(permis, terminees, sortie);
+                jeton = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            attendrePermis(permis, terminees, sortie);
+            terminees.add(ligneErreur(index, HttpStatus.BAD_REQUEST,
+                    "JSON invalide, lecture du lot interrompue: " + e.getOriginalMessage()));
+        }
+
+        // Vidage : tous les permis reviennent quand toutes les lignes sont écrites
+        while (permis.availablePermits() < enVolMax) {
+            ecrire(prendre(terminees), permis, sortie);
+            ecrireDisponibles(permis, terminees, sortie);
+        }
+        sortie.flush();
+        log.info("Lot traité: {} élément(s), dont {} doublon(s)", index, nbDoublons);
+    }
+
+    private CompletableFuture<LigneLot> lancer(long index, JsonNode noeud) {
+        try {
+            return CompletableFuture.supplyAsync(() -> calculer(index, noeud), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Variante réactive de {@link #traiter(InputStream, OutputStream)} : mêmes lignes, même
+     * déduplication. Au plus {@code calcul.lot.en-vol-max} éléments sont en cours, calculés sur
+     * l'exécuteur du lot comme en mode servlet ; la demande du consommateur (écriture de la réponse)
+     * règle la lecture des éléments.
+     */
+    public Flux<LigneLot> traiter(Flux<JsonNode> elements) {
+        return Flux.defer(() -> {
+            AtomicLong lus = new AtomicLong();
+            // Les éléments arrivent un par un : la table n'est jamais lue ni modifiée en concurrence
+            Map<JsonNode, Long> vus = derniersVus();
+            Flux<Mono<LigneLot>> calculs = elements.map(noeud -> {
+                long i = lus.getAndIncrement();
+                Long premier = vus.putIfAbsent(noeud, i);
+                return Mono.fromCallable(() -> calculer(i, noeud))
+                        .subscribeOn(planificateur)
+                        .map(ligne -> terminer(i, premier, ligne, null))
+                        .onErrorResume(e -> Mono.just(terminer(i, premier, null, e)));
+            });
+            return calculs
+                    .onErrorResume(e -> erreurLecture(e) != null, e -> Flux.just(Mono.just(ligneErreur(lus.get(),
+                            HttpStatus.BAD_REQUEST, "JSON invalide, lecture du lot interrompue: " + erreurLecture(e)))))
+                    .flatMap(calcul -> calcul, enVolMax)
+                    .doOnComplete(() -> log.info("Lot traité: {} élément(s)", lus.get()));
+        });
+    }
+
+    /**
+     * Position du premier élément vu pour chaque contenu, en ordre d'accès (LRU).
+     */
+    private Map<JsonNode, Long> derniersVus() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<JsonNode, Long> eldest) {
+                return size() > dedupMax;
+            }
+        };
+    }
+
+    /**
+     * Ligne écrite pour un élément, marquée doublon de {@code premier} s'il y a lieu ; une ligne
+     * d'erreur si le calcul a échoué ({@code erreur} non nul).
+     */
+    private static LigneLot terminer(long index, Long premier, LigneLot ligne, Throwable erreur) {
+        if (erreur != null) {
+            log.error("Élément {} du lot non calculé: {}", index, erreur.toString(), erreur);
+            ligne = ligneErreur(index, HttpStatus.INTERNAL_SERVER_ERROR, "Une erreur inattendue s'est produite");
+        }
+        ligne.setDoublonDe(premier);
+        return ligne;
+    }
+
+    /**
+     * Ligne NDJSON d'un résultat, retour à la ligne compris.
+     */
+    public byte[] ligneNdjson(LigneLot ligne) {
+        try {
+            byte[] json = writer.writeValueAsBytes(ligne);
+            byte[] ligneComplete = Arrays.copyOf(json, json.length + 1);
+            ligneComplete[json.length] = '\n';
+            return ligneComplete;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ligne de lot non sérialisable", e);
+        }
+    }
+
+    /**
+     * Message d'une erreur de lecture du flux d'éléments, éventuellement enveloppée par WebFlux ;
+     * null pour une autre erreur.
+     */
+    private static String erreurLecture(Throwable e) {
+        String message = null;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException json) {
+                return json.getOriginalMessage();
+            }
+            if (cause instanceof DecodingException && message == null) {
+                message = cause.getMessage();
+            }
+        }
+        return message;
+    }
+
+    private void attendrePermis(Semaphore permis, BlockingQueue<LigneLot> terminees, OutputStream sortie)
+            throws IOException {
+        while (!permis.tryAcquire()) {
+            ecrire(prendre(terminees), permis, sortie);
+        }
+    }
+
+    private void ecrireDisponibles(Semaphore permis, BlockingQueue<LigneLot> terminees, OutputStream sortie)
+            throws IOException {
+        LigneLot ligne;
+        boolean ecrit = false;
+        while ((ligne = terminees.poll()) != null) {
+            ecrire(ligne, permis, sortie);
+            ecrit = true;
+        }
+        if (ecrit) {
+            sortie.flush();
+        }
+    }
+
+    private void ecrire(LigneLot ligne, Semaphore permis, OutputStream sortie) throws IOException {
+        writer.writeValue(sortie, ligne);
+        sortie.write('\n');
+        permis.release();
+    }
+
+    private static LigneLot prendre(BlockingQueue<LigneLot> terminees) throws IOException {
+        try {
+            return terminees.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Calcul par lot interrompu", e);
+        }
+    }
+
+    /**
+     * Calcul d'un élément : mêmes validations et même réponse que /calculate et /calculate-extended.
+     */
+    private LigneLot calculer(long index, JsonNode noeud) {
+        try {
+            if (!noeud.isObject()) {
+                return ligneErreur(index, HttpStatus.BAD_REQUEST, "Chaque élément du lot doit être un objet JSON");
+            }
+            boolean etendu = noeud.has("tombes");
+            FamilyRequest request = etendu
+                    ? objectMapper.treeToValue(noeud, ExtendedFamilyRequest.class)
+                    : objectMapper.treeToValue(noeud, FamilyRequest.class);
+
+            ResultatValidation validation = validateur.valider(request);
+            if (validation.violations() != null) {
+                LigneLot ligne = ligneErreur(index, HttpStatus.BAD_REQUEST, "Erreur de validation des données");
+                ligne.getErreur().setValidationErrors(validation.violations());
+                return ligne;
+            }
+            if (!validation.estValide()) {
+                return ligneErreur(index, HttpStatus.BAD_REQUEST, validation.erreur());
+            }
+
+            RequeteNormalisee requete = validation.requete();
+            HeritageResponse response;
+            if (etendu) {
+                CalculPartsEtenduService.CalculEtenduResult result =
+                        calculPartsEtenduService.calculPartsEtendu(requete);
+                response = HeritageResponse.fromCalculation(requete, result.getHeritiers(),
+                        "Calcul étendu multi-tombes effectué avec succès (" + result.getNombreTombes() + " tombe(s))");
+                response.setDetailTombes(result.getDetailTombes());
+                response.setNombreTombes(result.getNombreTombes());
+            } else {
+                response = HeritageResponse.fromCalculation(requete, calculPartsService.calculParts(requete),
+                        "Calcul des parts d'héritage effectué avec succès");
+            }
+            return LigneLot.builder().index(index).resultat(response).build();
+        } catch (JsonProcessingException e) {
+            return ligneErreur(index, HttpStatus.BAD_REQUEST, "Élément illisible: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return ligneErreur(index, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ArithmeticException e) {
+            log.error("Erreur arithmétique sur l'élément {} du lot: {}", index, e.getMessage(), e);
+            return ligneErreur(index, HttpStatus.INTERNAL_SERVER_ERROR, "Erreur de calcul mathématique: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur inattendue sur l'élément {} du lot: {}", index, e.getMessage(), e);
+            return ligneErreur(index, HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Une erreur inattendue s'est produite");
+        }
+    }
+
+    private static LigneLot ligneErreur(long index, HttpStatus statut, String message) {
+        return LigneLot.builder()
+                .index(index)
+                .erreur(ErrorResponse.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(statut.value())
+                        .error(statut.getReasonPhrase())
+                        .message(message)
+                        .path(CHEMIN)
+                        .build())
+                .build();
+    }
+}
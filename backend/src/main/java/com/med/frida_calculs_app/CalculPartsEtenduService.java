@@ -1,13 +1,30 @@
 package com.med.frida_calculs_app;
 
+import com.med.frida_calculs_app.cache.CacheCalculs;
+import com.med.frida_calculs_app.cache.EmpreinteRequete;
 import com.med.frida_calculs_app.enums.HeirType;
+import com.med.frida_calculs_app.enums.LienParente;
+import com.med.frida_calculs_app.enums.Sexe;
 import com.med.frida_calculs_app.model.*;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.profilage.ConsommationRequetes;
+import com.med.frida_calculs_app.profilage.EvenementCalcul;
+import com.med.frida_calculs_app.profilage.EvenementWasiyya;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 /**
  * Service de calcul étendu multi-tombes.
@@ -23,168 +40,338 @@ import java.util.List;
 @Slf4j
 public class CalculPartsEtenduService {
 
+    // Clés de simulation : lien de parenté (enfant, frère/soeur, autre) × sexe (M, F)
+    private static final int NB_CLES_SIMULATION = 6;
+    // Tombes distribuées par tâche en parallèle : deux relevés de consommation par tâche
+    private static final int TOMBES_PAR_TACHE = 64;
+
     private final CalculPartsService calculPartsService;
+    private final CacheCalculs cache;
+    private final int seuilParallele;
+    // Pool des phases parallèles, isolé du pool commun ; null : pool commun
+    private final ForkJoinPool poolParallele;
+    private final Timer tempsSimulation;
+    private final Timer tempsPlafonnement;
+    private final Timer tempsCalculReel;
+    private final Timer tempsDistribution;
+    private final Timer tempsReduction;
 
     @Autowired
-    public CalculPartsEtenduService(CalculPartsService calculPartsService) {
+    public CalculPartsEtenduService(CalculPartsService calculPartsService, CacheCalculs cache,
+                                    MeterRegistry registry,
+                                    @Value("${calcul.etendu.seuil-parallele:256}") int seuilParallele,
+                                    @Value("${calcul.etendu.parallelisme:0}") int parallelisme) {
         this.calculPartsService = calculPartsService;
+        this.cache = cache;
+        this.seuilParallele = seuilParallele;
+        this.poolParallele = parallelisme > 0 ? new ForkJoinPool(parallelisme) : null;
+        this.tempsSimulation = chronometre(registry, "simulation");
+        this.tempsPlafonnement = chronometre(registry, "plafonnement");
+        this.tempsCalculReel = chronometre(registry, "calcul-reel");
+        this.tempsDistribution = chronometre(registry, "distribution");
+        this.tempsReduction = chronometre(registry, "reduction");
+    }
+
+    public CalculPartsEtenduService(CalculPartsService calculPartsService, CacheCalculs cache,
+                                    MeterRegistry registry, int seuilParallele) {
+        this(calculPartsService, cache, registry, seuilParallele, 0);
     }
 
     /**
-     * Point d'entrée principal du calcul multi-tombes.
+     * Service sans cache ni métriques publiées, pour un usage hors contexte Spring.
      */
-    public CalculEtenduResult calculPartsEtendu(ExtendedFamilyRequest request) {
-        List<Tombe> tombes = request.getTombes();
-        
-        if (tombes == null) {
-            tombes = new ArrayList<>();
+    public CalculPartsEtenduService(CalculPartsService calculPartsService) {
+        this(calculPartsService, CacheCalculs.desactive(), Metrics.globalRegistry, 256);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        if (poolParallele != null) {
+            poolParallele.shutdownNow();
         }
+    }
+
+    private static Timer chronometre(MeterRegistry registry, String phase) {
+        return Timer.builder("heritage.etendu.phase")
+                .description("Durée de chaque phase du calcul multi-tombes")
+                .tag("phase", phase)
+                .register(registry);
+    }
 
+    /**
+     * Normalise la requête puis effectue le calcul multi-tombes ; la requête n'est pas modifiée.
+     */
+    public CalculEtenduResult calculPartsEtendu(ExtendedFamilyRequest request) {
+        return calculPartsEtendu(RequeteNormalisee.de(request));
+    }
+
+    /**
+     * Point d'entrée principal du calcul multi-tombes.
+     */
+    public CalculEtenduResult calculPartsEtendu(RequeteNormalisee request) {
         // Filtrer les tombes sans descendants
-        List<Tombe> tombesActives = new ArrayList<>();
-        for (int i = 0; i < tombes.size(); i++) {
-            Tombe t = tombes.get(i);
-            if (t.hasDescendants()) {
-                if (t.getIdentifiant() == null || t.getIdentifiant().isBlank()) {
-                    t.setIdentifiant("tombe_" + (i + 1));
-                }
+        List<TombeNormalisee> tombesActives = new ArrayList<>();
+        for (TombeNormalisee t : request.tombes()) {
+            if (t.aDesDescendants()) {
                 tombesActives.add(t);
             }
         }
 
         // Si aucune tombe active, calcul simple
         if (tombesActives.isEmpty()) {
-            log.info("Aucune tombe active, calcul simple");
+            log.debug("Aucune tombe active, calcul simple");
             List<Heritier> heritiers = calculPartsService.calculParts(request);
             return new CalculEtenduResult(heritiers, null, 0);
         }
 
-        log.info("Calcul étendu avec {} tombe(s)", tombesActives.size());
+        EvenementCalcul evenement = new EvenementCalcul();
+        evenement.begin();
+        CalculEtenduResult resultat = cache.etendu(EmpreinteRequete.etendue(request, tombesActives),
+                () -> calculerTombesActives(request, tombesActives));
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.type = "etendu";
+            calculPartsService.decrire(evenement, request, resultat.getHeritiers());
+            evenement.nombreTombes = tombesActives.size();
+            evenement.wasiyya = true;
+            evenement.commit();
+        }
+        return resultat;
+    }
+
+    /**
+     * Phases 1 à 4 pour les tombes actives.
+     */
+    private CalculEtenduResult calculerTombesActives(RequeteNormalisee request, List<TombeNormalisee> tombesActives) {
+        log.debug("Calcul étendu avec {} tombe(s)", tombesActives.size());
+
+        boolean parallele = tombesActives.size() >= seuilParallele;
+
+        // Simulation et plafonnement forment la phase wasiyya des métriques communes
+        MesuresMoteur mesures = calculPartsService.mesures();
+        long debutWasiyya = mesures.debut();
 
         // --- PHASE 1 : SIMULATION ---
-        List<Fraction> partsSimulees = new ArrayList<>();
-        for (Tombe tombe : tombesActives) {
-            Fraction partSimulee = simulerTombe(request, tombe);
-            partsSimulees.add(partSimulee);
-            log.info("Tombe {} ({}): part simulée = {}/{}", 
-                tombe.getIdentifiant(), tombe.getLienParente(),
-                partSimulee.getNumerateur(), partSimulee.getDenominateur());
-        }
+        long debut = System.nanoTime();
+        int[] cles = new int[tombesActives.size()];
+        int[] occurrences = new int[NB_CLES_SIMULATION];
+        Fraction[] partsSimulees = simulerTombes(request, tombesActives, cles, occurrences, parallele);
+        tempsSimulation.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
 
         // --- PHASE 2 : PLAFONNEMENT GLOBAL À 1/3 ---
-        Fraction unTiers = new Fraction(1, 3);
-        Fraction sommeWasiyya = new Fraction(0);
-        for (Fraction part : partsSimulees) {
-            sommeWasiyya = sommeWasiyya.ajouter(part);
-        }
+        // Les tombes d'une même clé partagent la même part : les sommes se font par clé
+        // (occurrences × part), soit au plus six opérations quel que soit le nombre de tombes.
+        debut = System.nanoTime();
+        Fraction unTiers = Fraction.UN_TIERS;
+        Fraction sommeWasiyya = sommeParCle(partsSimulees, occurrences);
 
         boolean plafonnee = estSuperieur(sommeWasiyya, unTiers);
-        List<Fraction> wasiyyaEffectives = new ArrayList<>();
+        Fraction[] wasiyyaEffectives = new Fraction[NB_CLES_SIMULATION];
 
         if (plafonnee) {
-            log.info("Plafonnement appliqué : somme wasiyya ({}/{}) > 1/3", 
-                sommeWasiyya.getNumerateur(), sommeWasiyya.getDenominateur());
+            log.debug("Plafonnement appliqué : somme wasiyya ({}) > 1/3", sommeWasiyya);
             // Réduction proportionnelle : wasiyya[i] = partSimulée[i] × (1/3) / somme
-            for (Fraction partSim : partsSimulees) {
-                Fraction wasiyya = partSim.multiplier(unTiers.getNumerateur() * sommeWasiyya.getDenominateur())
-                    .diviser(unTiers.getDenominateur() * sommeWasiyya.getNumerateur());
-                wasiyyaEffectives.add(wasiyya);
+            for (int k = 0; k < NB_CLES_SIMULATION; k++) {
+                if (partsSimulees[k] != null) {
+                    wasiyyaEffectives[k] = partsSimulees[k].multiplier(unTiers).diviser(sommeWasiyya);
+                }
             }
         } else {
-            wasiyyaEffectives.addAll(partsSimulees);
+            System.arraycopy(partsSimulees, 0, wasiyyaEffectives, 0, NB_CLES_SIMULATION);
         }
 
         // Somme wasiyya effective finale
-        Fraction wasiyyaTotale = new Fraction(0);
-        for (Fraction w : wasiyyaEffectives) {
-            wasiyyaTotale = wasiyyaTotale.ajouter(w);
-        }
+        Fraction wasiyyaTotale = sommeParCle(wasiyyaEffectives, occurrences);
+
+        tempsPlafonnement.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        mesures.phase(MesuresMoteur.Phase.WASIYYA, debutWasiyya);
+        mesures.wasiyya(plafonnee);
 
         // --- PHASE 3 : CALCUL RÉEL SUR LE RESTE ---
-        Fraction restePourHeritiers = new Fraction(1).soustraire(wasiyyaTotale);
-        log.info("Reste pour héritiers : {}/{}", restePourHeritiers.getNumerateur(), restePourHeritiers.getDenominateur());
+        debut = System.nanoTime();
+        Fraction restePourHeritiers = Fraction.UN.soustraire(wasiyyaTotale);
+        log.debug("Reste pour héritiers : {}", restePourHeritiers);
         
-        List<Heritier> finalResult = calculPartsService.calculPartsInterne(request, restePourHeritiers);
+        List<Heritier> resultatReel = calculPartsService.calculPartsInterne(request, restePourHeritiers);
+        tempsCalculReel.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
 
         // --- PHASE 4 : DISTRIBUTION AUX DESCENDANTS DE CHAQUE TOMBE ---
-        List<TombeDetail> detailTombes = new ArrayList<>();
-
-        for (int i = 0; i < tombesActives.size(); i++) {
-            Tombe tombe = tombesActives.get(i);
-            Fraction wasiyya = wasiyyaEffectives.get(i);
-            Fraction partSim = partsSimulees.get(i);
+        debut = System.nanoTime();
+        List<TombeDetail> detailTombes = new ArrayList<>(tombesActives.size());
+
+        // Les distributions sont indépendantes d'une tombe à l'autre
+        @SuppressWarnings("unchecked")
+        List<Heritier>[] distributions = new List[tombesActives.size()];
+        executer(parallele, tombesActives.size(), TOMBES_PAR_TACHE,
+                i -> distributions[i] = distribuerWasiyya(tombesActives.get(i), wasiyyaEffectives[cles[i]]));
+
+        int nbBeneficiaires = 0;
+        for (List<Heritier> beneficiaires : distributions) {
+            nbBeneficiaires += beneficiaires.size();
+        }
 
-            List<Heritier> beneficiaires = distribuerWasiyya(tombe, wasiyya);
+        // Les bénéficiaires s'insèrent avant la "part restante" : on la retire, on ajoute
+        // tout en fin de liste puis on la remet, sans décalage répété des éléments.
+        List<Heritier> finalResult = new ArrayList<>(resultatReel.size() + nbBeneficiaires);
+        finalResult.addAll(resultatReel);
+        Heritier partRestante = finalResult.isEmpty() ? null : finalResult.remove(finalResult.size() - 1);
 
-            // Insérer les bénéficiaires avant la "part restante" dans le résultat final
-            for (Heritier benef : beneficiaires) {
-                finalResult.add(finalResult.size() - 1, benef);
-            }
+        for (int i = 0; i < tombesActives.size(); i++) {
+            TombeNormalisee tombe = tombesActives.get(i);
+            List<Heritier> beneficiaires = distributions[i];
+            finalResult.addAll(beneficiaires);
 
             detailTombes.add(TombeDetail.builder()
-                .identifiant(tombe.getIdentifiant())
-                .sexeParentPredecede(tombe.getSexeParentPredecede())
-                .lienParente(tombe.getLienParente())
-                .partSimulee(partSim)
-                .wasiyyaEffective(wasiyya)
+                .identifiant(tombe.identifiant())
+                .sexeParentPredecede(tombe.sexe().getCode())
+                .lienParente(tombe.lien().getCode())
+                .partSimulee(partsSimulees[cles[i]])
+                .wasiyyaEffective(wasiyyaEffectives[cles[i]])
                 .plafonnee(plafonnee)
                 .beneficiaires(beneficiaires)
                 .build());
         }
+        if (partRestante != null) {
+            finalResult.add(partRestante);
+        }
+
+        tempsDistribution.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
 
         // Réduction au même dénominateur final
-        List<Fraction> allFractions = new ArrayList<>();
+        debut = System.nanoTime();
+        List<Fraction> allFractions = new ArrayList<>(finalResult.size());
         for (Heritier h : finalResult) {
             allFractions.add(h.getPart());
         }
-        List<Fraction> allFractionsMemeDen = Fraction.reduireAuMemDenominateur(allFractions);
+        PartsReduites allFractionsMemeDen = ReducteurDenominateurs.reduire(allFractions);
         for (int i = 0; i < finalResult.size(); i++) {
-            finalResult.get(i).setPart(allFractionsMemeDen.get(i));
+            finalResult.get(i).setPart(allFractionsMemeDen.fraction(i));
         }
+        tempsReduction.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
 
         return new CalculEtenduResult(finalResult, detailTombes, tombesActives.size());
     }
 
     /**
-     * Simule un héritier pré-décédé comme s'il était vivant et retourne sa part théorique.
+     * Exécute une phase sur les indices de 0 à {@code n} exclu. En parallèle, par tâches de
+     * {@code parTache} indices, dans le pool dédié s'il est configuré (les flux parallèles lancés
+     * depuis un pool s'y exécutent) ; chaque tâche est {@link ConsommationRequetes#deleguee déléguée}
+     * pour que sa consommation hors du thread de la requête lui soit comptée.
      */
-    private Fraction simulerTombe(ExtendedFamilyRequest request, Tombe tombe) {
-        // Créer une copie de la requête pour la simulation
-        FamilyRequest simRequest = FamilyRequest.builder()
-                .sexeDefunt(request.getSexeDefunt())
-                .nbConjoints(request.getNbConjoints())
-                .pereVivant(request.isPereVivant())
-                .mereVivante(request.isMereVivante())
-                .grandPerePaternelVivant(request.isGrandPerePaternelVivant())
-                .grandMerePaternelleVivante(request.isGrandMerePaternelleVivante())
-                .nbFilles(request.getNbFilles() != null ? request.getNbFilles() : 0)
-                .nbGarcons(request.getNbGarcons() != null ? request.getNbGarcons() : 0)
-                .nbSoeurs(request.getNbSoeurs() != null ? request.getNbSoeurs() : 0)
-                .nbFreres(request.getNbFreres() != null ? request.getNbFreres() : 0)
-                .nbOncles(request.getNbOncles() != null ? request.getNbOncles() : 0)
-                .nbCousins(request.getNbCousins() != null ? request.getNbCousins() : 0)
-                .build();
-
-        // Ajouter le fantôme selon le lien de parenté
-        String lien = tombe.getLienParente();
-        String sexe = tombe.getSexeParentPredecede();
-
-        if ("enfant".equalsIgnoreCase(lien)) {
-            if ("M".equalsIgnoreCase(sexe)) {
-                simRequest.setNbGarcons(simRequest.getNbGarcons() + 1);
-            } else {
-                simRequest.setNbFilles(simRequest.getNbFilles() + 1);
+    private void executer(boolean parallele, int n, int parTache, IntConsumer phase) {
+        if (!parallele) {
+            for (int i = 0; i < n; i++) {
+                phase.accept(i);
+            }
+            return;
+        }
+        Runnable[] taches = new Runnable[(n + parTache - 1) / parTache];
+        for (int t = 0; t < taches.length; t++) {
+            int de = t * parTache;
+            int a = Math.min(n, de + parTache);
+            taches[t] = ConsommationRequetes.deleguee(() -> {
+                for (int i = de; i < a; i++) {
+                    phase.accept(i);
+                }
+            });
+        }
+        Runnable parallelisee = () -> Arrays.stream(taches).parallel().forEach(Runnable::run);
+        if (poolParallele != null) {
+            poolParallele.submit(parallelisee).join();
+        } else {
+            parallelisee.run();
+        }
+    }
+
+    /**
+     * Phase 1 : part simulée par clé de simulation.
+     *
+     * La part du fantôme ne dépend que du lien de parenté et du sexe du parent pré-décédé :
+     * chaque clé distincte (au plus six) n'est simulée qu'une fois, en parallèle pour les
+     * grands lots. Remplit {@code cles} (clé de chaque tombe) et {@code occurrences}
+     * (nombre de tombes par clé) ; les clés absentes ont une part nulle ({@code null}).
+     */
+    private Fraction[] simulerTombes(RequeteNormalisee request, List<TombeNormalisee> tombes,
+                                     int[] cles, int[] occurrences, boolean parallele) {
+        TombeNormalisee[] representants = new TombeNormalisee[NB_CLES_SIMULATION];
+        for (int i = 0; i < tombes.size(); i++) {
+            cles[i] = cleSimulation(tombes.get(i));
+            occurrences[cles[i]]++;
+            if (representants[cles[i]] == null) {
+                representants[cles[i]] = tombes.get(i);
+            }
+        }
+
+        Fraction[] parts = new Fraction[NB_CLES_SIMULATION];
+        executer(parallele, NB_CLES_SIMULATION, 1, k -> {
+            if (representants[k] != null) {
+                parts[k] = simulerTombe(request, representants[k], occurrences[k]);
+            }
+        });
+        // Quatre arguments : tableau et boxing évités quand DEBUG est inactif
+        if (log.isDebugEnabled()) {
+            for (int k = 0; k < NB_CLES_SIMULATION; k++) {
+                if (representants[k] != null) {
+                    log.debug("Simulation {} / {} : part simulée = {} ({} tombe(s))",
+                            representants[k].lien(), representants[k].sexe(),
+                            parts[k], occurrences[k]);
+                }
+            }
+            for (int i = 0; i < tombes.size(); i++) {
+                log.debug("Tombe {} ({}): part simulée = {}",
+                        tombes.get(i).identifiant(), tombes.get(i).lien(), parts[cles[i]]);
             }
-        } else if ("frere_soeur".equalsIgnoreCase(lien)) {
-            if ("M".equalsIgnoreCase(sexe)) {
-                simRequest.setNbFreres(simRequest.getNbFreres() + 1);
-            } else {
-                simRequest.setNbSoeurs(simRequest.getNbSoeurs() + 1);
+        }
+        return parts;
+    }
+
+    /**
+     * Somme exacte de {@code occurrences[k] × parts[k]} sur les clés présentes.
+     */
+    private static Fraction sommeParCle(Fraction[] parts, int[] occurrences) {
+        Fraction somme = Fraction.ZERO;
+        for (int k = 0; k < NB_CLES_SIMULATION; k++) {
+            if (parts[k] != null && occurrences[k] > 0) {
+                somme = somme.ajouter(parts[k].multiplier(occurrences[k]));
             }
         }
+        return somme;
+    }
+
+    /**
+     * Clé de simulation d'une tombe : lien de parenté puis sexe.
+     */
+    private static int cleSimulation(TombeNormalisee tombe) {
+        return tombe.lien().ordinal() * 2 + tombe.sexe().ordinal();
+    }
+
+    /**
+     * Simule un héritier pré-décédé comme s'il était vivant et retourne sa part théorique
+     * (événement JFR {@code com.med.frida.SimulationWasiyya} pour les tombes de même clé).
+     */
+    private Fraction simulerTombe(RequeteNormalisee request, TombeNormalisee tombe, int occurrences) {
+        EvenementWasiyya evenement = new EvenementWasiyya();
+        evenement.begin();
+        Fraction part = partSimulee(request, tombe);
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.lienParente = tombe.lien().name();
+            evenement.sexe = tombe.sexe().name();
+            evenement.nombreTombes = occurrences;
+            evenement.partSimulee = part.toString();
+            evenement.commit();
+        }
+        return part;
+    }
+
+    private Fraction partSimulee(RequeteNormalisee request, TombeNormalisee tombe) {
+        // Copie de la composition avec le fantôme ajouté selon le lien de parenté
+        LienParente lien = tombe.lien();
+        Sexe sexe = tombe.sexe();
+        RequeteNormalisee simRequest = request.avecFantome(lien, sexe);
 
         // Lancer la simulation
-        List<Heritier> simResult = calculPartsService.calculPartsInterne(simRequest, new Fraction(1));
+        List<Heritier> simResult = calculPartsService.calculPartsInterne(simRequest, Fraction.UN);
 
         // Extraire la part du fantôme
         String labelRecherche = getLabelFantome(lien, sexe);
@@ -195,24 +382,24 @@ public class CalculPartsEtenduService {
         }
 
         // Si pas trouvé (ex: exclu par hajb), retourner 0
-        log.warn("Part simulée non trouvée pour tombe {} (label={})", tombe.getIdentifiant(), labelRecherche);
-        return new Fraction(0);
+        log.warn("Part simulée non trouvée pour {} / {} (label={})", lien, sexe, labelRecherche);
+        return Fraction.ZERO;
     }
 
     /**
      * Distribue la wasiyya d'une tombe entre ses descendants avec le ratio 2:1 (garçon:fille).
      */
-    private List<Heritier> distribuerWasiyya(Tombe tombe, Fraction wasiyya) {
+    private List<Heritier> distribuerWasiyya(TombeNormalisee tombe, Fraction wasiyya) {
         List<Heritier> beneficiaires = new ArrayList<>();
 
-        int nbMales = tombe.getNbDescendantsMales() != null ? tombe.getNbDescendantsMales() : 0;
-        int nbFemelles = tombe.getNbDescendantesFemelles() != null ? tombe.getNbDescendantesFemelles() : 0;
+        int nbMales = tombe.nbDescendantsMales();
+        int nbFemelles = tombe.nbDescendantesFemelles();
         int totalParts = (nbMales * 2) + nbFemelles;
 
         if (totalParts == 0) return beneficiaires;
 
-        boolean isEnfant = "enfant".equalsIgnoreCase(tombe.getLienParente());
-        String cadreLegal = "الوصية الواجبة - " + tombe.getIdentifiant();
+        boolean isEnfant = tombe.lien() == LienParente.ENFANT;
+        String cadreLegal = "الوصية الواجبة - " + tombe.identifiant();
 
         if (nbMales > 0) {
             Fraction partMale = wasiyya.multiplier(2).diviser(totalParts);
@@ -220,7 +407,7 @@ public class CalculPartsEtenduService {
             Heritier h = new Heritier(type, partMale);
             h.setCadreLegal(cadreLegal);
             h.setPartLegale(partMale);
-            h.setHeritier(type.getLabel() + " (" + tombe.getIdentifiant() + ")");
+            h.setHeritier(type.getLabel() + " (" + tombe.identifiant() + ")");
             beneficiaires.add(h);
         }
 
@@ -230,7 +417,7 @@ public class CalculPartsEtenduService {
             Heritier h = new Heritier(type, partFemelle);
             h.setCadreLegal(cadreLegal);
             h.setPartLegale(partFemelle);
-            h.setHeritier(type.getLabel() + " (" + tombe.getIdentifiant() + ")");
+            h.setHeritier(type.getLabel() + " (" + tombe.identifiant() + ")");
             beneficiaires.add(h);
         }
 
@@ -240,22 +427,20 @@ public class CalculPartsEtenduService {
     /**
      * Retourne le label HeirType à chercher dans le résultat de simulation.
      */
-    private String getLabelFantome(String lienParente, String sexe) {
-        if ("enfant".equalsIgnoreCase(lienParente)) {
-            return "M".equalsIgnoreCase(sexe) ? HeirType.SON.getLabel() : HeirType.DAUGHTER.getLabel();
-        } else if ("frere_soeur".equalsIgnoreCase(lienParente)) {
-            return "M".equalsIgnoreCase(sexe) ? HeirType.BROTHER.getLabel() : HeirType.SISTER.getLabel();
-        }
-        return "";
+    private String getLabelFantome(LienParente lienParente, Sexe sexe) {
+        boolean masculin = sexe == Sexe.MASCULIN;
+        return switch (lienParente) {
+            case ENFANT -> masculin ? HeirType.SON.getLabel() : HeirType.DAUGHTER.getLabel();
+            case FRERE_SOEUR -> masculin ? HeirType.BROTHER.getLabel() : HeirType.SISTER.getLabel();
+            case AUTRE -> "";
+        };
     }
 
     /**
      * Compare deux fractions : retourne true si a > b.
      */
     private boolean estSuperieur(Fraction a, Fraction b) {
-        long val1 = (long) a.getNumerateur() * b.getDenominateur();
-        long val2 = (long) b.getNumerateur() * a.getDenominateur();
-        return val1 > val2;
+        return a.compareTo(b) > 0;
     }
 
     /**
@@ -1,51 +1,69 @@
 package com.med.frida_calculs_app;
 
+import com.med.frida_calculs_app.exception.ReponsesErreur;
+import com.med.frida_calculs_app.model.ErrorResponse;
 import com.med.frida_calculs_app.model.Heritier;
 import com.med.frida_calculs_app.model.FamilyRequest;
 import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
 import com.med.frida_calculs_app.model.HeritageResponse;
-import com.med.frida_calculs_app.validator.FamilyRequestValidator;
+import com.med.frida_calculs_app.model.LigneLot;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.profilage.AttributionRequete;
+import com.med.frida_calculs_app.validator.ResultatValidation;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @RequestMapping("/api/v1/heritage")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @CrossOrigin(origins = "*")
 @Tag(name = "Héritage", description = "API de calcul des parts d'héritage selon la loi islamique")
 public class CalculsPartsController {
 
         private final CalculPartsService calculPartsService;
         private final CalculPartsEtenduService calculPartsEtenduService;
-        private final FamilyRequestValidator validator;
+        private final CalculLotService calculLotService;
+        private final ValidateurRequete validateur;
+        private final MesuresMoteur mesures;
+        private final AtomicBoolean depreciationSignalee = new AtomicBoolean();
 
         @Autowired
         public CalculsPartsController(CalculPartsService calculPartsService,
                         CalculPartsEtenduService calculPartsEtenduService,
-                        FamilyRequestValidator validator) {
+                        CalculLotService calculLotService,
+                        ValidateurRequete validateur,
+                        MesuresMoteur mesures) {
                 this.calculPartsService = calculPartsService;
                 this.calculPartsEtenduService = calculPartsEtenduService;
-                this.validator = validator;
+                this.calculLotService = calculLotService;
+                this.validateur = validateur;
+                this.mesures = mesures;
         }
 
         @GetMapping("/calculs")
         @Tag(name = "Heritage", description = "API pour le calcul des parts d'héritage")
         public List<Heritier> calculParts(String sexe_defunt, boolean conjoint_vivant, boolean pere_vivant,
                         boolean mere_vivante, Integer nb_filles, Integer nb_garcons, Integer nb_soeurs,
-                        Integer nb_freres) {
-                log.info("Calculs");
-
+                        Integer nb_freres, HttpServletRequest httpRequest) {
                 FamilyRequest request = FamilyRequest.builder()
                                 .sexeDefunt(sexe_defunt)
                                 .nbConjoints(conjoint_vivant ? 1 : 0)
@@ -57,39 +75,45 @@ public class CalculsPartsController {
                                 .nbFreres(nb_freres)
                                 .build();
 
-                return calculPartsService.calculParts(request);
+                AttributionRequete.corps(httpRequest, request);
+                List<Heritier> heritiers = calculPartsService.calculParts(request);
+                AttributionRequete.attribuer(httpRequest, 0, heritiers.size());
+                return heritiers;
         }
 
         @PostMapping("/calculate")
         @Operation(summary = "Calculer les parts d'héritage", description = "Calcule les parts d'héritage selon la loi islamique à partir de la composition familiale")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Calcul effectué avec succès", content = @Content(schema = @Schema(implementation = HeritageResponse.class))),
-                        @ApiResponse(responseCode = "400", description = "Données invalides ou composition familiale incorrecte"),
+                        @ApiResponse(responseCode = "400", description = "Données invalides ou composition familiale incorrecte", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                         @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
         })
-        public ResponseEntity<HeritageResponse> calculerHeritage(@Valid @RequestBody FamilyRequest request) {
-                log.info(
-                                "Requête de calcul reçue: sexe={}, conjoint={}, père={}, mère={}, filles={}, garçons={}, soeurs={}, frères={}",
-                                request.getSexeDefunt(), request.getNbConjoints(), request.isPereVivant(),
-                                request.isMereVivante(), request.getNbFilles(), request.getNbGarcons(),
-                                request.getNbSoeurs(), request.getNbFreres());
-
-                // Validation métier
-                validator.validate(request);
-                validator.validateIslamicRules(request);
+        public ResponseEntity<?> calculerHeritage(@RequestBody FamilyRequest request,
+                        HttpServletRequest httpRequest) {
+                // Composition et résultat journalisés par requête échantillonnée, en erreur ou lente
+                AttributionRequete.corps(httpRequest, request);
+
+                // Validation et normalisation : une requête invalide est renvoyée sans lever d'exception
+                long debut = mesures.debut();
+                ResultatValidation validation = validateur.valider(request);
+                mesures.phase(MesuresMoteur.Phase.VALIDATION, debut);
+                if (!validation.estValide()) {
+                        log.debug("Requête invalide: {}", validation);
+                        return ReponsesErreur.invalide(validation, httpRequest.getRequestURI());
+                }
+                RequeteNormalisee requete = validation.requete();
 
                 // Calcul des parts
-                List<Heritier> heritiers = calculPartsService.calculParts(request);
+                List<Heritier> heritiers = calculPartsService.calculParts(requete);
+                AttributionRequete.attribuer(httpRequest, 0, heritiers.size());
 
                 // Construction de la réponse enrichie
+                debut = mesures.debut();
                 HeritageResponse response = HeritageResponse.fromCalculation(
-                                request,
+                                requete,
                                 heritiers,
                                 "Calcul des parts d'héritage effectué avec succès");
-
-                log.info("Calcul terminé: {} héritier(s), dénominateur commun: {}, calcul complet: {}",
-                                response.getNombreHeritiers(), response.getDenominateurCommun(),
-                                response.getCalculComplet());
+                mesures.phase(MesuresMoteur.Phase.REPONSE, debut);
 
                 return ResponseEntity.ok(response);
         }
@@ -102,24 +126,33 @@ public class CalculsPartsController {
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Calcul étendu effectué avec succès",
                                 content = @Content(schema = @Schema(implementation = HeritageResponse.class))),
-                        @ApiResponse(responseCode = "400", description = "Données invalides"),
+                        @ApiResponse(responseCode = "400", description = "Données invalides",
+                                content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
                         @ApiResponse(responseCode = "500", description = "Erreur interne du serveur")
         })
-        public ResponseEntity<HeritageResponse> calculerHeritageEtendu(
-                        @Valid @RequestBody ExtendedFamilyRequest request) {
-                log.info("Requête de calcul ÉTENDU reçue: {} tombe(s)", 
-                        request.getTombes() != null ? request.getTombes().size() : 0);
-
-                // Validation métier de base
-                validator.validate(request);
+        public ResponseEntity<?> calculerHeritageEtendu(
+                        @RequestBody ExtendedFamilyRequest request, HttpServletRequest httpRequest) {
+                AttributionRequete.corps(httpRequest, request);
+
+                // Validation et normalisation : une requête invalide est renvoyée sans lever d'exception
+                long debut = mesures.debut();
+                ResultatValidation validation = validateur.valider(request);
+                mesures.phase(MesuresMoteur.Phase.VALIDATION, debut);
+                if (!validation.estValide()) {
+                        log.debug("Requête invalide: {}", validation);
+                        return ReponsesErreur.invalide(validation, httpRequest.getRequestURI());
+                }
+                RequeteNormalisee requete = validation.requete();
 
                 // Calcul étendu
                 CalculPartsEtenduService.CalculEtenduResult result = 
-                        calculPartsEtenduService.calculPartsEtendu(request);
+                        calculPartsEtenduService.calculPartsEtendu(requete);
+                AttributionRequete.attribuer(httpRequest, result.getNombreTombes(), result.getHeritiers().size());
 
                 // Construction de la réponse enrichie
+                debut = mesures.debut();
                 HeritageResponse response = HeritageResponse.fromCalculation(
-                                request,
+                                requete,
                                 result.getHeritiers(),
                                 "Calcul étendu multi-tombes effectué avec succès (" + 
                                         result.getNombreTombes() + " tombe(s))");
@@ -127,13 +160,34 @@ public class CalculsPartsController {
                 // Ajouter les détails des tombes
                 response.setDetailTombes(result.getDetailTombes());
                 response.setNombreTombes(result.getNombreTombes());
-
-                log.info("Calcul étendu terminé: {} héritier(s), {} tombe(s)",
-                                response.getNombreHeritiers(), result.getNombreTombes());
+                mesures.phase(MesuresMoteur.Phase.REPONSE, debut);
 
                 return ResponseEntity.ok(response);
         }
 
+        @PostMapping(value = "/calculate-batch",
+                consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Calcul par lot (NDJSON)",
+                description = "Accepte un tableau JSON ou un flux NDJSON de requêtes simples ou multi-tombes " +
+                        "(présence du champ tombes). Un élément identique à un élément précédent est marqué doublonDe " +
+                        "(position du premier) mais calculé de nouveau : l'économie vient du cache des calculs " +
+                        "ou du calcul identique en vol, pas du lot. " +
+                        "Une ligne NDJSON est renvoyée par élément dès que son calcul est terminé, avec son index " +
+                        "et soit le résultat, soit l'erreur propre à cet élément.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Flux NDJSON des résultats",
+                                content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                        schema = @Schema(implementation = LigneLot.class)))
+        })
+        public ResponseEntity<StreamingResponseBody> calculerLot(InputStream corps) {
+                log.info("Requête de calcul par lot reçue");
+                StreamingResponseBody flux = sortie -> calculLotService.traiter(corps, sortie);
+                return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .body(flux);
+        }
+
         @PostMapping("/calculs")
         @Operation(summary = "[Déprécié] Calculer les parts d'héritage", description = "Endpoint déprécié. Utilisez /calculate à la place.", deprecated = true)
         @ApiResponses({
@@ -141,9 +195,20 @@ public class CalculsPartsController {
                         @ApiResponse(responseCode = "400", description = "Requête invalide"),
                         @ApiResponse(responseCode = "500", description = "Erreur serveur")
         })
-        public ResponseEntity<HeritageResponse> calculerHeritageDeprecated(@Valid @RequestBody FamilyRequest request) {
-                log.warn("Utilisation de l'endpoint déprécié /calculs. Utilisez /calculate à la place.");
-                return calculerHeritage(request);
+        public ResponseEntity<?> calculerHeritageDeprecated(@RequestBody FamilyRequest request,
+                        HttpServletRequest httpRequest) {
+                signalerDepreciation();
+                return calculerHeritage(request, httpRequest);
+        }
+
+        /**
+         * Avertissement de l'endpoint déprécié, une seule fois : chaque appel reste journalisé
+         * sous sa méthode ({@code calculerHeritageDeprecated}).
+         */
+        private void signalerDepreciation() {
+                if (depreciationSignalee.compareAndSet(false, true)) {
+                        log.warn("Utilisation de l'endpoint déprécié /calculs. Utilisez /calculate à la place.");
+                }
         }
 
         @GetMapping("/status")
@@ -0,0 +1,45 @@
+package com.med.frida_calculs_app;
+
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.FormeDescription;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.CatalogueFormes;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RequestMapping("/api/v1/heritage/formes")
+@RestController
+@CrossOrigin(origins = "*")
+@Tag(name = "Formes", description = "Audit des formules fermées par forme de composition familiale")
+public class FormesController {
+
+        private final CatalogueFormes catalogueFormes;
+
+        @Autowired
+        public FormesController(CatalogueFormes catalogueFormes) {
+                this.catalogueFormes = catalogueFormes;
+        }
+
+        @GetMapping("/{code}")
+        @Operation(summary = "Formules d'une forme",
+                description = "Retourne les formules de part individuelle de la forme (code entre 0 et "
+                        + (CatalogueFormes.NB_FORMES - 1) + ")")
+        public ResponseEntity<FormeDescription> forme(@PathVariable int code) {
+                return ResponseEntity.ok(catalogueFormes.forme(code).decrire());
+        }
+
+        @PostMapping("/classer")
+        @Operation(summary = "Classer une composition familiale",
+                description = "Détermine la forme d'une composition familiale et retourne ses formules")
+        public ResponseEntity<FormeDescription> classer(@Valid @RequestBody FamilyRequest request) {
+                int code = CatalogueFormes.coder(RequeteNormalisee.de(request));
+                log.debug("Classement de forme: code={}", code);
+                return ResponseEntity.ok(catalogueFormes.forme(code).decrire());
+        }
+}
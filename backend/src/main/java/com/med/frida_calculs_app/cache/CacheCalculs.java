@@ -0,0 +1,214 @@
+package com.med.frida_calculs_app.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.med.frida_calculs_app.CalculPartsEtenduService.CalculEtenduResult;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.TombeDetail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache borné (LRU approché, Caffeine) des résultats de calcul, indexé par
+ * {@link EmpreinteRequete}.
+ *
+ * Les résultats exposés étant mutables ({@link Heritier}), chaque appel retourne une copie :
+ * la valeur en cache n'est jamais partagée avec l'appelant. Les statistiques (hits, misses,
+ * évictions, taille) sont publiées dans Micrometer sous {@code cache.*}, avec le tag
+ * {@code cache=heritage.calculate} ou {@code cache=heritage.calculate-extended}.
+ *
+ * En cas d'absence, les appels simultanés d'une même clé partagent un seul calcul
+ * ({@link Coalescence}, {@code calcul.coalescence.enabled}), y compris cache désactivé.
+ */
+@Component
+@Slf4j
+public class CacheCalculs {
+
+    private final Cache<Long, List<Heritier>> simples;
+    private final Cache<EmpreinteRequete.CleEtendue, CalculEtenduResult> etendus;
+    private final Coalescence<Long, List<Heritier>> simplesEnVol;
+    private final Coalescence<EmpreinteRequete.CleEtendue, CalculEtenduResult> etendusEnVol;
+
+    @Autowired
+    public CacheCalculs(@Value("${calcul.cache.enabled:true}") boolean actif,
+                        @Value("${calcul.cache.taille-max:10000}") long tailleMax,
+                        @Value("${calcul.cache.taille-max-etendu:1000}") long tailleMaxEtendu,
+                        @Value("${calcul.coalescence.enabled:true}") boolean coalescence,
+                        MeterRegistry registry) {
+        if (coalescence && registry != null) {
+            this.simplesEnVol = new Coalescence<>("heritage.calculate", registry);
+            this.etendusEnVol = new Coalescence<>("heritage.calculate-extended", registry);
+        } else {
+            this.simplesEnVol = null;
+            this.etendusEnVol = null;
+        }
+        if (!actif) {
+            log.info("Cache des calculs désactivé");
+            this.simples = null;
+            this.etendus = null;
+            return;
+        }
+        this.simples = Caffeine.newBuilder().maximumSize(tailleMax).recordStats().build();
+        this.etendus = Caffeine.newBuilder().maximumSize(tailleMaxEtendu).recordStats().build();
+        if (registry != null) {
+            CaffeineCacheMetrics.monitor(registry, simples, "heritage.calculate");
+            CaffeineCacheMetrics.monitor(registry, etendus, "heritage.calculate-extended");
+        }
+        log.info("Cache des calculs activé: {} requêtes simples, {} requêtes étendues", tailleMax, tailleMaxEtendu);
+    }
+
+    public CacheCalculs(boolean actif, long tailleMax, long tailleMaxEtendu, MeterRegistry registry) {
+        this(actif, tailleMax, tailleMaxEtendu, true, registry);
+    }
+
+    /**
+     * Cache et coalescence inactifs, pour un usage des services hors contexte Spring.
+     */
+    public static CacheCalculs desactive() {
+        return new CacheCalculs(false, 0, 0, false, null);
+    }
+
+    public boolean isActif() {
+        return simples != null;
+    }
+
+    /**
+     * Résultat d'une requête simple : depuis le cache si présent, sinon calculé (ou attendu s'il
+     * est déjà en cours) puis mis en cache. Une clé {@code null} (requête non représentable)
+     * court-circuite cache et coalescence.
+     */
+    public List<Heritier> simple(Long cle, Supplier<List<Heritier>> calcul) {
+        if (cle == null) {
+            return calcul.get();
+        }
+        if (simples == null) {
+            return simplesEnVol == null ? calcul.get()
+                    : simplesEnVol.partager(cle, calcul, h -> copier(h, new IdentityHashMap<>()));
+        }
+        List<Heritier> resultat = simples.getIfPresent(cle);
+        if (resultat == null) {
+            Supplier<List<Heritier>> calculEtMiseEnCache = () -> {
+                List<Heritier> heritiers = calcul.get();
+                simples.put(cle, heritiers);
+                return heritiers;
+            };
+            resultat = simplesEnVol == null ? calculEtMiseEnCache.get()
+                    : simplesEnVol.partager(cle, calculEtMiseEnCache, UnaryOperator.identity());
+        }
+        // La valeur en cache, ou partagée, n'est jamais rendue telle quelle
+        return copier(resultat, new IdentityHashMap<>());
+    }
+
+    /**
+     * Variante sans attente de {@link #simple} : futur terminé, sauf si un calcul identique est déjà
+     * en vol sur un autre thread ; le futur se termine alors avec lui. Le calcul éventuel s'exécute
+     * sur le thread appelant.
+     */
+    public CompletableFuture<List<Heritier>> simpleAsync(Long cle, Supplier<List<Heritier>> calcul) {
+        if (cle == null || (simples == null && simplesEnVol == null)) {
+            return calculer(calcul);
+        }
+        if (simples == null) {
+            return simplesEnVol.partagerAsync(cle, calcul, h -> copier(h, new IdentityHashMap<>()));
+        }
+        List<Heritier> resultat = simples.getIfPresent(cle);
+        if (resultat != null) {
+            return CompletableFuture.completedFuture(copier(resultat, new IdentityHashMap<>()));
+        }
+        Supplier<List<Heritier>> calculEtMiseEnCache = () -> {
+            List<Heritier> heritiers = calcul.get();
+            simples.put(cle, heritiers);
+            return heritiers;
+        };
+        CompletableFuture<List<Heritier>> calculPartage = simplesEnVol == null ? calculer(calculEtMiseEnCache)
+                : simplesEnVol.partagerAsync(cle, calculEtMiseEnCache, UnaryOperator.identity());
+        return calculPartage.thenApply(h -> copier(h, new IdentityHashMap<>()));
+    }
+
+    private static <V> CompletableFuture<V> calculer(Supplier<V> calcul) {
+        try {
+            return CompletableFuture.completedFuture(calcul.get());
+        } catch (RuntimeException | Error e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Résultat d'une requête multi-tombes, même principe que {@link #simple}.
+     */
+    public CalculEtenduResult etendu(EmpreinteRequete.CleEtendue cle, Supplier<CalculEtenduResult> calcul) {
+        if (cle == null) {
+            return calcul.get();
+        }
+        if (etendus == null) {
+            return etendusEnVol == null ? calcul.get()
+                    : etendusEnVol.partager(cle, calcul, CacheCalculs::copier);
+        }
+        CalculEtenduResult resultat = etendus.getIfPresent(cle);
+        if (resultat == null) {
+            Supplier<CalculEtenduResult> calculEtMiseEnCache = () -> {
+                CalculEtenduResult r = calcul.get();
+                etendus.put(cle, r);
+                return r;
+            };
+            resultat = etendusEnVol == null ? calculEtMiseEnCache.get()
+                    : etendusEnVol.partager(cle, calculEtMiseEnCache, UnaryOperator.identity());
+        }
+        return copier(resultat);
+    }
+
+    private static CalculEtenduResult copier(CalculEtenduResult resultat) {
+        // Les bénéficiaires des tombes sont les mêmes objets que dans la liste des héritiers
+        Map<Heritier, Heritier> copies = new IdentityHashMap<>();
+        List<Heritier> heritiers = copier(resultat.getHeritiers(), copies);
+        List<TombeDetail> details = null;
+        if (resultat.getDetailTombes() != null) {
+            details = new ArrayList<>(resultat.getDetailTombes().size());
+            for (TombeDetail d : resultat.getDetailTombes()) {
+                details.add(TombeDetail.builder()
+                        .identifiant(d.getIdentifiant())
+                        .sexeParentPredecede(d.getSexeParentPredecede())
+                        .lienParente(d.getLienParente())
+                        .partSimulee(d.getPartSimulee())
+                        .wasiyyaEffective(d.getWasiyyaEffective())
+                        .plafonnee(d.isPlafonnee())
+                        .beneficiaires(copier(d.getBeneficiaires(), copies))
+                        .build());
+            }
+        }
+        return new CalculEtenduResult(heritiers, details, resultat.getNombreTombes());
+    }
+
+    private static List<Heritier> copier(List<Heritier> heritiers, Map<Heritier, Heritier> copies) {
+        if (heritiers == null) {
+            return null;
+        }
+        List<Heritier> resultat = new ArrayList<>(heritiers.size());
+        for (Heritier h : heritiers) {
+            resultat.add(copies.computeIfAbsent(h, CacheCalculs::copier));
+        }
+        return resultat;
+    }
+
+    // Les Fraction sont immuables, une copie superficielle suffit
+    private static Heritier copier(Heritier h) {
+        Heritier copie = new Heritier(h.getHeritier());
+        copie.setBaseCalcul(h.getBaseCalcul());
+        copie.setPart(h.getPart());
+        copie.setPartLegale(h.getPartLegale());
+        copie.setCadreLegal(h.getCadreLegal());
+        return copie;
+    }
+}
@@ -0,0 +1,86 @@
+package com.med.frida_calculs_app.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Calculs en vol partagés entre appelants simultanés (« single flight ») : le premier appelant
+ * d'une clé calcule, ceux qui arrivent avant la fin attendent son résultat au lieu de refaire le
+ * calcul.
+ *
+ * Le calcul partagé s'exécute sur le thread de son premier appelant ; {@link #partagerAsync} permet
+ * aux suivants de composer son futur au lieu de l'attendre (boucle d'événements du déploiement réactif).
+ *
+ * Aucun verrou global : la table des calculs en vol est une {@link ConcurrentHashMap} de futures,
+ * et le calcul s'exécute hors de la table. Le compteur {@code heritage.coalescence.partages}
+ * (tag {@code calcul}) compte les appels servis par un calcul déjà en vol, la jauge
+ * {@code heritage.coalescence.en-vol} le nombre de calculs en cours.
+ */
+final class Coalescence<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enVol = new ConcurrentHashMap<>();
+    private final Counter partages;
+
+    Coalescence(String calcul, MeterRegistry registry) {
+        this.partages = Counter.builder("heritage.coalescence.partages")
+                .description("Appels servis par un calcul identique déjà en cours")
+                .tag("calcul", calcul)
+                .register(registry);
+        Gauge.builder("heritage.coalescence.en-vol", enVol, ConcurrentHashMap::size)
+                .description("Calculs en cours pouvant être partagés")
+                .tag("calcul", calcul)
+                .register(registry);
+    }
+
+    /**
+     * Résultat du calcul de {@code cle} : calculé par cet appelant s'il est le premier, sinon celui
+     * du calcul en vol, passé par {@code copie}. Une exception du calcul est relancée chez tous les
+     * appelants qui l'attendaient.
+     */
+    V partager(K cle, Supplier<V> calcul, UnaryOperator<V> copie) {
+        return attendre(partagerAsync(cle, calcul, copie));
+    }
+
+    /**
+     * Variante sans attente de {@link #partager} : le premier appelant calcule sur son thread et
+     * reçoit un futur terminé ; les suivants reçoivent, sans bloquer, le futur du calcul en vol
+     * suivi de {@code copie}. Une exception du calcul termine les futurs en erreur.
+     */
+    CompletableFuture<V> partagerAsync(K cle, Supplier<V> calcul, UnaryOperator<V> copie) {
+        CompletableFuture<V> futur = new CompletableFuture<>();
+        CompletableFuture<V> existant = enVol.putIfAbsent(cle, futur);
+        if (existant != null) {
+            partages.increment();
+            return existant.thenApply(copie);
+        }
+        try {
+            futur.complete(calcul.get());
+        } catch (RuntimeException | Error e) {
+            futur.completeExceptionally(e);
+        } finally {
+            enVol.remove(cle, futur);
+        }
+        return futur;
+    }
+
+    private static <V> V attendre(CompletableFuture<V> futur) {
+        try {
+            return futur.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.med.frida_calculs_app.cache;
+
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.model.TombeNormalisee;
+
+import java.util.List;
+
+/**
+ * Empreintes canoniques des requêtes, utilisées comme clés du cache de résultats.
+ *
+ * Une requête simple tient dans un long : sexe du défunt (1 bit), sexe du parent
+ * pré-décédé (1 bit), les quatre ascendants (4 bits) puis les neuf effectifs sur 6 bits
+ * chacun. Les requêtes dont un effectif sort de [0, 63] ne sont pas mises en cache.
+ */
+public final class EmpreinteRequete {
+
+    private static final int BITS_EFFECTIF = 6;
+    private static final int EFFECTIF_MAX = (1 << BITS_EFFECTIF) - 1;
+
+    private EmpreinteRequete() {
+    }
+
+    /**
+     * Clé d'une requête multi-tombes : empreinte de la composition familiale et tombes actives.
+     *
+     * Les tombes restent dans l'ordre de la requête : leur ordre et leurs identifiants
+     * apparaissent tels quels dans le résultat.
+     */
+    public record CleEtendue(long base, String tombes) {
+    }
+
+    /**
+     * Empreinte d'une requête simple, ou {@code null} si elle n'est pas représentable.
+     */
+    public static Long simple(RequeteNormalisee request) {
+        long base = base(request);
+        return base < 0 ? null : base;
+    }
+
+    /**
+     * Empreinte d'une requête multi-tombes réduite à ses tombes actives, ou {@code null}
+     * si elle n'est pas représentable.
+     */
+    public static CleEtendue etendue(RequeteNormalisee request, List<TombeNormalisee> tombesActives) {
+        long base = base(request);
+        if (base < 0) {
+            return null;
+        }
+        StringBuilder tombes = new StringBuilder(tombesActives.size() * 24);
+        for (TombeNormalisee t : tombesActives) {
+            tombes.append(t.identifiant()).append('\u001F')
+                    .append(t.sexe().getCode()).append('\u001F')
+                    .append(t.lien().getCode()).append('\u001F')
+                    .append(t.nbDescendantsMales()).append('\u001F')
+                    .append(t.nbDescendantesFemelles()).append('\u001E');
+        }
+        return new CleEtendue(base, tombes.toString());
+    }
+
+    private static long base(RequeteNormalisee request) {
+        long cle = request.defuntMasculin() ? 1 : 0;
+        cle = (cle << 1) | (request.sexeParentPredecede() == Sexe.MASCULIN ? 1 : 0);
+        cle = (cle << 1) | (request.pereVivant() ? 1 : 0);
+        cle = (cle << 1) | (request.mereVivante() ? 1 : 0);
+        cle = (cle << 1) | (request.grandPerePaternelVivant() ? 1 : 0);
+        cle = (cle << 1) | (request.grandMerePaternelleVivante() ? 1 : 0);
+
+        int[] effectifs = {
+                request.nbConjoints(), request.nbFilles(), request.nbGarcons(),
+                request.nbSoeurs(), request.nbFreres(), request.nbOncles(),
+                request.nbCousins(), request.nbPetitsFils(), request.nbPetitesFilles()
+        };
+        for (int n : effectifs) {
+            if (n < 0 || n > EFFECTIF_MAX) {
+                return -1;
+            }
+            cle = (cle << BITS_EFFECTIF) | n;
+        }
+        return cle;
+    }
+}
@@ -0,0 +1,77 @@
+package com.med.frida_calculs_app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.surcharge.Couloir;
+import com.med.frida_calculs_app.surcharge.FiltreCouloirs;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+
+/**
+ * Couloirs des endpoints de calcul (déploiement servlet) : interactif ({@code /calculate}), étendu
+ * ({@code /calculate-extended}) et lot ({@code /calculate-batch}), chacun avec ses places, son
+ * attente maximale et sa part de la limite adaptative ({@code calcul.couloirs.*}).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "calcul.couloirs.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CouloirsConfig {
+
+    private static final String BASE = "/api/v1/heritage";
+
+    @Bean
+    public Couloir couloirInteractif(@Value("${calcul.couloirs.interactif.permis:64}") int permis,
+                                     @Value("${calcul.couloirs.interactif.attente-max-ms:0}") long attenteMaxMs,
+                                     @Value("${calcul.couloirs.interactif.part-limite:1.0}") double partLimite,
+                                     MeterRegistry registry) {
+        return couloir("interactif", permis, attenteMaxMs, partLimite, registry);
+    }
+
+    @Bean
+    public Couloir couloirEtendu(@Value("${calcul.couloirs.etendu.permis:4}") int permis,
+                                 @Value("${calcul.couloirs.etendu.attente-max-ms:100}") long attenteMaxMs,
+                                 @Value("${calcul.couloirs.etendu.part-limite:0.5}") double partLimite,
+                                 MeterRegistry registry) {
+        return couloir("etendu", permis, attenteMaxMs, partLimite, registry);
+    }
+
+    @Bean
+    public Couloir couloirLot(@Value("${calcul.couloirs.lot.permis:2}") int permis,
+                              @Value("${calcul.couloirs.lot.attente-max-ms:0}") long attenteMaxMs,
+                              MeterRegistry registry) {
+        // Le lot n'est pas soumis à la limite adaptative : sa part n'a pas d'effet
+        return couloir("lot", permis, attenteMaxMs, 1.0, registry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FiltreCouloirs> filtreCouloirs(
+            Couloir couloirInteractif, Couloir couloirEtendu, Couloir couloirLot, ObjectMapper objectMapper,
+            @Value("${calcul.limite.retry-after:1}") long retryAfter) {
+        Map<String, Couloir> couloirs = Map.of(
+                BASE + "/calculate", couloirInteractif,
+                BASE + "/calculate-extended", couloirEtendu,
+                BASE + "/calculate-batch", couloirLot);
+        FilterRegistrationBean<FiltreCouloirs> enregistrement =
+                new FilterRegistrationBean<>(new FiltreCouloirs(couloirs, objectMapper, retryAfter));
+        enregistrement.addUrlPatterns(couloirs.keySet().toArray(String[]::new));
+        // Avant la limite adaptative, qui lit la part du couloir
+        enregistrement.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return enregistrement;
+    }
+
+    private static Couloir couloir(String nom, int permis, long attenteMaxMs, double partLimite,
+                                   MeterRegistry registry) {
+        log.info("Couloir {}: {} place(s), attente max {} ms, part de la limite {}",
+                nom, permis, attenteMaxMs, partLimite);
+        return new Couloir(nom, permis, attenteMaxMs, partLimite, registry);
+    }
+}
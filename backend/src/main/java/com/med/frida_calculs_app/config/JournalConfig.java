@@ -0,0 +1,76 @@
+package com.med.frida_calculs_app.config;
+
+import com.med.frida_calculs_app.journal.FiltreJournalReactif;
+import com.med.frida_calculs_app.journal.IntercepteurJournal;
+import com.med.frida_calculs_app.journal.JournalRequetes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Journal échantillonné des requêtes de l'API ({@code calcul.journal.*}) : une ligne clé/valeur par
+ * requête retenue, toujours pour les erreurs serveur et les requêtes lentes. Les configurations
+ * imbriquées, trouvées aussi par le scan des composants, portent la même condition.
+ */
+@Configuration
+@ConditionalOnProperty(name = "calcul.journal.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class JournalConfig {
+
+    private static final String BASE = "/api/v1/heritage";
+
+    /**
+     * Échantillonnage par méthode de contrôleur : {@code calcul.journal.methodes.<methode>}, à défaut
+     * {@code calcul.journal.echantillonnage}.
+     */
+    @Bean
+    public JournalRequetes journalRequetes(Environment environment,
+                                           @Value("${calcul.journal.echantillonnage:100}") int echantillonnage,
+                                           @Value("${calcul.journal.seuil-lent-ms:250}") long seuilLentMs) {
+        Map<String, Integer> parMethode = Binder.get(environment)
+                .bind("calcul.journal.methodes", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        log.info("Journal des requêtes: une sur {} ({} par méthode), détail au-delà de {} ms",
+                echantillonnage, parMethode, seuilLentMs);
+        return new JournalRequetes(parMethode, echantillonnage, Duration.ofMillis(seuilLentMs));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "calcul.journal.enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class JournalServlet implements WebMvcConfigurer {
+
+        private final JournalRequetes journalRequetes;
+
+        JournalServlet(JournalRequetes journalRequetes) {
+            this.journalRequetes = journalRequetes;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new IntercepteurJournal(journalRequetes)).addPathPatterns(BASE + "/**");
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "calcul.journal.enabled", havingValue = "true", matchIfMissing = true)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class JournalReactif {
+
+        @Bean
+        public FiltreJournalReactif filtreJournalReactif(JournalRequetes journalRequetes) {
+            return new FiltreJournalReactif(journalRequetes);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.med.frida_calculs_app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.surcharge.FiltreLimiteConcurrence;
+import com.med.frida_calculs_app.surcharge.LimiteAdaptative;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Limite de concurrence adaptative devant {@code /calculate} et {@code /calculate-extended}
+ * (déploiement servlet). {@code /calculate-batch} règle déjà sa concurrence par
+ * {@code calcul.lot.en-vol-max} ; {@code /status} et l'actuator ne sont jamais limités.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "calcul.limite.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LimiteConcurrenceConfig {
+
+    @Bean
+    public LimiteAdaptative limiteCalculs(@Value("${calcul.limite.initiale:20}") int initiale,
+                                          @Value("${calcul.limite.min:4}") int min,
+                                          @Value("${calcul.limite.max:200}") int max,
+                                          MeterRegistry registry) {
+        log.info("Limite de concurrence adaptative: initiale {}, bornes [{}, {}]", initiale, min, max);
+        return new LimiteAdaptative(initiale, min, max, "calculs", registry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FiltreLimiteConcurrence> filtreLimiteConcurrence(
+            LimiteAdaptative limiteCalculs, ObjectMapper objectMapper,
+            @Value("${calcul.limite.retry-after:1}") long retryAfter) {
+        FilterRegistrationBean<FiltreLimiteConcurrence> enregistrement =
+                new FilterRegistrationBean<>(new FiltreLimiteConcurrence(limiteCalculs, objectMapper, retryAfter));
+        enregistrement.addUrlPatterns("/api/v1/heritage/calculate", "/api/v1/heritage/calculate-extended");
+        // Juste après les couloirs : une requête rejetée ne coûte presque rien
+        enregistrement.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return enregistrement;
+    }
+}
@@ -0,0 +1,81 @@
+package com.med.frida_calculs_app.config;
+
+import com.med.frida_calculs_app.moteur.CatalogueFormes;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.moteur.MoteurCalcul;
+import com.med.frida_calculs_app.moteur.MoteurClassique;
+import com.med.frida_calculs_app.moteur.MoteurFormes;
+import com.med.frida_calculs_app.moteur.MoteurPrimitif;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class MoteurConfig {
+
+    @Value("${calcul.moteur:classique}")
+    private String typeMoteur;
+
+    /**
+     * Catalogue des formules par forme, utilisé par le moteur « formes » et par l'API d'audit.
+     */
+    @Bean
+    public CatalogueFormes catalogueFormes() {
+        long debut = System.nanoTime();
+        CatalogueFormes catalogue = new CatalogueFormes(new MoteurClassique());
+        log.info("Catalogue de {} formes compilé en {} ms", CatalogueFormes.NB_FORMES,
+                (System.nanoTime() - debut) / 1_000_000);
+        return catalogue;
+    }
+
+    /**
+     * Durées des phases et voies de résolution ({@code heritage.phase}, {@code heritage.voie},
+     * {@code heritage.wasiyya}) ; inactives si {@code calcul.metriques.enabled=false}.
+     */
+    @Bean
+    public MesuresMoteur mesuresMoteur(MeterRegistry registry,
+                                       @Value("${calcul.metriques.enabled:true}") boolean actives,
+                                       @Value("${calcul.metriques.echantillonnage:1}") int echantillonnage) {
+        return actives ? new MesuresMoteur(registry, echantillonnage) : MesuresMoteur.INACTIVES;
+    }
+
+    @Bean
+    public MoteurCalcul moteurCalcul(CatalogueFormes catalogueFormes, MesuresMoteur mesuresMoteur) {
+        MoteurCalcul moteur = creerMoteur(typeMoteur, catalogueFormes, mesuresMoteur);
+        log.info("Moteur de calcul: {}", moteur.getClass().getSimpleName());
+        return moteur;
+    }
+
+    /**
+     * Instancie le moteur correspondant à la valeur de {@code calcul.moteur}.
+     */
+    public static MoteurCalcul creerMoteur(String type) {
+        return creerMoteur(type, null);
+    }
+
+    /**
+     * Variante réutilisant un catalogue de formes déjà compilé (compilé à la demande sinon).
+     */
+    public static MoteurCalcul creerMoteur(String type, CatalogueFormes catalogue) {
+        return creerMoteur(type, catalogue, MesuresMoteur.INACTIVES);
+    }
+
+    /**
+     * Variante instrumentée : le moteur et son moteur de repli publient leurs mesures dans
+     * {@code mesures}.
+     */
+    public static MoteurCalcul creerMoteur(String type, CatalogueFormes catalogue, MesuresMoteur mesures) {
+        MoteurClassique classique = new MoteurClassique(mesures);
+        return switch (type.trim().toLowerCase()) {
+            case "classique" -> classique;
+            case "primitif" -> new MoteurPrimitif(classique, mesures);
+            case "formes" -> new MoteurFormes(catalogue != null ? catalogue : new CatalogueFormes(new MoteurClassique()),
+                    classique, mesures);
+            default -> throw new IllegalStateException(
+                    "Moteur de calcul inconnu: '" + type + "'. Valeurs acceptées: classique, primitif, formes");
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.med.frida_calculs_app.config;
+
+import com.med.frida_calculs_app.profilage.ConsommationRequetes;
+import com.med.frida_calculs_app.profilage.EnregistrementJfrEndpoint;
+import com.med.frida_calculs_app.profilage.FiltreConsommation;
+import com.med.frida_calculs_app.profilage.FiltreLatencesReactif;
+import com.med.frida_calculs_app.profilage.IntercepteurLatences;
+import com.med.frida_calculs_app.profilage.LatencesEndpoint;
+import com.med.frida_calculs_app.profilage.LatencesHeritage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@Slf4j
+public class ProfilageConfig {
+
+    private static final String BASE = "/api/v1/heritage";
+
+    // Méthodes de contrôleur dont les latences sont suivies ; calculParts et calculerHeritageDeprecated
+    // sont les endpoints dépréciés /calculs (GET et POST)
+    private static final List<String> METHODES_SUIVIES = List.of(
+            "calculerHeritage", "calculerHeritageEtendu", "calculerHeritageDeprecated", "calculParts");
+
+    /**
+     * Enregistrement JFR à la demande ({@code /actuator/jfr}), créé seulement si l'endpoint est
+     * exposé et accessible.
+     */
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public EnregistrementJfrEndpoint enregistrementJfrEndpoint(
+            @Value("${calcul.jfr.duree-defaut:60}") int dureeDefaut,
+            @Value("${calcul.jfr.duree-max:600}") int dureeMax,
+            @Value("${calcul.jfr.taille-max-mo:64}") int tailleMaxMo) {
+        return new EnregistrementJfrEndpoint(dureeDefaut, dureeMax, tailleMaxMo);
+    }
+
+    /**
+     * Temps CPU et allocations par requête ({@code heritage.requete.cpu},
+     * {@code heritage.requete.allocation}) ; inactifs si {@code calcul.consommation.enabled=false}.
+     */
+    @Bean
+    public ConsommationRequetes consommationRequetes(MeterRegistry registry,
+                                                     @Value("${calcul.consommation.enabled:true}") boolean actives) {
+        return actives ? new ConsommationRequetes(registry) : ConsommationRequetes.INACTIVE;
+    }
+
+    /**
+     * Latences et SLO des méthodes suivies : {@code calcul.slo.<methode>.latence-ms} et
+     * {@code calcul.slo.<methode>.objectif}, ce dernier à défaut {@code calcul.slo.objectif}.
+     */
+    @Bean
+    public LatencesHeritage latencesHeritage(Environment environment,
+                                             @Value("${calcul.slo.tranche-s:10}") int trancheSecondes,
+                                             @Value("${calcul.slo.fenetres-min:1,5}") List<Integer> fenetresMinutes,
+                                             @Value("${calcul.slo.fenetre-budget-min:60}") int fenetreBudgetMinutes,
+                                             @Value("${calcul.slo.objectif:0.999}") double objectif) {
+        Map<String, LatencesHeritage.Slo> slos = new LinkedHashMap<>();
+        for (String methode : METHODES_SUIVIES) {
+            String prefixe = "calcul.slo." + methode + ".";
+            slos.put(methode, new LatencesHeritage.Slo(
+                    Duration.ofMillis(environment.getProperty(prefixe + "latence-ms", Long.class, 100L)),
+                    environment.getProperty(prefixe + "objectif", Double.class, objectif)));
+        }
+        log.info("SLO de latence: {}, fenêtres {} min, budget sur {} min", slos, fenetresMinutes, fenetreBudgetMinutes);
+        return new LatencesHeritage(slos, Duration.ofSeconds(trancheSecondes), fenetresMinutes, fenetreBudgetMinutes);
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public LatencesEndpoint latencesEndpoint(LatencesHeritage latencesHeritage) {
+        return new LatencesEndpoint(latencesHeritage);
+    }
+
+    /**
+     * Déploiement servlet : latences des méthodes suivies, relevé de consommation des endpoints de
+     * calcul synchrones. Le lot, calculé sur d'autres threads que celui de la requête, n'est pas
+     * relevé.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ProfilageServlet implements WebMvcConfigurer {
+
+        private final LatencesHeritage latencesHeritage;
+
+        ProfilageServlet(LatencesHeritage latencesHeritage) {
+            this.latencesHeritage = latencesHeritage;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new IntercepteurLatences(latencesHeritage)).addPathPatterns(BASE + "/**");
+        }
+
+        @Bean
+        public FilterRegistrationBean<FiltreConsommation> filtreConsommation(
+                ConsommationRequetes consommationRequetes,
+                @Value("${calcul.consommation.entete:false}") boolean entete) {
+            Map<String, String> endpoints = Map.of(
+                    BASE + "/calculate", "calculate",
+                    BASE + "/calculate-extended", "calculate-extended",
+                    BASE + "/calculs", "calculs");
+            FilterRegistrationBean<FiltreConsommation> enregistrement =
+                    new FilterRegistrationBean<>(new FiltreConsommation(consommationRequetes, endpoints, entete));
+            enregistrement.addUrlPatterns(endpoints.keySet().toArray(String[]::new));
+            // Après les couloirs et la limite adaptative : seules les requêtes admises sont relevées
+            enregistrement.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+            return enregistrement;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ProfilageReactif {
+
+        @Bean
+        public FiltreLatencesReactif filtreLatencesReactif(LatencesHeritage latencesHeritage) {
+            return new FiltreLatencesReactif(latencesHeritage);
+        }
+    }
+}
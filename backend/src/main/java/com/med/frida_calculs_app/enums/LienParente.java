@@ -0,0 +1,45 @@
+package com.med.frida_calculs_app.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Lien de parenté entre le défunt et un héritier pré-décédé (tombe).
+ */
+public enum LienParente {
+    ENFANT("enfant"),
+    FRERE_SOEUR("frere_soeur"),
+    /** Lien sans simulation possible : la part simulée est nulle */
+    AUTRE("autre");
+
+    private final String code;
+
+    LienParente(String code) {
+        this.code = code;
+    }
+
+    @JsonValue
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Lien correspondant au code, sans tenir compte de la casse ; {@link #AUTRE} pour un
+     * code absent ou inconnu.
+     */
+    public static LienParente fromCode(String code) {
+        if (code != null) {
+            String normalizedCode = code.trim();
+            for (LienParente lien : values()) {
+                if (lien.code.equalsIgnoreCase(normalizedCode)) {
+                    return lien;
+                }
+            }
+        }
+        return AUTRE;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -23,6 +23,23 @@ public enum Sexe {
         if (code == null) {
             throw new IllegalArgumentException("Le sexe du défunt ne peut pas être null");
         }
+        Sexe sexe = decoder(code);
+        if (sexe == null) {
+            throw new IllegalArgumentException(
+                "Sexe invalide: '" + code + "'. Valeurs acceptées: M, F, Masculin, Feminin"
+            );
+        }
+        return sexe;
+    }
+
+    /**
+     * Sexe correspondant au code (M, F ou nom complet, sans tenir compte de la casse),
+     * ou {@code null} si le code est absent ou invalide.
+     */
+    public static Sexe decoder(String code) {
+        if (code == null) {
+            return null;
+        }
 
         String normalizedCode = code.trim().toUpperCase();
 
@@ -39,10 +56,7 @@ public enum Sexe {
         if ("FEMININ".equals(normalizedCode) || "FEMME".equals(normalizedCode)) {
             return FEMININ;
         }
-
-        throw new IllegalArgumentException(
-            "Sexe invalide: '" + code + "'. Valeurs acceptées: M, F, Masculin, Feminin"
-        );
+        return null;
     }
 
     @Override
@@ -3,6 +3,7 @@ package com.med.frida_calculs_app.exception;
 import com.med.frida_calculs_app.model.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -17,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class GlobalExceptionHandler {
 
@@ -46,16 +48,7 @@ public class GlobalExceptionHandler {
             log.warn("  - Champ '{}': {} (valeur: {})", fieldName, message, rejectedValue);
         });
 
-        ErrorResponse errorResponse = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
-                .message("Erreur de validation des données")
-                .path(request.getRequestURI())
-                .validationErrors(validationErrors)
-                .build();
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return ReponsesErreur.validation(validationErrors, request.getRequestURI());
     }
 
     /**
@@ -67,16 +60,7 @@ public class GlobalExceptionHandler {
             HttpServletRequest request) {
 
         log.warn("Composition familiale invalide: {}", ex.getMessage());
-
-        ErrorResponse errorResponse = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return ReponsesErreur.composition(ex.getMessage(), request.getRequestURI());
     }
 
     /**
@@ -129,7 +113,9 @@ public class GlobalExceptionHandler {
             ArithmeticException ex,
             HttpServletRequest request) {
 
-        log.error("Erreur arithmétique: {}", ex.getMessage(), ex);
+        // Pile au niveau debug : une requête pathologique répétée ne doit pas inonder les logs
+        log.error("Erreur arithmétique: {}", ex.getMessage());
+        log.debug("Pile de l'erreur arithmétique", ex);
 
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
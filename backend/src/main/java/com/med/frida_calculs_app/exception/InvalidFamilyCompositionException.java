@@ -1,9 +1,15 @@
 package com.med.frida_calculs_app.exception;
 
+/**
+ * Règle métier non respectée par la composition familiale.
+ *
+ * Sans cause, l'exception ne capture pas de pile : elle décrit la requête, pas le code, et
+ * peut être levée à chaque requête invalide.
+ */
 public class InvalidFamilyCompositionException extends RuntimeException {
 
     public InvalidFamilyCompositionException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public InvalidFamilyCompositionException(String message, Throwable cause) {
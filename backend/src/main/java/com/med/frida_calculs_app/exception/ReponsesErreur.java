@@ -0,0 +1,94 @@
+package com.med.frida_calculs_app.exception;
+
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.validator.ResultatValidation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Réponses 400 d'une requête invalide, construites sans exception : utilisées directement par
+ * les contrôleurs à partir d'un {@link ResultatValidation}, et par {@link GlobalExceptionHandler}
+ * pour les exceptions qui restent levées ailleurs. Également les réponses 413 d'un corps trop
+ * volumineux et 503 d'une requête rejetée par surcharge.
+ */
+public final class ReponsesErreur {
+
+    static final String MESSAGE_VALIDATION = "Erreur de validation des données";
+
+    private ReponsesErreur() {
+    }
+
+    /**
+     * Réponse d'une requête rejetée par {@link com.med.frida_calculs_app.validator.ValidateurRequete}.
+     */
+    public static ResponseEntity<ErrorResponse> invalide(ResultatValidation resultat, String chemin) {
+        return resultat.violations() != null
+                ? validation(resultat.violations(), chemin)
+                : composition(resultat.erreur(), chemin);
+    }
+
+    /**
+     * Violations de champ : même réponse que pour {@code @Valid}.
+     */
+    public static ResponseEntity<ErrorResponse> validation(List<ErrorResponse.ValidationError> violations,
+                                                           String chemin) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(MESSAGE_VALIDATION)
+                .path(chemin)
+                .validationErrors(violations)
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Règle métier non respectée : le message de la règle.
+     */
+    public static ResponseEntity<ErrorResponse> composition(String message, String chemin) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(message)
+                .path(chemin)
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Corps de requête au-delà de la taille admise.
+     */
+    public static ResponseEntity<ErrorResponse> tropVolumineux(String message, String chemin) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .error(HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase())
+                .message(message)
+                .path(chemin)
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Requête rejetée par la limite de concurrence, à renvoyer plus tard.
+     */
+    public static ResponseEntity<ErrorResponse> surcharge(String chemin) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("Service surchargé, veuillez réessayer")
+                .path(chemin)
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
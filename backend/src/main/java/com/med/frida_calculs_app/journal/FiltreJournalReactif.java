@@ -0,0 +1,42 @@
+package com.med.frida_calculs_app.journal;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Journalise chaque requête traitée par un contrôleur (déploiement réactif) dans
+ * {@link JournalRequetes}, à la fin de l'écriture de la réponse. Le corps, lu en flux, n'est pas
+ * gardé : le détail d'une requête en erreur ou lente se limite à sa méthode, son statut et sa durée.
+ */
+public class FiltreJournalReactif implements WebFilter {
+
+    private final JournalRequetes journal;
+
+    public FiltreJournalReactif(JournalRequetes journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long debut = journal.debut();
+        // Une requête annulée par le client n'est pas journalisée
+        return chain.filter(exchange).doOnEach(signal -> {
+            if (signal.isOnComplete() || signal.isOnError()) {
+                terminer(exchange, debut, signal.getThrowable());
+            }
+        });
+    }
+
+    private void terminer(ServerWebExchange exchange, long debut, Throwable erreur) {
+        if (exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod methode) {
+            HttpStatusCode statut = exchange.getResponse().getStatusCode();
+            journal.terminer(methode.getMethod().getName(), debut, statut != null ? statut.value() : 200, erreur,
+                    -1, -1, null);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.med.frida_calculs_app.journal;
+
+import com.med.frida_calculs_app.profilage.AttributionRequete;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Journalise chaque requête traitée par un contrôleur (déploiement servlet) dans
+ * {@link JournalRequetes}, avec ce que le contrôleur en a noté par {@link AttributionRequete}. Une
+ * réponse asynchrone (flux du lot) est journalisée à la fin du flux, sa durée comptée depuis la
+ * première prise en charge.
+ */
+public class IntercepteurJournal implements HandlerInterceptor {
+
+    private static final String DEBUT = IntercepteurJournal.class.getName() + ".DEBUT";
+
+    private final JournalRequetes journal;
+
+    public IntercepteurJournal(JournalRequetes journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(DEBUT, journal.debut());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(DEBUT) instanceof Long debut && handler instanceof HandlerMethod methode) {
+            journal.terminer(methode.getMethod().getName(), debut, response.getStatus(), ex,
+                    AttributionRequete.tombes(request), AttributionRequete.heritiers(request),
+                    AttributionRequete.corps(request));
+        }
+    }
+}
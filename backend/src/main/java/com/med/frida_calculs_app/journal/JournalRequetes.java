@@ -0,0 +1,94 @@
+package com.med.frida_calculs_app.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Une ligne de journal par requête, en champs clé/valeur ({@code methode}, {@code statut},
+ * {@code dureeUs}, {@code tombes}, {@code heritiers}...) :
+ *
+ * <ul>
+ * <li>erreur serveur (exception ou statut 5xx) : toujours, en ERROR, avec le corps de la requête et
+ * la pile ;</li>
+ * <li>erreur client (4xx) ou requête plus lente que le seuil : toujours, en WARN, avec le corps ;</li>
+ * <li>sinon une requête sur N de la méthode (N = 0 : aucune), en INFO, sans le corps. Le champ
+ * {@code echantillon} donne N, pour extrapoler les décomptes.</li>
+ * </ul>
+ *
+ * Une requête hors échantillon ne coûte qu'un tirage : rien n'est alloué ni formaté. Les champs
+ * sont formatés par l'appender (asynchrone, voir {@code logback-spring.xml}), hors du thread de la
+ * requête ; file chargée, il écarte les lignes INFO et garde toujours WARN et ERROR.
+ */
+@Slf4j
+public final class JournalRequetes {
+
+    private final Map<String, Integer> echantillonnage;
+    private final int echantillonnageDefaut;
+    private final long seuilLentNanos;
+
+    /**
+     * @param echantillonnage une requête journalisée sur N, par méthode de contrôleur
+     * @param echantillonnageDefaut N des méthodes absentes de {@code echantillonnage}
+     * @param seuilLent durée au-delà de laquelle une requête est toujours journalisée en détail
+     */
+    public JournalRequetes(Map<String, Integer> echantillonnage, int echantillonnageDefaut, Duration seuilLent) {
+        this.echantillonnage = Map.copyOf(echantillonnage);
+        this.echantillonnageDefaut = echantillonnageDefaut;
+        this.seuilLentNanos = seuilLent.toNanos();
+        if (echantillonnageDefaut < 0 || this.echantillonnage.values().stream().anyMatch(n -> n < 0)) {
+            throw new IllegalArgumentException("Échantillonnage du journal invalide: " + echantillonnage);
+        }
+    }
+
+    public long debut() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Journalise une requête terminée.
+     * @param tombes nombre de tombes, négatif si inconnu
+     * @param heritiers nombre d'héritiers, négatif si inconnu
+     * @param corps corps de la requête, pour le détail ({@code null} si absent)
+     */
+    public void terminer(String methode, long debut, int statut, Throwable erreur,
+                         int tombes, int heritiers, Object corps) {
+        long duree = System.nanoTime() - debut;
+        LoggingEventBuilder ligne;
+        boolean detail = true;
+        int echantillon = 1;
+        if (erreur != null || statut >= 500) {
+            ligne = log.atError().setCause(erreur);
+        } else if (statut >= 400 || duree > seuilLentNanos) {
+            ligne = log.atWarn();
+        } else {
+            echantillon = echantillonnage.getOrDefault(methode, echantillonnageDefaut);
+            if (echantillon == 0 || !log.isInfoEnabled()
+                    || (echantillon > 1 && ThreadLocalRandom.current().nextInt(echantillon) != 0)) {
+                return;
+            }
+            ligne = log.atInfo();
+            detail = false;
+        }
+        ligne.addKeyValue("methode", methode)
+                .addKeyValue("statut", statut)
+                .addKeyValue("dureeUs", duree / 1000);
+        if (tombes >= 0) {
+            ligne.addKeyValue("tombes", tombes);
+        }
+        if (heritiers >= 0) {
+            ligne.addKeyValue("heritiers", heritiers);
+        }
+        if (detail) {
+            if (corps != null) {
+                ligne.addKeyValue("corps", corps);
+            }
+        } else {
+            ligne.addKeyValue("echantillon", echantillon);
+        }
+        ligne.log("requete");
+    }
+}
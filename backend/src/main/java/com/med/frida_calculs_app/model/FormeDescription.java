@@ -0,0 +1,53 @@
+package com.med.frida_calculs_app.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Forme d'une composition familiale et formules fermées des parts associées")
+public class FormeDescription {
+
+    @Schema(description = "Code de la forme (0 à nombreFormes - 1)", example = "1093")
+    private int code;
+
+    @Schema(description = "Caractéristiques de la forme : classes présentes et effectifs significatifs",
+            example = "sexe=M, conjoint, mere, filles=1, garcons>=1")
+    private String caracteristiques;
+
+    @Schema(description = "Formule de la part individuelle de chaque héritier, dans l'ordre du résultat")
+    private List<FormuleHeritier> formules;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Part individuelle = partGroupe × poids ÷ diviseur")
+    public static class FormuleHeritier {
+
+        @Schema(description = "Type d'héritier", example = "garçon")
+        private String heritier;
+
+        @Schema(description = "Cadre légal du partage")
+        private String cadreLegal;
+
+        @Schema(description = "Part totale revenant à la classe (ou au groupe asaba 2:1)")
+        private Fraction partGroupe;
+
+        @Schema(description = "Poids individuel dans le groupe (2 pour un homme dans un partage 2:1)", example = "2")
+        private int poids;
+
+        @Schema(description = "Diviseur en fonction des effectifs", example = "2·nbGarcons + nbFilles")
+        private String diviseur;
+
+        @Schema(description = "Formule lisible de la part individuelle", example = "7/24 × 2 ÷ (2·nbGarcons + nbFilles)")
+        private String formule;
+    }
+}
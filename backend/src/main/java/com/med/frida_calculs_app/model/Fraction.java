@@ -1,147 +1,426 @@
 package com.med.frida_calculs_app.model;
 
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
-@Data
-public class Fraction {
-    /**
-     * Objet mathématique, avec les opérations de base.
-     */
-    private int numerateur;
-    private int denominateur;
+/**
+ * Objet mathématique exact et immuable, avec les opérations de base.
+ *
+ * Le numérateur et le dénominateur sont stockés en {@code long} et les opérations
+ * sont contrôlées ({@link Math#multiplyExact}, {@link Math#addExact}).
+ * En cas de dépassement, la fraction bascule sur {@link BigInteger} ;
+ * elle revient en {@code long} dès que le résultat y tient à nouveau.
+ *
+ * Les fractions irréductibles de [0, 1] de dénominateur au plus {@link #POOL_DENOMINATEUR_MAX}
+ * (dont toutes les parts coraniques) sont des instances canoniques partagées :
+ * {@link #de(long, long)} et les opérations les retournent sans allocation.
+ * equals / hashCode comparent la valeur, comme {@link #compareTo} : 2/4 (non réduite) est égale
+ * à 1/2. {@link #toString()} et la sérialisation gardent la représentation.
+ */
+@JsonSerialize(using = Fraction.Serialiseur.class)
+public final class Fraction implements Comparable<Fraction> {
+
+    private final long numerateur;
+    private final long denominateur;
+
+    // Non nuls uniquement lorsque la valeur ne tient pas en long
+    private final BigInteger grandNumerateur;
+    private final BigInteger grandDenominateur;
+
+    // Forme irréductible, calculée à la première demande (course bénigne : même valeur)
+    private Fraction irreductible;
+
+    public static final int POOL_DENOMINATEUR_MAX = 24;
 
-    public Fraction() {
+    // POOL[d][n] = n/d pour pgcd(n, d) = 1, null sinon
+    private static final Fraction[][] POOL = new Fraction[POOL_DENOMINATEUR_MAX + 1][];
+
+    static {
+        for (int d = 1; d <= POOL_DENOMINATEUR_MAX; d++) {
+            POOL[d] = new Fraction[d + 1];
+            for (int n = 0; n <= d; n++) {
+                if (calculPGCD(n, d) == 1) {
+                    POOL[d][n] = new Fraction(n, d, true);
+                }
+            }
+        }
     }
 
+    public static final Fraction ZERO = de(0, 1);
+    public static final Fraction UN = de(1, 1);
+    public static final Fraction UN_DEMI = de(1, 2);
+    public static final Fraction UN_TIERS = de(1, 3);
+    public static final Fraction DEUX_TIERS = de(2, 3);
+    public static final Fraction UN_QUART = de(1, 4);
+    public static final Fraction UN_SIXIEME = de(1, 6);
+    public static final Fraction UN_HUITIEME = de(1, 8);
+
+    public Fraction(long numerateur, long denominateur) { // avec simplification de la fraction
+        this(numerateur, denominateur, false);
+    }
 
-    public Fraction(int numerateur, int denominateur) { // avec simplification de la fraction
+    public Fraction(long numerateur, long denominateur, boolean nonReduire) {
         if (denominateur == 0) {
             throw new IllegalArgumentException("Le dénominateur ne peut pas être nul.");
         }
-        this.numerateur = numerateur;
-        this.denominateur = denominateur;
-            reduire(); // On réduit la fraction dès l'instanciation
-
+        boolean extreme = numerateur == Long.MIN_VALUE || denominateur == Long.MIN_VALUE;
+        if (extreme && (!nonReduire || denominateur < 0)) {
+            // Math.abs et la négation de Long.MIN_VALUE débordent : on passe par BigInteger (chemin froid)
+            Fraction f = new Fraction(BigInteger.valueOf(numerateur), BigInteger.valueOf(denominateur), nonReduire);
+            this.numerateur = f.numerateur;
+            this.denominateur = f.denominateur;
+            this.grandNumerateur = f.grandNumerateur;
+            this.grandDenominateur = f.grandDenominateur;
+        } else {
+            if (!nonReduire) { // On réduit la fraction dès l'instanciation
+                long gcd = calculPGCD(Math.abs(numerateur), Math.abs(denominateur));
+                numerateur /= gcd;
+                denominateur /= gcd;
+            }
+            // Gestion du signe pour avoir un dénominateur positif
+            if (denominateur < 0) {
+                numerateur = -numerateur;
+                denominateur = -denominateur;
+            }
+            this.numerateur = numerateur;
+            this.denominateur = denominateur;
+            this.grandNumerateur = null;
+            this.grandDenominateur = null;
+        }
     }
-    public Fraction(int numerateur, int denominateur, boolean nonReduire) {
+
+    /**
+     * Fraction réduite n/d : instance canonique du pool si elle en fait partie, sans allocation.
+     */
+    public static Fraction de(long numerateur, long denominateur) {
         if (denominateur == 0) {
             throw new IllegalArgumentException("Le dénominateur ne peut pas être nul.");
         }
-        this.numerateur = numerateur;
-        this.denominateur = denominateur;
-        if (!nonReduire) {
-            reduire(); // On réduit la fraction dès l'instanciation
+        if (numerateur == Long.MIN_VALUE || denominateur == Long.MIN_VALUE) {
+            return new Fraction(numerateur, denominateur);
+        }
+        long gcd = calculPGCD(Math.abs(numerateur), Math.abs(denominateur));
+        long n = numerateur / gcd;
+        long d = denominateur / gcd;
+        if (d < 0) {
+            n = -n;
+            d = -d;
+        }
+        if (d <= POOL_DENOMINATEUR_MAX && n >= 0 && n <= d) {
+            return POOL[(int) d][(int) n];
         }
+        return new Fraction(n, d, true);
     }
-    public Fraction(int numerateur) {
+
+    public static Fraction de(long entier) {
+        return de(entier, 1);
+    }
+
+    public Fraction(long numerateur) {
         this(numerateur, 1);
     }
 
+    public Fraction(BigInteger numerateur, BigInteger denominateur) {
+        this(numerateur, denominateur, false);
+    }
+
+    public Fraction(BigInteger numerateur, BigInteger denominateur, boolean nonReduire) {
+        if (denominateur.signum() == 0) {
+            throw new IllegalArgumentException("Le dénominateur ne peut pas être nul.");
+        }
+        if (!nonReduire) {
+            BigInteger pgcd = numerateur.gcd(denominateur);
+            if (pgcd.signum() != 0 && !BigInteger.ONE.equals(pgcd)) {
+                numerateur = numerateur.divide(pgcd);
+                denominateur = denominateur.divide(pgcd);
+            }
+        }
+        if (denominateur.signum() < 0) {
+            numerateur = numerateur.negate();
+            denominateur = denominateur.negate();
+        }
+        if (numerateur.bitLength() < Long.SIZE && denominateur.bitLength() < Long.SIZE) {
+            this.numerateur = numerateur.longValue();
+            this.denominateur = denominateur.longValue();
+            this.grandNumerateur = null;
+            this.grandDenominateur = null;
+        } else {
+            this.numerateur = 0;
+            this.denominateur = 0;
+            this.grandNumerateur = numerateur;
+            this.grandDenominateur = denominateur;
+        }
+    }
+
+    @JsonCreator
+    static Fraction depuisJson(@JsonProperty("numerateur") BigInteger numerateur,
+                               @JsonProperty("denominateur") BigInteger denominateur) {
+        return new Fraction(numerateur, denominateur, true);
+    }
+
+    /**
+     * Indique si la fraction est représentée en {@code long} (chemin rapide).
+     */
+    public boolean estCompacte() {
+        return grandNumerateur == null;
+    }
+
+    /**
+     * Numérateur en {@code long}.
+     * @throws ArithmeticException si la valeur ne tient pas en long (voir {@link #getNumerateurExact()})
+     */
+    public long getNumerateur() {
+        if (grandNumerateur != null) {
+            throw new ArithmeticException("Numérateur hors de la plage long: " + grandNumerateur);
+        }
+        return numerateur;
+    }
+
+    /**
+     * Dénominateur en {@code long}.
+     * @throws ArithmeticException si la valeur ne tient pas en long (voir {@link #getDenominateurExact()})
+     */
+    public long getDenominateur() {
+        if (grandDenominateur != null) {
+            throw new ArithmeticException("Dénominateur hors de la plage long: " + grandDenominateur);
+        }
+        return denominateur;
+    }
+
+    @JsonIgnore
+    public BigInteger getNumerateurExact() {
+        return grandNumerateur != null ? grandNumerateur : BigInteger.valueOf(numerateur);
+    }
+
+    @JsonIgnore
+    public BigInteger getDenominateurExact() {
+        return grandDenominateur != null ? grandDenominateur : BigInteger.valueOf(denominateur);
+    }
+
+    public int signum() {
+        return grandNumerateur != null ? grandNumerateur.signum() : Long.signum(numerateur);
+    }
+
+    public boolean estNul() {
+        return signum() == 0;
+    }
+
     // Addition de deux fractions
     public Fraction ajouter(Fraction autre) {
-        int num = this.numerateur * autre.denominateur + autre.numerateur * this.denominateur;
-        int den = this.denominateur * autre.denominateur;
-        return new Fraction(num, den);
+        if (estCompacte() && autre.estCompacte()) {
+            try {
+                long num = Math.addExact(Math.multiplyExact(this.numerateur, autre.denominateur),
+                        Math.multiplyExact(autre.numerateur, this.denominateur));
+                long den = Math.multiplyExact(this.denominateur, autre.denominateur);
+                return de(num, den);
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
+        }
+        return new Fraction(
+                getNumerateurExact().multiply(autre.getDenominateurExact())
+                        .add(autre.getNumerateurExact().multiply(getDenominateurExact())),
+                getDenominateurExact().multiply(autre.getDenominateurExact()));
     }
 
     // Soustraction
     public Fraction soustraire(Fraction autre) {
-        int num = this.numerateur * autre.denominateur - autre.numerateur * this.denominateur;
-        int den = this.denominateur * autre.denominateur;
-        return new Fraction(num, den);
+        if (estCompacte() && autre.estCompacte()) {
+            try {
+                long num = Math.subtractExact(Math.multiplyExact(this.numerateur, autre.denominateur),
+                        Math.multiplyExact(autre.numerateur, this.denominateur));
+                long den = Math.multiplyExact(this.denominateur, autre.denominateur);
+                return de(num, den);
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
+        }
+        return new Fraction(
+                getNumerateurExact().multiply(autre.getDenominateurExact())
+                        .subtract(autre.getNumerateurExact().multiply(getDenominateurExact())),
+                getDenominateurExact().multiply(autre.getDenominateurExact()));
     }
 
     // Multiplication
     public Fraction multiplier(Fraction autre) {
-        int num = this.numerateur * autre.numerateur;
-        int den = this.denominateur * autre.denominateur;
-        return new Fraction(num, den);
+        if (estCompacte() && autre.estCompacte()) {
+            try {
+                long num = Math.multiplyExact(this.numerateur, autre.numerateur);
+                long den = Math.multiplyExact(this.denominateur, autre.denominateur);
+                return de(num, den);
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
+        }
+        return new Fraction(
+                getNumerateurExact().multiply(autre.getNumerateurExact()),
+                getDenominateurExact().multiply(autre.getDenominateurExact()));
     }
-    public Fraction multiplier(int nombre){ //multiplier par un nombre
-        int num = this.numerateur * nombre;
-        return new Fraction(num, this.denominateur);
+
+    public Fraction multiplier(long nombre) { //multiplier par un nombre
+        if (estCompacte()) {
+            try {
+                return de(Math.multiplyExact(this.numerateur, nombre), this.denominateur);
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
+        }
+        return new Fraction(getNumerateurExact().multiply(BigInteger.valueOf(nombre)), getDenominateurExact());
     }
 
     // Division
     public Fraction diviser(Fraction autre) {
-        if (autre.numerateur == 0) {
+        if (autre.estNul()) {
             throw new ArithmeticException("Division par zéro impossible.");
         }
-        int num = this.numerateur * autre.denominateur;
-        int den = this.denominateur * autre.numerateur;
-        return new Fraction(num, den);
+        if (estCompacte() && autre.estCompacte()) {
+            try {
+                long num = Math.multiplyExact(this.numerateur, autre.denominateur);
+                long den = Math.multiplyExact(this.denominateur, autre.numerateur);
+                return de(num, den);
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
+        }
+        return new Fraction(
+                getNumerateurExact().multiply(autre.getDenominateurExact()),
+                getDenominateurExact().multiply(autre.getNumerateurExact()));
     }
-    public Fraction diviser(int nombre) { //division par un nombre
+
+    public Fraction diviser(long nombre) { //division par un nombre
         if (nombre == 0) {
             throw new ArithmeticException("Division par zéro impossible.");
         }
-        int den = this.denominateur * nombre;
-        return new Fraction(numerateur, den);
-    }
-
-    // Réduction (simplification) de la fraction
-    private void reduire() {
-        int gcd = calculPGCD(Math.abs(numerateur), Math.abs(denominateur));
-        numerateur /= gcd;
-        denominateur /= gcd;
-        // Gestion du signe pour avoir un dénominateur positif
-        if (denominateur < 0) {
-            numerateur = -numerateur;
-            denominateur = -denominateur;
+        if (estCompacte()) {
+            try {
+                return de(this.numerateur, Math.multiplyExact(this.denominateur, nombre));
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
         }
+        return new Fraction(getNumerateurExact(), getDenominateurExact().multiply(BigInteger.valueOf(nombre)));
     }
 
-    //Réduction au même dénominateur
-    public static List<Fraction> reduireAuMemDenominateur(List<Fraction> fractions) {
-        // Étape 1 : Récupérer tous les dénominateurs
-        List<Integer> denominateurs = new ArrayList<>();
-        for (Fraction f : fractions) {
-            denominateurs.add(f.getDenominateur());
+    @Override
+    public int compareTo(Fraction autre) {
+        if (estCompacte() && autre.estCompacte()) {
+            try {
+                return Long.compare(Math.multiplyExact(this.numerateur, autre.denominateur),
+                        Math.multiplyExact(autre.numerateur, this.denominateur));
+            } catch (ArithmeticException depassement) {
+                // repli BigInteger ci-dessous
+            }
         }
-        //log.info("denominateurs : " + denominateurs);
+        return getNumerateurExact().multiply(autre.getDenominateurExact())
+                .compareTo(autre.getNumerateurExact().multiply(getDenominateurExact()));
+    }
 
-        // Étape 2 : Calculer le plus petit multiple commun (PMC) de tous les dénominateurs
-        int acc = 1;
-        for (Integer i : denominateurs) {
-            acc = calculPPCM(acc, i);
+    /**
+     * Forme irréductible de la fraction ({@code this} si elle l'est déjà, instance canonique
+     * si elle appartient au pool), mémorisée après le premier appel.
+     */
+    public Fraction irreductible() {
+        Fraction f = irreductible;
+        if (f == null) {
+            f = estCompacte() ? de(numerateur, denominateur) : new Fraction(grandNumerateur, grandDenominateur);
+            if (f.memeRepresentation(this)) {
+                f = this;
+            }
+            irreductible = f;
         }
-        int pmc = acc;
-        //log.info("pmc : " + pmc);
+        return f;
+    }
 
-        // Étape 3 : Convertir chaque fraction pour qu'elle ait ce dénominateur commun
-        List<Fraction> resultat = new ArrayList<>();
-        for (Fraction f : fractions) {
-            int facteur = pmc / f.getDenominateur();
-            int nouveauNum = f.getNumerateur() * facteur;
-            resultat.add(new Fraction(nouveauNum, pmc, true));
+    //Réduction au même dénominateur (voir ReducteurDenominateurs, qui évite la liste intermédiaire)
+    public static List<Fraction> reduireAuMemDenominateur(List<Fraction> fractions) {
+        PartsReduites reduites = ReducteurDenominateurs.reduire(fractions);
+        List<Fraction> resultat = new ArrayList<>(reduites.taille());
+        for (int i = 0; i < reduites.taille(); i++) {
+            resultat.add(reduites.fraction(i));
         }
-        //log.info("- Dénominateur commun : " + pmc);
         // Retourne la liste de fractions modifiées
         return resultat;
     }
 
     // Calcul du plus grand diviseur commun
-    private static int calculPGCD(int a, int b) {
-        if (b == 0) {
-            return a;
+    static long calculPGCD(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
         }
-        return calculPGCD(b, a % b);
+        return a == 0 ? 1 : a;
     }
 
-    /**
-     * Calcule le Plus Petit Multiple Commun (PPCM) entre deux entiers
-     * en utilisant le PGCD.
-     */
-    private static int calculPPCM(int a, int b) {
-        return a * (b / calculPGCD(a, b));
-    }
     // ------------- Fin réduire au même dénominateur -----------------------------------
 
+    // Égalité de valeur, cohérente avec compareTo (produits croisés, dénominateurs positifs)
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fraction autre)) return false;
+        return compareTo(autre) == 0;
+    }
+
+    // Haché de la forme irréductible, unique pour une valeur (long dès qu'elle y tient)
+    @Override
+    public int hashCode() {
+        Fraction f = irreductible();
+        if (f.estCompacte()) {
+            return 31 * Long.hashCode(f.numerateur) + Long.hashCode(f.denominateur);
+        }
+        return 31 * f.grandNumerateur.hashCode() + f.grandDenominateur.hashCode();
+    }
+
+    private boolean memeRepresentation(Fraction autre) {
+        if (estCompacte() && autre.estCompacte()) {
+            return numerateur == autre.numerateur && denominateur == autre.denominateur;
+        }
+        return getNumerateurExact().equals(autre.getNumerateurExact())
+                && getDenominateurExact().equals(autre.getDenominateurExact());
+    }
+
     @Override
     public String toString() {
-        return numerateur + "/" + denominateur;
+        if (estCompacte()) {
+            return numerateur + "/" + denominateur;
+        }
+        return grandNumerateur + "/" + grandDenominateur;
+    }
+
+    /**
+     * Sérialisation JSON : {"numerateur": n, "denominateur": d}, en valeurs exactes
+     * (nombres entiers arbitrairement grands si nécessaire).
+     */
+    static class Serialiseur extends StdSerializer<Fraction> {
+
+        Serialiseur() {
+            super(Fraction.class);
+        }
+
+        @Override
+        public void serialize(Fraction f, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            if (f.estCompacte()) {
+                gen.writeNumberField("numerateur", f.numerateur);
+                gen.writeNumberField("denominateur", f.denominateur);
+            } else {
+                gen.writeFieldName("numerateur");
+                gen.writeNumber(f.grandNumerateur);
+                gen.writeFieldName("denominateur");
+                gen.writeNumber(f.grandDenominateur);
+            }
+            gen.writeEndObject();
+        }
     }
 }
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -32,7 +33,7 @@ public class HeritageResponse {
         private Integer nombreHeritiers;
 
         @Schema(description = "Dénominateur commun utilisé pour toutes les parts", example = "24")
-        private Integer denominateurCommun;
+        private BigInteger denominateurCommun;
 
         @Schema(description = "Part restante non distribuée")
         private Fraction partRestante;
@@ -99,13 +100,13 @@ public class HeritageResponse {
          * héritiers calculés
          */
         public static HeritageResponse fromCalculation(
-                        FamilyRequest request,
+                        RequeteNormalisee request,
                         List<Heritier> heritiers,
                         String message) {
 
                 // Déterminer le dénominateur commun
-                Integer denominateur = heritiers.isEmpty() ? null
-                                : heritiers.get(0).getPart() != null ? heritiers.get(0).getPart().getDenominateur()
+                BigInteger denominateur = heritiers.isEmpty() ? null
+                                : heritiers.get(0).getPart() != null ? heritiers.get(0).getPart().getDenominateurExact()
                                                 : null;
 
                 // Trouver la part restante
@@ -113,16 +114,16 @@ public class HeritageResponse {
                                 .filter(h -> "part restant".equals(h.getHeritier()))
                                 .map(Heritier::getPart)
                                 .findFirst()
-                                .orElse(new Fraction(0));
+                                .orElse(Fraction.ZERO);
 
                 // Calculer le nombre d'héritiers (sans la part restante)
                 int nbHeritiers = (int) heritiers.stream()
                                 .filter(h -> !"part restant".equals(h.getHeritier()))
-                                .filter(h -> h.getPart() != null && h.getPart().getNumerateur() > 0)
+                                .filter(h -> h.getPart() != null && h.getPart().signum() > 0)
                                 .count();
 
                 // Vérifier si le calcul est complet
-                boolean calculComplet = partRestante.getNumerateur() == 0;
+                boolean calculComplet = partRestante.estNul();
 
                 return HeritageResponse.builder()
                                 .calculId(UUID.randomUUID().toString())
@@ -134,19 +135,18 @@ public class HeritageResponse {
                                 .message(message)
                                 .calculComplet(calculComplet)
                                 .composition(CompositionFamiliale.builder()
-                                                .sexeDefunt(request.getSexeDefunt())
-                                                .nbConjoints(request.getNbConjoints() != null ? request.getNbConjoints()
-                                                                : 0)
-                                                .pereVivant(request.isPereVivant())
-                                                .mereVivante(request.isMereVivante())
-                                                .grandPerePaternelVivant(request.isGrandPerePaternelVivant())
-                                                .grandMerePaternelleVivante(request.isGrandMerePaternelleVivante())
-                                                .nbFilles(request.getNbFilles() != null ? request.getNbFilles() : 0)
-                                                .nbGarcons(request.getNbGarcons() != null ? request.getNbGarcons() : 0)
-                                                .nbSoeurs(request.getNbSoeurs() != null ? request.getNbSoeurs() : 0)
-                                                .nbFreres(request.getNbFreres() != null ? request.getNbFreres() : 0)
-                                                .nbOncles(request.getNbOncles() != null ? request.getNbOncles() : 0)
-                                                .nbCousins(request.getNbCousins() != null ? request.getNbCousins() : 0)
+                                                .sexeDefunt(request.sexeDefunt().getCode())
+                                                .nbConjoints(request.nbConjoints())
+                                                .pereVivant(request.pereVivant())
+                                                .mereVivante(request.mereVivante())
+                                                .grandPerePaternelVivant(request.grandPerePaternelVivant())
+                                                .grandMerePaternelleVivante(request.grandMerePaternelleVivante())
+                                                .nbFilles(request.nbFilles())
+                                                .nbGarcons(request.nbGarcons())
+                                                .nbSoeurs(request.nbSoeurs())
+                                                .nbFreres(request.nbFreres())
+                                                .nbOncles(request.nbOncles())
+                                                .nbCousins(request.nbCousins())
                                                 .build())
                                 .build();
         }
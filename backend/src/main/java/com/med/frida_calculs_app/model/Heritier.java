@@ -71,9 +71,9 @@ public class Heritier {
     @com.fasterxml.jackson.annotation.JsonProperty("partIrreductible")
     @Schema(description = "Fraction irréductible représentant la part légale du type d'héritier")
     public Fraction getPartIrreductible() {
-        if (this.part != null && this.part.getDenominateur() != 0) {
-            // Le constructeur de Fraction applique automatiquement la réduction (simplification)
-            return new Fraction(this.part.getNumerateur(), this.part.getDenominateur());
+        if (this.part != null) {
+            // Forme irréductible mémorisée par la fraction (instance canonique pour les parts usuelles)
+            return this.part.irreductible();
         }
         return null;
     }
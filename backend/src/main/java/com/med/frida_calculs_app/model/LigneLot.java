@@ -0,0 +1,29 @@
+package com.med.frida_calculs_app.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Ligne NDJSON du calcul par lot : résultat ou erreur d'un élément du lot")
+public class LigneLot {
+
+    @Schema(description = "Position de l'élément dans le lot (à partir de 0)", example = "0")
+    private long index;
+
+    @Schema(description = "Position du premier élément identique du lot (l'élément est calculé de nouveau)", example = "2")
+    private Long doublonDe;
+
+    @Schema(description = "Résultat du calcul (absent en cas d'erreur)")
+    private HeritageResponse resultat;
+
+    @Schema(description = "Erreur propre à cet élément (absente en cas de succès)")
+    private ErrorResponse erreur;
+}
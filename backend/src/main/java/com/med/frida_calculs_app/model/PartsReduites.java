@@ -0,0 +1,89 @@
+package com.med.frida_calculs_app.model;
+
+import java.math.BigInteger;
+
+/**
+ * Parts ramenées au même dénominateur : un tableau de numérateurs et une base commune.
+ *
+ * Représentation en {@code long} lorsque la base et tous les numérateurs y tiennent,
+ * en {@link BigInteger} sinon. Produit par {@link ReducteurDenominateurs}.
+ */
+public final class PartsReduites {
+
+    private final long[] numerateurs;
+    private final long base;
+
+    // Non nuls uniquement lorsque la base ou un numérateur ne tient pas en long
+    private final BigInteger[] grandsNumerateurs;
+    private final BigInteger grandeBase;
+
+    PartsReduites(long[] numerateurs, long base) {
+        this.numerateurs = numerateurs;
+        this.base = base;
+        this.grandsNumerateurs = null;
+        this.grandeBase = null;
+    }
+
+    PartsReduites(BigInteger[] grandsNumerateurs, BigInteger grandeBase) {
+        this.numerateurs = null;
+        this.base = 0;
+        this.grandsNumerateurs = grandsNumerateurs;
+        this.grandeBase = grandeBase;
+    }
+
+    public int taille() {
+        return estCompacte() ? numerateurs.length : grandsNumerateurs.length;
+    }
+
+    /**
+     * Indique si la base et les numérateurs sont représentés en {@code long}.
+     */
+    public boolean estCompacte() {
+        return numerateurs != null;
+    }
+
+    /**
+     * Base commune en {@code long}.
+     * @throws ArithmeticException si la représentation n'est pas compacte (voir {@link #getBaseExacte()})
+     */
+    public long getBase() {
+        if (!estCompacte()) {
+            throw new ArithmeticException("Base hors de la plage long: " + grandeBase);
+        }
+        return base;
+    }
+
+    /**
+     * Numérateurs en {@code long}, dans l'ordre de la liste réduite.
+     * Tableau interne, non copié : il ne doit pas être modifié.
+     * @throws ArithmeticException si la représentation n'est pas compacte
+     */
+    public long[] getNumerateurs() {
+        if (!estCompacte()) {
+            throw new ArithmeticException("Numérateurs hors de la plage long");
+        }
+        return numerateurs;
+    }
+
+    public long getNumerateur(int i) {
+        return getNumerateurs()[i];
+    }
+
+    public BigInteger getBaseExacte() {
+        return estCompacte() ? BigInteger.valueOf(base) : grandeBase;
+    }
+
+    public BigInteger getNumerateurExact(int i) {
+        return estCompacte() ? BigInteger.valueOf(numerateurs[i]) : grandsNumerateurs[i];
+    }
+
+    /**
+     * Part {@code i} sous forme de fraction non simplifiée (numérateur / base).
+     */
+    public Fraction fraction(int i) {
+        if (estCompacte()) {
+            return new Fraction(numerateurs[i], base, true);
+        }
+        return new Fraction(grandsNumerateurs[i], grandeBase, true);
+    }
+}
@@ -0,0 +1,189 @@
+package com.med.frida_calculs_app.model;
+
+import com.med.frida_calculs_app.profilage.EvenementReduction;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Réduction d'une liste de fractions au même dénominateur.
+ *
+ * Le PPCM n'est calculé que sur les dénominateurs distincts, par réduction en arbre
+ * (les opérandes restent de taille équilibrée), en {@code long} tant que possible puis
+ * en {@link BigInteger}. Au-delà de {@link #SEUIL_PARALLELE} fractions, l'élimination
+ * des doublons, le PPCM et la mise à l'échelle des numérateurs sont répartis par blocs
+ * sur le pool ForkJoin commun.
+ *
+ * Les réductions d'au moins {@link EvenementReduction#SEUIL} fractions émettent un événement
+ * JFR {@code com.med.frida.GrandeReduction}.
+ */
+public final class ReducteurDenominateurs {
+
+    public static final int SEUIL_PARALLELE = 8192;
+
+    // Marqueur de dépassement de capacité (un PPCM est toujours strictement positif)
+    private static final long DEPASSEMENT = -1;
+
+    private ReducteurDenominateurs() {
+    }
+
+    public static PartsReduites reduire(List<Fraction> fractions) {
+        if (fractions.size() < EvenementReduction.SEUIL) {
+            return reduire(fractions, SEUIL_PARALLELE);
+        }
+        EvenementReduction evenement = new EvenementReduction();
+        evenement.begin();
+        PartsReduites parts = reduire(fractions, SEUIL_PARALLELE);
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.nombreFractions = fractions.size();
+            evenement.parallele = fractions.size() >= SEUIL_PARALLELE;
+            evenement.exacte = !parts.estCompacte();
+            evenement.bitsDenominateur = parts.getBaseExacte().bitLength();
+            evenement.commit();
+        }
+        return parts;
+    }
+
+    static PartsReduites reduire(List<Fraction> fractions, int seuilParallele) {
+        int n = fractions.size();
+        boolean parallele = n >= seuilParallele;
+
+        long[] numerateurs = new long[n];
+        long[] denominateurs = new long[n];
+        for (int i = 0; i < n; i++) {
+            Fraction f = fractions.get(i);
+            if (!f.estCompacte()) {
+                return reduireExact(fractions, parallele);
+            }
+            numerateurs[i] = f.getNumerateur();
+            denominateurs[i] = f.getDenominateur();
+        }
+
+        long base = parallele ? ppcmParallele(denominateurs) : ppcmDistincts(denominateurs, 0, n);
+        if (base == DEPASSEMENT) {
+            return reduireExact(fractions, parallele);
+        }
+
+        try {
+            IntStream indices = IntStream.range(0, n);
+            (parallele ? indices.parallel() : indices)
+                    .forEach(i -> numerateurs[i] = Math.multiplyExact(numerateurs[i], base / denominateurs[i]));
+        } catch (ArithmeticException depassement) {
+            return reduireExact(fractions, parallele);
+        }
+        return new PartsReduites(numerateurs, base);
+    }
+
+    // ------------- Chemin long -----------------------------------
+
+    // PPCM des valeurs distinctes (strictement positives) de la tranche [debut, fin) :
+    // doublons éliminés par adressage ouvert en temps linéaire, puis table compactée en tête
+    private static long ppcmDistincts(long[] valeurs, int debut, int fin) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, 2 * (fin - debut) - 1));
+        long[] table = new long[1 << bits];
+        int masque = table.length - 1;
+        for (int i = debut; i < fin; i++) {
+            long v = valeurs[i];
+            int h = (int) ((v * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+            while (table[h] != 0 && table[h] != v) {
+                h = (h + 1) & masque;
+            }
+            table[h] = v;
+        }
+        int taille = 0;
+        for (long v : table) {
+            if (v != 0) {
+                table[taille++] = v;
+            }
+        }
+        return ppcmArbre(table, 0, taille);
+    }
+
+    // Chaque bloc réduit ses propres doublons et son PPCM, puis les PPCM partiels sont combinés
+    private static long ppcmParallele(long[] valeurs) {
+        int blocs = nombreBlocs();
+        long[] partiels = new long[blocs];
+        IntStream.range(0, blocs).parallel().forEach(b ->
+                partiels[b] = ppcmDistincts(valeurs, b * valeurs.length / blocs, (b + 1) * valeurs.length / blocs));
+        for (long partiel : partiels) {
+            if (partiel == DEPASSEMENT) {
+                return DEPASSEMENT;
+            }
+        }
+        return ppcmDistincts(partiels, 0, blocs);
+    }
+
+    private static long ppcmArbre(long[] valeurs, int debut, int fin) {
+        if (fin - debut == 0) {
+            return 1;
+        }
+        if (fin - debut == 1) {
+            return valeurs[debut];
+        }
+        int milieu = (debut + fin) >>> 1;
+        long gauche = ppcmArbre(valeurs, debut, milieu);
+        if (gauche == DEPASSEMENT) {
+            return DEPASSEMENT;
+        }
+        long droite = ppcmArbre(valeurs, milieu, fin);
+        if (droite == DEPASSEMENT) {
+            return DEPASSEMENT;
+        }
+        long facteur = droite / Fraction.calculPGCD(gauche, droite);
+        return gauche > Long.MAX_VALUE / facteur ? DEPASSEMENT : gauche * facteur;
+    }
+
+    // ------------- Chemin BigInteger -----------------------------------
+
+    private static PartsReduites reduireExact(List<Fraction> fractions, boolean parallele) {
+        int n = fractions.size();
+        BigInteger[] numerateurs = new BigInteger[n];
+        BigInteger[] denominateurs = new BigInteger[n];
+        for (int i = 0; i < n; i++) {
+            numerateurs[i] = fractions.get(i).getNumerateurExact();
+            denominateurs[i] = fractions.get(i).getDenominateurExact();
+        }
+
+        Stream<BigInteger> flux = Arrays.stream(denominateurs);
+        BigInteger[] distincts = (parallele ? flux.parallel() : flux).distinct().toArray(BigInteger[]::new);
+        BigInteger base = ppcmExact(distincts, parallele);
+
+        IntStream indices = IntStream.range(0, n);
+        (parallele ? indices.parallel() : indices)
+                .forEach(i -> numerateurs[i] = numerateurs[i].multiply(base.divide(denominateurs[i])));
+        return new PartsReduites(numerateurs, base);
+    }
+
+    private static BigInteger ppcmExact(BigInteger[] valeurs, boolean parallele) {
+        if (!parallele || valeurs.length < 2 * nombreBlocs()) {
+            return ppcmArbreExact(valeurs, 0, valeurs.length);
+        }
+        int blocs = nombreBlocs();
+        BigInteger[] partiels = new BigInteger[blocs];
+        IntStream.range(0, blocs).parallel().forEach(b ->
+                partiels[b] = ppcmArbreExact(valeurs, b * valeurs.length / blocs, (b + 1) * valeurs.length / blocs));
+        return ppcmArbreExact(partiels, 0, blocs);
+    }
+
+    private static BigInteger ppcmArbreExact(BigInteger[] valeurs, int debut, int fin) {
+        if (fin - debut == 0) {
+            return BigInteger.ONE;
+        }
+        if (fin - debut == 1) {
+            return valeurs[debut];
+        }
+        int milieu = (debut + fin) >>> 1;
+        BigInteger gauche = ppcmArbreExact(valeurs, debut, milieu);
+        BigInteger droite = ppcmArbreExact(valeurs, milieu, fin);
+        return gauche.divide(gauche.gcd(droite)).multiply(droite);
+    }
+
+    private static int nombreBlocs() {
+        return ForkJoinPool.getCommonPoolParallelism() + 1;
+    }
+}
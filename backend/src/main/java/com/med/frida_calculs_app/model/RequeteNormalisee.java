@@ -0,0 +1,117 @@
+package com.med.frida_calculs_app.model;
+
+import com.med.frida_calculs_app.enums.LienParente;
+import com.med.frida_calculs_app.enums.Sexe;
+import lombok.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Composition familiale normalisée, consommée par les services de calcul et les moteurs.
+ *
+ * Construite une fois en entrée d'API à partir d'une {@link FamilyRequest} (ou d'une
+ * {@link ExtendedFamilyRequest}), elle est immuable : effectifs primitifs (absents = 0),
+ * sexes décodés en {@link Sexe}, tombes normalisées. Elle peut donc être partagée entre
+ * threads, réutilisée d'un élément de lot à l'autre, et les simulations en dérivent des
+ * copies ({@link #avecFantome}) au lieu de modifier la requête.
+ */
+@Builder(toBuilder = true)
+public record RequeteNormalisee(
+        Sexe sexeDefunt,
+        int nbConjoints,
+        boolean pereVivant,
+        boolean mereVivante,
+        boolean grandPerePaternelVivant,
+        boolean grandMerePaternelleVivante,
+        int nbFilles,
+        int nbGarcons,
+        int nbSoeurs,
+        int nbFreres,
+        int nbOncles,
+        int nbCousins,
+        int nbPetitsFils,
+        int nbPetitesFilles,
+        Sexe sexeParentPredecede,
+        List<TombeNormalisee> tombes) {
+
+    public RequeteNormalisee {
+        Objects.requireNonNull(sexeDefunt, "Le sexe du défunt est obligatoire");
+        if (sexeParentPredecede == null) {
+            sexeParentPredecede = Sexe.MASCULIN;
+        }
+        tombes = tombes == null ? List.of() : List.copyOf(tombes);
+    }
+
+    /**
+     * Normalise une requête ; les tombes d'une {@link ExtendedFamilyRequest} sont reprises
+     * dans leur ordre.
+     *
+     * @throws IllegalArgumentException si un sexe est absent ou invalide
+     */
+    public static RequeteNormalisee de(FamilyRequest request) {
+        List<TombeNormalisee> tombes = List.of();
+        if (request instanceof ExtendedFamilyRequest etendue && etendue.getTombes() != null) {
+            List<Tombe> source = etendue.getTombes();
+            tombes = new ArrayList<>(source.size());
+            for (int i = 0; i < source.size(); i++) {
+                tombes.add(TombeNormalisee.de(source.get(i), i));
+            }
+        }
+        String sexeParent = request.getSexeParentPredecede();
+        return new RequeteNormalisee(
+                Sexe.fromCode(request.getSexeDefunt()),
+                valeur(request.getNbConjoints()),
+                request.isPereVivant(),
+                request.isMereVivante(),
+                request.isGrandPerePaternelVivant(),
+                request.isGrandMerePaternelleVivante(),
+                valeur(request.getNbFilles()),
+                valeur(request.getNbGarcons()),
+                valeur(request.getNbSoeurs()),
+                valeur(request.getNbFreres()),
+                valeur(request.getNbOncles()),
+                valeur(request.getNbCousins()),
+                valeur(request.getNbPetitsFils()),
+                valeur(request.getNbPetitesFilles()),
+                sexeParent == null ? Sexe.MASCULIN : Sexe.fromCode(sexeParent),
+                tombes);
+    }
+
+    public boolean defuntMasculin() {
+        return sexeDefunt == Sexe.MASCULIN;
+    }
+
+    /**
+     * Copie où les petits-enfants prennent la place des enfants directs (petits-enfants remis à 0).
+     */
+    public RequeteNormalisee avecPetitsEnfantsSubstitues() {
+        return new RequeteNormalisee(sexeDefunt, nbConjoints, pereVivant, mereVivante,
+                grandPerePaternelVivant, grandMerePaternelleVivante,
+                nbPetitesFilles, nbPetitsFils, nbSoeurs, nbFreres, nbOncles, nbCousins,
+                0, 0, sexeParentPredecede, tombes);
+    }
+
+    /**
+     * Copie pour la simulation d'un héritier pré-décédé : le fantôme (enfant ou frère / soeur
+     * selon son sexe) est ajouté à la composition, sans tombes ni petits-enfants. Un lien
+     * {@link LienParente#AUTRE} n'ajoute personne.
+     */
+    public RequeteNormalisee avecFantome(LienParente lien, Sexe sexe) {
+        boolean masculin = sexe == Sexe.MASCULIN;
+        boolean enfant = lien == LienParente.ENFANT;
+        boolean fratrie = lien == LienParente.FRERE_SOEUR;
+        return new RequeteNormalisee(sexeDefunt, nbConjoints, pereVivant, mereVivante,
+                grandPerePaternelVivant, grandMerePaternelleVivante,
+                nbFilles + (enfant && !masculin ? 1 : 0),
+                nbGarcons + (enfant && masculin ? 1 : 0),
+                nbSoeurs + (fratrie && !masculin ? 1 : 0),
+                nbFreres + (fratrie && masculin ? 1 : 0),
+                nbOncles, nbCousins, 0, 0, Sexe.MASCULIN, List.of());
+    }
+
+    private static int valeur(Integer n) {
+        return n != null ? n : 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.med.frida_calculs_app.model;
+
+import com.med.frida_calculs_app.enums.LienParente;
+import com.med.frida_calculs_app.enums.Sexe;
+import lombok.Builder;
+
+/**
+ * Tombe normalisée : forme immuable d'une {@link Tombe}, identifiant attribué, sexe et
+ * lien de parenté décodés, effectifs absents ramenés à 0.
+ */
+@Builder
+public record TombeNormalisee(String identifiant, Sexe sexe, LienParente lien,
+                              int nbDescendantsMales, int nbDescendantesFemelles) {
+
+    /**
+     * Normalise la tombe située à {@code position} (à partir de 0) dans la requête ; sans
+     * identifiant, elle reçoit {@code tombe_<position + 1>}.
+     */
+    public static TombeNormalisee de(Tombe tombe, int position) {
+        String identifiant = tombe.getIdentifiant();
+        return new TombeNormalisee(
+                identifiant == null || identifiant.isBlank() ? "tombe_" + (position + 1) : identifiant,
+                Sexe.fromCode(tombe.getSexeParentPredecede()),
+                LienParente.fromCode(tombe.getLienParente()),
+                valeur(tombe.getNbDescendantsMales()),
+                valeur(tombe.getNbDescendantesFemelles()));
+    }
+
+    public boolean aDesDescendants() {
+        return nbDescendantsMales + nbDescendantesFemelles > 0;
+    }
+
+    private static int valeur(Integer n) {
+        return n != null ? n : 0;
+    }
+}
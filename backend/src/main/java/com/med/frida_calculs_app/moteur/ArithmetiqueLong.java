@@ -0,0 +1,24 @@
+package com.med.frida_calculs_app.moteur;
+
+/**
+ * PGCD / PPCM sur des long, partagés par les moteurs sans allocation.
+ * Les dépassements de capacité lèvent {@link ArithmeticException}.
+ */
+final class ArithmetiqueLong {
+
+    private ArithmetiqueLong() {
+    }
+
+    static long pgcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a == 0 ? 1 : a;
+    }
+
+    static long ppcm(long a, long b) {
+        return Math.multiplyExact(a, b / pgcd(a, b));
+    }
+}
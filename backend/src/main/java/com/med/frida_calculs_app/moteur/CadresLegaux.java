@@ -0,0 +1,17 @@
+package com.med.frida_calculs_app.moteur;
+
+/**
+ * Libellés des cadres légaux (en arabe, avec traduction) attribués aux héritiers.
+ */
+public final class CadresLegaux {
+
+    public static final String FARD = "الفرض (Fard - Part fixe)";
+    public static final String ASABA = "العصبة (Asaba - Résiduaire)";
+    public static final String FARD_ET_ASABA = "الفرض والعصبة (Fard et Asaba)";
+    public static final String FARD_ET_RADD = "الفرض والرد (Fard et Radd)";
+    public static final String AOUL = "العول (Aoul - Réduction)";
+    public static final String EXCLU = "محجوب (Exclu)";
+
+    private CadresLegaux() {
+    }
+}
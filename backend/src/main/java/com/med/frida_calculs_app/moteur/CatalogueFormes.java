@@ -0,0 +1,117 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue des formes de compositions familiales.
+ *
+ * Le résultat du calcul ne dépend des effectifs qu'à travers la forme : sexe du défunt,
+ * présence de chaque classe d'héritiers, et pour les filles, soeurs et frères la
+ * distinction 0 / 1 / 2 et plus. Le code d'une forme est un entier en base mixte :
+ * neuf bits de présence, puis trois chiffres ternaires.
+ * <pre>
+ * bit 0 masculin, 1 conjoint, 2 père, 3 mère, 4 grand-père, 5 grand-mère,
+ * 6 garçons, 7 oncles, 8 cousins ; puis 512 × (filles + 3·soeurs + 9·frères)
+ * </pre>
+ * Toutes les formes sont compilées à la construction à partir d'un moteur de référence.
+ */
+public class CatalogueFormes {
+
+    public static final int NB_FORMES = 512 * 27;
+
+    private final Forme[] formes = new Forme[NB_FORMES];
+
+    public CatalogueFormes(MoteurCalcul reference) {
+        Fraction un = Fraction.UN;
+        for (int code = 0; code < NB_FORMES; code++) {
+            RequeteNormalisee representant = representant(code);
+            formes[code] = Forme.compiler(code, representant, reference.calculer(representant, un));
+        }
+    }
+
+    public Forme forme(int code) {
+        if (code < 0 || code >= NB_FORMES) {
+            throw new IllegalArgumentException(
+                    "Code de forme invalide: " + code + " (attendu entre 0 et " + (NB_FORMES - 1) + ")");
+        }
+        return formes[code];
+    }
+
+    /**
+     * Code de la forme d'une requête.
+     */
+    public static int coder(RequeteNormalisee request) {
+        int code = 0;
+        if (request.defuntMasculin()) code |= 1;
+        if (request.nbConjoints() > 0) code |= 1 << 1;
+        if (request.pereVivant()) code |= 1 << 2;
+        if (request.mereVivante()) code |= 1 << 3;
+        if (request.grandPerePaternelVivant()) code |= 1 << 4;
+        if (request.grandMerePaternelleVivante()) code |= 1 << 5;
+        if (request.nbGarcons() > 0) code |= 1 << 6;
+        if (request.nbOncles() > 0) code |= 1 << 7;
+        if (request.nbCousins() > 0) code |= 1 << 8;
+        int ternaire = tranche(request.nbFilles())
+                + 3 * tranche(request.nbSoeurs())
+                + 9 * tranche(request.nbFreres());
+        return code + 512 * ternaire;
+    }
+
+    /**
+     * Requête minimale de la forme : effectifs à 1 (ou 2 pour la tranche « 2 et plus »).
+     */
+    static RequeteNormalisee representant(int code) {
+        int ternaire = code / 512;
+        return RequeteNormalisee.builder()
+                .sexeDefunt(bit(code, 0) ? Sexe.MASCULIN : Sexe.FEMININ)
+                .nbConjoints(bit(code, 1) ? 1 : 0)
+                .pereVivant(bit(code, 2))
+                .mereVivante(bit(code, 3))
+                .grandPerePaternelVivant(bit(code, 4))
+                .grandMerePaternelleVivante(bit(code, 5))
+                .nbGarcons(bit(code, 6) ? 1 : 0)
+                .nbOncles(bit(code, 7) ? 1 : 0)
+                .nbCousins(bit(code, 8) ? 1 : 0)
+                .nbFilles(ternaire % 3)
+                .nbSoeurs(ternaire / 3 % 3)
+                .nbFreres(ternaire / 9)
+                .build();
+    }
+
+    static String caracteristiques(int code) {
+        String[] noms = {"conjoint", "pere", "mere", "grand-pere", "grand-mere", "garcons>=1", "oncles>=1", "cousins>=1"};
+        List<String> elements = new ArrayList<>();
+        elements.add(bit(code, 0) ? "sexe=M" : "sexe=F");
+        for (int b = 1; b <= 8; b++) {
+            if (bit(code, b)) {
+                elements.add(noms[b - 1]);
+            }
+        }
+        int ternaire = code / 512;
+        ajouterTranche(elements, "filles", ternaire % 3);
+        ajouterTranche(elements, "soeurs", ternaire / 3 % 3);
+        ajouterTranche(elements, "freres", ternaire / 9);
+        return String.join(", ", elements);
+    }
+
+    private static void ajouterTranche(List<String> elements, String nom, int tranche) {
+        if (tranche == 1) {
+            elements.add(nom + "=1");
+        } else if (tranche == 2) {
+            elements.add(nom + ">=2");
+        }
+    }
+
+    private static int tranche(int n) {
+        return n >= 2 ? 2 : n;
+    }
+
+    private static boolean bit(int code, int b) {
+        return (code & (1 << b)) != 0;
+    }
+}
@@ -0,0 +1,252 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.HeirType;
+import com.med.frida_calculs_app.model.FormeDescription;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.med.frida_calculs_app.moteur.CadresLegaux.*;
+
+/**
+ * Formules fermées d'une forme de composition familiale.
+ *
+ * Pour chaque héritier du résultat (dans l'ordre de sortie), la part individuelle vaut
+ * {@code partGroupe × poids ÷ (coefA·effectif[varA] + coefB·effectif[varB])}, où
+ * {@code partGroupe} ne dépend que de la forme. Le conjoint reçoit en plus sa part
+ * légale collective {@code partGroupe}.
+ */
+public final class Forme {
+
+    // Variables des diviseurs
+    static final int V_UN = 0;
+    static final int V_CONJOINTS = 1;
+    static final int V_FILLES = 2;
+    static final int V_GARCONS = 3;
+    static final int V_SOEURS = 4;
+    static final int V_FRERES = 5;
+    static final int V_ONCLES = 6;
+    static final int V_COUSINS = 7;
+
+    private static final String[] NOMS_VARIABLES = {
+            "1", "nbConjoints", "nbFilles", "nbGarcons", "nbSoeurs", "nbFreres", "nbOncles", "nbCousins"
+    };
+
+    private static final Map<String, HeirType> TYPES_PAR_LIBELLE = new HashMap<>();
+
+    static {
+        for (HeirType type : HeirType.values()) {
+            TYPES_PAR_LIBELLE.put(type.getLabel(), type);
+        }
+    }
+
+    final int code;
+    final HeirType[] types;
+    final long[] groupeNum;
+    final long[] groupeDen;
+    final int[] poids;
+    final int[] coefA;
+    final int[] varA;
+    final int[] coefB;
+    final int[] varB;
+    final String[] cadres;
+    // Voie de résolution commune aux requêtes de la forme
+    MesuresMoteur.Voie voie;
+
+    private Forme(int code, int taille) {
+        this.code = code;
+        this.types = new HeirType[taille];
+        this.groupeNum = new long[taille];
+        this.groupeDen = new long[taille];
+        this.poids = new int[taille];
+        this.coefA = new int[taille];
+        this.varA = new int[taille];
+        this.coefB = new int[taille];
+        this.varB = new int[taille];
+        this.cadres = new String[taille];
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public int taille() {
+        return types.length;
+    }
+
+    /**
+     * Déduit les formules de la forme à partir du résultat du moteur de référence sur un
+     * représentant de la forme, calculé avec un multiplicateur de 1.
+     */
+    static Forme compiler(int code, RequeteNormalisee representant, List<Heritier> reference) {
+        long conjoints = representant.nbConjoints();
+        long filles = representant.nbFilles();
+        long garcons = representant.nbGarcons();
+        long soeurs = representant.nbSoeurs();
+        long freres = representant.nbFreres();
+        long oncles = representant.nbOncles();
+        long cousins = representant.nbCousins();
+        boolean agnatProche = representant.pereVivant() || representant.grandPerePaternelVivant() || garcons > 0;
+        // Partages 2:1 : enfants dès qu'il y a un garçon, fratrie dès qu'un frère hérite
+        boolean enfantsAsaba = garcons > 0;
+        boolean fratrieAsaba = freres > 0 && !agnatProche;
+
+        Forme forme = new Forme(code, reference.size());
+        for (int i = 0; i < reference.size(); i++) {
+            Heritier h = reference.get(i);
+            HeirType type = TYPES_PAR_LIBELLE.get(h.getHeritier());
+            Fraction part = h.getPart();
+            Fraction groupe;
+            forme.types[i] = type;
+            forme.cadres[i] = h.getCadreLegal();
+            forme.poids[i] = 1;
+            forme.coefB[i] = 0;
+            forme.varB[i] = V_UN;
+            switch (type) {
+                case SPOUSE -> {
+                    groupe = h.getPartLegale();
+                    forme.diviseur(i, 1, V_CONJOINTS);
+                }
+                case SON, DAUGHTER -> {
+                    if (enfantsAsaba) {
+                        forme.poids[i] = type == HeirType.SON ? 2 : 1;
+                        groupe = part.multiplier(2 * garcons + filles).diviser(forme.poids[i]);
+                        forme.diviseur(i, 2, V_GARCONS);
+                        forme.coefB[i] = 1;
+                        forme.varB[i] = V_FILLES;
+                    } else {
+                        groupe = part.multiplier(filles);
+                        forme.diviseur(i, 1, V_FILLES);
+                    }
+                }
+                case BROTHER, SISTER -> {
+                    if (fratrieAsaba) {
+                        forme.poids[i] = type == HeirType.BROTHER ? 2 : 1;
+                        groupe = part.multiplier(2 * freres + soeurs).diviser(forme.poids[i]);
+                        forme.diviseur(i, 2, V_FRERES);
+                        forme.coefB[i] = 1;
+                        forme.varB[i] = V_SOEURS;
+                    } else if (type == HeirType.BROTHER) {
+                        groupe = part.multiplier(freres);
+                        forme.diviseur(i, 1, V_FRERES);
+                    } else {
+                        groupe = part.multiplier(soeurs);
+                        forme.diviseur(i, 1, V_SOEURS);
+                    }
+                }
+                case PATERNAL_UNCLE -> {
+                    groupe = part.multiplier(oncles);
+                    forme.diviseur(i, 1, V_ONCLES);
+                }
+                case PATERNAL_COUSIN -> {
+                    groupe = part.multiplier(cousins);
+                    forme.diviseur(i, 1, V_COUSINS);
+                }
+                default -> {
+                    groupe = part;
+                    forme.diviseur(i, 1, V_UN);
+                }
+            }
+            forme.groupeNum[i] = groupe.getNumerateur();
+            forme.groupeDen[i] = groupe.getDenominateur();
+        }
+        forme.voie = voie(forme);
+        return forme;
+    }
+
+    /**
+     * Voie suivie par le moteur de référence, lue dans les cadres du résultat : aoul, radd,
+     * résiduaire de plus haute priorité, reste non attribué ou parts fixes exactes.
+     */
+    private static MesuresMoteur.Voie voie(Forme forme) {
+        MesuresMoteur.Voie asaba = null;
+        boolean reste = false;
+        for (int i = 0; i < forme.types.length; i++) {
+            String cadre = forme.cadres[i];
+            if (AOUL.equals(cadre)) {
+                return MesuresMoteur.Voie.AOUL;
+            }
+            if (FARD_ET_RADD.equals(cadre)) {
+                return MesuresMoteur.Voie.RADD;
+            }
+            if (ASABA.equals(cadre) || FARD_ET_ASABA.equals(cadre)) {
+                MesuresMoteur.Voie classe = switch (forme.types[i]) {
+                    case SON, DAUGHTER -> MesuresMoteur.Voie.ASABA_FILS;
+                    case FATHER -> MesuresMoteur.Voie.ASABA_PERE;
+                    case PATERNAL_GRANDFATHER -> MesuresMoteur.Voie.ASABA_GRAND_PERE;
+                    case BROTHER -> MesuresMoteur.Voie.ASABA_FRERES;
+                    case SISTER -> MesuresMoteur.Voie.ASABA_SOEURS;
+                    case PATERNAL_UNCLE -> MesuresMoteur.Voie.ASABA_ONCLES;
+                    default -> MesuresMoteur.Voie.ASABA_COUSINS;
+                };
+                // Soeurs résiduaires avec leurs frères : la voie est celle des frères
+                if (asaba == null || classe.ordinal() < asaba.ordinal()) {
+                    asaba = classe;
+                }
+            }
+            if (forme.types[i] == HeirType.REMAINDER && forme.groupeNum[i] != 0) {
+                reste = true;
+            }
+        }
+        if (asaba != null) {
+            return asaba;
+        }
+        return reste ? MesuresMoteur.Voie.RESTE : MesuresMoteur.Voie.FARD;
+    }
+
+    private void diviseur(int i, int coef, int variable) {
+        coefA[i] = coef;
+        varA[i] = variable;
+    }
+
+    /**
+     * Description lisible de la forme pour l'audit des formules.
+     */
+    public FormeDescription decrire() {
+        List<FormeDescription.FormuleHeritier> formules = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            Fraction groupe = Fraction.de(groupeNum[i], groupeDen[i]);
+            String diviseur = texteDiviseur(i);
+            StringBuilder formule = new StringBuilder(groupe.toString());
+            if (poids[i] != 1) {
+                formule.append(" × ").append(poids[i]);
+            }
+            if (!"1".equals(diviseur)) {
+                formule.append(" ÷ ").append(coefB[i] != 0 ? "(" + diviseur + ")" : diviseur);
+            }
+            formules.add(FormeDescription.FormuleHeritier.builder()
+                    .heritier(types[i].getLabel())
+                    .cadreLegal(cadres[i])
+                    .partGroupe(groupe)
+                    .poids(poids[i])
+                    .diviseur(diviseur)
+                    .formule(formule.toString())
+                    .build());
+        }
+        return FormeDescription.builder()
+                .code(code)
+                .caracteristiques(CatalogueFormes.caracteristiques(code))
+                .formules(formules)
+                .build();
+    }
+
+    private String texteDiviseur(int i) {
+        String texte = terme(coefA[i], varA[i]);
+        if (coefB[i] != 0) {
+            texte += " + " + terme(coefB[i], varB[i]);
+        }
+        return texte;
+    }
+
+    private static String terme(int coef, int variable) {
+        if (variable == V_UN) {
+            return String.valueOf(coef);
+        }
+        return coef == 1 ? NOMS_VARIABLES[variable] : coef + "·" + NOMS_VARIABLES[variable];
+    }
+}
@@ -0,0 +1,208 @@
+package com.med.frida_calculs_app.moteur;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.COUSIN;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.FRERE;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.GARCON;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.GRAND_PERE;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.ONCLE;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.PERE;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.SOEUR;
+
+/**
+ * Métriques du calcul : durée de chaque phase ({@code heritage.phase}, tag {@code phase}) et
+ * voie légale suivie par chaque calcul du moteur ({@code heritage.voie}, tag {@code voie}) ou
+ * par chaque wasiyya ({@code heritage.wasiyya}, tag {@code plafonnee}).
+ *
+ * Les phases s'enchaînent : {@link #phase} enregistre la durée écoulée depuis l'instant donné et
+ * renvoie l'instant de fin, début de la phase suivante. Avec une période d'échantillonnage N > 1,
+ * seule une chaîne de phases sur N (tirée au hasard à {@link #debut}) lit l'horloge, et elle est
+ * comptée N fois : nombre et durée totale restent des estimations sans biais. Les voies sont
+ * toujours toutes comptées.
+ *
+ * Tout est accumulé dans des {@link LongAdder} (nombre et durée totale par phase, nombre par
+ * voie) publiés en {@link FunctionTimer} et {@link FunctionCounter} : un enregistrement coûte
+ * une lecture d'horloge et deux additions, sans le maximum glissant ni la synchronisation d'un
+ * {@code Timer}. Avec {@link #INACTIVES}, aucune horloge n'est lue et rien n'est compté.
+ */
+public final class MesuresMoteur {
+
+    public enum Phase {
+        VALIDATION, HAJB, FARD, RESOLUTION, WASIYYA, REDUCTION, REPONSE;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Voie de résolution du reste : aoul, radd, reste non attribué, parts fixes exactes, ou
+     * classe du premier résiduaire (asaba).
+     */
+    public enum Voie {
+        AOUL("aoul"),
+        RADD("radd"),
+        RESTE("reste"),
+        FARD("fard"),
+        ASABA_FILS("asaba-fils"),
+        ASABA_PERE("asaba-pere"),
+        ASABA_GRAND_PERE("asaba-grand-pere"),
+        ASABA_FRERES("asaba-freres"),
+        ASABA_SOEURS("asaba-soeurs"),
+        ASABA_ONCLES("asaba-oncles"),
+        ASABA_COUSINS("asaba-cousins");
+
+        private final String tag;
+
+        Voie(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Voie asaba dont le résiduaire masculin (ou les soeurs) occupe l'emplacement donné.
+         */
+        static Voie asaba(int emplacement) {
+            return switch (emplacement) {
+                case GARCON -> ASABA_FILS;
+                case PERE -> ASABA_PERE;
+                case GRAND_PERE -> ASABA_GRAND_PERE;
+                case FRERE -> ASABA_FRERES;
+                case SOEUR -> ASABA_SOEURS;
+                case ONCLE -> ASABA_ONCLES;
+                case COUSIN -> ASABA_COUSINS;
+                default -> throw new IllegalArgumentException("Emplacement sans asaba: " + emplacement);
+            };
+        }
+    }
+
+    public static final MesuresMoteur INACTIVES = new MesuresMoteur();
+
+    // Début d'une chaîne de phases non mesurée
+    private static final long NON_MESURE = Long.MIN_VALUE;
+
+    private static final class Chrono {
+        final LongAdder nombre = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    private final boolean actives;
+    private final int periode;
+    private final Chrono[] phases;
+    private final LongAdder[] voies;
+    private final LongAdder wasiyyaPlafonnee;
+    private final LongAdder wasiyyaNonPlafonnee;
+
+    private MesuresMoteur() {
+        this.actives = false;
+        this.periode = 1;
+        this.phases = null;
+        this.voies = null;
+        this.wasiyyaPlafonnee = null;
+        this.wasiyyaNonPlafonnee = null;
+    }
+
+    public MesuresMoteur(MeterRegistry registry) {
+        this(registry, 1);
+    }
+
+    /**
+     * @param periode une chaîne de phases mesurée sur {@code periode} en moyenne (1 : toutes)
+     */
+    public MesuresMoteur(MeterRegistry registry, int periode) {
+        if (periode < 1) {
+            throw new IllegalArgumentException("Période d'échantillonnage invalide: " + periode);
+        }
+        this.actives = true;
+        this.periode = periode;
+        this.phases = new Chrono[Phase.values().length];
+        for (Phase phase : Phase.values()) {
+            Chrono chrono = new Chrono();
+            FunctionTimer.builder("heritage.phase", chrono, c -> c.nombre.sum(), c -> c.nanos.sum(), TimeUnit.NANOSECONDS)
+                    .description("Durée de chaque phase du calcul")
+                    .tag("phase", phase.tag())
+                    .register(registry);
+            phases[phase.ordinal()] = chrono;
+        }
+        this.voies = new LongAdder[Voie.values().length];
+        for (Voie voie : Voie.values()) {
+            voies[voie.ordinal()] = compteur(registry, "heritage.voie", "Calculs du moteur par voie de résolution",
+                    "voie", voie.tag);
+        }
+        this.wasiyyaPlafonnee = compteur(registry, "heritage.wasiyya", "Wasiyya calculées, plafonnées au tiers ou non",
+                "plafonnee", "true");
+        this.wasiyyaNonPlafonnee = compteur(registry, "heritage.wasiyya", "Wasiyya calculées, plafonnées au tiers ou non",
+                "plafonnee", "false");
+    }
+
+    private static LongAdder compteur(MeterRegistry registry, String nom, String description, String cle, String valeur) {
+        LongAdder adder = new LongAdder();
+        FunctionCounter.builder(nom, adder, LongAdder::sum)
+                .description(description)
+                .tag(cle, valeur)
+                .register(registry);
+        return adder;
+    }
+
+    /**
+     * Instant de début de la première phase d'une chaîne, ou marqueur d'une chaîne non mesurée
+     * (mesures inactives ou calcul hors échantillon).
+     */
+    public long debut() {
+        if (!actives || (periode > 1 && ThreadLocalRandom.current().nextInt(periode) != 0)) {
+            return NON_MESURE;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Enregistre la phase commencée à {@code debut}.
+     * @return l'instant de fin de la phase, ou le marqueur si la chaîne n'est pas mesurée
+     */
+    public long phase(Phase phase, long debut) {
+        if (debut == NON_MESURE) {
+            return NON_MESURE;
+        }
+        long fin = System.nanoTime();
+        phase(phase, debut, fin);
+        return fin;
+    }
+
+    /**
+     * Fin d'une phase relevée sans l'enregistrer, pour un calcul qui peut encore être abandonné.
+     * @return l'instant courant, ou le marqueur si la chaîne n'est pas mesurée
+     */
+    public long instant(long debut) {
+        return debut == NON_MESURE ? NON_MESURE : System.nanoTime();
+    }
+
+    /**
+     * Enregistre une phase relevée par {@link #instant}.
+     */
+    public void phase(Phase phase, long debut, long fin) {
+        if (debut == NON_MESURE) {
+            return;
+        }
+        Chrono chrono = phases[phase.ordinal()];
+        chrono.nombre.add(periode);
+        chrono.nanos.add((fin - debut) * periode);
+    }
+
+    public void voie(Voie voie) {
+        if (actives) {
+            voies[voie.ordinal()].increment();
+        }
+    }
+
+    public void wasiyya(boolean plafonnee) {
+        if (actives) {
+            (plafonnee ? wasiyyaPlafonnee : wasiyyaNonPlafonnee).increment();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+import java.util.List;
+
+/**
+ * Moteur de calcul des parts pour une composition familiale (sans wasiyya).
+ *
+ * Le résultat liste les héritiers présents dans un ordre fixe, suivis de la
+ * "part restant", toutes les parts étant multipliées par {@code multiplicateur}
+ * puis réduites au même dénominateur.
+ */
+public interface MoteurCalcul {
+
+    List<Heritier> calculer(RequeteNormalisee request, Fraction multiplicateur);
+}
@@ -0,0 +1,411 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.HeirType;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.PartsReduites;
+import com.med.frida_calculs_app.model.ReducteurDenominateurs;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MesuresMoteur.Phase;
+import com.med.frida_calculs_app.moteur.MesuresMoteur.Voie;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.med.frida_calculs_app.moteur.CadresLegaux.*;
+
+/**
+ * Moteur de référence : hajb, fard, aoul, asaba et radd calculés sur des {@link Fraction}.
+ *
+ * Chaque étape est une méthode statique courte opérant sur un {@link Etat} : les appels
+ * sont monomorphes et chaque phase reste sous les seuils d'inlining de C2.
+ */
+public class MoteurClassique implements MoteurCalcul {
+
+    private final MesuresMoteur mesures;
+
+    public MoteurClassique() {
+        this(MesuresMoteur.INACTIVES);
+    }
+
+    public MoteurClassique(MesuresMoteur mesures) {
+        this.mesures = mesures;
+    }
+
+    /**
+     * État d'un calcul : effectifs déclarés et après hajb, parts fixes, parts finales et cadres.
+     */
+    private static final class Etat {
+        final boolean masculin;
+        final int nbConjoints;
+        final boolean pereVivant;
+        final boolean mereVivante;
+        boolean grandPereVivant;
+        boolean grandMereVivante;
+        final int nbFilles;
+        final int nbGarcons;
+        final int nbSoeurs;
+        final int nbFreres;
+        final int nbOncles;
+        final int nbCousins;
+
+        // Effectifs après hajb
+        int activeFreres;
+        int activeSoeurs;
+        int activeOncles;
+        int activeCousins;
+
+        // Parts fixes (collectives pour filles et soeurs)
+        Fraction fConjoint = Fraction.ZERO;
+        Fraction fMere = Fraction.ZERO;
+        Fraction fPere = Fraction.ZERO;
+        Fraction fGrandPere = Fraction.ZERO;
+        Fraction fGrandMere = Fraction.ZERO;
+        Fraction fFilles = Fraction.ZERO;
+        Fraction fSoeurs = Fraction.ZERO;
+
+        // Parts finales (null : aucune part attribuée), collective pour le conjoint, par tête sinon
+        Fraction finalConjoint;
+        Fraction finalMere;
+        Fraction finalPere;
+        Fraction finalGrandPere;
+        Fraction finalGrandMere;
+        Fraction finalFille;
+        Fraction finalGarcon;
+        Fraction finalSoeur;
+        Fraction finalFrere;
+        Fraction finalOncle;
+        Fraction finalCousin;
+        Fraction finalPartRestant = Fraction.ZERO;
+
+        String cadreConjoint = "";
+        String cadreMere = "";
+        String cadrePere = "";
+        String cadreGrandPere = "";
+        String cadreGrandMere = "";
+        String cadreFille = "";
+        String cadreGarcon = "";
+        String cadreSoeur = "";
+        String cadreFrere = "";
+        String cadreOncle = "";
+        String cadreCousin = "";
+
+        Etat(RequeteNormalisee request) {
+            masculin = request.defuntMasculin();
+            nbConjoints = request.nbConjoints();
+            pereVivant = request.pereVivant();
+            mereVivante = request.mereVivante();
+            grandPereVivant = request.grandPerePaternelVivant();
+            grandMereVivante = request.grandMerePaternelleVivante();
+            nbFilles = request.nbFilles();
+            nbGarcons = request.nbGarcons();
+            nbSoeurs = request.nbSoeurs();
+            nbFreres = request.nbFreres();
+            nbOncles = request.nbOncles();
+            nbCousins = request.nbCousins();
+        }
+
+        boolean conjointVivant() {
+            return nbConjoints > 0;
+        }
+
+        boolean descendants() {
+            return nbFilles > 0 || nbGarcons > 0;
+        }
+
+        // Soeurs héritant par fard : ni frère actif ni descendant
+        boolean soeursFard() {
+            return activeSoeurs > 0 && activeFreres == 0 && nbFilles == 0 && nbGarcons == 0;
+        }
+    }
+
+    @Override
+    public List<Heritier> calculer(RequeteNormalisee request, Fraction multiplicateur) {
+        MesuresMoteur m = mesures;
+        long debut = m.debut();
+        Etat e = exclusions(request);
+        debut = m.phase(Phase.HAJB, debut);
+        partsFixes(e);
+
+        PartsReduites fixes = ReducteurDenominateurs.reduire(
+                List.of(e.fConjoint, e.fMere, e.fPere, e.fGrandPere, e.fGrandMere, e.fFilles, e.fSoeurs));
+        long commonDen = fixes.getBase();
+        long sumNum = 0;
+        for (long num : fixes.getNumerateurs()) sumNum += num;
+        debut = m.phase(Phase.FARD, debut);
+
+        Voie voie;
+        if (sumNum > commonDen) {
+            aoul(e, fixes, sumNum);
+            voie = Voie.AOUL;
+        } else {
+            Fraction residue = Fraction.de(commonDen - sumNum, commonDen);
+            voie = asaba(e, residue);
+            boolean radd = voie == null && residue.signum() > 0;
+            if (radd) {
+                radd(e, residue);
+                voie = e.finalPartRestant.signum() > 0 ? Voie.RESTE : Voie.RADD;
+            } else if (voie == null) {
+                voie = Voie.FARD;
+            }
+            cadres(e, radd);
+        }
+        debut = m.phase(Phase.RESOLUTION, debut);
+        m.voie(voie);
+
+        List<Heritier> heritiers = assembler(e, multiplicateur);
+        m.phase(Phase.REDUCTION, debut);
+        return heritiers;
+    }
+
+    // ------------- Phases -----------------------------------
+
+    /**
+     * Hajb : exclusions des ascendants et des collatéraux.
+     */
+    private static Etat exclusions(RequeteNormalisee request) {
+        Etat e = new Etat(request);
+
+        // Le père exclut le grand-père et la grand-mère paternelle
+        if (e.pereVivant) {
+            e.grandPereVivant = false;
+            e.grandMereVivante = false;
+        }
+
+        // La mère exclut la grand-mère paternelle
+        if (e.mereVivante) {
+            e.grandMereVivante = false;
+        }
+
+        boolean agnatProche = e.pereVivant || e.grandPereVivant || e.nbGarcons > 0;
+        e.activeFreres = agnatProche ? 0 : e.nbFreres;
+        e.activeSoeurs = agnatProche ? 0 : e.nbSoeurs;
+        e.activeOncles = agnatProche || e.nbFreres > 0 ? 0 : e.nbOncles;
+        e.activeCousins = agnatProche || e.nbFreres > 0 || e.nbOncles > 0 ? 0 : e.nbCousins;
+        return e;
+    }
+
+    /**
+     * Fard : parts fixes de chaque classe.
+     */
+    private static void partsFixes(Etat e) {
+        if (e.conjointVivant()) {
+            if (e.descendants()) {
+                e.fConjoint = e.masculin ? Fraction.UN_HUITIEME : Fraction.UN_QUART;
+            } else {
+                e.fConjoint = e.masculin ? Fraction.UN_QUART : Fraction.UN_DEMI;
+            }
+        }
+
+        if (e.mereVivante) {
+            e.fMere = partMere(e);
+        }
+
+        if (e.pereVivant) {
+            if (e.descendants()) e.fPere = Fraction.UN_SIXIEME;
+        } else if (e.grandPereVivant) {
+            if (e.descendants()) e.fGrandPere = Fraction.UN_SIXIEME;
+        }
+
+        if (e.grandMereVivante) {
+            e.fGrandMere = Fraction.UN_SIXIEME;
+        }
+
+        if (e.nbFilles > 0 && e.nbGarcons == 0) {
+            e.fFilles = (e.nbFilles == 1) ? Fraction.UN_DEMI : Fraction.DEUX_TIERS;
+        }
+
+        if (e.soeursFard()) {
+            e.fSoeurs = (e.activeSoeurs == 1) ? Fraction.UN_DEMI : Fraction.DEUX_TIERS;
+        }
+
+        partsInitiales(e);
+    }
+
+    // Parts finales avant aoul, asaba et radd : les parts fixes, par tête pour filles et soeurs
+    private static void partsInitiales(Etat e) {
+        e.finalConjoint = e.fConjoint;
+        e.finalMere = e.fMere;
+        e.finalPere = e.fPere;
+        e.finalGrandPere = e.fGrandPere;
+        e.finalGrandMere = e.fGrandMere;
+        e.finalFille = (e.nbFilles > 0 && e.nbGarcons == 0) ? e.fFilles.diviser(e.nbFilles) : null;
+        e.finalSoeur = e.soeursFard() ? e.fSoeurs.diviser(e.activeSoeurs) : null;
+    }
+
+    // Part de la mère : 1/6, 1/3, ou tiers du reste (gharrawayn) avec le père et le conjoint
+    private static Fraction partMere(Etat e) {
+        boolean multipleSiblings = (e.activeFreres + e.activeSoeurs) >= 2;
+        if (e.descendants() || multipleSiblings) {
+            return Fraction.UN_SIXIEME;
+        }
+        if (e.conjointVivant() && e.pereVivant && (e.activeFreres + e.activeSoeurs) == 0) {
+            if (e.fConjoint.getNumerateur() == 1 && e.fConjoint.getDenominateur() == 2) {
+                return Fraction.UN_SIXIEME;
+            } else if (e.fConjoint.getNumerateur() == 1 && e.fConjoint.getDenominateur() == 4) {
+                return Fraction.UN_QUART;
+            }
+        }
+        return Fraction.UN_TIERS;
+    }
+
+    /**
+     * Aoul : les parts fixes dépassent l'unité, chacune est ramenée à sa part de la somme.
+     */
+    private static void aoul(Etat e, PartsReduites fixes, long sumNum) {
+        e.finalConjoint = Fraction.de(fixes.getNumerateur(0), sumNum);
+        e.finalMere = Fraction.de(fixes.getNumerateur(1), sumNum);
+        e.finalPere = Fraction.de(fixes.getNumerateur(2), sumNum);
+        e.finalGrandPere = Fraction.de(fixes.getNumerateur(3), sumNum);
+        e.finalGrandMere = Fraction.de(fixes.getNumerateur(4), sumNum);
+        if (e.nbFilles > 0) e.finalFille = Fraction.de(fixes.getNumerateur(5), sumNum).diviser(e.nbFilles);
+        if (e.activeSoeurs > 0) e.finalSoeur = Fraction.de(fixes.getNumerateur(6), sumNum).diviser(e.activeSoeurs);
+
+        if (e.nbGarcons > 0) { e.finalGarcon = Fraction.ZERO; if (e.nbFilles > 0) e.finalFille = Fraction.ZERO; }
+        if (e.activeFreres > 0) { e.finalFrere = Fraction.ZERO; if (e.activeSoeurs > 0) e.finalSoeur = Fraction.ZERO; }
+        if (e.activeOncles > 0) e.finalOncle = Fraction.ZERO;
+        if (e.activeCousins > 0) e.finalCousin = Fraction.ZERO;
+
+        e.cadreConjoint = e.cadreMere = e.cadrePere = e.cadreGrandPere = e.cadreGrandMere = e.cadreFille = e.cadreSoeur = AOUL;
+        e.cadreGarcon = e.cadreFrere = e.cadreOncle = e.cadreCousin = ASABA;
+    }
+
+    /**
+     * Asaba : le reste revient au premier résiduaire dans l'ordre de priorité.
+     * @return la classe du résiduaire, null si aucun résiduaire n'hérite
+     */
+    private static Voie asaba(Etat e, Fraction residue) {
+        if (e.nbGarcons > 0) {
+            int parts = (e.nbGarcons * 2) + e.nbFilles;
+            e.finalGarcon = residue.multiplier(2).diviser(parts);
+            e.finalFille = residue.multiplier(1).diviser(parts);
+            e.cadreGarcon = e.cadreFille = ASABA;
+            return Voie.ASABA_FILS;
+        }
+        if (e.pereVivant) {
+            e.finalPere = e.finalPere.ajouter(residue);
+            e.cadrePere = (e.nbFilles > 0) ? FARD_ET_ASABA : ASABA;
+            return Voie.ASABA_PERE;
+        }
+        if (e.grandPereVivant) {
+            e.finalGrandPere = e.finalGrandPere.ajouter(residue);
+            e.cadreGrandPere = (e.nbFilles > 0) ? FARD_ET_ASABA : ASABA;
+            return Voie.ASABA_GRAND_PERE;
+        }
+        if (e.activeFreres > 0) {
+            int parts = (e.activeFreres * 2) + e.activeSoeurs;
+            e.finalFrere = residue.multiplier(2).diviser(parts);
+            e.finalSoeur = residue.multiplier(1).diviser(parts);
+            e.cadreFrere = e.cadreSoeur = ASABA;
+            return Voie.ASABA_FRERES;
+        }
+        if (e.nbFilles > 0 && e.activeSoeurs > 0) {
+            e.finalSoeur = residue.diviser(e.activeSoeurs);
+            e.cadreSoeur = ASABA;
+            return Voie.ASABA_SOEURS;
+        }
+        if (e.activeOncles > 0) {
+            e.finalOncle = residue.diviser(e.activeOncles);
+            e.cadreOncle = ASABA;
+            return Voie.ASABA_ONCLES;
+        }
+        if (e.activeCousins > 0) {
+            e.finalCousin = residue.diviser(e.activeCousins);
+            e.cadreCousin = ASABA;
+            return Voie.ASABA_COUSINS;
+        }
+        return null;
+    }
+
+    /**
+     * Radd : sans résiduaire, le reste est redistribué aux héritiers à part fixe (hors conjoint).
+     */
+    private static void radd(Etat e, Fraction residue) {
+        Fraction sommeEligible = e.fMere.ajouter(e.fGrandMere).ajouter(e.fFilles).ajouter(e.fSoeurs);
+        if (sommeEligible.signum() > 0) {
+            Fraction multiplierFactor = Fraction.UN.soustraire(e.fConjoint).diviser(sommeEligible);
+            if (e.mereVivante) e.finalMere = e.fMere.multiplier(multiplierFactor);
+            if (e.grandMereVivante) e.finalGrandMere = e.fGrandMere.multiplier(multiplierFactor);
+            if (e.nbFilles > 0) e.finalFille = e.fFilles.multiplier(multiplierFactor).diviser(e.nbFilles);
+            if (e.activeSoeurs > 0) e.finalSoeur = e.fSoeurs.multiplier(multiplierFactor).diviser(e.activeSoeurs);
+        } else {
+            e.finalPartRestant = residue;
+        }
+    }
+
+    /**
+     * Cadres légaux des héritiers qui n'en ont pas reçu (hors aoul).
+     */
+    private static void cadres(Etat e, boolean radd) {
+        String fardOuRadd = radd ? FARD_ET_RADD : FARD;
+        if (e.conjointVivant()) e.cadreConjoint = FARD;
+        if (e.mereVivante) e.cadreMere = fardOuRadd;
+        if (e.pereVivant && e.cadrePere.isEmpty()) e.cadrePere = FARD;
+        if (e.grandPereVivant && e.cadreGrandPere.isEmpty()) e.cadreGrandPere = FARD;
+        if (e.grandMereVivante && e.cadreGrandMere.isEmpty()) e.cadreGrandMere = fardOuRadd;
+        if (e.nbFilles > 0 && e.cadreFille.isEmpty()) e.cadreFille = fardOuRadd;
+        if (e.nbSoeurs > 0 && e.cadreSoeur.isEmpty()) e.cadreSoeur = (e.activeSoeurs == 0) ? EXCLU : fardOuRadd;
+        if (e.nbFreres > 0 && e.cadreFrere.isEmpty()) e.cadreFrere = (e.activeFreres == 0) ? EXCLU : ASABA;
+        if (e.nbOncles > 0 && e.cadreOncle.isEmpty()) e.cadreOncle = (e.activeOncles == 0) ? EXCLU : ASABA;
+        if (e.nbCousins > 0 && e.cadreCousin.isEmpty()) e.cadreCousin = (e.activeCousins == 0) ? EXCLU : ASABA;
+    }
+
+    /**
+     * Héritiers présents dans l'ordre fixe, parts multipliées puis réduites au même dénominateur.
+     */
+    private static List<Heritier> assembler(Etat e, Fraction multiplicateur) {
+        List<Heritier> heritiers = heritiers(e, multiplicateur);
+        reduire(heritiers, e.conjointVivant());
+        return heritiers;
+    }
+
+    private static List<Heritier> heritiers(Etat e, Fraction multiplicateur) {
+        List<Heritier> heritiers = new ArrayList<>(12);
+
+        if (e.conjointVivant()) ajouterConjoint(heritiers, e, multiplicateur);
+        if (e.pereVivant) ajouter(heritiers, HeirType.FATHER, e.finalPere, e.cadrePere, multiplicateur);
+        if (e.grandPereVivant) ajouter(heritiers, HeirType.PATERNAL_GRANDFATHER, e.finalGrandPere, e.cadreGrandPere, multiplicateur);
+        if (e.grandMereVivante) ajouter(heritiers, HeirType.PATERNAL_GRANDMOTHER, e.finalGrandMere, e.cadreGrandMere, multiplicateur);
+        if (e.mereVivante) ajouter(heritiers, HeirType.MOTHER, e.finalMere, e.cadreMere, multiplicateur);
+        if (e.nbFilles > 0) ajouter(heritiers, HeirType.DAUGHTER, e.finalFille, e.cadreFille, multiplicateur);
+        if (e.nbGarcons > 0) ajouter(heritiers, HeirType.SON, e.finalGarcon, e.cadreGarcon, multiplicateur);
+        if (e.nbSoeurs > 0) ajouter(heritiers, HeirType.SISTER, e.finalSoeur, e.cadreSoeur, multiplicateur);
+        if (e.nbFreres > 0) ajouter(heritiers, HeirType.BROTHER, e.finalFrere, e.cadreFrere, multiplicateur);
+        if (e.nbOncles > 0) ajouter(heritiers, HeirType.PATERNAL_UNCLE, e.finalOncle, e.cadreOncle, multiplicateur);
+        if (e.nbCousins > 0) ajouter(heritiers, HeirType.PATERNAL_COUSIN, e.finalCousin, e.cadreCousin, multiplicateur);
+        heritiers.add(new Heritier(HeirType.REMAINDER, e.finalPartRestant.multiplier(multiplicateur)));
+        return heritiers;
+    }
+
+    // Seul le conjoint (en tête) garde une part légale distincte (collective) de sa part (par tête)
+    private static void reduire(List<Heritier> heritiers, boolean conjoint) {
+        List<Fraction> parts = new ArrayList<>(heritiers.size());
+        for (Heritier h : heritiers) {
+            parts.add(h.getPart());
+        }
+        PartsReduites memeDenominateur = ReducteurDenominateurs.reduire(parts);
+        int premier = conjoint ? 1 : 0;
+        for (int i = 0; i < heritiers.size(); i++) {
+            Fraction part = memeDenominateur.fraction(i);
+            heritiers.get(i).setPart(part);
+            if (i >= premier) {
+                heritiers.get(i).setPartLegale(part);
+            }
+        }
+    }
+
+    // Part par tête, part légale collective
+    private static void ajouterConjoint(List<Heritier> heritiers, Etat e, Fraction multiplicateur) {
+        Heritier h = new Heritier(HeirType.SPOUSE, e.finalConjoint.diviser(e.nbConjoints).multiplier(multiplicateur));
+        h.setCadreLegal(e.cadreConjoint);
+        h.setPartLegale(e.finalConjoint.multiplier(multiplicateur));
+        heritiers.add(h);
+    }
+
+    private static void ajouter(List<Heritier> heritiers, HeirType type, Fraction part, String cadre,
+                                Fraction multiplicateur) {
+        Heritier h = new Heritier(type, (part != null ? part : Fraction.ZERO).multiplier(multiplicateur));
+        h.setCadreLegal(cadre);
+        heritiers.add(h);
+    }
+}
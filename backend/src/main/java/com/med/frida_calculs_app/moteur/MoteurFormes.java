@@ -0,0 +1,105 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.med.frida_calculs_app.moteur.ArithmetiqueLong.pgcd;
+import static com.med.frida_calculs_app.moteur.ArithmetiqueLong.ppcm;
+
+/**
+ * Moteur à formules fermées : la requête est classée dans sa forme
+ * ({@link CatalogueFormes#coder}), puis les formules précompilées de la forme sont
+ * évaluées directement, sans cascade hajb / fard / asaba.
+ *
+ * Comme pour {@link MoteurPrimitif}, un dépassement de capacité ou un multiplicateur
+ * hors long renvoie vers le moteur de repli.
+ */
+public class MoteurFormes implements MoteurCalcul {
+
+    private final CatalogueFormes catalogue;
+    private final MoteurCalcul repli;
+    private final MesuresMoteur mesures;
+
+    public MoteurFormes(CatalogueFormes catalogue, MoteurCalcul repli) {
+        this(catalogue, repli, MesuresMoteur.INACTIVES);
+    }
+
+    public MoteurFormes(CatalogueFormes catalogue, MoteurCalcul repli, MesuresMoteur mesures) {
+        this.catalogue = catalogue;
+        this.repli = repli;
+        this.mesures = mesures;
+    }
+
+    /**
+     * Hajb, fard et résolution sont précompilés dans la forme : le classement de la requête est
+     * mesuré comme phase de résolution, l'évaluation des formules comme phase de réduction.
+     */
+    @Override
+    public List<Heritier> calculer(RequeteNormalisee request, Fraction multiplicateur) {
+        MesuresMoteur m = mesures;
+        long debut = m.debut();
+        int code = CatalogueFormes.coder(request);
+        if (!multiplicateur.estCompacte()) {
+            return repli.calculer(request, multiplicateur);
+        }
+        try {
+            Forme forme = catalogue.forme(code);
+            debut = m.phase(MesuresMoteur.Phase.RESOLUTION, debut);
+            List<Heritier> heritiers = evaluer(forme, request, multiplicateur.getNumerateur(), multiplicateur.getDenominateur());
+            m.phase(MesuresMoteur.Phase.REDUCTION, debut);
+            m.voie(forme.voie);
+            return heritiers;
+        } catch (ArithmeticException depassement) {
+            return repli.calculer(request, multiplicateur);
+        }
+    }
+
+    private static List<Heritier> evaluer(Forme forme, RequeteNormalisee request, long multNum, long multDen) {
+        int taille = forme.taille();
+        long[] num = new long[taille];
+        long[] den = new long[taille];
+        long denCommun = 1;
+        for (int i = 0; i < taille; i++) {
+            long diviseur = Math.addExact(
+                    Math.multiplyExact(forme.coefA[i], effectif(request, forme.varA[i])),
+                    Math.multiplyExact(forme.coefB[i], effectif(request, forme.varB[i])));
+            long n = Math.multiplyExact(Math.multiplyExact(forme.groupeNum[i], forme.poids[i]), multNum);
+            long d = Math.multiplyExact(Math.multiplyExact(forme.groupeDen[i], diviseur), multDen);
+            long g = pgcd(Math.absExact(n), d);
+            num[i] = n / g;
+            den[i] = d / g;
+            denCommun = ppcm(denCommun, den[i]);
+        }
+
+        List<Heritier> heritiers = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            Heritier h = new Heritier(forme.types[i],
+                    new Fraction(Math.multiplyExact(num[i], denCommun / den[i]), denCommun, true));
+            if (i == 0 && forme.varA[0] == Forme.V_CONJOINTS) {
+                // Part légale collective du conjoint
+                h.setPartLegale(new Fraction(Math.multiplyExact(forme.groupeNum[0], multNum),
+                        Math.multiplyExact(forme.groupeDen[0], multDen)));
+            }
+            h.setCadreLegal(forme.cadres[i]);
+            heritiers.add(h);
+        }
+        return heritiers;
+    }
+
+    private static long effectif(RequeteNormalisee request, int variable) {
+        return switch (variable) {
+            case Forme.V_CONJOINTS -> request.nbConjoints();
+            case Forme.V_FILLES -> request.nbFilles();
+            case Forme.V_GARCONS -> request.nbGarcons();
+            case Forme.V_SOEURS -> request.nbSoeurs();
+            case Forme.V_FRERES -> request.nbFreres();
+            case Forme.V_ONCLES -> request.nbOncles();
+            case Forme.V_COUSINS -> request.nbCousins();
+            default -> 1;
+        };
+    }
+}
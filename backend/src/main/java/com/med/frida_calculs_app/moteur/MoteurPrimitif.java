@@ -0,0 +1,399 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MesuresMoteur.Phase;
+import com.med.frida_calculs_app.moteur.MesuresMoteur.Voie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.med.frida_calculs_app.moteur.ArithmetiqueLong.pgcd;
+import static com.med.frida_calculs_app.moteur.ArithmetiqueLong.ppcm;
+import static com.med.frida_calculs_app.moteur.CadresLegaux.*;
+import static com.med.frida_calculs_app.moteur.ReglesHeritage.*;
+
+/**
+ * Moteur sans allocation intermédiaire, piloté par les tables de {@link ReglesHeritage}.
+ *
+ * Le pipeline hajb / fard / aoul / asaba / radd est déroulé sur des couples
+ * numérateur/dénominateur {@code long} rangés dans des tableaux de travail propres
+ * à chaque thread, ou empruntés à une réserve sur thread virtuel (un emplacement par classe
+ * d'héritiers). Les exclusions, parts fixes et
+ * priorités d'asaba sont lues dans les tables compilées ; les {@link Fraction} et
+ * {@link Heritier} ne sont construits qu'à la sortie.
+ *
+ * Toutes les opérations sont contrôlées : en cas de dépassement de capacité (ou si le
+ * multiplicateur ne tient pas en long), le calcul est confié au moteur de repli, ce qui
+ * garantit un résultat identique à celui du moteur classique.
+ */
+public class MoteurPrimitif implements MoteurCalcul {
+
+    /**
+     * Tableaux de travail réutilisés d'un calcul à l'autre sur un même thread (ou via la réserve).
+     */
+    static final class Travail {
+        // Effectif déclaré, puis effectif après hajb (nul pour une classe exclue)
+        final int[] effectif = new int[NB_CLASSES];
+        final int[] actif = new int[NB_CLASSES];
+        // Part fixe de chaque classe (part collective pour filles et soeurs)
+        final long[] fardNum = new long[NB_EMPLACEMENTS];
+        final long[] fardDen = new long[NB_EMPLACEMENTS];
+        // Part finale : collective pour le conjoint, par tête pour les autres classes
+        final long[] num = new long[NB_EMPLACEMENTS];
+        final long[] den = new long[NB_EMPLACEMENTS];
+        final String[] cadre = new String[NB_EMPLACEMENTS];
+        // Emplacements figurant dans le résultat
+        int presents;
+        // Classes non exclues, contexte des règles et classes ayant une part fixe
+        int actives;
+        int contexte;
+        int fixees;
+        // Somme des parts fixes : sommeNum / denCommun
+        long denCommun;
+        long sommeNum;
+
+        void reinitialiser() {
+            Arrays.fill(fardNum, 0);
+            Arrays.fill(fardDen, 1);
+            Arrays.fill(num, 0);
+            Arrays.fill(den, 1);
+            Arrays.fill(cadre, "");
+            presents = 0;
+        }
+    }
+
+    private static final ThreadLocal<Travail> TRAVAIL = ThreadLocal.withInitial(Travail::new);
+
+    // Threads virtuels : un thread par requête, le ThreadLocal serait réalloué à chaque calcul.
+    // Le calcul ne bloque jamais, donc le nombre de tableaux en circulation reste borné par le
+    // nombre de threads porteurs.
+    private static final Queue<Travail> TRAVAUX_LIBRES = new ConcurrentLinkedQueue<>();
+
+    private final MoteurCalcul repli;
+    private final MesuresMoteur mesures;
+
+    public MoteurPrimitif(MoteurCalcul repli) {
+        this(repli, MesuresMoteur.INACTIVES);
+    }
+
+    public MoteurPrimitif(MoteurCalcul repli, MesuresMoteur mesures) {
+        this.repli = repli;
+        this.mesures = mesures;
+    }
+
+    @Override
+    public List<Heritier> calculer(RequeteNormalisee request, Fraction multiplicateur) {
+        if (!multiplicateur.estCompacte()) {
+            return repli.calculer(request, multiplicateur);
+        }
+        boolean virtuel = Thread.currentThread().isVirtual();
+        Travail t = virtuel ? emprunter() : TRAVAIL.get();
+        try {
+            t.reinitialiser();
+            // Phases et voie enregistrées une fois le calcul abouti : sur dépassement, le moteur de
+            // repli refait le calcul et les enregistre lui-même
+            MesuresMoteur m = mesures;
+            long debut = m.debut();
+            exclusions(request, t);
+            long finHajb = m.instant(debut);
+            partsFixes(t);
+            long finFard = m.instant(finHajb);
+            Voie voie = resoudre(t);
+            long finResolution = m.instant(finFard);
+            List<Heritier> heritiers = assembler(request, t, multiplicateur.getNumerateur(), multiplicateur.getDenominateur());
+            m.phase(Phase.REDUCTION, finResolution);
+            m.phase(Phase.HAJB, debut, finHajb);
+            m.phase(Phase.FARD, finHajb, finFard);
+            m.phase(Phase.RESOLUTION, finFard, finResolution);
+            m.voie(voie);
+            return heritiers;
+        } catch (ArithmeticException depassement) {
+            return repli.calculer(request, multiplicateur);
+        } finally {
+            if (virtuel) {
+                TRAVAUX_LIBRES.offer(t);
+            }
+        }
+    }
+
+    private static Travail emprunter() {
+        Travail t = TRAVAUX_LIBRES.poll();
+        return t != null ? t : new Travail();
+    }
+
+    /**
+     * Après hajb et parts fixes : aoul ou asaba/radd. Remplit {@code t.num/den} et {@code t.cadre}.
+     * @return la voie de résolution suivie
+     */
+    private static Voie resoudre(Travail t) {
+        if (t.sommeNum > t.denCommun) {
+            aoul(t);
+            return Voie.AOUL;
+        }
+
+        long resteNum = t.denCommun - t.sommeNum;
+        long resteDen = t.denCommun;
+        long g = pgcd(resteNum, resteDen);
+        resteNum /= g;
+        resteDen /= g;
+
+        Voie voie = asaba(t, resteNum, resteDen);
+        boolean radd = voie == null && resteNum > 0;
+        if (radd) {
+            radd(t, resteNum, resteDen);
+            voie = t.num[RESTE] != 0 ? Voie.RESTE : Voie.RADD;
+        } else if (voie == null) {
+            voie = Voie.FARD;
+        }
+        cadres(t, radd);
+        return voie;
+    }
+
+    // ------------- Phases -----------------------------------
+
+    /**
+     * Hajb : effectifs déclarés, classes actives, emplacements présents et contexte des règles.
+     */
+    private static void exclusions(RequeteNormalisee request, Travail t) {
+        boolean masculin = request.defuntMasculin();
+
+        int[] effectif = t.effectif;
+        int[] actif = t.actif;
+        int declares = lireEffectifs(request, effectif);
+        int actives = ACTIVES[declares];
+        for (int c = 0; c < NB_CLASSES; c++) {
+            actif[c] = (actives & bit(c)) != 0 ? effectif[c] : 0;
+        }
+        t.actives = actives;
+        t.presents = (declares & (actives | VISIBLES_SI_EXCLUES)) | bit(RESTE);
+        t.contexte = contexte(actives, actif, masculin);
+    }
+
+    /**
+     * Fard : parts fixes lues dans les tables de décision, parts finales initiales
+     * (par tête pour les parts collectives), dénominateur commun et somme des parts fixes.
+     */
+    private static void partsFixes(Travail t) {
+        long[] fn = t.fardNum;
+        long[] fd = t.fardDen;
+        for (int c : EMPLACEMENTS_FARD) {
+            int r = fard(c, t.contexte);
+            if (r >= 0) {
+                fn[c] = FARD_NUM[r];
+                fd[c] = FARD_DEN[r];
+            }
+        }
+
+        long[] num = t.num;
+        long[] den = t.den;
+        for (int c : EMPLACEMENTS_FARD) {
+            if ((COLLECTIVES & bit(c)) == 0) {
+                num[c] = fn[c];
+                den[c] = fd[c];
+            } else if (fn[c] != 0) {
+                fixer(num, den, c, fn[c], Math.multiplyExact(fd[c], t.actif[c]));
+            }
+        }
+
+        sommeFixes(t);
+    }
+
+    // Somme des parts fixes : les classes sans part fixe ne contribuent pas au dénominateur commun
+    private static void sommeFixes(Travail t) {
+        long[] fn = t.fardNum;
+        long[] fd = t.fardDen;
+        int fixees = 0;
+        long denCommun = 1;
+        for (int c : EMPLACEMENTS_FARD) {
+            if (fn[c] != 0) {
+                fixees |= bit(c);
+                denCommun = ppcm(denCommun, fd[c]);
+            }
+        }
+        long sommeNum = 0;
+        for (int c : EMPLACEMENTS_FARD) {
+            if ((fixees & bit(c)) != 0) {
+                sommeNum = Math.addExact(sommeNum, Math.multiplyExact(fn[c], denCommun / fd[c]));
+            }
+        }
+        t.fixees = fixees;
+        t.denCommun = denCommun;
+        t.sommeNum = sommeNum;
+    }
+
+    /**
+     * Aoul : chaque part fixe est ramenée à (part au dénominateur commun) / somme.
+     */
+    private static void aoul(Travail t) {
+        long[] fn = t.fardNum;
+        long[] fd = t.fardDen;
+        for (int c : EMPLACEMENTS_FARD) {
+            long part = Math.multiplyExact(fn[c], t.denCommun / fd[c]);
+            if ((COLLECTIVES & bit(c)) == 0) {
+                fixer(t.num, t.den, c, part, t.sommeNum);
+            } else if (t.actif[c] > 0) {
+                fixer(t.num, t.den, c, part, Math.multiplyExact(t.sommeNum, t.actif[c]));
+            }
+        }
+        for (int c = 0; c < NB_CLASSES; c++) {
+            t.cadre[c] = (AVEC_FARD & bit(c)) != 0 ? AOUL : ASABA;
+        }
+    }
+
+    /**
+     * Asaba : le reste revient aux résiduaires de la première règle applicable.
+     * @return la classe du résiduaire, null si aucune règle ne s'applique
+     */
+    private static Voie asaba(Travail t, long resteNum, long resteDen) {
+        int regle = ReglesHeritage.asaba(t.contexte);
+        if (regle < 0) {
+            return null;
+        }
+        long[] num = t.num;
+        long[] den = t.den;
+        int[] actif = t.actif;
+        String[] cadre = t.cadre;
+        int male = ASABA_MALE[regle];
+        switch (ASABA_PARTAGE[regle]) {
+            case GROUPE -> {
+                int femelle = ASABA_FEMELLE[regle];
+                long parts = 2L * actif[male] + actif[femelle];
+                fixer(num, den, male, Math.multiplyExact(resteNum, 2), Math.multiplyExact(resteDen, parts));
+                fixer(num, den, femelle, resteNum, Math.multiplyExact(resteDen, parts));
+                cadre[male] = cadre[femelle] = ASABA;
+            }
+            case AJOUT -> {
+                ajouter(num, den, male, resteNum, resteDen);
+                cadre[male] = t.fardNum[male] != 0 ? FARD_ET_ASABA : ASABA;
+            }
+            case PAR_TETE -> {
+                fixer(num, den, male, resteNum, Math.multiplyExact(resteDen, actif[male]));
+                cadre[male] = ASABA;
+            }
+        }
+        return Voie.asaba(male);
+    }
+
+    /**
+     * Radd : le reste est redistribué aux héritiers à part fixe éligibles (hors conjoint).
+     */
+    private static void radd(Travail t, long resteNum, long resteDen) {
+        long[] fn = t.fardNum;
+        long[] fd = t.fardDen;
+        int eligibles = t.fixees & ELIGIBLES_RADD;
+        long eligibleDen = 1;
+        for (int c : EMPLACEMENTS_RADD) {
+            if ((eligibles & bit(c)) != 0) eligibleDen = ppcm(eligibleDen, fd[c]);
+        }
+        long eligibleNum = 0;
+        for (int c : EMPLACEMENTS_RADD) {
+            if ((eligibles & bit(c)) != 0) {
+                eligibleNum = Math.addExact(eligibleNum, Math.multiplyExact(fn[c], eligibleDen / fd[c]));
+            }
+        }
+        if (eligibleNum == 0) {
+            t.num[RESTE] = resteNum;
+            t.den[RESTE] = resteDen;
+            return;
+        }
+        // facteur = (1 - part du conjoint) / somme des parts éligibles
+        long facteurNum = Math.multiplyExact(fd[CONJOINT] - fn[CONJOINT], eligibleDen);
+        long facteurDen = Math.multiplyExact(fd[CONJOINT], eligibleNum);
+        for (int c : EMPLACEMENTS_RADD) {
+            if ((eligibles & bit(c)) != 0) {
+                long d = Math.multiplyExact(fd[c], facteurDen);
+                if ((COLLECTIVES & bit(c)) != 0) {
+                    d = Math.multiplyExact(d, t.actif[c]);
+                }
+                fixer(t.num, t.den, c, Math.multiplyExact(fn[c], facteurNum), d);
+            }
+        }
+    }
+
+    /**
+     * Cadres légaux des classes présentes qui n'en ont pas reçu (hors aoul).
+     */
+    private static void cadres(Travail t, boolean radd) {
+        String[] cadre = t.cadre;
+        for (int c = 0; c < NB_CLASSES; c++) {
+            if ((t.presents & bit(c)) == 0 || !cadre[c].isEmpty()) continue;
+            if ((t.actives & bit(c)) == 0) {
+                cadre[c] = EXCLU;
+            } else if (radd && (ELIGIBLES_RADD & bit(c)) != 0) {
+                cadre[c] = FARD_ET_RADD;
+            } else {
+                cadre[c] = (AVEC_FARD & bit(c)) != 0 ? FARD : ASABA;
+            }
+        }
+    }
+
+    /**
+     * Applique le multiplicateur, réduit au même dénominateur et construit les héritiers.
+     */
+    private static List<Heritier> assembler(RequeteNormalisee request, Travail t, long multNum, long multDen) {
+        long[] num = t.num;
+        long[] den = t.den;
+        int presents = t.presents;
+
+        Fraction legaleConjoint = (presents & bit(CONJOINT)) != 0 ? partLegaleConjoint(t, multNum, multDen) : null;
+
+        int nbPresents = 0;
+        long denCommun = 1;
+        for (int i = 0; i < NB_EMPLACEMENTS; i++) {
+            if ((presents & bit(i)) == 0) continue;
+            fixer(num, den, i, Math.multiplyExact(num[i], multNum), Math.multiplyExact(den[i], multDen));
+            denCommun = ppcm(denCommun, den[i]);
+            nbPresents++;
+        }
+
+        List<Heritier> heritiers = new ArrayList<>(nbPresents);
+        for (int i = 0; i < NB_EMPLACEMENTS; i++) {
+            if ((presents & bit(i)) == 0) continue;
+            Fraction part = new Fraction(Math.multiplyExact(num[i], denCommun / den[i]), denCommun, true);
+            Heritier h = new Heritier(TYPES[i], part);
+            if (i == CONJOINT) {
+                h.setPartLegale(legaleConjoint);
+            }
+            if (i != RESTE) {
+                h.setCadreLegal(t.cadre[i]);
+            }
+            heritiers.add(h);
+        }
+        return heritiers;
+    }
+
+    // Part légale collective du conjoint ; sa part est ensuite ramenée à une part par tête
+    private static Fraction partLegaleConjoint(Travail t, long multNum, long multDen) {
+        long[] num = t.num;
+        long[] den = t.den;
+        long legaleNum = Math.multiplyExact(num[CONJOINT], multNum);
+        long legaleDen = Math.multiplyExact(den[CONJOINT], multDen);
+        long g = pgcd(Math.absExact(legaleNum), legaleDen);
+        fixer(num, den, CONJOINT, num[CONJOINT], Math.multiplyExact(den[CONJOINT], t.effectif[CONJOINT]));
+        return new Fraction(legaleNum / g, legaleDen / g, true);
+    }
+
+    // --- Arithmétique sur les tableaux de travail (résultats toujours réduits) ---
+
+    private static void fixer(long[] num, long[] den, int i, long n, long d) {
+        if (d < 0) {
+            n = Math.negateExact(n);
+            d = Math.negateExact(d);
+        }
+        long g = pgcd(Math.absExact(n), d);
+        num[i] = n / g;
+        den[i] = d / g;
+    }
+
+    private static void ajouter(long[] num, long[] den, int i, long n, long d) {
+        fixer(num, den, i,
+                Math.addExact(Math.multiplyExact(num[i], d), Math.multiplyExact(n, den[i])),
+                Math.multiplyExact(den[i], d));
+    }
+
+}
@@ -0,0 +1,349 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.HeirType;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+
+import static com.med.frida_calculs_app.moteur.ArithmetiqueLong.pgcd;
+
+/**
+ * Règles de hajb, de fard et d'asaba exprimées sous forme de tables.
+ *
+ * Chaque classe d'héritiers occupe un emplacement, et donc un bit. Les conditions des
+ * règles portent sur un contexte entier : bits des classes effectivement présentes
+ * (après hajb), bit {@link #MASCULIN}, puis bits de caractéristiques (« au moins n
+ * héritiers parmi telles classes »). Une règle s'applique lorsque tous ses bits requis
+ * sont présents dans le contexte et aucun de ses bits interdits.
+ * <ul>
+ *   <li>hajb : une classe est exclue dès qu'une classe de son masque d'exclusion est présente ;</li>
+ *   <li>fard : pour chaque classe, la première ligne applicable donne la part fixe ;</li>
+ *   <li>asaba : la première ligne applicable désigne les résiduaires et leur mode de partage.</li>
+ * </ul>
+ * Les tables sont compilées une fois, au chargement de la classe, en tables de décision
+ * lues par {@link MoteurPrimitif} : le hajb est indexé par le masque de présence, le fard
+ * de chaque classe et l'asaba par les seuls bits du contexte que lisent leurs règles. Ajouter une classe d'héritiers revient à ajouter un emplacement et les
+ * lignes correspondantes, sans nouvelle branche dans le moteur.
+ */
+final class ReglesHeritage {
+
+    // Emplacements des classes d'héritiers, dans l'ordre de sortie du résultat
+    static final int CONJOINT = 0;
+    static final int PERE = 1;
+    static final int GRAND_PERE = 2;
+    static final int GRAND_MERE = 3;
+    static final int MERE = 4;
+    static final int FILLE = 5;
+    static final int GARCON = 6;
+    static final int SOEUR = 7;
+    static final int FRERE = 8;
+    static final int ONCLE = 9;
+    static final int COUSIN = 10;
+    static final int RESTE = 11;
+    static final int NB_EMPLACEMENTS = 12;
+    // Classes de personnes (toutes sauf la part restante)
+    static final int NB_CLASSES = RESTE;
+
+    // Bits du contexte au-delà des classes
+    static final int MASCULIN = 1 << 12;
+    static final int DESCENDANTS = 1 << 13;
+    static final int FRATRIE = 1 << 14;
+    static final int FRATRIE_MULTIPLE = 1 << 15;
+    static final int FILLES_MULTIPLES = 1 << 16;
+    static final int SOEURS_MULTIPLES = 1 << 17;
+
+    enum Partage {
+        // Garçons / filles, frères / soeurs : deux parts pour un homme, une pour une femme
+        GROUPE,
+        // Le reste s'ajoute à la part fixe (père, grand-père)
+        AJOUT,
+        // Le reste est partagé à parts égales entre les membres de la classe
+        PAR_TETE
+    }
+
+    /**
+     * Classe d'héritiers : part fixe collective (divisée par l'effectif), éligibilité au radd,
+     * maintien dans le résultat (cadre « exclu ») lorsqu'elle est exclue. L'effectif est lu
+     * dans la requête par {@link #lireEffectifs}.
+     */
+    record Classe(HeirType type, boolean collective, boolean radd,
+                  boolean visibleSiExclue) {
+    }
+
+    record Exclusion(int classe, int excluants) {
+    }
+
+    record Caracteristique(int bit, int classes, int seuil) {
+    }
+
+    record Fard(int classe, int requis, int interdits, long num, long den) {
+    }
+
+    record Asaba(int requis, int male, int femelle, Partage partage) {
+    }
+
+    // ------------- Tables -----------------------------------
+
+    static final Classe[] CLASSES = {
+            new Classe(HeirType.SPOUSE, false, false, true),
+            new Classe(HeirType.FATHER, false, false, true),
+            new Classe(HeirType.PATERNAL_GRANDFATHER, false, false, false),
+            new Classe(HeirType.PATERNAL_GRANDMOTHER, false, true, false),
+            new Classe(HeirType.MOTHER, false, true, true),
+            new Classe(HeirType.DAUGHTER, true, true, true),
+            new Classe(HeirType.SON, false, false, true),
+            new Classe(HeirType.SISTER, true, true, true),
+            new Classe(HeirType.BROTHER, false, false, true),
+            new Classe(HeirType.PATERNAL_UNCLE, false, false, true),
+            new Classe(HeirType.PATERNAL_COUSIN, false, false, true),
+    };
+
+    // Hajb sur les présences déclarées
+    static final Exclusion[] EXCLUSIONS = {
+            new Exclusion(GRAND_PERE, bits(PERE)),
+            new Exclusion(GRAND_MERE, bits(PERE, MERE)),
+            new Exclusion(SOEUR, bits(PERE, GRAND_PERE, GARCON)),
+            new Exclusion(FRERE, bits(PERE, GRAND_PERE, GARCON)),
+            new Exclusion(ONCLE, bits(PERE, GRAND_PERE, GARCON, FRERE)),
+            new Exclusion(COUSIN, bits(PERE, GRAND_PERE, GARCON, FRERE, ONCLE)),
+    };
+
+    // Caractéristiques sur les effectifs après hajb
+    static final Caracteristique[] CARACTERISTIQUES = {
+            new Caracteristique(DESCENDANTS, bits(FILLE, GARCON), 1),
+            new Caracteristique(FRATRIE, bits(FRERE, SOEUR), 1),
+            new Caracteristique(FRATRIE_MULTIPLE, bits(FRERE, SOEUR), 2),
+            new Caracteristique(FILLES_MULTIPLES, bits(FILLE), 2),
+            new Caracteristique(SOEURS_MULTIPLES, bits(SOEUR), 2),
+    };
+
+    // Parts fixes (collectives pour filles et soeurs) ; la première ligne applicable l'emporte
+    static final Fard[] REGLES_FARD = {
+            new Fard(CONJOINT, bits(CONJOINT) | DESCENDANTS | MASCULIN, 0, 1, 8),
+            new Fard(CONJOINT, bits(CONJOINT) | DESCENDANTS, 0, 1, 4),
+            new Fard(CONJOINT, bits(CONJOINT) | MASCULIN, 0, 1, 4),
+            new Fard(CONJOINT, bits(CONJOINT), 0, 1, 2),
+            new Fard(MERE, bits(MERE) | DESCENDANTS, 0, 1, 6),
+            new Fard(MERE, bits(MERE) | FRATRIE_MULTIPLE, 0, 1, 6),
+            // Gharrawayn : un tiers du reste après la part du conjoint (1/4 ou 1/2)
+            new Fard(MERE, bits(MERE, CONJOINT, PERE) | MASCULIN, FRATRIE, 1, 4),
+            new Fard(MERE, bits(MERE, CONJOINT, PERE), FRATRIE, 1, 6),
+            new Fard(MERE, bits(MERE), 0, 1, 3),
+            new Fard(PERE, bits(PERE) | DESCENDANTS, 0, 1, 6),
+            new Fard(GRAND_PERE, bits(GRAND_PERE) | DESCENDANTS, 0, 1, 6),
+            new Fard(GRAND_MERE, bits(GRAND_MERE), 0, 1, 6),
+            new Fard(FILLE, bits(FILLE), bits(GARCON) | FILLES_MULTIPLES, 1, 2),
+            new Fard(FILLE, bits(FILLE), bits(GARCON), 2, 3),
+            new Fard(SOEUR, bits(SOEUR), bits(FRERE) | DESCENDANTS | SOEURS_MULTIPLES, 1, 2),
+            new Fard(SOEUR, bits(SOEUR), bits(FRERE) | DESCENDANTS, 2, 3),
+    };
+
+    // Ordre de priorité des résiduaires
+    static final Asaba[] REGLES_ASABA = {
+            new Asaba(bits(GARCON), GARCON, FILLE, Partage.GROUPE),
+            new Asaba(bits(PERE), PERE, -1, Partage.AJOUT),
+            new Asaba(bits(GRAND_PERE), GRAND_PERE, -1, Partage.AJOUT),
+            new Asaba(bits(FRERE), FRERE, SOEUR, Partage.GROUPE),
+            // Les soeurs deviennent résiduaires avec les filles
+            new Asaba(bits(FILLE, SOEUR), SOEUR, -1, Partage.PAR_TETE),
+            new Asaba(bits(ONCLE), ONCLE, -1, Partage.PAR_TETE),
+            new Asaba(bits(COUSIN), COUSIN, -1, Partage.PAR_TETE),
+    };
+
+    // ------------- Forme compilée -----------------------------------
+
+    static final HeirType[] TYPES = new HeirType[NB_EMPLACEMENTS];
+
+    // Présences déclarées -> classes non exclues
+    static final int[] ACTIVES = new int[1 << NB_CLASSES];
+    // Classes conservées dans le résultat lorsqu'elles sont exclues
+    static final int VISIBLES_SI_EXCLUES;
+
+    static final int[] CARAC_BIT = new int[CARACTERISTIQUES.length];
+    static final int[] CARAC_CLASSES = new int[CARACTERISTIQUES.length];
+    static final int[] CARAC_SEUIL = new int[CARACTERISTIQUES.length];
+
+    // Tables de décision : pour chaque classe, bits du contexte lus par ses règles de fard
+    // et, indexée par ces bits compactés (Integer.compress), la règle retenue (-1 : aucune)
+    static final int[] FARD_BITS = new int[NB_CLASSES];
+    static final int[][] FARD_DECISION = new int[NB_CLASSES][];
+    static final long[] FARD_NUM = new long[REGLES_FARD.length];
+    static final long[] FARD_DEN = new long[REGLES_FARD.length];
+
+    static final int ASABA_BITS;
+    static final int[] ASABA_DECISION;
+    static final int[] ASABA_MALE = new int[REGLES_ASABA.length];
+    static final int[] ASABA_FEMELLE = new int[REGLES_ASABA.length];
+    static final Partage[] ASABA_PARTAGE = new Partage[REGLES_ASABA.length];
+
+    // Classes ayant une part fixe, dont celles à part collective et celles éligibles au radd
+    static final int AVEC_FARD;
+    static final int[] EMPLACEMENTS_FARD;
+    static final int COLLECTIVES;
+    static final int ELIGIBLES_RADD;
+    static final int[] EMPLACEMENTS_RADD;
+
+    static {
+        int visibles = 0;
+        int collectives = 0;
+        for (int c = 0; c < NB_CLASSES; c++) {
+            TYPES[c] = CLASSES[c].type();
+            if (CLASSES[c].visibleSiExclue()) visibles |= bit(c);
+            if (CLASSES[c].collective()) collectives |= bit(c);
+        }
+        TYPES[RESTE] = HeirType.REMAINDER;
+        VISIBLES_SI_EXCLUES = visibles;
+        COLLECTIVES = collectives;
+
+        for (int presents = 0; presents < ACTIVES.length; presents++) {
+            int exclues = 0;
+            for (Exclusion e : EXCLUSIONS) {
+                if ((presents & e.excluants()) != 0) exclues |= bit(e.classe());
+            }
+            ACTIVES[presents] = presents & ~exclues;
+        }
+
+        for (int i = 0; i < CARACTERISTIQUES.length; i++) {
+            CARAC_BIT[i] = CARACTERISTIQUES[i].bit();
+            CARAC_CLASSES[i] = CARACTERISTIQUES[i].classes();
+            CARAC_SEUIL[i] = CARACTERISTIQUES[i].seuil();
+        }
+
+        int avecFard = 0;
+        for (int r = 0; r < REGLES_FARD.length; r++) {
+            Fard f = REGLES_FARD[r];
+            long g = pgcd(f.num(), f.den());
+            FARD_NUM[r] = f.num() / g;
+            FARD_DEN[r] = f.den() / g;
+            FARD_BITS[f.classe()] |= f.requis() | f.interdits();
+            avecFard |= bit(f.classe());
+        }
+        for (int c = 0; c < NB_CLASSES; c++) {
+            int[] decision = new int[1 << Integer.bitCount(FARD_BITS[c])];
+            for (int i = 0; i < decision.length; i++) {
+                int contexte = Integer.expand(i, FARD_BITS[c]);
+                decision[i] = -1;
+                for (int r = 0; r < REGLES_FARD.length && decision[i] < 0; r++) {
+                    Fard f = REGLES_FARD[r];
+                    if (f.classe() == c && applicable(contexte, f.requis(), f.interdits())) {
+                        decision[i] = r;
+                    }
+                }
+            }
+            FARD_DECISION[c] = decision;
+        }
+        AVEC_FARD = avecFard;
+        EMPLACEMENTS_FARD = emplacements(avecFard);
+
+        int radd = 0;
+        for (int c = 0; c < NB_CLASSES; c++) {
+            if (CLASSES[c].radd()) radd |= bit(c);
+        }
+        ELIGIBLES_RADD = radd & avecFard;
+        EMPLACEMENTS_RADD = emplacements(ELIGIBLES_RADD);
+
+        int asabaBits = 0;
+        for (int r = 0; r < REGLES_ASABA.length; r++) {
+            asabaBits |= REGLES_ASABA[r].requis();
+            ASABA_MALE[r] = REGLES_ASABA[r].male();
+            ASABA_FEMELLE[r] = REGLES_ASABA[r].femelle();
+            ASABA_PARTAGE[r] = REGLES_ASABA[r].partage();
+        }
+        ASABA_BITS = asabaBits;
+        ASABA_DECISION = new int[1 << Integer.bitCount(asabaBits)];
+        for (int i = 0; i < ASABA_DECISION.length; i++) {
+            int contexte = Integer.expand(i, asabaBits);
+            ASABA_DECISION[i] = -1;
+            for (int r = 0; r < REGLES_ASABA.length && ASABA_DECISION[i] < 0; r++) {
+                if (applicable(contexte, REGLES_ASABA[r].requis(), 0)) {
+                    ASABA_DECISION[i] = r;
+                }
+            }
+        }
+    }
+
+    private ReglesHeritage() {
+    }
+
+    /**
+     * Contexte des règles : classes présentes après hajb, sexe du défunt et caractéristiques
+     * calculées sur les effectifs {@code actifs} (nuls pour les classes exclues).
+     */
+    static int contexte(int actives, int[] actifs, boolean masculin) {
+        int contexte = actives;
+        if (masculin) {
+            contexte |= MASCULIN;
+        }
+        for (int i = 0; i < CARAC_BIT.length; i++) {
+            int somme = 0;
+            for (int classes = CARAC_CLASSES[i]; classes != 0; classes &= classes - 1) {
+                somme += actifs[Integer.numberOfTrailingZeros(classes)];
+            }
+            if (somme >= CARAC_SEUIL[i]) {
+                contexte |= CARAC_BIT[i];
+            }
+        }
+        return contexte;
+    }
+
+    /**
+     * Indice de la règle d'asaba applicable, ou -1 s'il n'y a aucun résiduaire.
+     */
+    static int asaba(int contexte) {
+        return ASABA_DECISION[Integer.compress(contexte, ASABA_BITS)];
+    }
+
+    /**
+     * Indice de la règle de fard applicable à la classe {@code c}, ou -1 si elle n'a pas de part fixe.
+     */
+    static int fard(int c, int contexte) {
+        return FARD_DECISION[c][Integer.compress(contexte, FARD_BITS[c])];
+    }
+
+    static boolean applicable(int contexte, int requis, int interdits) {
+        return (contexte & requis) == requis && (contexte & interdits) == 0;
+    }
+
+    static int bit(int classe) {
+        return 1 << classe;
+    }
+
+    static int bits(int... classes) {
+        int masque = 0;
+        for (int c : classes) {
+            masque |= bit(c);
+        }
+        return masque;
+    }
+
+    private static int[] emplacements(int masque) {
+        int[] resultat = new int[Integer.bitCount(masque)];
+        int i = 0;
+        for (int c = 0; c < NB_EMPLACEMENTS; c++) {
+            if ((masque & bit(c)) != 0) resultat[i++] = c;
+        }
+        return resultat;
+    }
+
+    /**
+     * Effectif déclaré de chaque classe, rangé à son emplacement ; renvoie le masque des
+     * classes présentes. Lecture directe des accesseurs (appel monomorphe, inlinable).
+     */
+    static int lireEffectifs(RequeteNormalisee r, int[] effectif) {
+        effectif[CONJOINT] = r.nbConjoints();
+        effectif[PERE] = r.pereVivant() ? 1 : 0;
+        effectif[GRAND_PERE] = r.grandPerePaternelVivant() ? 1 : 0;
+        effectif[GRAND_MERE] = r.grandMerePaternelleVivante() ? 1 : 0;
+        effectif[MERE] = r.mereVivante() ? 1 : 0;
+        effectif[FILLE] = r.nbFilles();
+        effectif[GARCON] = r.nbGarcons();
+        effectif[SOEUR] = r.nbSoeurs();
+        effectif[FRERE] = r.nbFreres();
+        effectif[ONCLE] = r.nbOncles();
+        effectif[COUSIN] = r.nbCousins();
+        int declares = 0;
+        for (int c = 0; c < NB_CLASSES; c++) {
+            if (effectif[c] > 0) declares |= bit(c);
+        }
+        return declares;
+    }
+}
@@ -0,0 +1,51 @@
+package com.med.frida_calculs_app.profilage;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Ce que le contrôleur sait d'une requête de calcul et que les filtres et intercepteurs relisent
+ * une fois la réponse écrite (déploiement servlet) : corps reçu, nombre de tombes et d'héritiers.
+ * Portés par des attributs de la requête, sans copie.
+ */
+public final class AttributionRequete {
+
+    private static final String CORPS = AttributionRequete.class.getName() + ".CORPS";
+    private static final String TOMBES = AttributionRequete.class.getName() + ".TOMBES";
+    private static final String HERITIERS = AttributionRequete.class.getName() + ".HERITIERS";
+
+    private AttributionRequete() {
+    }
+
+    /**
+     * Corps de la requête, gardé pour le détail d'une requête en erreur ou lente.
+     */
+    public static void corps(ServletRequest request, Object corps) {
+        request.setAttribute(CORPS, corps);
+    }
+
+    /**
+     * Nombre de tombes et d'héritiers du calcul.
+     */
+    public static void attribuer(ServletRequest request, int tombes, int heritiers) {
+        request.setAttribute(TOMBES, tombes);
+        request.setAttribute(HERITIERS, heritiers);
+    }
+
+    public static Object corps(ServletRequest request) {
+        return request.getAttribute(CORPS);
+    }
+
+    /**
+     * @return le nombre de tombes, {@code -1} si la requête n'a pas été attribuée
+     */
+    public static int tombes(ServletRequest request) {
+        return request.getAttribute(TOMBES) instanceof Integer n ? n : -1;
+    }
+
+    /**
+     * @return le nombre d'héritiers, {@code -1} si la requête n'a pas été attribuée
+     */
+    public static int heritiers(ServletRequest request) {
+        return request.getAttribute(HERITIERS) instanceof Integer n ? n : -1;
+    }
+}
@@ -0,0 +1,207 @@
+package com.med.frida_calculs_app.profilage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Temps CPU et octets alloués pour une requête de calcul, publiés en distributions
+ * {@code heritage.requete.cpu} (nanosecondes) et {@code heritage.requete.allocation} (octets),
+ * taguées par endpoint, par tranche de nombre de tombes et d'héritiers et par {@code mesure}.
+ *
+ * Un relevé lit les compteurs du thread de la requête ({@code getCurrentThreadCpuTime},
+ * {@code getCurrentThreadAllocatedBytes}) au début puis à la fin, et y ajoute les écarts relevés
+ * autour de chaque tâche {@link #deleguee déléguée} à un autre thread (phases parallèles du calcul
+ * étendu). La JVM ne fournit pas ces compteurs pour un thread virtuel ({@code -1}) : la part du thread
+ * de la requête n'est alors pas comptée, seules ses tâches sur des threads de plateforme le sont.
+ * Un relevé dont une part n'a pas pu être mesurée est tagué {@code mesure=partielle}, sinon
+ * {@code complete}. Le temps CPU coûte environ 250 ns par lecture, l'allocation une vingtaine. Avec
+ * {@link #INACTIVE}, rien n'est jamais relevé.
+ */
+public final class ConsommationRequetes {
+
+    /** Tranche des requêtes non attribuées (invalides, ou interrompues avant le calcul). */
+    public static final String INCONNU = "inconnu";
+
+    private static final int[] BORNES = {0, 1, 4, 16, 64, 256};
+    private static final String[] TRANCHES = {"0", "1", "2-4", "5-16", "17-64", "65-256", "257+"};
+
+    // Relevé en cours sur le thread de la requête, de debut() à terminer()
+    private static final ThreadLocal<Releve> COURANT = new ThreadLocal<>();
+
+    /**
+     * Consommation d'une requête : relevés de début sur son thread, consommation des tâches
+     * déléguées, puis totaux une fois {@link #terminer terminée}.
+     */
+    public static final class Releve {
+        private final com.sun.management.ThreadMXBean threads;
+        private final Thread thread;
+        // -1 : compteurs indisponibles sur le thread de la requête
+        private final long cpuDebut;
+        private final long octetsDebut;
+        private final LongAdder cpuDelegue = new LongAdder();
+        private final LongAdder octetsDelegues = new LongAdder();
+        private final LongAdder tachesNonMesurees = new LongAdder();
+        private long cpu;
+        private long octets;
+        private boolean partiel;
+
+        private Releve(com.sun.management.ThreadMXBean threads) {
+            this.threads = threads;
+            this.thread = Thread.currentThread();
+            long cpu = threads.getCurrentThreadCpuTime();
+            long octets = threads.getCurrentThreadAllocatedBytes();
+            boolean mesurable = cpu >= 0 && octets >= 0;
+            this.cpuDebut = mesurable ? cpu : -1;
+            this.octetsDebut = mesurable ? octets : -1;
+        }
+
+        /**
+         * Exécute une tâche pour la requête : sur un autre thread, ses écarts de compteurs s'ajoutent
+         * au relevé ; sur le thread de la requête, elle est déjà couverte par ses relevés.
+         */
+        private void executer(Runnable tache) {
+            if (Thread.currentThread() == thread) {
+                tache.run();
+                return;
+            }
+            long cpu = threads.getCurrentThreadCpuTime();
+            long octets = threads.getCurrentThreadAllocatedBytes();
+            try {
+                tache.run();
+            } finally {
+                if (cpu < 0 || octets < 0) {
+                    tachesNonMesurees.increment();
+                } else {
+                    cpuDelegue.add(threads.getCurrentThreadCpuTime() - cpu);
+                    octetsDelegues.add(threads.getCurrentThreadAllocatedBytes() - octets);
+                }
+            }
+        }
+
+        private void terminer() {
+            cpu = cpuDelegue.sum();
+            octets = octetsDelegues.sum();
+            partiel = cpuDebut < 0 || tachesNonMesurees.sum() > 0;
+            if (cpuDebut >= 0) {
+                cpu += threads.getCurrentThreadCpuTime() - cpuDebut;
+                octets += threads.getCurrentThreadAllocatedBytes() - octetsDebut;
+            }
+        }
+
+        public long getCpuNanos() {
+            return cpu;
+        }
+
+        public long getOctetsAlloues() {
+            return octets;
+        }
+
+        /**
+         * @return {@code true} si une part du travail, sur un thread virtuel, n'a pas pu être mesurée :
+         * les totaux n'en comptent que la part mesurée
+         */
+        public boolean isPartiel() {
+            return partiel;
+        }
+    }
+
+    private record Distributions(DistributionSummary cpu, DistributionSummary allocation) {
+    }
+
+    public static final ConsommationRequetes INACTIVE = new ConsommationRequetes();
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final MeterRegistry registry;
+    private final Map<String, Distributions> distributions = new ConcurrentHashMap<>();
+
+    private ConsommationRequetes() {
+        this.threads = null;
+        this.registry = null;
+    }
+
+    public ConsommationRequetes(MeterRegistry registry) {
+        this.registry = registry;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.isThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Début d'un relevé pour la requête traitée par le thread courant, qui devient le relevé en cours
+     * de ce thread ; {@code null} si les relevés sont inactifs.
+     */
+    public Releve debut() {
+        if (threads == null) {
+            return null;
+        }
+        Releve releve = new Releve(threads);
+        COURANT.set(releve);
+        return releve;
+    }
+
+    /**
+     * Tâche à exécuter sur un autre thread pour la requête relevée sur le thread courant : sa
+     * consommation s'ajoute au relevé. Sans relevé en cours, la tâche est retournée telle quelle.
+     */
+    public static Runnable deleguee(Runnable tache) {
+        Releve releve = COURANT.get();
+        return releve == null ? tache : () -> releve.executer(tache);
+    }
+
+    /**
+     * Termine le relevé sur le même thread qu'à son début et l'enregistre. Les tâches déléguées
+     * doivent être terminées.
+     * @param tombes nombre de tombes, négatif si inconnu
+     * @param heritiers nombre d'héritiers du résultat, négatif si inconnu
+     */
+    public void terminer(Releve releve, String endpoint, int tombes, int heritiers) {
+        if (COURANT.get() == releve) {
+            COURANT.remove();
+        }
+        releve.terminer();
+        String trancheTombes = tranche(tombes);
+        String trancheHeritiers = tranche(heritiers);
+        String mesure = releve.partiel ? "partielle" : "complete";
+        Distributions d = distributions.computeIfAbsent(
+                endpoint + '|' + trancheTombes + '|' + trancheHeritiers + '|' + mesure,
+                cle -> enregistrerDistributions(endpoint, trancheTombes, trancheHeritiers, mesure));
+        d.cpu().record(releve.cpu);
+        d.allocation().record(releve.octets);
+    }
+
+    static String tranche(int nombre) {
+        if (nombre < 0) {
+            return INCONNU;
+        }
+        for (int i = 0; i < BORNES.length; i++) {
+            if (nombre <= BORNES[i]) {
+                return TRANCHES[i];
+            }
+        }
+        return TRANCHES[BORNES.length];
+    }
+
+    private Distributions enregistrerDistributions(String endpoint, String tombes, String heritiers,
+                                                   String mesure) {
+        return new Distributions(
+                DistributionSummary.builder("heritage.requete.cpu")
+                        .description("Temps CPU de la requête, sur son thread et ses tâches déléguées")
+                        .baseUnit("nanoseconds")
+                        .tags("endpoint", endpoint, "tombes", tombes, "heritiers", heritiers, "mesure", mesure)
+                        .register(registry),
+                DistributionSummary.builder("heritage.requete.allocation")
+                        .description("Octets alloués pour la requête, sur son thread et ses tâches déléguées")
+                        .baseUnit("bytes")
+                        .tags("endpoint", endpoint, "tombes", tombes, "heritiers", heritiers, "mesure", mesure)
+                        .register(registry));
+    }
+}
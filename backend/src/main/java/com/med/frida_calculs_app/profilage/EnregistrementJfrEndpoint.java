@@ -0,0 +1,184 @@
+package com.med.frida_calculs_app.profilage;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Enregistrement JFR à la demande ({@code /actuator/jfr}), sans agent externe :
+ *
+ * <ul>
+ * <li>{@code POST} démarre un enregistrement borné en durée et en taille, avec une configuration
+ * JFR du JDK ({@code default} ou {@code profile}) et les événements {@code com.med.frida.*} ;</li>
+ * <li>{@code GET} décrit l'enregistrement en cours ou terminé ;</li>
+ * <li>{@code DELETE} l'arrête s'il tourne encore et renvoie le fichier {@code .jfr}, supprimé
+ * du disque une fois lu.</li>
+ * </ul>
+ *
+ * Un seul enregistrement à la fois. Endpoint d'administration : fermé par défaut, ouvert avec
+ * {@code management.endpoint.jfr.access=unrestricted}.
+ */
+@Slf4j
+@WebEndpoint(id = "jfr", defaultAccess = Access.NONE)
+public class EnregistrementJfrEndpoint {
+
+    private static final String TYPE_JFR = "application/octet-stream";
+    private static final int STATUS_CONFLICT = 409;
+
+    private final int dureeDefaut;
+    private final int dureeMax;
+    private final int tailleMaxMo;
+
+    private Recording enregistrement;
+    private Instant debut;
+    private String configuration;
+
+    public EnregistrementJfrEndpoint(int dureeDefaut, int dureeMax, int tailleMaxMo) {
+        this.dureeDefaut = dureeDefaut;
+        this.dureeMax = dureeMax;
+        this.tailleMaxMo = tailleMaxMo;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> etat() {
+        Map<String, Object> etat = new LinkedHashMap<>();
+        if (enregistrement == null) {
+            etat.put("etat", "aucun");
+            return etat;
+        }
+        etat.put("etat", enregistrement.getState() == RecordingState.RUNNING ? "en cours" : "termine");
+        etat.put("configuration", configuration);
+        etat.put("debut", debut.toString());
+        etat.put("dureeSecondes", enregistrement.getDuration().toSeconds());
+        etat.put("tailleMaxOctets", enregistrement.getMaxSize());
+        etat.put("tailleOctets", enregistrement.getSize());
+        return etat;
+    }
+
+    /**
+     * Démarre un enregistrement.
+     * @param duree durée en secondes, plafonnée à {@code calcul.jfr.duree-max}
+     * @param configuration configuration JFR du JDK, {@code default} si absente
+     */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> demarrer(@Nullable Integer duree,
+                                                                         @Nullable String configuration) {
+        if (enregistrement != null && enregistrement.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(Map.of("message", "Un enregistrement JFR est déjà en cours"),
+                    STATUS_CONFLICT);
+        }
+        String nom = configuration != null ? configuration : "default";
+        Configuration parametres;
+        try {
+            parametres = Configuration.getConfiguration(nom);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("message", "Configuration JFR inconnue: " + nom),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (duree != null && duree <= 0) {
+            return new WebEndpointResponse<>(Map.of("message", "Durée invalide: " + duree),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        fermer();
+
+        Recording nouveau = new Recording(parametres);
+        nouveau.setName("frida-calculs");
+        nouveau.setToDisk(true);
+        nouveau.setDuration(Duration.ofSeconds(Math.min(duree != null ? duree : dureeDefaut, dureeMax)));
+        nouveau.setMaxSize(tailleMaxMo * 1024L * 1024L);
+        nouveau.enable(EvenementCalcul.class);
+        nouveau.enable(EvenementWasiyya.class);
+        nouveau.enable(EvenementReduction.class);
+        nouveau.start();
+        this.enregistrement = nouveau;
+        this.debut = Instant.now();
+        this.configuration = nom;
+        log.info("Enregistrement JFR démarré: configuration {}, {} s, {} Mo au plus",
+                nom, nouveau.getDuration().toSeconds(), tailleMaxMo);
+        return new WebEndpointResponse<>(etat());
+    }
+
+    /**
+     * Arrête l'enregistrement et renvoie son fichier {@code .jfr}.
+     */
+    @DeleteOperation(produces = TYPE_JFR)
+    public synchronized WebEndpointResponse<Resource> arreter() throws IOException {
+        if (enregistrement == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (enregistrement.getState() == RecordingState.RUNNING) {
+            enregistrement.stop();
+        }
+        Path fichier = Files.createTempFile("frida-calculs-", ".jfr");
+        try {
+            enregistrement.dump(fichier);
+        } catch (IOException e) {
+            Files.deleteIfExists(fichier);
+            throw e;
+        } finally {
+            fermer();
+        }
+        log.info("Enregistrement JFR arrêté: {} octets", Files.size(fichier));
+        return new WebEndpointResponse<>(new FichierTemporaire(fichier));
+    }
+
+    @PreDestroy
+    public synchronized void fermer() {
+        if (enregistrement != null) {
+            enregistrement.close();
+            enregistrement = null;
+        }
+    }
+
+    /**
+     * Fichier supprimé une fois lu. Pas d'envoi direct depuis le disque ({@link #isFile()} faux),
+     * qui contournerait la suppression.
+     */
+    private static final class FichierTemporaire extends FileSystemResource {
+
+        FichierTemporaire(Path fichier) {
+            super(fichier);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
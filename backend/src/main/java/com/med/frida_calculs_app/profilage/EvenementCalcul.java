@@ -0,0 +1,44 @@
+package com.med.frida_calculs_app.profilage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Un calcul de parts ({@code calculParts} ou {@code calculPartsEtendu}), cache compris.
+ */
+@Name("com.med.frida.Calcul")
+@Label("Calcul d'héritage")
+@Category({"Frida", "Calcul"})
+@Description("Calcul des parts d'une composition familiale, cache compris")
+@StackTrace(false)
+public class EvenementCalcul extends Event {
+
+    @Label("Type")
+    @Description("simple ou etendu")
+    public String type;
+
+    @Label("Moteur")
+    public String moteur;
+
+    @Label("Forme")
+    @Description("Code de la forme de composition (voir /formes/{code})")
+    public int forme;
+
+    @Label("Tombes")
+    @Description("Tombes ayant des descendants")
+    public int nombreTombes;
+
+    @Label("Héritiers")
+    public int nombreHeritiers;
+
+    @Label("Dénominateur commun")
+    public String denominateur;
+
+    @Label("Wasiyya")
+    @Description("Petits-enfants ou descendants de tombes bénéficiaires d'une wasiyya wajiba")
+    public boolean wasiyya;
+}
@@ -0,0 +1,34 @@
+package com.med.frida_calculs_app.profilage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Réduction au même dénominateur d'au moins {@link #SEUIL} fractions.
+ */
+@Name("com.med.frida.GrandeReduction")
+@Label("Grande réduction")
+@Category({"Frida", "Calcul"})
+@Description("Réduction au même dénominateur d'un grand nombre de fractions")
+@StackTrace(false)
+public class EvenementReduction extends Event {
+
+    public static final int SEUIL = 64;
+
+    @Label("Fractions")
+    public int nombreFractions;
+
+    @Label("Parallèle")
+    public boolean parallele;
+
+    @Label("Exacte")
+    @Description("PPCM hors de la capacité d'un long, calculé en BigInteger")
+    public boolean exacte;
+
+    @Label("Bits du dénominateur")
+    public int bitsDenominateur;
+}
@@ -0,0 +1,32 @@
+package com.med.frida_calculs_app.profilage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Simulation d'un héritier pré-décédé comme s'il était vivant, pour sa wasiyya wajiba.
+ */
+@Name("com.med.frida.SimulationWasiyya")
+@Label("Simulation de wasiyya")
+@Category({"Frida", "Calcul"})
+@Description("Calcul de la part théorique d'un héritier pré-décédé")
+@StackTrace(false)
+public class EvenementWasiyya extends Event {
+
+    @Label("Lien de parenté")
+    public String lienParente;
+
+    @Label("Sexe du pré-décédé")
+    public String sexe;
+
+    @Label("Tombes")
+    @Description("Tombes partageant cette simulation")
+    public int nombreTombes;
+
+    @Label("Part simulée")
+    public String partSimulee;
+}
@@ -0,0 +1,131 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latences d'une méthode de contrôleur sur des fenêtres glissantes, découpées en tranches de durée
+ * fixe.
+ *
+ * Les requêtes sont enregistrées sans verrou : latence (microsecondes) dans un {@link Recorder}
+ * HdrHistogram, nombres de requêtes, de requêtes hors SLO et d'erreurs dans des {@link LongAdder}
+ * cumulés. À chaque fin de tranche, l'histogramme de la tranche et les cumuls sont rangés dans deux
+ * anneaux : les percentiles d'une fenêtre fusionnent ses dernières tranches terminées ; le budget
+ * d'erreur soustrait aux cumuls courants ceux de la plus ancienne tranche de sa fenêtre. Un
+ * enregistrement qui trouve la tranche terminée fait la rotation s'il obtient le verrou, sinon le
+ * suivant ou la prochaine lecture s'en charge.
+ */
+final class FenetreLatences {
+
+    // Deux chiffres significatifs : 1 % de précision, une dizaine de Ko par tranche
+    private static final int CHIFFRES_SIGNIFICATIFS = 2;
+
+    private final long latenceCibleNanos;
+    private final long dureeTranche;
+
+    private final Recorder enregistreur = new Recorder(CHIFFRES_SIGNIFICATIFS);
+    private final LongAdder requetes = new LongAdder();
+    private final LongAdder horsSlo = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    private final ReentrantLock rotation = new ReentrantLock();
+    private volatile long finTranche;
+    // Tranches terminées, la plus récente à l'indice courant ; les cumuls sont {requêtes, hors SLO, erreurs}
+    private final Histogram[] histogrammes;
+    private final long[][] cumuls;
+    private int indiceHistogramme;
+    private int indiceCumul;
+
+    /**
+     * @param tranchesHistogrammes tranches gardées pour les percentiles (plus longue fenêtre)
+     * @param tranchesBudget tranches de la fenêtre du budget d'erreur
+     */
+    FenetreLatences(long latenceCibleNanos, long dureeTranche, int tranchesHistogrammes, int tranchesBudget,
+                    long maintenant) {
+        this.latenceCibleNanos = latenceCibleNanos;
+        this.dureeTranche = dureeTranche;
+        this.histogrammes = new Histogram[tranchesHistogrammes];
+        // Un cumul de plus : le plus ancien est pris au début de la fenêtre
+        this.cumuls = new long[tranchesBudget + 1][3];
+        this.finTranche = maintenant + dureeTranche;
+    }
+
+    void enregistrer(long dureeNanos, boolean erreur, long maintenant) {
+        enregistreur.recordValue(Math.max(0, dureeNanos) / 1000);
+        requetes.increment();
+        if (erreur) {
+            erreurs.increment();
+        }
+        if (erreur || dureeNanos > latenceCibleNanos) {
+            horsSlo.increment();
+        }
+        if (maintenant - finTranche >= 0 && rotation.tryLock()) {
+            try {
+                tourner(maintenant);
+            } finally {
+                rotation.unlock();
+            }
+        }
+    }
+
+    /**
+     * Percentiles des {@code nombreTranches} dernières tranches terminées, en microsecondes.
+     */
+    Histogram histogramme(int nombreTranches, long maintenant) {
+        rotation.lock();
+        try {
+            tourner(maintenant);
+            Histogram fusion = new Histogram(CHIFFRES_SIGNIFICATIFS);
+            for (int i = 0; i < nombreTranches; i++) {
+                Histogram tranche = histogrammes[Math.floorMod(indiceHistogramme - i, histogrammes.length)];
+                if (tranche != null) {
+                    fusion.add(tranche);
+                }
+            }
+            return fusion;
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    /**
+     * {requêtes, hors SLO, erreurs} sur la fenêtre du budget, tranche en cours comprise.
+     */
+    long[] budget(long maintenant) {
+        rotation.lock();
+        try {
+            tourner(maintenant);
+            long[] debut = cumuls[(indiceCumul + 1) % cumuls.length];
+            return new long[]{requetes.sum() - debut[0], horsSlo.sum() - debut[1], erreurs.sum() - debut[2]};
+        } finally {
+            rotation.unlock();
+        }
+    }
+
+    long getLatenceCibleNanos() {
+        return latenceCibleNanos;
+    }
+
+    // Verrou de rotation tenu
+    private void tourner(long maintenant) {
+        int tranches = 0;
+        while (maintenant - finTranche >= 0) {
+            indiceHistogramme = (indiceHistogramme + 1) % histogrammes.length;
+            histogrammes[indiceHistogramme] = enregistreur.getIntervalHistogram(histogrammes[indiceHistogramme]);
+            indiceCumul = (indiceCumul + 1) % cumuls.length;
+            long[] cumul = cumuls[indiceCumul];
+            cumul[0] = requetes.sum();
+            cumul[1] = horsSlo.sum();
+            cumul[2] = erreurs.sum();
+            if (++tranches >= Math.max(histogrammes.length, cumuls.length)) {
+                // Inactivité plus longue que les deux anneaux : tout est déjà vidé, on se recale
+                finTranche = maintenant + dureeTranche;
+                return;
+            }
+            finTranche += dureeTranche;
+        }
+    }
+}
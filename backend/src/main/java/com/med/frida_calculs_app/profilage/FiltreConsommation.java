@@ -0,0 +1,66 @@
+package com.med.frida_calculs_app.profilage;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Relève la consommation ({@link ConsommationRequetes}) de chaque requête de calcul synchrone, de
+ * la lecture du corps à l'écriture de la réponse. Le contrôleur attribue la requête par
+ * {@link AttributionRequete} ; sans attribution (requête invalide), les tranches sont « inconnu ».
+ *
+ * Avec l'en-tête de débogage, la réponse est retenue en mémoire jusqu'à la fin du relevé pour
+ * porter {@link #ENTETE_CPU} (microsecondes), {@link #ENTETE_ALLOCATION} (octets) et
+ * {@link #ENTETE_MESURE} ({@code partielle} quand une part, sur un thread virtuel, n'a pas pu être
+ * mesurée : les deux premiers n'en comptent alors que la part mesurée).
+ */
+public class FiltreConsommation extends OncePerRequestFilter {
+
+    public static final String ENTETE_CPU = "X-Heritage-Cpu-Us";
+    public static final String ENTETE_ALLOCATION = "X-Heritage-Allocation-Octets";
+    public static final String ENTETE_MESURE = "X-Heritage-Mesure";
+
+    private final ConsommationRequetes consommation;
+    private final Map<String, String> endpoints;
+    private final boolean entete;
+
+    /**
+     * @param endpoints nom de l'endpoint de chaque chemin, relatif au contexte de l'application
+     * @param entete renvoyer la consommation dans les en-têtes de la réponse
+     */
+    public FiltreConsommation(ConsommationRequetes consommation, Map<String, String> endpoints, boolean entete) {
+        this.consommation = consommation;
+        this.endpoints = Map.copyOf(endpoints);
+        this.entete = entete;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = endpoints.get(request.getRequestURI().substring(request.getContextPath().length()));
+        ConsommationRequetes.Releve releve = endpoint != null ? consommation.debut() : null;
+        if (releve == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContentCachingResponseWrapper retenue = entete ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, retenue != null ? retenue : response);
+        } finally {
+            consommation.terminer(releve, endpoint, AttributionRequete.tombes(request),
+                    AttributionRequete.heritiers(request));
+            if (retenue != null) {
+                retenue.setHeader(ENTETE_CPU, Long.toString(releve.getCpuNanos() / 1000));
+                retenue.setHeader(ENTETE_ALLOCATION, Long.toString(releve.getOctetsAlloues()));
+                retenue.setHeader(ENTETE_MESURE, releve.isPartiel() ? "partielle" : "complete");
+                retenue.copyBodyToResponse();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Enregistre dans {@link LatencesHeritage} la latence des méthodes de contrôleur suivies
+ * (déploiement réactif), jusqu'à la fin de l'écriture de la réponse. Une erreur ou un statut 5xx
+ * compte comme une erreur ; une requête annulée par le client n'est pas comptée.
+ */
+public class FiltreLatencesReactif implements WebFilter {
+
+    private final LatencesHeritage latences;
+
+    public FiltreLatencesReactif(LatencesHeritage latences) {
+        this.latences = latences;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long debut = latences.debut();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal != SignalType.CANCEL
+                    && exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod methode) {
+                HttpStatusCode statut = exchange.getResponse().getStatusCode();
+                latences.terminer(methode.getMethod().getName(), debut,
+                        signal == SignalType.ON_ERROR || (statut != null && statut.is5xxServerError()));
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.med.frida_calculs_app.profilage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Enregistre dans {@link LatencesHeritage} la latence des méthodes de contrôleur suivies
+ * (déploiement servlet), de la lecture du corps à l'écriture de la réponse. Une exception ou un
+ * statut 5xx compte comme une erreur ; les requêtes rejetées par les filtres de surcharge
+ * n'atteignent pas le contrôleur et ne sont pas comptées.
+ */
+public class IntercepteurLatences implements HandlerInterceptor {
+
+    private static final String DEBUT = IntercepteurLatences.class.getName() + ".DEBUT";
+
+    private final LatencesHeritage latences;
+
+    public IntercepteurLatences(LatencesHeritage latences) {
+        this.latences = latences;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod methode && latences.suit(methode.getMethod().getName())) {
+            request.setAttribute(DEBUT, latences.debut());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(DEBUT) instanceof Long debut && handler instanceof HandlerMethod methode) {
+            latences.terminer(methode.getMethod().getName(), debut, ex != null || response.getStatus() >= 500);
+        }
+    }
+}
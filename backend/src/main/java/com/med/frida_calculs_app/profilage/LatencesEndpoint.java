@@ -0,0 +1,35 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+
+/**
+ * Latences p50, p99, p99.9 et max par fenêtre glissante et budget d'erreur restant de chaque méthode
+ * de contrôleur suivie ({@code /actuator/heritage-latency}), ou d'une seule
+ * ({@code /actuator/heritage-latency/calculerHeritage}).
+ */
+@Endpoint(id = "heritagelatency")
+public class LatencesEndpoint {
+
+    private final LatencesHeritage latences;
+
+    public LatencesEndpoint(LatencesHeritage latences) {
+        this.latences = latences;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latences() {
+        return latences.rapport();
+    }
+
+    /**
+     * @return {@code null} (404) si la méthode n'est pas suivie
+     */
+    @ReadOperation
+    public Map<String, Object> latences(@Selector String methode) {
+        return latences.rapport(methode);
+    }
+}
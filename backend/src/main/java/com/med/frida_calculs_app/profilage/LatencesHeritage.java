@@ -0,0 +1,148 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Latences des méthodes de contrôleur suivies ({@code calculerHeritage}, {@code calculerHeritageEtendu},
+ * endpoints dépréciés {@code /calculs}) et budget d'erreur de leur SLO, lus par
+ * {@link LatencesEndpoint}.
+ *
+ * Le SLO d'une méthode est une latence cible et un objectif : une requête est hors SLO si elle
+ * dépasse la latence cible ou finit en erreur serveur, et au plus {@code 1 - objectif} des requêtes
+ * de la fenêtre du budget peuvent l'être. Le budget restant est la part de cette marge non
+ * consommée (négatif une fois dépassée).
+ */
+public final class LatencesHeritage {
+
+    /**
+     * SLO d'une méthode : latence cible et part minimale des requêtes qui la respectent.
+     */
+    public record Slo(Duration latenceCible, double objectif) {
+        public Slo {
+            if (objectif <= 0 || objectif >= 1) {
+                throw new IllegalArgumentException("Objectif de SLO invalide: " + objectif);
+            }
+        }
+    }
+
+    private final Map<String, FenetreLatences> fenetres;
+    private final Map<String, Slo> slos;
+    private final List<Integer> fenetresMinutes;
+    private final int fenetreBudgetMinutes;
+    private final long dureeTranche;
+    private final LongSupplier horloge;
+
+    /**
+     * @param slos SLO de chaque méthode suivie, par nom de méthode
+     * @param tranche durée d'une tranche, dont les fenêtres sont des multiples
+     * @param fenetresMinutes fenêtres des percentiles, en minutes
+     * @param fenetreBudgetMinutes fenêtre du budget d'erreur, en minutes
+     */
+    public LatencesHeritage(Map<String, Slo> slos, Duration tranche, List<Integer> fenetresMinutes,
+                            int fenetreBudgetMinutes) {
+        this(slos, tranche, fenetresMinutes, fenetreBudgetMinutes, System::nanoTime);
+    }
+
+    LatencesHeritage(Map<String, Slo> slos, Duration tranche, List<Integer> fenetresMinutes,
+                     int fenetreBudgetMinutes, LongSupplier horloge) {
+        if (tranche.isNegative() || tranche.isZero() || fenetresMinutes.isEmpty()) {
+            throw new IllegalArgumentException("Tranche ou fenêtres de latence invalides");
+        }
+        this.slos = Map.copyOf(slos);
+        this.fenetresMinutes = List.copyOf(fenetresMinutes);
+        this.fenetreBudgetMinutes = fenetreBudgetMinutes;
+        this.dureeTranche = tranche.toNanos();
+        this.horloge = horloge;
+        int tranchesHistogrammes = tranches(fenetresMinutes.stream().mapToInt(Integer::intValue).max().getAsInt());
+        int tranchesBudget = tranches(fenetreBudgetMinutes);
+        long maintenant = horloge.getAsLong();
+        Map<String, FenetreLatences> parMethode = new LinkedHashMap<>();
+        slos.forEach((methode, slo) -> parMethode.put(methode, new FenetreLatences(
+                slo.latenceCible().toNanos(), dureeTranche, tranchesHistogrammes, tranchesBudget, maintenant)));
+        this.fenetres = parMethode;
+    }
+
+    public boolean suit(String methode) {
+        return fenetres.containsKey(methode);
+    }
+
+    /**
+     * Instant de début d'une requête, à passer à {@link #terminer}.
+     */
+    public long debut() {
+        return horloge.getAsLong();
+    }
+
+    /**
+     * Enregistre une requête d'une méthode suivie, ignorée sinon.
+     * @param erreur requête terminée en erreur serveur
+     */
+    public void terminer(String methode, long debut, boolean erreur) {
+        FenetreLatences fenetre = fenetres.get(methode);
+        if (fenetre != null) {
+            long maintenant = horloge.getAsLong();
+            fenetre.enregistrer(maintenant - debut, erreur, maintenant);
+        }
+    }
+
+    public Map<String, Object> rapport() {
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        fenetres.keySet().forEach(methode -> rapport.put(methode, rapport(methode)));
+        return rapport;
+    }
+
+    /**
+     * Percentiles par fenêtre et budget d'erreur d'une méthode, {@code null} si elle n'est pas suivie.
+     */
+    public Map<String, Object> rapport(String methode) {
+        FenetreLatences fenetre = fenetres.get(methode);
+        if (fenetre == null) {
+            return null;
+        }
+        long maintenant = horloge.getAsLong();
+        Map<String, Object> parFenetre = new LinkedHashMap<>();
+        for (int minutes : fenetresMinutes) {
+            Histogram histogramme = fenetre.histogramme(tranches(minutes), maintenant);
+            Map<String, Object> latences = new LinkedHashMap<>();
+            latences.put("requetes", histogramme.getTotalCount());
+            latences.put("p50Ms", millis(histogramme.getValueAtPercentile(50)));
+            latences.put("p99Ms", millis(histogramme.getValueAtPercentile(99)));
+            latences.put("p999Ms", millis(histogramme.getValueAtPercentile(99.9)));
+            latences.put("maxMs", millis(histogramme.getMaxValue()));
+            parFenetre.put(minutes + "m", latences);
+        }
+
+        Slo slo = slos.get(methode);
+        long[] budget = fenetre.budget(maintenant);
+        double autorises = (1 - slo.objectif()) * budget[0];
+        Map<String, Object> etatSlo = new LinkedHashMap<>();
+        etatSlo.put("latenceCibleMs", slo.latenceCible().toMillis());
+        etatSlo.put("objectif", slo.objectif());
+        etatSlo.put("fenetreMinutes", fenetreBudgetMinutes);
+        etatSlo.put("requetes", budget[0]);
+        etatSlo.put("horsSlo", budget[1]);
+        etatSlo.put("erreurs", budget[2]);
+        etatSlo.put("conformite", budget[0] == 0 ? 1.0 : 1 - (double) budget[1] / budget[0]);
+        etatSlo.put("budgetRestant", budget[0] == 0 ? 1.0 : 1 - budget[1] / autorises);
+
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("fenetres", parFenetre);
+        rapport.put("slo", etatSlo);
+        return rapport;
+    }
+
+    private int tranches(int minutes) {
+        return (int) Math.max(1, Duration.ofMinutes(minutes).toNanos() / dureeTranche);
+    }
+
+    // Histogrammes en microsecondes
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,217 @@
+package com.med.frida_calculs_app.reactif;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.CalculLotService;
+import com.med.frida_calculs_app.CalculPartsEtenduService;
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.exception.ReponsesErreur;
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.HeritageResponse;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.profilage.ConsommationRequetes;
+import com.med.frida_calculs_app.validator.ResultatValidation;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Endpoints de calcul du déploiement réactif (profil {@code reactif}, WebFlux sur Netty) :
+ * mêmes chemins, mêmes réponses et mêmes services que {@code CalculsPartsController}.
+ *
+ * <ul>
+ * <li>{@code /calculate} : calcul court, exécuté sur la boucle d'événements ; un calcul identique
+ * déjà en vol est composé ({@link CalculPartsService#calculPartsAsync}), jamais attendu ;</li>
+ * <li>{@code /calculate-extended} : corps décodé au fil de l'eau par
+ * {@link DecodeurRequeteEtendue} dans la limite de {@code calcul.etendu.corps-max} et
+ * {@code calcul.etendu.tombes-max}, calcul sur le scheduler {@code boundedElastic} (il peut attendre
+ * un calcul partagé ou ses phases parallèles) ;</li>
+ * <li>{@code /calculate-batch} : lignes NDJSON écrites au rythme de la connexion, lecture des
+ * éléments réglée par la demande, calcul sur l'exécuteur du lot.</li>
+ * </ul>
+ */
+@Slf4j
+@RequestMapping("/api/v1/heritage")
+@RestController
+@CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CalculsPartsReactifController {
+
+        private final CalculPartsService calculPartsService;
+        private final CalculPartsEtenduService calculPartsEtenduService;
+        private final CalculLotService calculLotService;
+        private final ValidateurRequete validateur;
+        private final DecodeurRequeteEtendue decodeur;
+        private final MesuresMoteur mesures;
+        private final ConsommationRequetes consommation;
+
+        @Autowired
+        public CalculsPartsReactifController(CalculPartsService calculPartsService,
+                        CalculPartsEtenduService calculPartsEtenduService,
+                        CalculLotService calculLotService,
+                        ValidateurRequete validateur,
+                        ObjectMapper objectMapper,
+                        MesuresMoteur mesures,
+                        ConsommationRequetes consommation,
+                        @Value("${calcul.etendu.corps-max:8MB}") DataSize corpsMax,
+                        @Value("${calcul.etendu.tombes-max:10000}") int tombesMax) {
+                this.calculPartsService = calculPartsService;
+                this.calculPartsEtenduService = calculPartsEtenduService;
+                this.calculLotService = calculLotService;
+                this.validateur = validateur;
+                this.mesures = mesures;
+                this.consommation = consommation;
+                this.decodeur = new DecodeurRequeteEtendue(objectMapper, corpsMax.toBytes(), tombesMax);
+        }
+
+        @PostMapping("/calculate")
+        public Mono<ResponseEntity<?>> calculerHeritage(@RequestBody Mono<FamilyRequest> corps,
+                        ServerHttpRequest httpRequest) {
+                return corps.flatMap(request -> {
+                        ConsommationRequetes.Releve releve = consommation.debut();
+                        try {
+                                long debut = mesures.debut();
+                                ResultatValidation validation = validateur.valider(request);
+                                mesures.phase(MesuresMoteur.Phase.VALIDATION, debut);
+                                if (!validation.estValide()) {
+                                        terminer(releve, "calculate", -1, -1);
+                                        return Mono.just(ReponsesErreur.invalide(validation,
+                                                        httpRequest.getPath().value()));
+                                }
+                                RequeteNormalisee requete = validation.requete();
+                                CompletableFuture<List<Heritier>> calcul = calculPartsService.calculPartsAsync(requete);
+                                if (!calcul.isDone()) {
+                                        // Calcul identique en vol pour une autre requête : composé sans bloquer la
+                                        // boucle d'événements, la réponse est construite par le thread qui le termine
+                                        terminer(releve, "calculate", 0, -1);
+                                        return Mono.fromFuture(calcul).map(heritiers -> repondre(requete, heritiers));
+                                }
+                                // Calcul terminé (ou en échec) : émis à l'abonnement, sur ce thread
+                                return Mono.fromFuture(calcul).map(heritiers -> {
+                                        ResponseEntity<?> reponse = repondre(requete, heritiers);
+                                        terminer(releve, "calculate", 0, heritiers.size());
+                                        return reponse;
+                                }).doOnError(e -> terminer(releve, "calculate", 0, -1));
+                        } catch (RuntimeException e) {
+                                terminer(releve, "calculate", -1, -1);
+                                throw e;
+                        }
+                });
+        }
+
+        private ResponseEntity<?> repondre(RequeteNormalisee requete, List<Heritier> heritiers) {
+                long debut = mesures.debut();
+                HeritageResponse response = HeritageResponse.fromCalculation(
+                                requete,
+                                heritiers,
+                                "Calcul des parts d'héritage effectué avec succès");
+                mesures.phase(MesuresMoteur.Phase.REPONSE, debut);
+                return ResponseEntity.ok(response);
+        }
+
+        @PostMapping("/calculate-extended")
+        public Mono<ResponseEntity<?>> calculerHeritageEtendu(@RequestBody(required = false) Flux<DataBuffer> corps,
+                        ServerHttpRequest httpRequest) {
+                return decodeur.decoder(corps != null ? corps : Flux.empty())
+                                .publishOn(Schedulers.boundedElastic())
+                                .<ResponseEntity<?>>map(request -> {
+                                        ConsommationRequetes.Releve releve = consommation.debut();
+                                        try {
+                                                long debut = mesures.debut();
+                                                ResultatValidation validation = validateur.valider(request);
+                                                mesures.phase(MesuresMoteur.Phase.VALIDATION, debut);
+                                                if (!validation.estValide()) {
+                                                        terminer(releve, "calculate-extended", -1, -1);
+                                                        return ReponsesErreur.invalide(validation,
+                                                                        httpRequest.getPath().value());
+                                                }
+                                                RequeteNormalisee requete = validation.requete();
+                                                CalculPartsEtenduService.CalculEtenduResult result =
+                                                                calculPartsEtenduService.calculPartsEtendu(requete);
+                                                debut = mesures.debut();
+                                                HeritageResponse response = HeritageResponse.fromCalculation(
+                                                                requete,
+                                                                result.getHeritiers(),
+                                                                "Calcul étendu multi-tombes effectué avec succès (" +
+                                                                                result.getNombreTombes() + " tombe(s))");
+                                                response.setDetailTombes(result.getDetailTombes());
+                                                response.setNombreTombes(result.getNombreTombes());
+                                                mesures.phase(MesuresMoteur.Phase.REPONSE, debut);
+                                                terminer(releve, "calculate-extended", result.getNombreTombes(),
+                                                                result.getHeritiers().size());
+                                                return ResponseEntity.ok(response);
+                                        } catch (RuntimeException e) {
+                                                terminer(releve, "calculate-extended", -1, -1);
+                                                throw e;
+                                        }
+                                });
+        }
+
+        @PostMapping(value = "/calculate-batch",
+                consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<DataBuffer> calculerLot(@RequestBody Flux<JsonNode> elements, ServerHttpResponse httpResponse) {
+                log.info("Requête de calcul par lot reçue");
+                return calculLotService.traiter(elements)
+                                .map(ligne -> httpResponse.bufferFactory().wrap(calculLotService.ligneNdjson(ligne)));
+        }
+
+        /**
+         * Consommation du traitement de la requête, relevée sur le thread du calcul et ses tâches
+         * déléguées : contrairement au déploiement servlet, le décodage du corps et l'encodage de la
+         * réponse n'y sont pas comptés.
+         * Un relevé suivi d'un calcul partagé encore en vol s'arrête avant lui, sans nombre d'héritiers ;
+         * une requête en échec est relevée aussi, sans nombre d'héritiers, comme par le filtre servlet.
+         */
+        private void terminer(ConsommationRequetes.Releve releve, String endpoint, int tombes, int heritiers) {
+                if (releve != null) {
+                        consommation.terminer(releve, endpoint, tombes, heritiers);
+                }
+        }
+
+        @ExceptionHandler(DataBufferLimitException.class)
+        public ResponseEntity<ErrorResponse> corpsTropVolumineux(DataBufferLimitException ex,
+                        ServerHttpRequest httpRequest) {
+                log.debug("Corps de requête rejeté: {}", ex.getMessage());
+                return ReponsesErreur.tropVolumineux(ex.getMessage(), httpRequest.getPath().value());
+        }
+
+        @GetMapping("/status")
+        public Mono<String> status() {
+                return Mono.just("API Frida Calculs - v1.1.0 - Opérationnelle ✓ (Multi-tombes activé, réactif)");
+        }
+
+        /**
+         * Corps absent ou illisible : même réponse 400 que pour une règle non respectée, avec le
+         * message du décodeur.
+         */
+        @ExceptionHandler({ DecodingException.class, ServerWebInputException.class })
+        public ResponseEntity<ErrorResponse> corpsIllisible(Exception ex, ServerHttpRequest httpRequest) {
+                String message = ex instanceof ServerWebInputException entree && entree.getCause() != null
+                                ? entree.getCause().getMessage()
+                                : ex.getMessage();
+                log.debug("Corps de requête illisible: {}", message);
+                return ReponsesErreur.composition(message, httpRequest.getPath().value());
+        }
+}
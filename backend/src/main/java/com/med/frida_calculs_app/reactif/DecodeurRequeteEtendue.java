@@ -0,0 +1,191 @@
+package com.med.frida_calculs_app.reactif;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.Tombe;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Décodage incrémental d'une {@link ExtendedFamilyRequest}.
+ *
+ * Les fragments du corps sont passés au parseur non bloquant de Jackson dès leur arrivée puis
+ * libérés : le corps n'est jamais agrégé en mémoire (ni limité par
+ * {@code spring.codec.max-in-memory-size}). Chaque tombe est désérialisée dès que ses jetons
+ * sont complets ; seuls les champs de premier niveau sont conservés sous forme de jetons
+ * jusqu'à la fin du corps.
+ *
+ * La requête décodée restant en mémoire, la lecture s'arrête au-delà de {@code octetsMax} octets
+ * de corps ({@link DataBufferLimitException}, 413) ou de {@code tombesMax} tombes
+ * ({@link DecodingException}, 400).
+ */
+final class DecodeurRequeteEtendue {
+
+    private static final String TOMBES = "tombes";
+
+    private final ObjectMapper mapper;
+    private final long octetsMax;
+    private final int tombesMax;
+
+    DecodeurRequeteEtendue(ObjectMapper mapper, long octetsMax, int tombesMax) {
+        this.mapper = mapper;
+        this.octetsMax = octetsMax;
+        this.tombesMax = tombesMax;
+    }
+
+    Mono<ExtendedFamilyRequest> decoder(Flux<DataBuffer> corps) {
+        return Mono.defer(() -> {
+            Lecture lecture = new Lecture();
+            return corps
+                    .<Void>handle((fragment, sink) -> {
+                        try {
+                            lecture.alimenter(fragment);
+                        } catch (IOException e) {
+                            sink.error(erreurDecodage(e));
+                        } finally {
+                            DataBufferUtils.release(fragment);
+                        }
+                    })
+                    .then(Mono.fromCallable(lecture::terminer))
+                    .onErrorMap(IOException.class, DecodeurRequeteEtendue::erreurDecodage);
+        });
+    }
+
+    private static DecodingException erreurDecodage(IOException e) {
+        String message = e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+        return new DecodingException("JSON invalide: " + message, e);
+    }
+
+    /**
+     * État de lecture d'un corps : jetons de premier niveau, tombes déjà lues, tombe en cours.
+     */
+    private final class Lecture {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder alimentation;
+        private final TokenBuffer entete = new TokenBuffer(mapper, false);
+        // Profondeur dans l'objet racine (tombes exclues) : 0 avant et après l'objet
+        private int profondeur;
+        private boolean commence;
+        private boolean champTombes;
+        private boolean dansTombes;
+        private List<Tombe> tombes;
+        private TokenBuffer tombe;
+        private int profondeurTombe;
+        private long octets;
+
+        Lecture() {
+            try {
+                this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("Parseur JSON non bloquant indisponible", e);
+            }
+            this.alimentation = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        void alimenter(DataBuffer fragment) throws IOException {
+            octets += fragment.readableByteCount();
+            if (octets > octetsMax) {
+                throw new DataBufferLimitException("Corps de requête trop volumineux: au plus " + octetsMax + " octets");
+            }
+            byte[] contenu = new byte[fragment.readableByteCount()];
+            fragment.read(contenu);
+            alimentation.feedInput(contenu, 0, contenu.length);
+            lireJetons();
+        }
+
+        ExtendedFamilyRequest terminer() throws IOException {
+            alimentation.endOfInput();
+            lireJetons();
+            if (!commence || profondeur != 0) {
+                throw new JsonParseException(parser, "corps de requête vide ou incomplet");
+            }
+            ExtendedFamilyRequest request = mapper.readValue(entete.asParser(), ExtendedFamilyRequest.class);
+            request.setTombes(tombes);
+            return request;
+        }
+
+        private void lireJetons() throws IOException {
+            JsonToken jeton;
+            while ((jeton = parser.nextToken()) != null && jeton != JsonToken.NOT_AVAILABLE) {
+                if (tombe != null) {
+                    lireTombe(jeton);
+                } else if (dansTombes) {
+                    if (jeton == JsonToken.END_ARRAY) {
+                        dansTombes = false;
+                    } else {
+                        if (tombes.size() == tombesMax) {
+                            throw new DecodingException("Trop de tombes: au plus " + tombesMax + " par requête");
+                        }
+                        tombe = new TokenBuffer(mapper, false);
+                        profondeurTombe = 0;
+                        lireTombe(jeton);
+                    }
+                } else {
+                    lireRacine(jeton);
+                }
+            }
+        }
+
+        private void lireTombe(JsonToken jeton) throws IOException {
+            tombe.copyCurrentEvent(parser);
+            if (jeton.isStructStart()) {
+                profondeurTombe++;
+            } else if (jeton.isStructEnd()) {
+                profondeurTombe--;
+            }
+            if (profondeurTombe == 0) {
+                tombes.add(mapper.readValue(tombe.asParser(), Tombe.class));
+                tombe = null;
+            }
+        }
+
+        private void lireRacine(JsonToken jeton) throws IOException {
+            if (!commence) {
+                if (jeton != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "la requête doit être un objet JSON");
+                }
+                commence = true;
+            } else if (profondeur == 0) {
+                throw new JsonParseException(parser, "contenu inattendu après la requête");
+            }
+            if (champTombes) {
+                champTombes = false;
+                if (jeton == JsonToken.START_ARRAY) {
+                    tombes = new ArrayList<>();
+                    dansTombes = true;
+                    return;
+                }
+                if (jeton != JsonToken.VALUE_NULL) {
+                    throw new JsonParseException(parser, "le champ tombes doit être un tableau");
+                }
+                tombes = null;
+                return;
+            }
+            if (profondeur == 1 && jeton == JsonToken.FIELD_NAME && TOMBES.equals(parser.currentName())) {
+                champTombes = true;
+                return;
+            }
+            entete.copyCurrentEvent(parser);
+            if (jeton.isStructStart()) {
+                profondeur++;
+            } else if (jeton.isStructEnd()) {
+                profondeur--;
+            }
+        }
+    }
+}
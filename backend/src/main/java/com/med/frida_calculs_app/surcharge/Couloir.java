@@ -0,0 +1,88 @@
+package com.med.frida_calculs_app.surcharge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloison (« bulkhead ») d'une classe d'endpoints : nombre borné de requêtes en cours, attente
+ * bornée d'une place, et part de la limite adaptative que la classe peut occuper.
+ *
+ * Une part inférieure à 1 donne une priorité plus basse : quand la limite adaptative se resserre,
+ * la classe est rejetée avant les classes à part entière.
+ */
+public final class Couloir {
+
+    private final String nom;
+    private final int permis;
+    private final long attenteMaxMs;
+    private final double partLimite;
+    private final Semaphore places;
+    private final Counter rejets;
+
+    public Couloir(String nom, int permis, long attenteMaxMs, double partLimite, MeterRegistry registry) {
+        if (permis < 1 || attenteMaxMs < 0 || partLimite <= 0 || partLimite > 1) {
+            throw new IllegalArgumentException("Couloir " + nom + " mal configuré: permis=" + permis
+                    + ", attente-max-ms=" + attenteMaxMs + ", part-limite=" + partLimite);
+        }
+        this.nom = nom;
+        this.permis = permis;
+        this.attenteMaxMs = attenteMaxMs;
+        this.partLimite = partLimite;
+        this.places = new Semaphore(permis);
+        this.rejets = Counter.builder("heritage.couloir.rejets")
+                .description("Requêtes rejetées (503) faute de place dans le couloir")
+                .tag("couloir", nom)
+                .register(registry);
+        Gauge.builder("heritage.couloir.en-cours", this, Couloir::getEnCours)
+                .description("Requêtes en cours dans le couloir")
+                .tag("couloir", nom)
+                .register(registry);
+        Gauge.builder("heritage.couloir.permis", this, Couloir::getPermis)
+                .description("Requêtes simultanées admises dans le couloir")
+                .tag("couloir", nom)
+                .register(registry);
+    }
+
+    /**
+     * Prend une place, en attendant au plus {@code attenteMaxMs} ; sinon compte un rejet.
+     */
+    public boolean acquerir() {
+        boolean admise;
+        try {
+            admise = attenteMaxMs == 0
+                    ? places.tryAcquire()
+                    : places.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admise = false;
+        }
+        if (!admise) {
+            rejets.increment();
+        }
+        return admise;
+    }
+
+    public void liberer() {
+        places.release();
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public int getPermis() {
+        return permis;
+    }
+
+    public int getEnCours() {
+        return permis - places.availablePermits();
+    }
+
+    public double getPartLimite() {
+        return partLimite;
+    }
+}
@@ -0,0 +1,105 @@
+package com.med.frida_calculs_app.surcharge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Répartit les requêtes de calcul dans leur {@link Couloir} (interactif, étendu, lot) : une
+ * requête sans place est rejetée par un 503 avec {@code Retry-After}, sans toucher aux autres
+ * couloirs. La place d'une réponse asynchrone (flux NDJSON du lot) est gardée jusqu'à la fin du
+ * flux. La part de limite du couloir est transmise à {@link FiltreLimiteConcurrence} par
+ * l'attribut {@link #PART_LIMITE}.
+ */
+public class FiltreCouloirs extends OncePerRequestFilter {
+
+    public static final String PART_LIMITE = FiltreCouloirs.class.getName() + ".PART_LIMITE";
+
+    private final Map<String, Couloir> couloirs;
+    private final ObjectMapper objectMapper;
+    private final String retryAfter;
+
+    /**
+     * @param couloirs couloir de chaque chemin, relatif au contexte de l'application
+     */
+    public FiltreCouloirs(Map<String, Couloir> couloirs, ObjectMapper objectMapper, long retryAfterSecondes) {
+        this.couloirs = Map.copyOf(couloirs);
+        this.objectMapper = objectMapper;
+        this.retryAfter = Long.toString(retryAfterSecondes);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Couloir couloir = couloirs.get(request.getRequestURI().substring(request.getContextPath().length()));
+        if (couloir == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!couloir.acquerir()) {
+            FiltreLimiteConcurrence.rejeter(request, response, objectMapper, retryAfter);
+            return;
+        }
+        request.setAttribute(PART_LIMITE, couloir.getPartLimite());
+        boolean asynchrone = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Liberation(couloir));
+                asynchrone = true;
+            }
+        } finally {
+            if (!asynchrone) {
+                couloir.liberer();
+            }
+        }
+    }
+
+    /**
+     * Rend la place à la fin d'une réponse asynchrone, une seule fois quel que soit l'événement.
+     */
+    private static final class Liberation implements AsyncListener {
+
+        private final Couloir couloir;
+        private final AtomicBoolean liberee = new AtomicBoolean();
+
+        Liberation(Couloir couloir) {
+            this.couloir = couloir;
+        }
+
+        private void liberer() {
+            if (liberee.compareAndSet(false, true)) {
+                couloir.liberer();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberer();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberer();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberer();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // la même requête reste dans le couloir
+        }
+    }
+}
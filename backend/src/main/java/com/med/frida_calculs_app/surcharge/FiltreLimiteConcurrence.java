@@ -0,0 +1,68 @@
+package com.med.frida_calculs_app.surcharge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.exception.ReponsesErreur;
+import com.med.frida_calculs_app.model.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission des requêtes de calcul par une {@link LimiteAdaptative} : au-delà de la limite, la
+ * requête est rejetée avant la lecture du corps par un 503 avec {@code Retry-After}. Le filtre
+ * n'est enregistré que sur les endpoints de calcul : {@code /status} et l'actuator sont toujours
+ * admis. Une requête d'un couloir de priorité basse n'occupe que sa part de la limite
+ * ({@link FiltreCouloirs#PART_LIMITE}) et sa durée n'entre pas dans le gradient : seules les
+ * requêtes des couloirs à part entière règlent la limite.
+ */
+public class FiltreLimiteConcurrence extends OncePerRequestFilter {
+
+    private final LimiteAdaptative limite;
+    private final ObjectMapper objectMapper;
+    private final String retryAfter;
+
+    public FiltreLimiteConcurrence(LimiteAdaptative limite, ObjectMapper objectMapper, long retryAfterSecondes) {
+        this.limite = limite;
+        this.objectMapper = objectMapper;
+        this.retryAfter = Long.toString(retryAfterSecondes);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        double part = request.getAttribute(FiltreCouloirs.PART_LIMITE) instanceof Double d ? d : 1.0;
+        if (!limite.acquerir(part)) {
+            rejeter(request, response, objectMapper, retryAfter);
+            return;
+        }
+        long debut = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (part >= 1.0) {
+                limite.liberer(System.nanoTime() - debut);
+            } else {
+                limite.libererSansEchantillon();
+            }
+        }
+    }
+
+    /**
+     * Réponse 503 d'une requête rejetée par surcharge.
+     */
+    static void rejeter(HttpServletRequest request, HttpServletResponse response, ObjectMapper objectMapper,
+                        String retryAfter) throws IOException {
+        ResponseEntity<ErrorResponse> reponse = ReponsesErreur.surcharge(request.getRequestURI());
+        response.setStatus(reponse.getStatusCode().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), reponse.getBody());
+    }
+}
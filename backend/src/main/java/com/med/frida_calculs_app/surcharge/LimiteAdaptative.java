@@ -0,0 +1,138 @@
+package com.med.frida_calculs_app.surcharge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concurrence adaptative, par gradient de latence.
+ *
+ * Deux moyennes mobiles de la durée des requêtes admises sont tenues : l'une courte (10
+ * échantillons), l'autre longue (jusqu'à 600) qui sert de référence « sans file d'attente ». Leur
+ * rapport, borné à [0.5, 1], est le gradient : à 1 la latence est stable et la limite croît de
+ * {@code √limite} ; quand la latence monte, la limite est réduite d'autant. La nouvelle limite est
+ * lissée et bornée à [{@code limiteMin}, {@code limiteMax}]. Elle ne croît pas tant que moins de la
+ * moitié est utilisée.
+ *
+ * L'admission est sans verrou (compare-and-set sur le nombre de requêtes en cours) ; seule la mise
+ * à jour de la limite, à chaque fin de requête, est synchronisée.
+ */
+public final class LimiteAdaptative {
+
+    private static final double FENETRE_COURTE = 10;
+    private static final double FENETRE_LONGUE = 600;
+    private static final double LISSAGE = 0.2;
+
+    private final int limiteMin;
+    private final int limiteMax;
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final Counter rejets;
+    private volatile int limite;
+
+    // Protégés par this
+    private double limiteEstimee;
+    private double rttCourt;
+    private double rttLong;
+    private long echantillons;
+
+    public LimiteAdaptative(int limiteInitiale, int limiteMin, int limiteMax, String nom, MeterRegistry registry) {
+        if (limiteMin < 1 || limiteMin > limiteMax || limiteInitiale < limiteMin || limiteInitiale > limiteMax) {
+            throw new IllegalArgumentException("Limites de concurrence incohérentes: initiale=" + limiteInitiale
+                    + ", min=" + limiteMin + ", max=" + limiteMax);
+        }
+        this.limiteMin = limiteMin;
+        this.limiteMax = limiteMax;
+        this.limite = limiteInitiale;
+        this.limiteEstimee = limiteInitiale;
+        this.rejets = Counter.builder("heritage.limite.rejets")
+                .description("Requêtes rejetées (503) par la limite de concurrence")
+                .tag("limite", nom)
+                .register(registry);
+        Gauge.builder("heritage.limite.concurrence", this, LimiteAdaptative::getLimite)
+                .description("Limite de concurrence courante")
+                .tag("limite", nom)
+                .register(registry);
+        Gauge.builder("heritage.limite.en-cours", enCours, AtomicInteger::get)
+                .description("Requêtes admises en cours")
+                .tag("limite", nom)
+                .register(registry);
+    }
+
+    /**
+     * Admet une requête si la limite le permet ; sinon la rejette et la compte.
+     */
+    public boolean acquerir() {
+        return acquerir(1.0);
+    }
+
+    /**
+     * Admet une requête tant que les requêtes en cours n'occupent pas {@code part} de la limite
+     * (au moins une place).
+     */
+    public boolean acquerir(double part) {
+        int plafond = part >= 1.0 ? limite : Math.max(1, (int) (limite * part));
+        int n;
+        do {
+            n = enCours.get();
+            if (n >= plafond) {
+                rejets.increment();
+                return false;
+            }
+        } while (!enCours.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    /**
+     * Fin d'une requête admise, qui a duré {@code dureeNanos}.
+     */
+    public void liberer(long dureeNanos) {
+        int enVol = enCours.getAndDecrement();
+        echantillon(Math.max(1, dureeNanos), enVol);
+    }
+
+    /**
+     * Fin d'une requête admise dont la durée ne doit pas entrer dans le gradient : une requête
+     * lourde par nature (couloir de priorité basse) ferait passer sa durée pour de l'attente et
+     * resserrerait la limite des requêtes courtes.
+     */
+    public void libererSansEchantillon() {
+        enCours.decrementAndGet();
+    }
+
+    private synchronized void echantillon(long rtt, int enVol) {
+        echantillons++;
+        if (echantillons == 1) {
+            rttCourt = rtt;
+            rttLong = rtt;
+        } else {
+            rttCourt += (rtt - rttCourt) / Math.min(echantillons, FENETRE_COURTE);
+            rttLong += (rtt - rttLong) / Math.min(echantillons, FENETRE_LONGUE);
+        }
+        // Après une surcharge, la référence ne doit pas rester au-dessus des latences courantes
+        if (rttLong > 2 * rttCourt) {
+            rttLong *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttLong / rttCourt));
+        if (gradient == 1.0 && enVol < limiteEstimee / 2) {
+            return;
+        }
+        double nouvelle = limiteEstimee * gradient + Math.sqrt(limiteEstimee);
+        limiteEstimee = Math.max(limiteMin, Math.min(limiteMax,
+                limiteEstimee * (1 - LISSAGE) + nouvelle * LISSAGE));
+        limite = (int) limiteEstimee;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public int getEnCours() {
+        return enCours.get();
+    }
+
+    public double getRejets() {
+        return rejets.count();
+    }
+}
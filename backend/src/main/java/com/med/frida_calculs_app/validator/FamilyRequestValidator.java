@@ -5,6 +5,12 @@ import com.med.frida_calculs_app.model.FamilyRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+/**
+ * Règles métier de la chaîne de validation historique, appliquées après Bean Validation.
+ *
+ * Les points d'entrée de l'API utilisent {@link ValidateurRequete}, qui applique les mêmes
+ * règles en une passe ; cette classe reste la référence d'équivalence et de benchmark.
+ */
 @Component
 @Slf4j
 public class FamilyRequestValidator {
@@ -17,58 +23,36 @@ public class FamilyRequestValidator {
 
         // Validation 1: Au moins un héritier doit être présent
         if (!request.hasAtLeastOneHeir()) {
-            throw new InvalidFamilyCompositionException(
-                    "Aucun héritier n'a été spécifié. Au moins un héritier doit être présent.");
+            throw new InvalidFamilyCompositionException(ValidateurRequete.AUCUN_HERITIER);
         }
 
         // Validation 1 bis: Père et grand-père paternel ne peuvent pas être vivants en même temps
         if (request.isPereVivant() && request.isGrandPerePaternelVivant()) {
-            throw new InvalidFamilyCompositionException(
-                    "Le père et le grand-père paternel ne peuvent pas être vivants en même temps.");
+            throw new InvalidFamilyCompositionException(ValidateurRequete.PERE_ET_GRAND_PERE);
         }
 
         // Validation 1 ter: Une femme défunte ne peut pas avoir plus d'un conjoint
         if ("F".equalsIgnoreCase(request.getSexeDefunt()) && request.getNbConjoints() != null && request.getNbConjoints() > 1) {
-            throw new InvalidFamilyCompositionException(
-                    "Une défunte ne peut pas avoir plus d'un conjoint.");
+            throw new InvalidFamilyCompositionException(ValidateurRequete.DEFUNTE_PLUSIEURS_CONJOINTS);
         }
 
-        // Validation 2: Valeurs par défaut pour null
-        if (request.getNbFilles() == null) {
-            request.setNbFilles(0);
-        }
-        if (request.getNbGarcons() == null) {
-            request.setNbGarcons(0);
-        }
-        if (request.getNbSoeurs() == null) {
-            request.setNbSoeurs(0);
-        }
-        if (request.getNbFreres() == null) {
-            request.setNbFreres(0);
-        }
-        if (request.getNbOncles() == null) {
-            request.setNbOncles(0);
-        }
-        if (request.getNbCousins() == null) {
-            request.setNbCousins(0);
-        }
-        if (request.getNbPetitsFils() == null) {
-            request.setNbPetitsFils(0);
-        }
-        if (request.getNbPetitesFilles() == null) {
-            request.setNbPetitesFilles(0);
-        }
+        // Validation 2: Effectifs absents lus comme 0, sans modifier la requête
+        int nbFilles = valeur(request.getNbFilles());
+        int nbGarcons = valeur(request.getNbGarcons());
+        int nbSoeurs = valeur(request.getNbSoeurs());
+        int nbFreres = valeur(request.getNbFreres());
+        int nbOncles = valeur(request.getNbOncles());
+        int nbCousins = valeur(request.getNbCousins());
         if (request.getSexeParentPredecede() != null &&
                 !request.getSexeParentPredecede().equalsIgnoreCase("M") &&
                 !request.getSexeParentPredecede().equalsIgnoreCase("F")) {
-            throw new InvalidFamilyCompositionException(
-                    "Le sexe du parent pré-décédé doit être 'M' ou 'F'");
+            throw new InvalidFamilyCompositionException(ValidateurRequete.SEXE_PARENT_INVALIDE);
         }
 
         // Validation 3: Cohérence logique - si des enfants existent, la fratrie ne
         // devrait pas hériter
-        int nbEnfants = request.getNbFilles() + request.getNbGarcons();
-        int nbFratrie = request.getNbSoeurs() + request.getNbFreres();
+        int nbEnfants = nbFilles + nbGarcons;
+        int nbFratrie = nbSoeurs + nbFreres;
 
         if (nbEnfants > 0 && nbFratrie > 0) {
             log.warn("Présence d'enfants ET de fratrie. La fratrie pourrait ne pas hériter selon les règles.");
@@ -79,17 +63,17 @@ public class FamilyRequestValidator {
             request.getSexeDefuntEnum();
         } catch (IllegalArgumentException e) {
             throw new InvalidFamilyCompositionException(
-                    "Sexe du défunt invalide: " + request.getSexeDefunt());
+                    ValidateurRequete.SEXE_DEFUNT_INVALIDE + request.getSexeDefunt());
         }
 
         // Validation 5: Nombre total d'héritiers raisonnable
-        int totalHeritiers = (request.getNbConjoints() != null ? request.getNbConjoints() : 0) +
+        int totalHeritiers = valeur(request.getNbConjoints()) +
                 (request.isPereVivant() ? 1 : 0) +
                 (request.isMereVivante() ? 1 : 0) +
                 (request.isGrandPerePaternelVivant() ? 1 : 0) +
-                nbEnfants + nbFratrie + request.getNbOncles() + request.getNbCousins();
+                nbEnfants + nbFratrie + nbOncles + nbCousins;
 
-        if (totalHeritiers > 100) {
+        if (totalHeritiers > ValidateurRequete.TOTAL_HERITIERS_MAX) {
             throw new InvalidFamilyCompositionException(
                     "Le nombre total d'héritiers (" + totalHeritiers + ") est anormalement élevé");
         }
@@ -104,12 +88,15 @@ public class FamilyRequestValidator {
         // Règle: Si le père est vivant et qu'il y a des frères/soeurs,
         // les frères/soeurs ne peuvent pas hériter
         if (request.isPereVivant()) {
-            int nbFratrie = (request.getNbSoeurs() != null ? request.getNbSoeurs() : 0) +
-                    (request.getNbFreres() != null ? request.getNbFreres() : 0);
+            int nbFratrie = valeur(request.getNbSoeurs()) + valeur(request.getNbFreres());
 
             if (nbFratrie > 0) {
                 log.info("Attention: En présence du père, la fratrie ne peut généralement pas hériter");
             }
         }
     }
+
+    private static int valeur(Integer n) {
+        return n != null ? n : 0;
+    }
 }
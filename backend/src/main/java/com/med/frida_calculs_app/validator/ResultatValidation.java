@@ -0,0 +1,32 @@
+package com.med.frida_calculs_app.validator;
+
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+
+import java.util.List;
+
+/**
+ * Résultat de {@link ValidateurRequete#valider} : exactement un des trois composants est
+ * renseigné — la requête normalisée, les violations de champ, ou le message de la première
+ * règle métier non respectée.
+ */
+public record ResultatValidation(RequeteNormalisee requete,
+                                 List<ErrorResponse.ValidationError> violations,
+                                 String erreur) {
+
+    public static ResultatValidation valide(RequeteNormalisee requete) {
+        return new ResultatValidation(requete, null, null);
+    }
+
+    public static ResultatValidation violations(List<ErrorResponse.ValidationError> violations) {
+        return new ResultatValidation(null, List.copyOf(violations), null);
+    }
+
+    public static ResultatValidation erreur(String message) {
+        return new ResultatValidation(null, null, message);
+    }
+
+    public boolean estValide() {
+        return requete != null;
+    }
+}
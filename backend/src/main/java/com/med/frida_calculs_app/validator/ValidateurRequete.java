@@ -0,0 +1,248 @@
+package com.med.frida_calculs_app.validator;
+
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.model.Tombe;
+import com.med.frida_calculs_app.model.TombeNormalisee;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Validation et normalisation d'une requête en une seule passe.
+ *
+ * Remplace la chaîne Bean Validation ({@code @Valid}) → {@link FamilyRequestValidator#validate}
+ * → {@link FamilyRequestValidator#validateIslamicRules}. Les contraintes {@code @NotNull},
+ * {@code @Min} et {@code @Max} de {@link FamilyRequest} et de {@link Tombe} sont lues une fois,
+ * au chargement de la classe, et compilées en règles ; chaque effectif est ensuite lu une seule
+ * fois, vérifié, puis réutilisé par les règles métier et pour construire la
+ * {@link RequeteNormalisee}.
+ *
+ * Les violations de champ sont toutes rapportées, comme avec Bean Validation ; les règles
+ * métier s'arrêtent à la première non respectée, avec les messages et dans l'ordre de
+ * {@link FamilyRequestValidator}. Contrairement à la chaîne, les contraintes des tombes
+ * sont vérifiées.
+ */
+@Component
+@Slf4j
+public class ValidateurRequete {
+
+    static final String AUCUN_HERITIER =
+            "Aucun héritier n'a été spécifié. Au moins un héritier doit être présent.";
+    static final String PERE_ET_GRAND_PERE =
+            "Le père et le grand-père paternel ne peuvent pas être vivants en même temps.";
+    static final String DEFUNTE_PLUSIEURS_CONJOINTS = "Une défunte ne peut pas avoir plus d'un conjoint.";
+    static final String SEXE_PARENT_INVALIDE = "Le sexe du parent pré-décédé doit être 'M' ou 'F'";
+    static final String SEXE_DEFUNT_INVALIDE = "Sexe du défunt invalide: ";
+    static final int TOTAL_HERITIERS_MAX = 100;
+
+    // Effectifs de la requête, dans l'ordre de déclaration de FamilyRequest
+    private static final int CONJOINTS = 0;
+    private static final int FILLES = 1;
+    private static final int GARCONS = 2;
+    private static final int SOEURS = 3;
+    private static final int FRERES = 4;
+    private static final int ONCLES = 5;
+    private static final int COUSINS = 6;
+    private static final int PETITS_FILS = 7;
+    private static final int PETITES_FILLES = 8;
+
+    private static final List<Regle<FamilyRequest>> REGLES = List.of(
+            Regle.compiler(FamilyRequest.class, "nbConjoints", FamilyRequest::getNbConjoints),
+            Regle.compiler(FamilyRequest.class, "nbFilles", FamilyRequest::getNbFilles),
+            Regle.compiler(FamilyRequest.class, "nbGarcons", FamilyRequest::getNbGarcons),
+            Regle.compiler(FamilyRequest.class, "nbSoeurs", FamilyRequest::getNbSoeurs),
+            Regle.compiler(FamilyRequest.class, "nbFreres", FamilyRequest::getNbFreres),
+            Regle.compiler(FamilyRequest.class, "nbOncles", FamilyRequest::getNbOncles),
+            Regle.compiler(FamilyRequest.class, "nbCousins", FamilyRequest::getNbCousins),
+            Regle.compiler(FamilyRequest.class, "nbPetitsFils", FamilyRequest::getNbPetitsFils),
+            Regle.compiler(FamilyRequest.class, "nbPetitesFilles", FamilyRequest::getNbPetitesFilles));
+
+    private static final String SEXE_DEFUNT_OBLIGATOIRE = messageNotNull(FamilyRequest.class, "sexeDefunt");
+    private static final String SEXE_TOMBE_OBLIGATOIRE = messageNotNull(Tombe.class, "sexeParentPredecede");
+    private static final String LIEN_TOMBE_OBLIGATOIRE = messageNotNull(Tombe.class, "lienParente");
+    private static final Regle<Tombe> DESCENDANTS_MALES =
+            Regle.compiler(Tombe.class, "nbDescendantsMales", Tombe::getNbDescendantsMales);
+    private static final Regle<Tombe> DESCENDANTES_FEMELLES =
+            Regle.compiler(Tombe.class, "nbDescendantesFemelles", Tombe::getNbDescendantesFemelles);
+
+    /**
+     * Valide la requête et la normalise.
+     */
+    public ResultatValidation valider(FamilyRequest request) {
+        // Contraintes de champ
+        int[] effectifs = new int[REGLES.size()];
+        List<ErrorResponse.ValidationError> violations = null;
+        for (int i = 0; i < effectifs.length; i++) {
+            Regle<FamilyRequest> regle = REGLES.get(i);
+            Integer valeur = regle.lecture().apply(request);
+            if (valeur != null) {
+                violations = regle.verifier("", valeur, violations);
+                effectifs[i] = valeur;
+            }
+        }
+        String sexeDefunt = request.getSexeDefunt();
+        if (sexeDefunt == null) {
+            violations = ajouter(violations, "sexeDefunt", null, SEXE_DEFUNT_OBLIGATOIRE);
+        }
+        List<Tombe> tombes = request instanceof ExtendedFamilyRequest etendue ? etendue.getTombes() : null;
+        List<TombeNormalisee> tombesNormalisees = List.of();
+        if (tombes != null) {
+            tombesNormalisees = new ArrayList<>(tombes.size());
+            for (int i = 0; i < tombes.size(); i++) {
+                violations = verifierTombe(tombes.get(i), i, violations);
+                if (violations == null) {
+                    tombesNormalisees.add(TombeNormalisee.de(tombes.get(i), i));
+                }
+            }
+        }
+        if (violations != null) {
+            return ResultatValidation.violations(violations);
+        }
+
+        // Règles métier
+        boolean pere = request.isPereVivant();
+        boolean grandPere = request.isGrandPerePaternelVivant();
+        int totalHeritiers = (pere ? 1 : 0) + (request.isMereVivante() ? 1 : 0) + (grandPere ? 1 : 0)
+                + effectifs[CONJOINTS] + effectifs[FILLES] + effectifs[GARCONS] + effectifs[SOEURS]
+                + effectifs[FRERES] + effectifs[ONCLES] + effectifs[COUSINS];
+        boolean auMoinsUnHeritier = totalHeritiers > 0 || request.isGrandMerePaternelleVivante()
+                || effectifs[PETITS_FILS] > 0 || effectifs[PETITES_FILLES] > 0;
+        if (!auMoinsUnHeritier) {
+            return ResultatValidation.erreur(AUCUN_HERITIER);
+        }
+        if (pere && grandPere) {
+            return ResultatValidation.erreur(PERE_ET_GRAND_PERE);
+        }
+        Sexe sexe = Sexe.decoder(sexeDefunt);
+        if (sexe == Sexe.FEMININ && effectifs[CONJOINTS] > 1) {
+            return ResultatValidation.erreur(DEFUNTE_PLUSIEURS_CONJOINTS);
+        }
+        String sexeParent = request.getSexeParentPredecede();
+        if (sexeParent != null && !sexeParentValide(sexeParent)) {
+            return ResultatValidation.erreur(SEXE_PARENT_INVALIDE);
+        }
+        if (sexe == null) {
+            return ResultatValidation.erreur(SEXE_DEFUNT_INVALIDE + sexeDefunt);
+        }
+        if (totalHeritiers > TOTAL_HERITIERS_MAX) {
+            return ResultatValidation.erreur(
+                    "Le nombre total d'héritiers (" + totalHeritiers + ") est anormalement élevé");
+        }
+
+        log.debug("Validation réussie: {} héritier(s) total", totalHeritiers);
+        return ResultatValidation.valide(new RequeteNormalisee(
+                sexe,
+                effectifs[CONJOINTS],
+                pere,
+                request.isMereVivante(),
+                grandPere,
+                request.isGrandMerePaternelleVivante(),
+                effectifs[FILLES],
+                effectifs[GARCONS],
+                effectifs[SOEURS],
+                effectifs[FRERES],
+                effectifs[ONCLES],
+                effectifs[COUSINS],
+                effectifs[PETITS_FILS],
+                effectifs[PETITES_FILLES],
+                sexeParent == null || sexeParent.equalsIgnoreCase("M") ? Sexe.MASCULIN : Sexe.FEMININ,
+                tombesNormalisees));
+    }
+
+    // Codes acceptés pour le parent pré-décédé, de la requête comme des tombes : M ou F uniquement
+    private static boolean sexeParentValide(String sexe) {
+        return sexe.equalsIgnoreCase("M") || sexe.equalsIgnoreCase("F");
+    }
+
+    private static List<ErrorResponse.ValidationError> verifierTombe(Tombe tombe, int position,
+                                                                    List<ErrorResponse.ValidationError> violations) {
+        String prefixe = "tombes[" + position + "].";
+        String sexe = tombe.getSexeParentPredecede();
+        if (sexe == null) {
+            violations = ajouter(violations, prefixe + "sexeParentPredecede", null, SEXE_TOMBE_OBLIGATOIRE);
+        } else if (!sexeParentValide(sexe)) {
+            violations = ajouter(violations, prefixe + "sexeParentPredecede", sexe, SEXE_PARENT_INVALIDE);
+        }
+        if (tombe.getLienParente() == null) {
+            violations = ajouter(violations, prefixe + "lienParente", null, LIEN_TOMBE_OBLIGATOIRE);
+        }
+        Integer males = tombe.getNbDescendantsMales();
+        if (males != null) {
+            violations = DESCENDANTS_MALES.verifier(prefixe, males, violations);
+        }
+        Integer femelles = tombe.getNbDescendantesFemelles();
+        if (femelles != null) {
+            violations = DESCENDANTES_FEMELLES.verifier(prefixe, femelles, violations);
+        }
+        return violations;
+    }
+
+    private static List<ErrorResponse.ValidationError> ajouter(List<ErrorResponse.ValidationError> violations,
+                                                              String champ, Object valeur, String message) {
+        if (violations == null) {
+            violations = new ArrayList<>(2);
+        }
+        violations.add(new ErrorResponse.ValidationError(champ, valeur, message));
+        return violations;
+    }
+
+    private static Field champ(Class<?> type, String nom) {
+        try {
+            return type.getDeclaredField(nom);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Champ " + type.getSimpleName() + "." + nom + " introuvable", e);
+        }
+    }
+
+    private static String messageNotNull(Class<?> type, String nom) {
+        NotNull notNull = champ(type, nom).getAnnotation(NotNull.class);
+        return notNull != null ? message(notNull.message(), "ne doit pas être nul") : "ne doit pas être nul";
+    }
+
+    /**
+     * Message de l'annotation, ou message par défaut si c'est un gabarit Bean Validation.
+     */
+    private static String message(String message, String parDefaut) {
+        return message.startsWith("{") ? parDefaut : message;
+    }
+
+    /**
+     * Bornes d'un effectif ({@code @Min} / {@code @Max}), lues une fois sur le champ annoté.
+     */
+    private record Regle<T>(String champ, Function<T, Integer> lecture,
+                            int min, String messageMin, int max, String messageMax) {
+
+        static <T> Regle<T> compiler(Class<T> type, String nom, Function<T, Integer> lecture) {
+            Field champ = ValidateurRequete.champ(type, nom);
+            Min min = champ.getAnnotation(Min.class);
+            Max max = champ.getAnnotation(Max.class);
+            return new Regle<>(nom, lecture,
+                    min != null ? (int) min.value() : Integer.MIN_VALUE,
+                    min != null ? message(min.message(), "doit être supérieur ou égal à " + min.value()) : null,
+                    max != null ? (int) max.value() : Integer.MAX_VALUE,
+                    max != null ? message(max.message(), "doit être inférieur ou égal à " + max.value()) : null);
+        }
+
+        List<ErrorResponse.ValidationError> verifier(String prefixe, int valeur,
+                                                     List<ErrorResponse.ValidationError> violations) {
+            if (valeur < min) {
+                return ajouter(violations, prefixe + champ, valeur, messageMin);
+            }
+            if (valeur > max) {
+                return ajouter(violations, prefixe + champ, valeur, messageMax);
+            }
+            return violations;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.med.frida_calculs_app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du calcul par lot hors contexte Spring")
+class CalculLotServiceTest {
+
+        private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        // Erreur non rattrapée par le calcul d'un élément : requêtes avec des soeurs
+        private final CalculPartsService calculParts = new CalculPartsService() {
+                @Override
+                public List<Heritier> calculParts(RequeteNormalisee request) {
+                        if (request.nbSoeurs() > 0) {
+                                throw new StackOverflowError("calcul trop profond");
+                        }
+                        return super.calculParts(request);
+                }
+        };
+
+        private final CalculLotService lot = new CalculLotService(calculParts,
+                        new CalculPartsEtenduService(calculParts), new ValidateurRequete(), objectMapper,
+                        2, 4, 16, false);
+
+        @AfterEach
+        void tearDown() {
+                lot.arreter();
+        }
+
+        @Test
+        @DisplayName("Une erreur non rattrapée donne une ligne 500 au lieu de bloquer le flux")
+        void testErreurNonRattrapee() {
+                // Given : plus d'éléments en erreur que d'éléments en vol, dont un doublon
+                StringBuilder corps = new StringBuilder();
+                for (int i = 0; i < 6; i++) {
+                        corps.append("{\"sexeDefunt\":\"M\",\"nbSoeurs\":").append(i % 3 + 1).append("}\n");
+                }
+                corps.append("{\"sexeDefunt\":\"M\",\"nbFilles\":1}\n");
+
+                // When
+                Map<Long, JsonNode> parIndex = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+                                () -> traiter(corps.toString()));
+
+                // Then
+                assertEquals(7, parIndex.size());
+                for (long i = 0; i < 6; i++) {
+                        assertEquals(500, parIndex.get(i).at("/erreur/status").asInt());
+                }
+                assertEquals(0, parIndex.get(3L).get("doublonDe").asInt());
+                assertFalse(parIndex.get(6L).has("erreur"));
+                assertEquals(1, parIndex.get(6L).at("/resultat/nombreHeritiers").asInt());
+        }
+
+        @Test
+        @DisplayName("Un élément refusé par l'exécuteur donne une ligne 500")
+        void testExecuteurArrete() {
+                // Given
+                lot.arreter();
+
+                // When
+                Map<Long, JsonNode> parIndex = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+                                () -> traiter("[{\"sexeDefunt\":\"M\",\"nbFilles\":1}]"));
+
+                // Then
+                assertEquals(500, parIndex.get(0L).at("/erreur/status").asInt());
+        }
+
+        private Map<Long, JsonNode> traiter(String corps) throws Exception {
+                ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+                lot.traiter(new ByteArrayInputStream(corps.getBytes(StandardCharsets.UTF_8)), sortie);
+                Map<Long, JsonNode> parIndex = new HashMap<>();
+                for (String ligne : sortie.toString(StandardCharsets.UTF_8).split("\n")) {
+                        JsonNode noeud = objectMapper.readTree(ligne);
+                        parIndex.put(noeud.get("index").asLong(), noeud);
+                }
+                return parIndex;
+        }
+}
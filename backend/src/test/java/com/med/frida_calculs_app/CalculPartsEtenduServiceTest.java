@@ -0,0 +1,136 @@
+package com.med.frida_calculs_app;
+
+import com.med.frida_calculs_app.cache.CacheCalculs;
+import com.med.frida_calculs_app.enums.HeirType;
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.Tombe;
+import com.med.frida_calculs_app.model.TombeDetail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du calcul étendu multi-tombes")
+class CalculPartsEtenduServiceTest {
+
+        @Test
+        @DisplayName("Grand nombre de tombes : le chemin parallèle donne le même résultat que le chemin séquentiel")
+        void testParalleleIdentiqueAuSequentiel() {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                CalculPartsService service = new CalculPartsService();
+                CalculPartsEtenduService sequentiel = new CalculPartsEtenduService(service,
+                                CacheCalculs.desactive(), registry, Integer.MAX_VALUE);
+                CalculPartsEtenduService parallele = new CalculPartsEtenduService(service,
+                                CacheCalculs.desactive(), registry, 1);
+
+                // When
+                CalculPartsEtenduService.CalculEtenduResult attendu = sequentiel.calculPartsEtendu(requete(600));
+                CalculPartsEtenduService.CalculEtenduResult obtenu = parallele.calculPartsEtendu(requete(600));
+
+                // Then
+                assertEquals(600, obtenu.getNombreTombes());
+                assertEquals(attendu.getHeritiers().size(), obtenu.getHeritiers().size());
+                for (int i = 0; i < attendu.getHeritiers().size(); i++) {
+                        Heritier a = attendu.getHeritiers().get(i);
+                        Heritier o = obtenu.getHeritiers().get(i);
+                        assertEquals(a.getHeritier(), o.getHeritier());
+                        assertEquals(a.getPart().getNumerateurExact(), o.getPart().getNumerateurExact());
+                        assertEquals(a.getPart().getDenominateurExact(), o.getPart().getDenominateurExact());
+                }
+                for (String phase : new String[]{"simulation", "plafonnement", "calcul-reel", "distribution", "reduction"}) {
+                        assertEquals(2, registry.get("heritage.etendu.phase").tag("phase", phase).timer().count(), phase);
+                }
+        }
+
+        @Test
+        @DisplayName("10 000 tombes : bénéficiaires avant la part restante et wasiyya plafonnée à 1/3")
+        void testDixMilleTombes() {
+                // Given
+                CalculPartsEtenduService etendu = new CalculPartsEtenduService(new CalculPartsService());
+
+                // When
+                CalculPartsEtenduService.CalculEtenduResult resultat = etendu.calculPartsEtendu(requete(10_000));
+
+                // Then
+                assertEquals(10_000, resultat.getDetailTombes().size());
+                List<Heritier> heritiers = resultat.getHeritiers();
+                assertEquals(HeirType.REMAINDER.getLabel(), heritiers.get(heritiers.size() - 1).getHeritier());
+                int nbBeneficiaires = 0;
+                for (TombeDetail detail : resultat.getDetailTombes()) {
+                        nbBeneficiaires += detail.getBeneficiaires().size();
+                }
+                // Les bénéficiaires des tombes précèdent immédiatement la part restante, dans l'ordre des tombes
+                List<Heritier> premiers = resultat.getDetailTombes().get(0).getBeneficiaires();
+                assertSame(premiers.get(0), heritiers.get(heritiers.size() - 1 - nbBeneficiaires));
+
+                Fraction wasiyyaTotale = new Fraction(0);
+                for (TombeDetail detail : resultat.getDetailTombes()) {
+                        assertTrue(detail.isPlafonnee());
+                        wasiyyaTotale = wasiyyaTotale.ajouter(detail.getWasiyyaEffective());
+                }
+                assertEquals(0, wasiyyaTotale.compareTo(new Fraction(1, 3)));
+        }
+
+        @Test
+        @DisplayName("Les requêtes ne sont pas modifiées : substitution des petits-enfants et identifiants de tombes")
+        void testRequetesNonModifiees() {
+                // Given : petits-enfants d'un fils sans enfant direct, tombe sans identifiant
+                CalculPartsService service = new CalculPartsService();
+                CalculPartsEtenduService etendu = new CalculPartsEtenduService(service);
+                FamilyRequest simple = FamilyRequest.builder()
+                                .sexeDefunt("M").mereVivante(true).nbPetitsFils(2).nbPetitesFilles(1).build();
+                ExtendedFamilyRequest multiTombes = ExtendedFamilyRequest.builder()
+                                .sexeDefunt("M").nbConjoints(1).nbFilles(1)
+                                .tombes(new ArrayList<>(List.of(Tombe.builder()
+                                                .sexeParentPredecede("M").lienParente("enfant").nbDescendantsMales(1).build())))
+                                .build();
+                String avantSimple = simple.toString();
+                String avantMultiTombes = multiTombes.toString();
+
+                // When
+                List<Heritier> premier = service.calculParts(simple);
+                List<Heritier> second = service.calculParts(simple);
+                CalculPartsEtenduService.CalculEtenduResult resultat = etendu.calculPartsEtendu(multiTombes);
+
+                // Then : mêmes parts à chaque appel, requêtes intactes
+                assertEquals(premier.size(), second.size());
+                for (int i = 0; i < premier.size(); i++) {
+                        assertEquals(premier.get(i).getHeritier(), second.get(i).getHeritier());
+                        assertEquals(premier.get(i).getPart(), second.get(i).getPart());
+                }
+                assertEquals(avantSimple, simple.toString());
+                assertEquals(avantMultiTombes, multiTombes.toString());
+                assertNull(multiTombes.getTombes().get(0).getIdentifiant());
+                assertEquals("tombe_1", resultat.getDetailTombes().get(0).getIdentifiant());
+        }
+
+        private static ExtendedFamilyRequest requete(int nbTombes) {
+                String[] liens = {"enfant", "frere_soeur"};
+                String[] sexes = {"M", "F"};
+                List<Tombe> tombes = new ArrayList<>();
+                for (int i = 0; i < nbTombes; i++) {
+                        tombes.add(Tombe.builder()
+                                        .sexeParentPredecede(sexes[i % 2])
+                                        .lienParente(liens[(i / 2) % 2])
+                                        .nbDescendantsMales(i % 3)
+                                        .nbDescendantesFemelles(1 + i % 4)
+                                        .build());
+                }
+                return ExtendedFamilyRequest.builder()
+                                .sexeDefunt("M")
+                                .nbConjoints(2)
+                                .mereVivante(true)
+                                .nbFilles(1)
+                                .nbSoeurs(2)
+                                .tombes(tombes)
+                                .build();
+        }
+}
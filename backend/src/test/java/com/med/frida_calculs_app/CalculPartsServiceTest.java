@@ -157,7 +157,7 @@ class CalculPartsServiceTest {
                 assertFalse(result.isEmpty());
 
                 // Tous les héritiers devraient avoir le même dénominateur
-                int commonDenominator = result.get(0).getPart().getDenominateur();
+                long commonDenominator = result.get(0).getPart().getDenominateur();
 
                 boolean allSameDenominator = result.stream()
                                 .filter(h -> h.getPart() != null)
@@ -201,8 +201,8 @@ class CalculPartsServiceTest {
                 assertNotNull(garcon, "Le garçon devrait être dans les héritiers");
 
                 // La part du garçon devrait être le double de celle de la fille
-                int partGarcon = garcon.getPart().getNumerateur();
-                int partFille = fille.getPart().getNumerateur();
+                long partGarcon = garcon.getPart().getNumerateur();
+                long partFille = fille.getPart().getNumerateur();
 
                 assertEquals(partFille * 2, partGarcon,
                                 "La part du garçon devrait être le double de celle de la fille");
@@ -277,7 +277,7 @@ class CalculPartsServiceTest {
 
                 // Pour vérifier les proportions finales: Époux (3/8), Mère (1/8), Soeur (2/8 par soeur car 4/8 collectif)
                 // Sous le même dénominateur (par exemple 8, ou un multiple):
-                int d = epoux.getPart().getDenominateur();
+                long d = epoux.getPart().getDenominateur();
                 assertEquals(3 * (d / 8), epoux.getPart().getNumerateur(), "L'époux doit recevoir 3/8");
                 assertEquals(1 * (d / 8), mere.getPart().getNumerateur(), "La mère doit recevoir 1/8");
                 assertEquals(2 * (d / 8), soeur.getPart().getNumerateur(), "Chaque sœur doit recevoir 2/8");
@@ -315,7 +315,7 @@ class CalculPartsServiceTest {
                 assertNotNull(fille);
                 assertNotNull(mere);
 
-                int d = fille.getPart().getDenominateur();
+                long d = fille.getPart().getDenominateur();
                 assertEquals(3 * (d / 4), fille.getPart().getNumerateur(), "La fille doit recevoir 3/4");
                 assertEquals(1 * (d / 4), mere.getPart().getNumerateur(), "La mère doit recevoir 1/4");
         }
@@ -354,7 +354,7 @@ class CalculPartsServiceTest {
                 assertNotNull(mere);
                 assertNotNull(pere);
 
-                int d = epouse.getPart().getDenominateur();
+                long d = epouse.getPart().getDenominateur();
                 assertEquals(1 * (d / 4), epouse.getPart().getNumerateur(), "L'épouse doit recevoir 1/4");
                 assertEquals(1 * (d / 4), mere.getPart().getNumerateur(), "La mère doit recevoir 1/4 (1/3 du reste)");
                 assertEquals(2 * (d / 4), pere.getPart().getNumerateur(), "Le père doit recevoir 1/2 (Asaba du reste)");
@@ -452,7 +452,7 @@ class CalculPartsServiceTest {
                 assertNotNull(reste);
 
                 // Dénominateur commun attendu: 8
-                int d = epouse.getPart().getDenominateur();
+                long d = epouse.getPart().getDenominateur();
                 assertEquals(8, d, "Le dénominateur commun doit être 8");
                 assertEquals(2, epouse.getPart().getNumerateur(), "L'épouse doit avoir 2/8 (1/4)");
                 assertEquals(3, oncles.getPart().getNumerateur(), "Chaque oncle doit avoir 3/8 (3/4 divisé par 2)");
@@ -491,7 +491,7 @@ class CalculPartsServiceTest {
                 assertNotNull(cousins);
                 assertNotNull(reste);
 
-                int d = epouse.getPart().getDenominateur();
+                long d = epouse.getPart().getDenominateur();
                 assertEquals(4, d);
                 assertEquals(1, epouse.getPart().getNumerateur());
                 assertEquals(1, cousins.getPart().getNumerateur());
@@ -11,6 +11,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -264,4 +266,82 @@ class CalculsPartsControllerIntegrationTest {
                                 .andDo(print())
                                 .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("POST /calculate-batch (tableau JSON) : une ligne par élément, doublons partagés, erreurs isolées")
+        void testCalculateBatchTableau() throws Exception {
+                // Given : deux éléments identiques et un élément invalide (défunte avec 2 conjoints)
+                FamilyRequest valide = FamilyRequest.builder().sexeDefunt("M").nbConjoints(1).nbFilles(2).build();
+                FamilyRequest invalide = FamilyRequest.builder().sexeDefunt("F").nbConjoints(2).pereVivant(true).build();
+                String corps = objectMapper.writeValueAsString(java.util.List.of(valide, valide, invalide));
+
+                // When
+                String lignes = executerLot(corps, MediaType.APPLICATION_JSON);
+
+                // Then
+                java.util.Map<Long, com.fasterxml.jackson.databind.JsonNode> parIndex = lireLignes(lignes);
+                assertEquals(3, parIndex.size());
+                assertEquals(3, parIndex.get(0L).at("/resultat/heritiers").size());
+                assertEquals(0, parIndex.get(1L).get("doublonDe").asInt());
+                assertEquals(parIndex.get(0L).at("/resultat/heritiers"), parIndex.get(1L).at("/resultat/heritiers"));
+                assertEquals(400, parIndex.get(2L).at("/erreur/status").asInt());
+                assertEquals("Une défunte ne peut pas avoir plus d'un conjoint.", parIndex.get(2L).at("/erreur/message").asText());
+        }
+
+        @Test
+        @DisplayName("POST /calculate-batch (NDJSON) : requêtes simples et multi-tombes, erreurs de validation")
+        void testCalculateBatchNdjson() throws Exception {
+                // Given
+                String corps = "{\"sexeDefunt\":\"M\",\"nbFilles\":-1}\n"
+                                + "{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":1,\"tombes\":["
+                                + "{\"sexeParentPredecede\":\"M\",\"lienParente\":\"enfant\",\"nbDescendantsMales\":1}]}\n";
+
+                // When
+                String lignes = executerLot(corps, MediaType.APPLICATION_NDJSON);
+
+                // Then
+                java.util.Map<Long, com.fasterxml.jackson.databind.JsonNode> parIndex = lireLignes(lignes);
+                assertEquals(2, parIndex.size());
+                assertEquals("nbFilles", parIndex.get(0L).at("/erreur/validationErrors/0/field").asText());
+                assertEquals(1, parIndex.get(1L).at("/resultat/nombreTombes").asInt());
+                assertEquals("tombe_1", parIndex.get(1L).at("/resultat/detailTombes/0/identifiant").asText());
+        }
+
+        @Test
+        @DisplayName("POST /calculate-extended avec une tombe invalide devrait retourner 400 et le chemin")
+        void testCalculateExtendedWithInvalidTombe() throws Exception {
+                // Given
+                String corps = "{\"sexeDefunt\":\"M\",\"nbFilles\":1,"
+                                + "\"tombes\":[{\"sexeParentPredecede\":\"M\",\"nbDescendantsMales\":1}]}";
+
+                // When & Then
+                mockMvc.perform(post("/api/v1/heritage/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(corps))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.path").value("/api/v1/heritage/calculate-extended"))
+                                .andExpect(jsonPath("$.message").value("Erreur de validation des données"))
+                                .andExpect(jsonPath("$.validationErrors[0].field").value("tombes[0].lienParente"));
+        }
+
+        private String executerLot(String corps, MediaType type) throws Exception {
+                org.springframework.test.web.servlet.MvcResult asynchrone = mockMvc.perform(post("/api/v1/heritage/calculate-batch")
+                                .contentType(type)
+                                .content(corps))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                return mockMvc.perform(asyncDispatch(asynchrone))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn().getResponse().getContentAsString(java.nio.charset.StandardCharsets.UTF_8);
+        }
+
+        private java.util.Map<Long, com.fasterxml.jackson.databind.JsonNode> lireLignes(String lignes) throws Exception {
+                java.util.Map<Long, com.fasterxml.jackson.databind.JsonNode> parIndex = new java.util.HashMap<>();
+                for (String ligne : lignes.split("\n")) {
+                        com.fasterxml.jackson.databind.JsonNode noeud = objectMapper.readTree(ligne);
+                        parIndex.put(noeud.get("index").asLong(), noeud);
+                }
+                return parIndex;
+        }
 }
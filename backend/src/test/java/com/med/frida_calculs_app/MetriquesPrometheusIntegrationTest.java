@@ -0,0 +1,45 @@
+package com.med.frida_calculs_app;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// L'export des métriques est désactivé par défaut dans les tests Spring Boot
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@DisplayName("Tests d'intégration de l'export Prometheus")
+class MetriquesPrometheusIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        @DisplayName("GET /actuator/prometheus expose les durées de phases et les voies de calcul")
+        void testMetriquesPrometheus() throws Exception {
+                // Given : un calcul asaba des fils
+                mockMvc.perform(post("/api/v1/heritage/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":2,\"nbGarcons\":3}"))
+                                .andExpect(status().isOk());
+
+                // When & Then
+                mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().string(containsString("heritage_phase_seconds_count{phase=\"hajb\"}")))
+                                .andExpect(content().string(containsString("heritage_phase_seconds_sum{phase=\"validation\"}")))
+                                .andExpect(content().string(containsString("heritage_voie_total{voie=\"asaba-fils\"} 1")))
+                                .andExpect(content().string(containsString("heritage_wasiyya_total{plafonnee=\"true\"}")));
+        }
+}
@@ -0,0 +1,133 @@
+package com.med.frida_calculs_app.cache;
+
+import com.med.frida_calculs_app.CalculPartsEtenduService;
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.model.Tombe;
+import com.med.frida_calculs_app.moteur.MoteurClassique;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du cache des résultats de calcul")
+class CacheCalculsTest {
+
+        private SimpleMeterRegistry registry;
+        private CalculPartsService service;
+        private CalculPartsEtenduService serviceEtendu;
+        private final CalculPartsService reference = new CalculPartsService();
+
+        @BeforeEach
+        void setUp() {
+                registry = new SimpleMeterRegistry();
+                CacheCalculs cache = new CacheCalculs(true, 100, 10, registry);
+                service = new CalculPartsService(new MoteurClassique(), cache);
+                serviceEtendu = new CalculPartsEtenduService(service, cache, registry, 256);
+        }
+
+        @Test
+        @DisplayName("Un second calcul identique est servi par le cache, sous forme de copie")
+        void testHitEtCopie() {
+                // Given
+                List<Heritier> premier = service.calculParts(requete());
+                premier.get(0).setPart(new Fraction(99, 100));
+
+                // When
+                List<Heritier> second = service.calculParts(requete());
+
+                // Then
+                assertEquals(1.0, registry.get("cache.gets").tag("cache", "heritage.calculate").tag("result", "hit")
+                                .functionCounter().count());
+                assertEquals(1.0, registry.get("cache.gets").tag("cache", "heritage.calculate").tag("result", "miss")
+                                .functionCounter().count());
+                assertMemesParts(reference.calculParts(requete()), second);
+        }
+
+        @Test
+        @DisplayName("La substitution petits-enfants -> enfants ne modifie pas la requête, en hit comme en miss")
+        void testSubstitutionRejouee() {
+                // Given
+                FamilyRequest premiere = FamilyRequest.builder().sexeDefunt("F").nbConjoints(1)
+                                .nbPetitsFils(2).nbPetitesFilles(1).sexeParentPredecede("M").build();
+                FamilyRequest seconde = FamilyRequest.builder().sexeDefunt("F").nbConjoints(1)
+                                .nbPetitsFils(2).nbPetitesFilles(1).sexeParentPredecede("M").build();
+                service.calculParts(premiere);
+
+                // When
+                List<Heritier> resultat = service.calculParts(seconde);
+
+                // Then
+                assertNull(premiere.getNbGarcons());
+                assertNull(seconde.getNbGarcons());
+                assertNull(seconde.getNbFilles());
+                assertMemesParts(reference.calculParts(FamilyRequest.builder().sexeDefunt("F").nbConjoints(1)
+                                .nbPetitsFils(2).nbPetitesFilles(1).sexeParentPredecede("M").build()), resultat);
+        }
+
+        @Test
+        @DisplayName("Les requêtes multi-tombes sont mises en cache avec leurs tombes, dans l'ordre")
+        void testCacheEtendu() {
+                // When
+                CalculPartsEtenduService.CalculEtenduResult premier = serviceEtendu.calculPartsEtendu(requeteEtendue(false));
+                CalculPartsEtenduService.CalculEtenduResult second = serviceEtendu.calculPartsEtendu(requeteEtendue(false));
+                CalculPartsEtenduService.CalculEtenduResult inverse = serviceEtendu.calculPartsEtendu(requeteEtendue(true));
+
+                // Then
+                assertEquals(1.0, registry.get("cache.gets").tag("cache", "heritage.calculate-extended").tag("result", "hit")
+                                .functionCounter().count());
+                assertMemesParts(premier.getHeritiers(), second.getHeritiers());
+                assertNotSame(premier.getHeritiers().get(0), second.getHeritiers().get(0));
+                // Les bénéficiaires du détail restent les objets de la liste des héritiers
+                assertTrue(second.getHeritiers().contains(second.getDetailTombes().get(0).getBeneficiaires().get(0)));
+                assertNotEquals(premier.getHeritiers().get(2).getHeritier(), inverse.getHeritiers().get(2).getHeritier());
+        }
+
+        @Test
+        @DisplayName("Un effectif hors de la plage de l'empreinte contourne le cache")
+        void testRequeteNonRepresentable() {
+                FamilyRequest request = FamilyRequest.builder().sexeDefunt("M").nbGarcons(64).build();
+
+                assertNull(EmpreinteRequete.simple(RequeteNormalisee.de(request)));
+                service.calculParts(request);
+                assertEquals(0.0, registry.get("cache.gets").tag("cache", "heritage.calculate").tag("result", "miss")
+                                .functionCounter().count());
+        }
+
+        private static FamilyRequest requete() {
+                return FamilyRequest.builder().sexeDefunt("M").nbConjoints(2).mereVivante(true)
+                                .nbFilles(3).nbSoeurs(2).build();
+        }
+
+        private static ExtendedFamilyRequest requeteEtendue(boolean inverse) {
+                List<Tombe> tombes = new ArrayList<>();
+                tombes.add(Tombe.builder().identifiant("A").sexeParentPredecede("M").lienParente("enfant")
+                                .nbDescendantsMales(1).build());
+                tombes.add(Tombe.builder().identifiant("B").sexeParentPredecede("F").lienParente("enfant")
+                                .nbDescendantesFemelles(2).build());
+                if (inverse) {
+                        tombes.add(tombes.remove(0));
+                }
+                return ExtendedFamilyRequest.builder().sexeDefunt("M").nbConjoints(1).nbFilles(1)
+                                .tombes(tombes).build();
+        }
+
+        private static void assertMemesParts(List<Heritier> attendus, List<Heritier> obtenus) {
+                assertEquals(attendus.size(), obtenus.size());
+                for (int i = 0; i < attendus.size(); i++) {
+                        assertEquals(attendus.get(i).getHeritier(), obtenus.get(i).getHeritier());
+                        assertEquals(attendus.get(i).getPart(), obtenus.get(i).getPart());
+                        assertEquals(attendus.get(i).getPartLegale(), obtenus.get(i).getPartLegale());
+                        assertEquals(attendus.get(i).getCadreLegal(), obtenus.get(i).getCadreLegal());
+                }
+        }
+}
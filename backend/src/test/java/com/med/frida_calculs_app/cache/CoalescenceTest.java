@@ -0,0 +1,168 @@
+package com.med.frida_calculs_app.cache;
+
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.moteur.MoteurClassique;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests de la coalescence des calculs simultanés")
+class CoalescenceTest {
+
+        private static final int APPELANTS = 16;
+
+        @Test
+        @DisplayName("Les appels simultanés d'une même clé partagent un seul calcul, chacun recevant sa copie")
+        void testCalculPartage() throws Exception {
+                // Given : un calcul bloqué tant que tous les appelants ne sont pas en attente
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                Coalescence<Long, List<String>> coalescence = new Coalescence<>("test", registry);
+                AtomicInteger calculs = new AtomicInteger();
+                CountDownLatch liberation = new CountDownLatch(1);
+
+                // When
+                List<Future<List<String>>> resultats = new ArrayList<>();
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        for (int i = 0; i < APPELANTS; i++) {
+                                resultats.add(executor.submit(() -> coalescence.partager(42L, () -> {
+                                        calculs.incrementAndGet();
+                                        attendre(liberation);
+                                        return List.of("resultat");
+                                }, ArrayList::new)));
+                        }
+                        while (registry.get("heritage.coalescence.partages").counter().count() < APPELANTS - 1) {
+                                Thread.sleep(1);
+                        }
+                        assertEquals(1.0, registry.get("heritage.coalescence.en-vol").gauge().value());
+                        liberation.countDown();
+                }
+
+                // Then
+                assertEquals(1, calculs.get());
+                assertEquals(0.0, registry.get("heritage.coalescence.en-vol").gauge().value());
+                int copies = 0;
+                for (Future<List<String>> resultat : resultats) {
+                        assertEquals(List.of("resultat"), resultat.get());
+                        copies += resultat.get() instanceof ArrayList ? 1 : 0;
+                }
+                assertEquals(APPELANTS - 1, copies);
+        }
+
+        @Test
+        @DisplayName("Une exception du calcul est relancée chez les appelants en attente, puis la clé est libérée")
+        void testExceptionPartagee() throws Exception {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                Coalescence<Long, String> coalescence = new Coalescence<>("test", registry);
+                CountDownLatch liberation = new CountDownLatch(1);
+
+                // When
+                Future<String> premier;
+                Future<String> second;
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        premier = executor.submit(() -> coalescence.partager(1L, () -> {
+                                attendre(liberation);
+                                throw new ArithmeticException("Dépassement");
+                        }, s -> s));
+                        while (registry.get("heritage.coalescence.en-vol").gauge().value() < 1) {
+                                Thread.sleep(1);
+                        }
+                        second = executor.submit(() -> coalescence.partager(1L, () -> "autre", s -> s));
+                        while (registry.get("heritage.coalescence.partages").counter().count() < 1) {
+                                Thread.sleep(1);
+                        }
+                        liberation.countDown();
+                }
+
+                // Then
+                for (Future<String> resultat : List.of(premier, second)) {
+                        Exception e = assertThrows(Exception.class, resultat::get);
+                        assertInstanceOf(ArithmeticException.class, e.getCause());
+                }
+                assertEquals("autre", coalescence.partager(1L, () -> "autre", s -> s));
+        }
+
+        @Test
+        @DisplayName("Variante sans attente : un appelant arrivé pendant le calcul reçoit un futur non terminé, sans bloquer")
+        void testPartageSansAttente() throws Exception {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                Coalescence<Long, List<String>> coalescence = new Coalescence<>("test", registry);
+                CountDownLatch liberation = new CountDownLatch(1);
+
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        Future<CompletableFuture<List<String>>> premier = executor.submit(() -> coalescence.partagerAsync(7L, () -> {
+                                attendre(liberation);
+                                return List.of("resultat");
+                        }, ArrayList::new));
+                        while (registry.get("heritage.coalescence.en-vol").gauge().value() < 1) {
+                                Thread.sleep(1);
+                        }
+
+                        // When
+                        CompletableFuture<List<String>> second = coalescence.partagerAsync(7L, () -> List.of("autre"), ArrayList::new);
+
+                        // Then
+                        assertFalse(second.isDone());
+                        liberation.countDown();
+                        assertEquals(List.of("resultat"), second.get(10, TimeUnit.SECONDS));
+                        assertInstanceOf(ArrayList.class, second.get());
+                        assertTrue(premier.get().isDone());
+                }
+                assertTrue(coalescence.partagerAsync(7L, () -> List.of("autre"), ArrayList::new).isDone());
+        }
+
+        @Test
+        @DisplayName("Cache désactivé : les requêtes identiques simultanées partagent le calcul du service")
+        void testServiceSansCache() throws Exception {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                CalculPartsService service = new CalculPartsService(new MoteurClassique(),
+                                new CacheCalculs(false, 0, 0, true, registry));
+                FamilyRequest request = FamilyRequest.builder().sexeDefunt("M").nbConjoints(1).nbFilles(2).build();
+
+                // When
+                List<Future<List<Heritier>>> resultats = new ArrayList<>();
+                try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+                        for (int i = 0; i < 2000; i++) {
+                                resultats.add(executor.submit(() -> service.calculParts(request)));
+                        }
+                }
+
+                // Then : chaque appelant a sa propre liste, aux parts identiques
+                List<Heritier> reference = new CalculPartsService().calculParts(request);
+                java.util.Set<Heritier> distincts = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+                for (Future<List<Heritier>> resultat : resultats) {
+                        List<Heritier> heritiers = resultat.get();
+                        distincts.addAll(heritiers);
+                        assertEquals(reference.size(), heritiers.size());
+                        for (int i = 0; i < reference.size(); i++) {
+                                assertEquals(reference.get(i).getPart(), heritiers.get(i).getPart());
+                        }
+                }
+                assertEquals(2000 * reference.size(), distincts.size());
+                assertNotNull(registry.find("heritage.coalescence.partages").tag("calcul", "heritage.calculate").counter());
+        }
+
+        private static void attendre(CountDownLatch liberation) {
+                try {
+                        assertTrue(liberation.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                }
+        }
+}
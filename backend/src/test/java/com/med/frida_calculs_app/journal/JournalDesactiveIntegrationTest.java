@@ -0,0 +1,37 @@
+package com.med.frida_calculs_app.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "calcul.journal.enabled=false")
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration sans journal des requêtes")
+class JournalDesactiveIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ApplicationContext contexte;
+
+        @Test
+        @DisplayName("Journal désactivé : l'application démarre et calcule sans journal")
+        void testSansJournal() throws Exception {
+                assertTrue(contexte.getBeansOfType(JournalRequetes.class).isEmpty());
+
+                mockMvc.perform(post("/api/v1/heritage/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}"))
+                                .andExpect(status().isOk());
+        }
+}
@@ -0,0 +1,117 @@
+package com.med.frida_calculs_app.journal;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du journal échantillonné des requêtes")
+class JournalRequetesTest {
+
+        private static final FamilyRequest CORPS = FamilyRequest.builder().sexeDefunt("M").nbFilles(2).build();
+
+        private final Logger logger = (Logger) LoggerFactory.getLogger(JournalRequetes.class);
+        private final ListAppender<ILoggingEvent> lignes = new ListAppender<>();
+
+        // calculerHeritage : une sur 4 ; status : jamais ; autres méthodes : toutes
+        private final JournalRequetes journal = new JournalRequetes(
+                        Map.of("calculerHeritage", 4, "status", 0), 1, Duration.ofMillis(250));
+
+        @BeforeEach
+        void setUp() {
+                lignes.start();
+                logger.addAppender(lignes);
+        }
+
+        @AfterEach
+        void tearDown() {
+                logger.detachAppender(lignes);
+        }
+
+        @Test
+        @DisplayName("Requête réussie : une sur N en INFO, champs clé/valeur sans le corps")
+        void testEchantillonnage() {
+                for (int i = 0; i < 4000; i++) {
+                        journal.terminer("calculerHeritage", journal.debut(), 200, null, 0, 3, CORPS);
+                        journal.terminer("status", journal.debut(), 200, null, -1, -1, null);
+                }
+
+                // Écart type ≈ 27
+                assertEquals(1000, lignes.list.size(), 200);
+                ILoggingEvent ligne = lignes.list.get(0);
+                assertEquals(Level.INFO, ligne.getLevel());
+                assertEquals("requete", ligne.getMessage());
+                Map<String, Object> champs = champs(ligne);
+                assertEquals("calculerHeritage", champs.get("methode"));
+                assertEquals(200, champs.get("statut"));
+                assertEquals(0, champs.get("tombes"));
+                assertEquals(3, champs.get("heritiers"));
+                assertEquals(4, champs.get("echantillon"));
+                assertFalse(champs.containsKey("corps"));
+        }
+
+        @Test
+        @DisplayName("Erreurs et requêtes lentes toujours journalisées, avec le corps")
+        void testDetailToujoursGarde() {
+                // Given
+                IllegalStateException panne = new IllegalStateException("panne");
+
+                // When
+                journal.terminer("status", journal.debut(), 500, panne, -1, -1, null);
+                journal.terminer("calculerHeritage", journal.debut(), 400, null, -1, -1, CORPS);
+                journal.terminer("calculerHeritage", journal.debut() - Duration.ofSeconds(1).toNanos(), 200, null,
+                                0, 3, CORPS);
+
+                // Then
+                assertEquals(3, lignes.list.size());
+                assertEquals(Level.ERROR, lignes.list.get(0).getLevel());
+                assertEquals("panne", lignes.list.get(0).getThrowableProxy().getMessage());
+                assertEquals(Level.WARN, lignes.list.get(1).getLevel());
+                assertSame(CORPS, champs(lignes.list.get(1)).get("corps"));
+                assertFalse(champs(lignes.list.get(1)).containsKey("tombes"));
+                Map<String, Object> lente = champs(lignes.list.get(2));
+                assertEquals(Level.WARN, lignes.list.get(2).getLevel());
+                assertTrue((long) lente.get("dureeUs") >= 1_000_000);
+                assertSame(CORPS, lente.get("corps"));
+        }
+
+        @Test
+        @DisplayName("Erreur client : jamais échantillonnée, chacune en WARN avec le corps")
+        void testErreurClientNonEchantillonnee() {
+                for (int i = 0; i < 1000; i++) {
+                        journal.terminer("calculerHeritage", journal.debut(), 400, null, -1, -1, CORPS);
+                        journal.terminer("status", journal.debut(), 404, null, -1, -1, null);
+                }
+
+                assertEquals(2000, lignes.list.size());
+                assertTrue(lignes.list.stream().allMatch(ligne -> ligne.getLevel() == Level.WARN));
+                Map<String, Object> champs = champs(lignes.list.get(0));
+                assertEquals(400, champs.get("statut"));
+                assertSame(CORPS, champs.get("corps"));
+                assertFalse(champs.containsKey("echantillon"));
+        }
+
+        @Test
+        @DisplayName("Échantillonnage négatif refusé")
+        void testEchantillonnageInvalide() {
+                assertThrows(IllegalArgumentException.class,
+                                () -> new JournalRequetes(Map.of("calculerHeritage", -1), 1, Duration.ofMillis(250)));
+        }
+
+        private static Map<String, Object> champs(ILoggingEvent ligne) {
+                return ligne.getKeyValuePairs().stream().collect(Collectors.toMap(p -> p.key, p -> p.value));
+        }
+}
@@ -0,0 +1,142 @@
+package com.med.frida_calculs_app.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests de la fraction exacte (long + repli BigInteger)")
+class FractionTest {
+
+        @Test
+        @DisplayName("Les opérations usuelles restent en long et sont réduites")
+        void testOperationsCompactes() {
+                Fraction a = new Fraction(1, 6);
+                Fraction b = new Fraction(1, 4);
+
+                assertEquals(new Fraction(5, 12), a.ajouter(b));
+                assertEquals(new Fraction(-1, 12), a.soustraire(b));
+                assertEquals(new Fraction(1, 24), a.multiplier(b));
+                assertEquals(new Fraction(2, 3), a.diviser(b));
+                assertEquals(new Fraction(1, 18), a.diviser(3));
+                assertTrue(a.ajouter(b).estCompacte());
+        }
+
+        @Test
+        @DisplayName("Un dépassement de long bascule sur BigInteger sans perte d'exactitude")
+        void testRepliBigInteger() {
+                // Given : deux dénominateurs premiers entre eux proches de 2^40
+                Fraction a = new Fraction(1, 1_099_511_627_791L);
+                Fraction b = new Fraction(1, 1_099_511_627_773L);
+
+                // When
+                Fraction produit = a.multiplier(b);
+
+                // Then
+                assertFalse(produit.estCompacte());
+                assertEquals(BigInteger.valueOf(1_099_511_627_791L).multiply(BigInteger.valueOf(1_099_511_627_773L)),
+                                produit.getDenominateurExact());
+                assertThrows(ArithmeticException.class, produit::getDenominateur);
+
+                // Retour en long dès que le résultat y tient
+                Fraction retour = produit.multiplier(new Fraction(1_099_511_627_791L));
+                assertTrue(retour.estCompacte());
+                assertEquals(b, retour);
+        }
+
+        @Test
+        @DisplayName("Réduction au même dénominateur au-delà de la capacité d'un int")
+        void testReductionGrandDenominateur() {
+                // Given : 1/k pour k = 1..40, le PPCM dépasse largement 2^31
+                List<Fraction> fractions = new ArrayList<>();
+                for (int k = 1; k <= 40; k++) {
+                        fractions.add(new Fraction(1, k));
+                }
+
+                // When
+                List<Fraction> memeDen = Fraction.reduireAuMemDenominateur(fractions);
+
+                // Then
+                BigInteger base = memeDen.get(0).getDenominateurExact();
+                for (int k = 1; k <= 40; k++) {
+                        Fraction f = memeDen.get(k - 1);
+                        assertEquals(base, f.getDenominateurExact());
+                        assertEquals(base.divide(BigInteger.valueOf(k)), f.getNumerateurExact());
+                }
+                assertTrue(base.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0);
+        }
+
+        @Test
+        @DisplayName("Les fractions usuelles sont des instances canoniques partagées")
+        void testPoolCanonique() {
+                assertSame(Fraction.UN_SIXIEME, Fraction.de(2, 12));
+                assertSame(Fraction.DEUX_TIERS, Fraction.de(-4, -6));
+                assertSame(Fraction.ZERO, Fraction.de(0, 7));
+                assertSame(Fraction.UN_DEMI, Fraction.UN_QUART.ajouter(Fraction.UN_QUART));
+                assertSame(Fraction.UN_HUITIEME, Fraction.UN_QUART.diviser(2));
+                assertSame(Fraction.UN, Fraction.UN_TIERS.multiplier(3));
+
+                // Hors du pool : nouvelle instance, même valeur
+                assertEquals(new Fraction(5, 48), Fraction.de(10, 96));
+                assertEquals(new Fraction(-1, 6), Fraction.de(1, -6));
+        }
+
+        @Test
+        @DisplayName("Forme irréductible mémorisée, sans nouvelle allocation au second appel")
+        void testIrreductible() {
+                Fraction nonReduite = new Fraction(9, 24, true);
+                assertEquals("3/8", nonReduite.irreductible().toString());
+                assertSame(nonReduite.irreductible(), nonReduite.irreductible());
+                assertSame(Fraction.UN_SIXIEME, new Fraction(4, 24, true).irreductible());
+
+                Fraction grande = new Fraction(BigInteger.TEN.pow(30), BigInteger.TEN.pow(31), true);
+                assertEquals("1/10", grande.irreductible().toString());
+                Fraction dejaReduite = new Fraction(5, 48);
+                assertSame(dejaReduite, dejaReduite.irreductible());
+        }
+
+        @Test
+        @DisplayName("Comparaison exacte")
+        void testComparaison() {
+                assertTrue(new Fraction(1, 3).compareTo(new Fraction(1, 4)) > 0);
+                assertEquals(0, new Fraction(2, 6).compareTo(new Fraction(1, 3)));
+                Fraction grande = new Fraction(BigInteger.TEN.pow(30), BigInteger.TEN.pow(30).add(BigInteger.ONE));
+                assertTrue(grande.compareTo(new Fraction(1)) < 0);
+        }
+
+        @Test
+        @DisplayName("Égalité de valeur cohérente avec compareTo, représentation non réduite comprise")
+        void testEgaliteValeur() {
+                Fraction nonReduite = new Fraction(2, 4, true);
+                assertEquals(Fraction.UN_DEMI, nonReduite);
+                assertEquals(nonReduite, Fraction.UN_DEMI);
+                assertEquals(Fraction.UN_DEMI.hashCode(), nonReduite.hashCode());
+                assertEquals("2/4", nonReduite.toString());
+                assertNotEquals(Fraction.UN_TIERS, nonReduite);
+
+                Fraction grande = new Fraction(BigInteger.TEN.pow(30), BigInteger.TEN.pow(31), true);
+                Fraction dixieme = new Fraction(1, 10);
+                assertEquals(dixieme, grande);
+                assertEquals(dixieme.hashCode(), grande.hashCode());
+                assertEquals(java.util.Set.of(dixieme), java.util.Set.of(grande));
+        }
+
+        @Test
+        @DisplayName("Sérialisation JSON inchangée : numerateur et denominateur")
+        void testSerialisationJson() throws Exception {
+                ObjectMapper mapper = new ObjectMapper();
+
+                assertEquals("{\"numerateur\":3,\"denominateur\":24}",
+                                mapper.writeValueAsString(new Fraction(3, 24, true)));
+
+                Fraction grande = new Fraction(BigInteger.ONE, BigInteger.TEN.pow(25));
+                String json = mapper.writeValueAsString(grande);
+                assertEquals("{\"numerateur\":1,\"denominateur\":10000000000000000000000000}", json);
+                assertEquals(grande, mapper.readValue(json, Fraction.class));
+        }
+}
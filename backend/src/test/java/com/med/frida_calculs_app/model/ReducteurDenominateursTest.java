@@ -0,0 +1,82 @@
+package com.med.frida_calculs_app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests de la réduction au même dénominateur")
+class ReducteurDenominateursTest {
+
+        @Test
+        @DisplayName("Dénominateurs répétés : base = PPCM, numérateurs en long")
+        void testReductionCompacte() {
+                // Given
+                List<Fraction> fractions = List.of(new Fraction(1, 8), new Fraction(1, 6), new Fraction(3, 8),
+                                new Fraction(0), new Fraction(1, 6), new Fraction(-1, 4));
+
+                // When
+                PartsReduites reduites = ReducteurDenominateurs.reduire(fractions);
+
+                // Then
+                assertTrue(reduites.estCompacte());
+                assertEquals(24, reduites.getBase());
+                assertArrayEquals(new long[]{3, 4, 9, 0, 4, -6}, reduites.getNumerateurs());
+                assertEquals("9/24", reduites.fraction(2).toString());
+        }
+
+        @Test
+        @DisplayName("Dépassement du long : bascule en BigInteger avec des valeurs exactes")
+        void testReductionExacte() {
+                // Given : 1/p pour les premiers p < 200, le PPCM dépasse 2^63
+                List<Fraction> fractions = new ArrayList<>();
+                BigInteger attendu = BigInteger.ONE;
+                for (int p = 2; p < 200; p++) {
+                        if (BigInteger.valueOf(p).isProbablePrime(20)) {
+                                fractions.add(new Fraction(1, p));
+                                attendu = attendu.multiply(BigInteger.valueOf(p));
+                        }
+                }
+
+                // When
+                PartsReduites reduites = ReducteurDenominateurs.reduire(fractions);
+
+                // Then
+                assertFalse(reduites.estCompacte());
+                assertThrows(ArithmeticException.class, reduites::getBase);
+                assertEquals(attendu, reduites.getBaseExacte());
+                for (int i = 0; i < fractions.size(); i++) {
+                        assertEquals(attendu.divide(fractions.get(i).getDenominateurExact()), reduites.getNumerateurExact(i));
+                }
+        }
+
+        @Test
+        @DisplayName("Le chemin parallèle donne le même résultat que le chemin séquentiel")
+        void testParalleleIdentiqueAuSequentiel() {
+                // Given : grande liste, beaucoup de doublons, en long puis au-delà
+                List<Fraction> compactes = new ArrayList<>();
+                List<Fraction> grandes = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                        compactes.add(new Fraction(1 + i % 5, 2 + i % 30));
+                        grandes.add(new Fraction(1, 2 + i % 60));
+                }
+
+                for (List<Fraction> fractions : List.of(compactes, grandes)) {
+                        // When
+                        PartsReduites sequentiel = ReducteurDenominateurs.reduire(fractions, Integer.MAX_VALUE);
+                        PartsReduites parallele = ReducteurDenominateurs.reduire(fractions, 1);
+
+                        // Then
+                        assertEquals(sequentiel.estCompacte(), parallele.estCompacte());
+                        assertEquals(sequentiel.getBaseExacte(), parallele.getBaseExacte());
+                        for (int i = 0; i < fractions.size(); i++) {
+                                assertEquals(sequentiel.getNumerateurExact(i), parallele.getNumerateurExact(i));
+                                assertEquals(0, parallele.fraction(i).compareTo(fractions.get(i)));
+                        }
+                }
+        }
+}
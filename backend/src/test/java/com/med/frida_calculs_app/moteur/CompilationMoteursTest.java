@@ -0,0 +1,141 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedObject;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Vérifie, à partir des événements JFR {@code jdk.Compilation} et {@code jdk.CompilerInlining},
+ * que les phases des moteurs atteignent C2 (compilées au niveau 4 ou inlinées dans une
+ * compilation de niveau 4) et qu'aucune n'est refusée à l'inlining pour sa propre taille.
+ *
+ * La chauffe a lieu dans une JVM dédiée : dans la JVM des tests, les moteurs peuvent
+ * déjà avoir été compilés avant le début de l'enregistrement.
+ */
+@DisplayName("Tests de compilation JIT des phases des moteurs")
+class CompilationMoteursTest {
+
+        private static final int NIVEAU_C2 = 4;
+
+        private static final List<String> PHASES =
+                        List.of("exclusions", "partsFixes", "aoul", "asaba", "radd", "cadres", "assembler");
+
+        @TempDir
+        Path dossier;
+
+        @Test
+        @DisplayName("Les phases des moteurs classique et primitif atteignent C2 sans refus d'inlining pour taille")
+        void testPhasesCompileesParC2() throws Exception {
+                assumeTrue(ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                                .noneMatch(a -> a.equals("-Xint") || a.startsWith("-XX:TieredStopAtLevel")),
+                                "C2 indisponible dans cette JVM");
+
+                // Given : chauffe des deux moteurs dans une JVM fraîche, sous enregistrement JFR
+                Path enregistrement = dossier.resolve("compilation.jfr");
+                Process chauffe = new ProcessBuilder(
+                                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                                "-cp", System.getProperty("java.class.path"),
+                                Chauffe.class.getName(), enregistrement.toString())
+                                .inheritIO()
+                                .start();
+                assertTrue(chauffe.waitFor(2, TimeUnit.MINUTES), "Chauffe trop longue");
+                assertEquals(0, chauffe.exitValue());
+
+                // When
+                Set<Long> compilationsC2 = new HashSet<>();
+                Set<String> compileesC2 = new HashSet<>();
+                List<RecordedEvent> inlinings = new ArrayList<>();
+                for (RecordedEvent e : RecordingFile.readAllEvents(enregistrement)) {
+                        if (e.getEventType().getName().equals("jdk.Compilation")) {
+                                if (e.getShort("compileLevel") == NIVEAU_C2 && e.getBoolean("succeded")) {
+                                        compilationsC2.add(e.getLong("compileId"));
+                                        RecordedMethod m = e.getValue("method");
+                                        compileesC2.add(m.getType().getName() + "." + m.getName());
+                                }
+                        } else {
+                                inlinings.add(e);
+                        }
+                }
+                Set<String> inlineesC2 = new HashSet<>();
+                List<String> refusesPourTaille = new ArrayList<>();
+                for (RecordedEvent e : inlinings) {
+                        if (!compilationsC2.contains(e.getLong("compileId"))) continue;
+                        RecordedObject appele = e.getValue("callee");
+                        String nom = appele.getString("type").replace('/', '.') + "." + appele.getString("name");
+                        if (e.getBoolean("succeeded")) {
+                                inlineesC2.add(nom);
+                        } else if (e.getString("message").contains("hot method too big")) {
+                                refusesPourTaille.add(nom);
+                        }
+                }
+
+                // Then
+                for (Class<?> moteur : List.of(MoteurClassique.class, MoteurPrimitif.class)) {
+                        assertTrue(compileesC2.contains(moteur.getName() + ".calculer"), moteur.getSimpleName() + ".calculer");
+                        for (String phase : PHASES) {
+                                String nom = moteur.getName() + "." + phase;
+                                assertTrue(compileesC2.contains(nom) || inlineesC2.contains(nom),
+                                                nom + " n'a pas atteint C2");
+                                assertFalse(refusesPourTaille.contains(nom), nom + " trop grande pour être inlinée");
+                        }
+                }
+        }
+
+        /**
+         * Chauffe des moteurs sur les chemins aoul, asaba et radd, puis écriture de l'enregistrement.
+         */
+        static final class Chauffe {
+
+                public static void main(String[] args) throws Exception {
+                        FamilyRequest[] requetes = {
+                                        // aoul
+                                        FamilyRequest.builder().sexeDefunt("F").nbConjoints(1).mereVivante(true).nbSoeurs(2).build(),
+                                        // asaba
+                                        FamilyRequest.builder().sexeDefunt("M").nbConjoints(1).pereVivant(true).mereVivante(true)
+                                                        .nbFilles(1).nbGarcons(2).build(),
+                                        FamilyRequest.builder().sexeDefunt("M").nbConjoints(2).nbSoeurs(1).nbFreres(1).build(),
+                                        // radd
+                                        FamilyRequest.builder().sexeDefunt("F").mereVivante(true).nbFilles(1).build()
+                        };
+                        MoteurClassique classique = new MoteurClassique();
+                        MoteurCalcul[] moteurs = {classique, new MoteurPrimitif(classique)};
+
+                        try (Recording recording = new Recording()) {
+                                recording.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+                                recording.enable("jdk.CompilerInlining");
+                                recording.start();
+                                long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(4);
+                                long total = 0;
+                                for (int i = 0; System.nanoTime() < fin; i++) {
+                                        for (MoteurCalcul moteur : moteurs) {
+                                                total += moteur.calculer(RequeteNormalisee.de(requetes[i & 3]), Fraction.UN).size();
+                                        }
+                                }
+                                recording.stop();
+                                recording.dump(Paths.get(args[0]));
+                                System.out.println("Chauffe : " + total + " héritiers calculés");
+                        }
+                }
+        }
+}
@@ -0,0 +1,181 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.cache.CacheCalculs;
+import com.med.frida_calculs_app.config.MoteurConfig;
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests des métriques de phases et de voies du moteur")
+class MesuresMoteurTest {
+
+        private static final CatalogueFormes CATALOGUE = new CatalogueFormes(new MoteurClassique());
+
+        @Test
+        @DisplayName("Mêmes voies comptées par les trois moteurs, toutes les voies couvertes")
+        void testVoiesIdentiquesEntreMoteurs() {
+                Map<String, Map<String, Double>> voiesParMoteur = new TreeMap<>();
+                for (String type : new String[]{"classique", "primitif", "formes"}) {
+                        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                        MoteurCalcul moteur = MoteurConfig.creerMoteur(
+                                        type, CATALOGUE, new MesuresMoteur(registry));
+                        for (RequeteNormalisee request : grille()) {
+                                moteur.calculer(request, Fraction.UN);
+                        }
+                        voiesParMoteur.put(type, voies(registry));
+                }
+
+                Map<String, Double> reference = voiesParMoteur.get("classique");
+                assertEquals(MesuresMoteur.Voie.values().length, reference.size());
+                reference.forEach((voie, nombre) -> assertTrue(nombre > 0, "voie jamais suivie: " + voie));
+                assertEquals(reference, voiesParMoteur.get("primitif"));
+                assertEquals(reference, voiesParMoteur.get("formes"));
+        }
+
+        @Test
+        @DisplayName("Une voie et une durée par phase pour chaque calcul, résultats inchangés")
+        void testPhasesEtVoies() {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                MoteurCalcul instrumente = new MoteurClassique(new MesuresMoteur(registry));
+                MoteurCalcul reference = new MoteurClassique();
+                RequeteNormalisee aoul = RequeteNormalisee.de(FamilyRequest.builder()
+                                .sexeDefunt("F").nbConjoints(1).mereVivante(true).nbSoeurs(2).build());
+                RequeteNormalisee radd = RequeteNormalisee.de(FamilyRequest.builder()
+                                .sexeDefunt("F").mereVivante(true).nbFilles(1).build());
+                RequeteNormalisee reste = RequeteNormalisee.de(FamilyRequest.builder()
+                                .sexeDefunt("M").nbConjoints(1).build());
+
+                // When & Then
+                for (RequeteNormalisee request : new RequeteNormalisee[]{aoul, radd, reste}) {
+                        assertEquals(reference.calculer(request, Fraction.UN).toString(),
+                                        instrumente.calculer(request, Fraction.UN).toString());
+                }
+                Map<String, Double> voies = voies(registry);
+                assertEquals(1.0, voies.get("aoul"));
+                assertEquals(1.0, voies.get("radd"));
+                assertEquals(1.0, voies.get("reste"));
+                for (String phase : new String[]{"hajb", "fard", "resolution", "reduction"}) {
+                        assertEquals(3, registry.get("heritage.phase").tag("phase", phase).functionTimer().count(), phase);
+                }
+                assertEquals(0, registry.get("heritage.phase").tag("phase", "wasiyya").functionTimer().count());
+        }
+
+        @Test
+        @DisplayName("Repli du moteur primitif sur dépassement : voie et phases comptées une seule fois")
+        void testRepliCompteUneFois() {
+                // Given : moteur primitif et moteur de repli instrumentés par les mêmes mesures
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                MesuresMoteur mesures = new MesuresMoteur(registry);
+                MoteurCalcul primitif = new MoteurPrimitif(new MoteurClassique(mesures), mesures);
+                RequeteNormalisee request = RequeteNormalisee.de(FamilyRequest.builder()
+                                .sexeDefunt("F").nbConjoints(1).mereVivante(true).nbFilles(7).nbSoeurs(3).build());
+
+                // When : multiplicateur compact mais dépassement d'un long en cours de calcul
+                primitif.calculer(request, new Fraction(1, Long.MAX_VALUE / 3));
+
+                // Then
+                assertEquals(1.0, voies(registry).values().stream().mapToDouble(Double::doubleValue).sum());
+                for (String phase : new String[]{"hajb", "fard", "resolution", "reduction"}) {
+                        assertEquals(1, registry.get("heritage.phase").tag("phase", phase).functionTimer().count(), phase);
+                }
+        }
+
+        @Test
+        @DisplayName("Wasiyya comptée plafonnée au tiers ou non")
+        void testWasiyyaPlafonnee() {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                MesuresMoteur mesures = new MesuresMoteur(registry);
+                CalculPartsService service = new CalculPartsService(new MoteurClassique(mesures),
+                                CacheCalculs.desactive(), mesures);
+
+                // When : fils pré-décédé avec une soeur (part simulée 2/3 > 1/3), puis avec trois frères (1/4)
+                service.calculParts(FamilyRequest.builder().sexeDefunt("M").nbFilles(1)
+                                .sexeParentPredecede("M").nbPetitsFils(1).build());
+                service.calculParts(FamilyRequest.builder().sexeDefunt("M").nbGarcons(3)
+                                .sexeParentPredecede("M").nbPetitsFils(1).build());
+
+                // Then
+                assertEquals(1.0, registry.get("heritage.wasiyya").tag("plafonnee", "true").functionCounter().count());
+                assertEquals(1.0, registry.get("heritage.wasiyya").tag("plafonnee", "false").functionCounter().count());
+                assertEquals(2, registry.get("heritage.phase").tag("phase", "wasiyya").functionTimer().count());
+        }
+
+        @Test
+        @DisplayName("Échantillonnage : une chaîne de phases sur N mesurée et comptée N fois, voies toutes comptées")
+        void testEchantillonnage() {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                MoteurCalcul moteur = new MoteurClassique(new MesuresMoteur(registry, 4));
+                RequeteNormalisee radd = RequeteNormalisee.de(FamilyRequest.builder()
+                                .sexeDefunt("F").mereVivante(true).nbFilles(1).build());
+
+                // When
+                for (int i = 0; i < 4000; i++) {
+                        moteur.calculer(radd, Fraction.UN);
+                }
+
+                // Then : estimation sans biais (écart type ≈ 110)
+                double hajb = registry.get("heritage.phase").tag("phase", "hajb").functionTimer().count();
+                assertEquals(0, hajb % 4);
+                assertEquals(4000, hajb, 800);
+                assertEquals(hajb, registry.get("heritage.phase").tag("phase", "reduction").functionTimer().count());
+                assertEquals(4000.0, voies(registry).get("radd"));
+                assertThrows(IllegalArgumentException.class, () -> new MesuresMoteur(registry, 0));
+        }
+
+        private static Map<String, Double> voies(SimpleMeterRegistry registry) {
+                Map<String, Double> voies = new TreeMap<>();
+                registry.find("heritage.voie").functionCounters()
+                                .forEach(c -> voies.put(c.getId().getTag("voie"), c.count()));
+                return voies;
+        }
+
+        private static List<RequeteNormalisee> grille() {
+                List<RequeteNormalisee> requetes = new ArrayList<>();
+                for (Sexe sexe : Sexe.values()) {
+                        for (int conjoints : new int[]{0, 1}) {
+                                for (int ascendants = 0; ascendants < 16; ascendants++) {
+                                        for (int filles : new int[]{0, 1, 2}) {
+                                                for (int garcons : new int[]{0, 1}) {
+                                                        for (int soeurs : new int[]{0, 1, 2}) {
+                                                                for (int freres : new int[]{0, 1}) {
+                                                                        for (int collateraux = 0; collateraux < 4; collateraux++) {
+                                                                                requetes.add(RequeteNormalisee.builder()
+                                                                                                .sexeDefunt(sexe)
+                                                                                                .nbConjoints(conjoints)
+                                                                                                .pereVivant((ascendants & 1) != 0)
+                                                                                                .mereVivante((ascendants & 2) != 0)
+                                                                                                .grandPerePaternelVivant((ascendants & 4) != 0)
+                                                                                                .grandMerePaternelleVivante((ascendants & 8) != 0)
+                                                                                                .nbFilles(filles)
+                                                                                                .nbGarcons(garcons)
+                                                                                                .nbSoeurs(soeurs)
+                                                                                                .nbFreres(freres)
+                                                                                                .nbOncles(collateraux & 1)
+                                                                                                .nbCousins(collateraux >> 1)
+                                                                                                .build());
+                                                                        }
+                                                                }
+                                                        }
+                                                }
+                                        }
+                                }
+                        }
+                }
+                return requetes;
+        }
+}
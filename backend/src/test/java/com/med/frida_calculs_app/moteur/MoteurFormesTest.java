@@ -0,0 +1,108 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.FormeDescription;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du moteur à formules fermées par forme")
+class MoteurFormesTest {
+
+        private static final MoteurCalcul CLASSIQUE = new MoteurClassique();
+        private static final CatalogueFormes CATALOGUE = new CatalogueFormes(CLASSIQUE);
+        private final MoteurCalcul formes = new MoteurFormes(CATALOGUE, CLASSIQUE);
+
+        private static final Fraction[] MULTIPLICATEURS = {
+                        new Fraction(1), new Fraction(2, 3), new Fraction(5, 7)
+        };
+
+        @Test
+        @DisplayName("Résultats identiques au moteur classique, effectifs au-delà des représentants")
+        void testEquivalenceGrille() {
+                int comparaisons = 0;
+                for (Sexe sexe : Sexe.values()) {
+                        for (int conjoints : new int[]{0, 1, 4}) {
+                                for (int ascendants = 0; ascendants < 16; ascendants++) {
+                                        for (int filles : new int[]{0, 1, 2, 5}) {
+                                                for (int garcons : new int[]{0, 1, 3}) {
+                                                        for (int soeurs : new int[]{0, 1, 2, 4}) {
+                                                                for (int freres : new int[]{0, 1, 3}) {
+                                                                        for (int collateraux = 0; collateraux < 4; collateraux++) {
+                                                                                RequeteNormalisee request = RequeteNormalisee.builder()
+                                                                                                .sexeDefunt(sexe)
+                                                                                                .nbConjoints(conjoints)
+                                                                                                .pereVivant((ascendants & 1) != 0)
+                                                                                                .mereVivante((ascendants & 2) != 0)
+                                                                                                .grandPerePaternelVivant((ascendants & 4) != 0)
+                                                                                                .grandMerePaternelleVivante((ascendants & 8) != 0)
+                                                                                                .nbFilles(filles)
+                                                                                                .nbGarcons(garcons)
+                                                                                                .nbSoeurs(soeurs)
+                                                                                                .nbFreres(freres)
+                                                                                                .nbOncles((collateraux & 1) * 3)
+                                                                                                .nbCousins((collateraux >> 1) * 2)
+                                                                                                .build();
+                                                                                Fraction m = MULTIPLICATEURS[comparaisons % MULTIPLICATEURS.length];
+                                                                                assertMemesHeritiers(CLASSIQUE.calculer(request, m),
+                                                                                                formes.calculer(request, m), request.toString());
+                                                                                comparaisons++;
+                                                                        }
+                                                                }
+                                                        }
+                                                }
+                                        }
+                                }
+                        }
+                }
+                assertEquals(55_296, comparaisons);
+        }
+
+        @Test
+        @DisplayName("Classement et formules d'une forme avec partage 2:1")
+        void testDescriptionForme() {
+                // Given : épouse, mère, une fille et des garçons
+                RequeteNormalisee request = RequeteNormalisee.builder()
+                                .sexeDefunt(Sexe.MASCULIN)
+                                .nbConjoints(1)
+                                .mereVivante(true)
+                                .nbFilles(1)
+                                .nbGarcons(2)
+                                .build();
+
+                // When
+                int code = CatalogueFormes.coder(request);
+                FormeDescription description = CATALOGUE.forme(code).decrire();
+
+                // Then
+                assertEquals(code, description.getCode());
+                assertEquals("sexe=M, conjoint, mere, garcons>=1, filles=1", description.getCaracteristiques());
+                List<FormeDescription.FormuleHeritier> formules = description.getFormules();
+                assertEquals("1/8 ÷ nbConjoints", formules.get(0).getFormule());
+                assertEquals("1/6", formules.get(1).getFormule());
+                assertEquals("17/24 ÷ (2·nbGarcons + nbFilles)", formules.get(2).getFormule());
+                assertEquals("17/24 × 2 ÷ (2·nbGarcons + nbFilles)", formules.get(3).getFormule());
+                assertEquals(new Fraction(17, 24), formules.get(3).getPartGroupe());
+                assertThrows(IllegalArgumentException.class, () -> CATALOGUE.forme(CatalogueFormes.NB_FORMES));
+        }
+
+        private static void assertMemesHeritiers(List<Heritier> attendus, List<Heritier> obtenus, String contexte) {
+                assertEquals(attendus.size(), obtenus.size(), contexte);
+                for (int i = 0; i < attendus.size(); i++) {
+                        Heritier a = attendus.get(i);
+                        Heritier o = obtenus.get(i);
+                        assertEquals(a.getHeritier(), o.getHeritier(), contexte);
+                        assertEquals(a.getPart(), o.getPart(), contexte);
+                        assertEquals(a.getPart().getDenominateurExact(), o.getPart().getDenominateurExact(), contexte);
+                        assertEquals(a.getPartLegale(), o.getPartLegale(), contexte);
+                        assertEquals(a.getPartLegale().getDenominateurExact(), o.getPartLegale().getDenominateurExact(), contexte);
+                        assertEquals(a.getCadreLegal(), o.getCadreLegal(), contexte);
+                }
+        }
+}
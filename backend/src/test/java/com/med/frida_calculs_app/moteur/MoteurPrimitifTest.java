@@ -0,0 +1,151 @@
+package com.med.frida_calculs_app.moteur;
+
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.model.Fraction;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests d'équivalence du moteur primitif avec le moteur classique")
+class MoteurPrimitifTest {
+
+        private final MoteurCalcul classique = new MoteurClassique();
+        private final MoteurCalcul primitif = new MoteurPrimitif(classique);
+
+        private static final Fraction[] MULTIPLICATEURS = {
+                        new Fraction(1), new Fraction(2, 3), new Fraction(5, 7)
+        };
+
+        @Test
+        @DisplayName("Résultats identiques sur une grille de familles et plusieurs multiplicateurs")
+        void testEquivalenceGrille() {
+                int comparaisons = 0;
+                int[] effectifs = {0, 1, 2, 3};
+                for (Sexe sexe : Sexe.values()) {
+                        for (int conjoints = 0; conjoints <= 2; conjoints++) {
+                                for (int ascendants = 0; ascendants < 16; ascendants++) {
+                                        for (int filles : effectifs) {
+                                                for (int garcons : effectifs) {
+                                                        for (int soeurs : effectifs) {
+                                                                for (int freres : new int[]{0, 1, 3}) {
+                                                                        for (int collateraux = 0; collateraux < 4; collateraux++) {
+                                                                                RequeteNormalisee request = RequeteNormalisee.builder()
+                                                                                                .sexeDefunt(sexe)
+                                                                                                .nbConjoints(conjoints)
+                                                                                                .pereVivant((ascendants & 1) != 0)
+                                                                                                .mereVivante((ascendants & 2) != 0)
+                                                                                                .grandPerePaternelVivant((ascendants & 4) != 0)
+                                                                                                .grandMerePaternelleVivante((ascendants & 8) != 0)
+                                                                                                .nbFilles(filles)
+                                                                                                .nbGarcons(garcons)
+                                                                                                .nbSoeurs(soeurs)
+                                                                                                .nbFreres(freres)
+                                                                                                .nbOncles(collateraux & 1)
+                                                                                                .nbCousins((collateraux >> 1) * 2)
+                                                                                                .build();
+                                                                                Fraction m = MULTIPLICATEURS[comparaisons % MULTIPLICATEURS.length];
+                                                                                assertMemesHeritiers(classique.calculer(request, m),
+                                                                                                primitif.calculer(request, m), request.toString());
+                                                                                comparaisons++;
+                                                                        }
+                                                                }
+                                                        }
+                                                }
+                                        }
+                                }
+                        }
+                }
+                assertEquals(73_728, comparaisons);
+        }
+
+        @Test
+        @DisplayName("Tables de règles : toutes les formes de famille, effectifs mis à l'échelle")
+        void testEquivalenceToutesFormes() {
+                // Chaque forme fixe les présences et les tranches (0, 1, 2+) qui pilotent hajb, fard
+                // et asaba ; la mise à l'échelle fait varier les effectifs à l'intérieur des tranches
+                for (int code = 0; code < CatalogueFormes.NB_FORMES; code++) {
+                        RequeteNormalisee forme = CatalogueFormes.representant(code);
+                        for (int echelle = 1; echelle <= 3; echelle++) {
+                                RequeteNormalisee request = forme.toBuilder()
+                                                .nbConjoints(forme.nbConjoints() * Math.min(echelle, 4))
+                                                .nbFilles(forme.nbFilles() * echelle)
+                                                .nbGarcons(forme.nbGarcons() * echelle)
+                                                .nbSoeurs(forme.nbSoeurs() * echelle)
+                                                .nbFreres(forme.nbFreres() * echelle)
+                                                .nbOncles(forme.nbOncles() * echelle)
+                                                .nbCousins(forme.nbCousins() * echelle)
+                                                .build();
+                                Fraction m = MULTIPLICATEURS[echelle - 1];
+                                assertMemesHeritiers(classique.calculer(request, m), primitif.calculer(request, m),
+                                                CatalogueFormes.caracteristiques(code) + " x" + echelle);
+                        }
+                }
+        }
+
+        @Test
+        @DisplayName("Multiplicateur hors capacité d'un long : repli sur le moteur classique")
+        void testRepliGrandMultiplicateur() {
+                // Given
+                RequeteNormalisee request = RequeteNormalisee.builder()
+                                .sexeDefunt(Sexe.FEMININ)
+                                .nbConjoints(1)
+                                .mereVivante(true)
+                                .nbFilles(7)
+                                .nbSoeurs(3)
+                                .build();
+                Fraction grand = new Fraction(1, 1_099_511_627_791L).multiplier(new Fraction(1, 1_099_511_627_773L));
+                Fraction presqueLimite = new Fraction(1, Long.MAX_VALUE / 3);
+
+                // When / Then
+                assertMemesHeritiers(classique.calculer(request, grand), primitif.calculer(request, grand), "grand");
+                assertMemesHeritiers(classique.calculer(request, presqueLimite),
+                                primitif.calculer(request, presqueLimite), "presqueLimite");
+        }
+
+        @Test
+        @DisplayName("Threads virtuels : tableaux de travail empruntés et rendus, résultats identiques")
+        void testThreadsVirtuels() throws Exception {
+                // Given
+                List<RequeteNormalisee> formes = new ArrayList<>();
+                for (int code = 0; code < CatalogueFormes.NB_FORMES; code++) {
+                        formes.add(CatalogueFormes.representant(code));
+                }
+
+                // When / Then : bien plus de calculs simultanés que de threads porteurs
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        List<Future<?>> calculs = new ArrayList<>();
+                        for (int i = 0; i < 2_000; i++) {
+                                RequeteNormalisee request = formes.get(i % formes.size());
+                                Fraction m = MULTIPLICATEURS[i % MULTIPLICATEURS.length];
+                                calculs.add(executor.submit(() -> assertMemesHeritiers(classique.calculer(request, m),
+                                                primitif.calculer(request, m), request.toString())));
+                        }
+                        for (Future<?> calcul : calculs) {
+                                calcul.get();
+                        }
+                }
+        }
+
+        private static void assertMemesHeritiers(List<Heritier> attendus, List<Heritier> obtenus, String contexte) {
+                assertEquals(attendus.size(), obtenus.size(), contexte);
+                for (int i = 0; i < attendus.size(); i++) {
+                        Heritier a = attendus.get(i);
+                        Heritier o = obtenus.get(i);
+                        assertEquals(a.getHeritier(), o.getHeritier(), contexte);
+                        assertEquals(a.getPart(), o.getPart(), contexte);
+                        assertEquals(a.getPart().getDenominateurExact(), o.getPart().getDenominateurExact(), contexte);
+                        assertEquals(a.getPartLegale(), o.getPartLegale(), contexte);
+                        assertEquals(a.getPartLegale().getDenominateurExact(), o.getPartLegale().getDenominateurExact(), contexte);
+                        assertEquals(a.getCadreLegal(), o.getCadreLegal(), contexte);
+                }
+        }
+}
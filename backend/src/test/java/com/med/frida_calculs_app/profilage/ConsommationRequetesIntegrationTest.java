@@ -0,0 +1,140 @@
+package com.med.frida_calculs_app.profilage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"calcul.consommation.entete=true", "calcul.cache.enabled=false"})
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration du temps CPU et des allocations par requête")
+class ConsommationRequetesIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private MeterRegistry registry;
+
+        @Test
+        @DisplayName("Calcul étendu : consommation dans les en-têtes et attribuée à l'endpoint et aux tranches")
+        void testConsommationAttribuee() throws Exception {
+                // Given : deux tombes
+                String corps = "{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":1,\"tombes\":["
+                                + "{\"lienParente\":\"enfant\",\"sexeParentPredecede\":\"M\",\"nbDescendantsMales\":1},"
+                                + "{\"lienParente\":\"enfant\",\"sexeParentPredecede\":\"F\",\"nbDescendantesFemelles\":2}]}";
+
+                // When
+                MockHttpServletResponse reponse = mockMvc.perform(post("/api/v1/heritage/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(corps))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.nombreTombes").value(2))
+                                .andReturn().getResponse();
+
+                // Then
+                long octets = Long.parseLong(reponse.getHeader(FiltreConsommation.ENTETE_ALLOCATION));
+                assertTrue(octets > 0);
+                assertTrue(Long.parseLong(reponse.getHeader(FiltreConsommation.ENTETE_CPU)) >= 0);
+                assertEquals("complete", reponse.getHeader(FiltreConsommation.ENTETE_MESURE));
+                DistributionSummary allocation = registry.get("heritage.requete.allocation")
+                                .tags("endpoint", "calculate-extended", "tombes", "2-4")
+                                .summary();
+                assertEquals(1, allocation.count());
+                assertEquals(octets, allocation.totalAmount());
+                assertEquals(1, registry.get("heritage.requete.cpu")
+                                .tags("endpoint", "calculate-extended", "tombes", "2-4")
+                                .summary().count());
+        }
+
+        @Test
+        @DisplayName("Requête invalide : tranches inconnues")
+        void testRequeteInvalide() throws Exception {
+                mockMvc.perform(post("/api/v1/heritage/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"X\"}"))
+                                .andExpect(status().isBadRequest());
+
+                assertEquals(1, registry.get("heritage.requete.allocation")
+                                .tags("endpoint", "calculate", "tombes", ConsommationRequetes.INCONNU,
+                                                "heritiers", ConsommationRequetes.INCONNU)
+                                .summary().count());
+        }
+
+        @Test
+        @DisplayName("Tâche déléguée à un autre thread : sa consommation s'ajoute au relevé")
+        void testTacheDeleguee() throws Exception {
+                // Given
+                MeterRegistry registre = new SimpleMeterRegistry();
+                ConsommationRequetes consommation = new ConsommationRequetes(registre);
+                ConsommationRequetes.Releve releve = consommation.debut();
+
+                // When : un mégaoctet alloué sur un autre thread
+                Thread tache = Thread.ofPlatform().start(ConsommationRequetes.deleguee(() -> allouer(1 << 20)));
+                tache.join();
+                consommation.terminer(releve, "calculate-extended", 300, 10);
+
+                // Then
+                assertFalse(releve.isPartiel());
+                assertTrue(releve.getOctetsAlloues() >= 1 << 20);
+                assertEquals(1, registre.get("heritage.requete.allocation")
+                                .tags("endpoint", "calculate-extended", "mesure", "complete")
+                                .summary().count());
+        }
+
+        @Test
+        @DisplayName("Thread virtuel : seules les tâches déléguées sont comptées, relevé partiel")
+        void testThreadVirtuel() throws Exception {
+                // Given
+                MeterRegistry registre = new SimpleMeterRegistry();
+                ConsommationRequetes consommation = new ConsommationRequetes(registre);
+                ConsommationRequetes.Releve[] releve = new ConsommationRequetes.Releve[1];
+
+                // When
+                Thread.ofVirtual().start(() -> {
+                        releve[0] = consommation.debut();
+                        Thread tache = Thread.ofPlatform().start(ConsommationRequetes.deleguee(() -> allouer(1 << 20)));
+                        try {
+                                tache.join();
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                        }
+                        consommation.terminer(releve[0], "calculate-extended", 300, 10);
+                }).join();
+
+                // Then
+                assertTrue(releve[0].isPartiel());
+                assertTrue(releve[0].getOctetsAlloues() >= 1 << 20);
+                assertEquals(1, registre.get("heritage.requete.allocation")
+                                .tags("endpoint", "calculate-extended", "mesure", "partielle")
+                                .summary().count());
+        }
+
+        @Test
+        @DisplayName("Tranches de nombres")
+        void testTranches() {
+                assertEquals("0", ConsommationRequetes.tranche(0));
+                assertEquals("1", ConsommationRequetes.tranche(1));
+                assertEquals("2-4", ConsommationRequetes.tranche(4));
+                assertEquals("5-16", ConsommationRequetes.tranche(5));
+                assertEquals("65-256", ConsommationRequetes.tranche(256));
+                assertEquals("257+", ConsommationRequetes.tranche(10_000));
+                assertEquals(ConsommationRequetes.INCONNU, ConsommationRequetes.tranche(-1));
+        }
+
+        private static byte[] allouer(int octets) {
+                return new byte[octets];
+        }
+}
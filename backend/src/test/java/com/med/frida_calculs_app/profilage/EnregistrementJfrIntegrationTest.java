@@ -0,0 +1,85 @@
+package com.med.frida_calculs_app.profilage;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"management.endpoint.jfr.access=unrestricted", "calcul.cache.enabled=false"})
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration de l'enregistrement JFR à la demande")
+class EnregistrementJfrIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        @DisplayName("POST démarre, un second POST est refusé, DELETE renvoie un .jfr avec les événements de calcul")
+        void testEnregistrement() throws Exception {
+                // Given
+                mockMvc.perform(post("/actuator/jfr")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"duree\":30}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.etat").value("en cours"))
+                                .andExpect(jsonPath("$.configuration").value("default"));
+                mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                                .andExpect(status().isConflict());
+
+                // When : un fils pré-décédé laissant une fille, soit une wasiyya simulée
+                mockMvc.perform(post("/api/v1/heritage/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1,\"sexeParentPredecede\":\"M\",\"nbPetitsFils\":1}"))
+                                .andExpect(status().isOk());
+                byte[] contenu = mockMvc.perform(delete("/actuator/jfr"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsByteArray();
+
+                // Then
+                Path fichier = Files.createTempFile("test-", ".jfr");
+                try {
+                        Files.write(fichier, contenu);
+                        List<RecordedEvent> evenements = RecordingFile.readAllEvents(fichier);
+                        RecordedEvent calcul = evenements.stream()
+                                        .filter(e -> e.getEventType().getName().equals("com.med.frida.Calcul"))
+                                        .findFirst().orElseThrow();
+                        assertEquals("simple", calcul.getString("type"));
+                        assertEquals("MoteurClassique", calcul.getString("moteur"));
+                        assertTrue(calcul.getBoolean("wasiyya"));
+                        assertTrue(evenements.stream()
+                                        .anyMatch(e -> e.getEventType().getName().equals("com.med.frida.SimulationWasiyya")));
+                } finally {
+                        Files.deleteIfExists(fichier);
+                }
+                mockMvc.perform(get("/actuator/jfr"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.etat").value("aucun"));
+                mockMvc.perform(delete("/actuator/jfr"))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Configuration JFR inconnue : 400")
+        void testConfigurationInconnue() throws Exception {
+                mockMvc.perform(post("/actuator/jfr")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"configuration\":\"inexistante\"}"))
+                                .andExpect(status().isBadRequest());
+        }
+}
@@ -0,0 +1,46 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration de /actuator/heritage-latency")
+class LatencesEndpointIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        @DisplayName("GET /actuator/heritage-latency : budget par méthode, endpoint déprécié suivi à part")
+        void testLatences() throws Exception {
+                // Given
+                mockMvc.perform(post("/api/v1/heritage/calculs")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbGarcons\":1}"))
+                                .andExpect(status().isOk());
+
+                // When & Then
+                mockMvc.perform(get("/actuator/heritage-latency"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.calculerHeritageDeprecated.slo.requetes").value(1))
+                                .andExpect(jsonPath("$.calculerHeritageDeprecated.slo.latenceCibleMs").value(50))
+                                .andExpect(jsonPath("$.calculerHeritage.slo.requetes").value(0))
+                                .andExpect(jsonPath("$.calculerHeritageEtendu.fenetres.5m.requetes").value(0));
+                mockMvc.perform(get("/actuator/heritage-latency/calculerHeritageDeprecated"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.slo.objectif").value(0.999));
+                mockMvc.perform(get("/actuator/heritage-latency/calculerLot"))
+                                .andExpect(status().isNotFound());
+        }
+}
@@ -0,0 +1,111 @@
+package com.med.frida_calculs_app.profilage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests des latences par fenêtre glissante et du budget d'erreur")
+class LatencesHeritageTest {
+
+        private static final long SECONDE = 1_000_000_000L;
+        private static final long MILLI = 1_000_000L;
+
+        private final AtomicLong horloge = new AtomicLong(1_000 * SECONDE);
+
+        // Tranches de 10 s, fenêtres de 1 et 5 min, budget sur 10 min, SLO 50 ms à 99 %
+        private final LatencesHeritage latences = new LatencesHeritage(
+                        Map.of("calculerHeritage", new LatencesHeritage.Slo(Duration.ofMillis(50), 0.99)),
+                        Duration.ofSeconds(10), List.of(1, 5), 10, horloge::get);
+
+        @Test
+        @DisplayName("Percentiles sur les tranches terminées, fenêtre courte vidée après une minute")
+        void testPercentilesGlissants() {
+                // Given : 1000 requêtes de 1 à 1000 µs, puis une de 40 ms
+                for (int i = 1; i <= 1000; i++) {
+                        enregistrer("calculerHeritage", i * 1000L, false);
+                }
+                enregistrer("calculerHeritage", 40 * MILLI, false);
+
+                // When & Then : tranche en cours non encore visible
+                assertEquals(0L, fenetre(rapport(), "1m").get("requetes"));
+
+                horloge.addAndGet(10 * SECONDE);
+                Map<String, Object> uneMinute = fenetre(rapport(), "1m");
+                assertEquals(1001L, uneMinute.get("requetes"));
+                assertEquals(0.5, (double) uneMinute.get("p50Ms"), 0.01);
+                assertEquals(0.99, (double) uneMinute.get("p99Ms"), 0.01);
+                assertEquals(40.0, (double) uneMinute.get("maxMs"), 0.5);
+
+                horloge.addAndGet(60 * SECONDE);
+                assertEquals(0L, fenetre(rapport(), "1m").get("requetes"));
+                assertEquals(1001L, fenetre(rapport(), "5m").get("requetes"));
+        }
+
+        @Test
+        @DisplayName("Budget d'erreur : requêtes lentes et erreurs consomment la marge, puis sortent de la fenêtre")
+        void testBudgetErreur() {
+                // Given : 1000 requêtes dont 4 lentes et 1 en erreur, marge de 10 à 99 %
+                for (int i = 0; i < 995; i++) {
+                        enregistrer("calculerHeritage", MILLI, false);
+                }
+                for (int i = 0; i < 4; i++) {
+                        enregistrer("calculerHeritage", 80 * MILLI, false);
+                }
+                enregistrer("calculerHeritage", MILLI, true);
+
+                // When
+                Map<String, Object> slo = slo(rapport());
+
+                // Then : tranche en cours comprise
+                assertEquals(1000L, slo.get("requetes"));
+                assertEquals(5L, slo.get("horsSlo"));
+                assertEquals(1L, slo.get("erreurs"));
+                assertEquals(0.995, (double) slo.get("conformite"), 1e-9);
+                assertEquals(0.5, (double) slo.get("budgetRestant"), 1e-9);
+
+                // Hors de la fenêtre de 10 min : budget intact
+                horloge.addAndGet(11 * 60 * SECONDE);
+                slo = slo(rapport());
+                assertEquals(0L, slo.get("requetes"));
+                assertEquals(1.0, (double) slo.get("budgetRestant"));
+        }
+
+        @Test
+        @DisplayName("Méthode non suivie ignorée, objectif invalide refusé")
+        void testMethodeNonSuivie() {
+                enregistrer("calculerLot", MILLI, false);
+
+                assertFalse(latences.suit("calculerLot"));
+                assertNull(latences.rapport("calculerLot"));
+                assertEquals(List.of("calculerHeritage"), List.copyOf(latences.rapport().keySet()));
+                assertThrows(IllegalArgumentException.class,
+                                () -> new LatencesHeritage.Slo(Duration.ofMillis(50), 1.0));
+        }
+
+        private void enregistrer(String methode, long dureeNanos, boolean erreur) {
+                long debut = latences.debut();
+                horloge.addAndGet(dureeNanos);
+                latences.terminer(methode, debut, erreur);
+                horloge.addAndGet(-dureeNanos);
+        }
+
+        private Map<String, Object> rapport() {
+                return latences.rapport("calculerHeritage");
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> fenetre(Map<String, Object> rapport, String fenetre) {
+                return ((Map<String, Map<String, Object>>) rapport.get("fenetres")).get(fenetre);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> slo(Map<String, Object> rapport) {
+                return (Map<String, Object>) rapport.get("slo");
+        }
+}
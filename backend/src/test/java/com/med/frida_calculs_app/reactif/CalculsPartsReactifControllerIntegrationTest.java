@@ -0,0 +1,161 @@
+package com.med.frida_calculs_app.reactif;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = { "calcul.etendu.corps-max=1MB", "calcul.etendu.tombes-max=3000" })
+@ActiveProfiles("reactif")
+@DisplayName("Tests d'intégration du déploiement réactif")
+class CalculsPartsReactifControllerIntegrationTest {
+
+        // Le client de test préfixe déjà spring.webflux.base-path (/calculs)
+        private static final String BASE = "/api/v1/heritage";
+
+        @Autowired
+        private WebTestClient webTestClient;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Test
+        @DisplayName("POST /calculate : mêmes réponses 200 et 400 que le déploiement servlet")
+        void testCalculate() {
+                FamilyRequest request = FamilyRequest.builder()
+                                .sexeDefunt("M").nbConjoints(1).nbFilles(1).nbGarcons(1).build();
+
+                webTestClient.post().uri(BASE + "/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(request)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.calculId").exists()
+                                .jsonPath("$.message").isEqualTo("Calcul des parts d'héritage effectué avec succès")
+                                .jsonPath("$.composition.nbConjoints").isEqualTo(1);
+
+                webTestClient.post().uri(BASE + "/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"sexeDefunt\":\"M\",\"nbFilles\":-1}")
+                                .exchange()
+                                .expectStatus().isBadRequest()
+                                .expectBody()
+                                .jsonPath("$.path").isEqualTo("/calculs" + BASE + "/calculate")
+                                .jsonPath("$.validationErrors[0].field").isEqualTo("nbFilles");
+        }
+
+        @Test
+        @DisplayName("POST /calculate-extended : corps volumineux décodé au fil de l'eau")
+        void testCalculateExtendedCorpsVolumineux() throws Exception {
+                // Given : bien au-delà de spring.codec.max-in-memory-size (256 Ko)
+                List<String> tombes = new ArrayList<>();
+                for (int i = 0; i < 3000; i++) {
+                        tombes.add("{\"identifiant\":\"tombe-" + i + "-" + "x".repeat(80) + "\","
+                                        + "\"sexeParentPredecede\":\"M\",\"lienParente\":\"enfant\","
+                                        + "\"nbDescendantsMales\":1,\"nbDescendantesFemelles\":1}");
+                }
+                String corps = "{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":1,"
+                                + "\"tombes\":[" + String.join(",", tombes) + "],\"nbGarcons\":1}";
+                assertTrue(corps.length() > 256 * 1024);
+
+                // When & Then : champ placé après les tombes compris ; la réponse dépasse aussi 256 Ko côté client
+                byte[] reponse = webTestClient.mutate()
+                                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                                .build()
+                                .post().uri(BASE + "/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(corps)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody().returnResult().getResponseBody();
+                JsonNode json = objectMapper.readTree(reponse);
+                assertEquals(3000, json.get("nombreTombes").asInt());
+                assertEquals(1, json.at("/composition/nbGarcons").asInt());
+        }
+
+        @Test
+        @DisplayName("POST /calculate-extended : trop de tombes renvoie 400, un corps trop volumineux 413")
+        void testCalculateExtendedLimites() {
+                String tombe = "{\"sexeParentPredecede\":\"M\",\"lienParente\":\"enfant\",\"nbDescendantsMales\":1}";
+                webTestClient.post().uri(BASE + "/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"sexeDefunt\":\"M\",\"tombes\":["
+                                                + String.join(",", java.util.Collections.nCopies(3001, tombe)) + "]}")
+                                .exchange()
+                                .expectStatus().isBadRequest()
+                                .expectBody()
+                                .jsonPath("$.message").isEqualTo("Trop de tombes: au plus 3000 par requête");
+
+                webTestClient.post().uri(BASE + "/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"sexeDefunt\":\"M\",\"commentaire\":\"" + "x".repeat(1100 * 1024) + "\"}")
+                                .exchange()
+                                .expectStatus().isEqualTo(413)
+                                .expectBody()
+                                .jsonPath("$.message").isEqualTo("Corps de requête trop volumineux: au plus 1048576 octets");
+        }
+
+        @Test
+        @DisplayName("POST /calculate-extended : JSON illisible ou tombe invalide renvoient 400")
+        void testCalculateExtendedInvalide() {
+                webTestClient.post().uri(BASE + "/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"sexeDefunt\":\"M\",\"tombes\":[{\"lienParente\":")
+                                .exchange()
+                                .expectStatus().isBadRequest()
+                                .expectBody()
+                                .jsonPath("$.message").value(message -> assertTrue(((String) message).startsWith("JSON invalide")));
+
+                webTestClient.post().uri(BASE + "/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"sexeDefunt\":\"M\",\"nbFilles\":1,"
+                                                + "\"tombes\":[{\"sexeParentPredecede\":\"M\",\"nbDescendantsMales\":1}]}")
+                                .exchange()
+                                .expectStatus().isBadRequest()
+                                .expectBody()
+                                .jsonPath("$.validationErrors[0].field").isEqualTo("tombes[0].lienParente");
+        }
+
+        @Test
+        @DisplayName("POST /calculate-batch (NDJSON) : une ligne par élément, doublons partagés")
+        void testCalculateBatchNdjson() throws Exception {
+                String corps = "{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":2}\n"
+                                + "{\"sexeDefunt\":\"M\",\"nbConjoints\":1,\"nbFilles\":2}\n"
+                                + "{\"sexeDefunt\":\"M\",\"nbFilles\":-1}\n";
+
+                List<String> lignes = webTestClient.post().uri(BASE + "/calculate-batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .bodyValue(corps)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .returnResult(String.class)
+                                .getResponseBody()
+                                .collectList()
+                                .block();
+
+                java.util.Map<Long, JsonNode> parIndex = new java.util.HashMap<>();
+                for (String ligne : lignes) {
+                        JsonNode noeud = objectMapper.readTree(ligne);
+                        parIndex.put(noeud.get("index").asLong(), noeud);
+                }
+                assertEquals(3, parIndex.size());
+                assertTrue(parIndex.get(0L).at("/resultat/heritiers").size() > 0);
+                assertEquals(0, parIndex.get(1L).get("doublonDe").asInt());
+                assertEquals("nbFilles", parIndex.get(2L).at("/erreur/validationErrors/0/field").asText());
+        }
+}
@@ -0,0 +1,69 @@
+package com.med.frida_calculs_app.reactif;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.med.frida_calculs_app.CalculLotService;
+import com.med.frida_calculs_app.CalculPartsEtenduService;
+import com.med.frida_calculs_app.CalculPartsService;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.Heritier;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.moteur.MesuresMoteur;
+import com.med.frida_calculs_app.profilage.ConsommationRequetes;
+import com.med.frida_calculs_app.validator.ValidateurRequete;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests du contrôleur réactif hors contexte Spring")
+class CalculsPartsReactifControllerTest {
+
+        // Calcul en échec dès l'appel : futur déjà terminé exceptionnellement
+        private final CalculPartsService calculParts = new CalculPartsService() {
+                @Override
+                public CompletableFuture<List<Heritier>> calculPartsAsync(RequeteNormalisee request) {
+                        return CompletableFuture.failedFuture(new ArithmeticException("dépassement"));
+                }
+        };
+
+        private final MeterRegistry registry = new SimpleMeterRegistry();
+        private final CalculPartsEtenduService etendu = new CalculPartsEtenduService(calculParts);
+        private final CalculLotService lot = new CalculLotService(calculParts, etendu, new ValidateurRequete(),
+                        new ObjectMapper(), 1, 4, 16, false);
+        private final CalculsPartsReactifController controleur = new CalculsPartsReactifController(calculParts,
+                        etendu, lot, new ValidateurRequete(), new ObjectMapper(), MesuresMoteur.INACTIVES,
+                        new ConsommationRequetes(registry), DataSize.ofMegabytes(1), 100);
+
+        @AfterEach
+        void tearDown() {
+                lot.arreter();
+        }
+
+        @Test
+        @DisplayName("POST /calculate en échec : consommation relevée et relevé du thread terminé")
+        void testCalculEnEchecReleve() {
+                // Given
+                FamilyRequest request = FamilyRequest.builder().sexeDefunt("M").nbFilles(1).build();
+
+                // When
+                Mono<?> reponse = controleur.calculerHeritage(Mono.just(request),
+                                MockServerHttpRequest.post("/api/v1/heritage/calculate").build());
+
+                // Then
+                assertThrows(ArithmeticException.class, reponse::block);
+                assertEquals(1, registry.get("heritage.requete.cpu")
+                                .tags("endpoint", "calculate", "tombes", "0", "heritiers", ConsommationRequetes.INCONNU)
+                                .summary().count());
+                Runnable tache = () -> { };
+                assertSame(tache, ConsommationRequetes.deleguee(tache));
+        }
+}
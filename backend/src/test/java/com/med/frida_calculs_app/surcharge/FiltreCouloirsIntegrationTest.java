@@ -0,0 +1,84 @@
+package com.med.frida_calculs_app.surcharge;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = { "calcul.couloirs.etendu.permis=1", "calcul.couloirs.etendu.attente-max-ms=0",
+                "calcul.couloirs.lot.permis=1" })
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration des couloirs par classe d'endpoint")
+class FiltreCouloirsIntegrationTest {
+
+        private static final String ETENDUE = "{\"sexeDefunt\":\"M\",\"nbFilles\":1,\"tombes\":["
+                        + "{\"sexeParentPredecede\":\"M\",\"lienParente\":\"enfant\",\"nbDescendantsMales\":1}]}";
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private Couloir couloirEtendu;
+
+        @Autowired
+        private Couloir couloirLot;
+
+        @Test
+        @DisplayName("Couloir étendu plein : 503 sur /calculate-extended, /calculate toujours servi")
+        void testCouloirPleinIsole() throws Exception {
+                // Given
+                assertTrue(couloirEtendu.acquerir());
+                try {
+                        // When & Then
+                        mockMvc.perform(post("/api/v1/heritage/calculate-extended")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(ETENDUE))
+                                        .andExpect(status().isServiceUnavailable())
+                                        .andExpect(header().exists("Retry-After"));
+                        mockMvc.perform(post("/api/v1/heritage/calculate")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}"))
+                                        .andExpect(status().isOk());
+                } finally {
+                        couloirEtendu.liberer();
+                }
+
+                mockMvc.perform(post("/api/v1/heritage/calculate-extended")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ETENDUE))
+                                .andExpect(status().isOk());
+                assertEquals(0, couloirEtendu.getEnCours());
+        }
+
+        @Test
+        @DisplayName("Lot : la place est gardée pendant tout le flux NDJSON puis rendue")
+        void testPlaceDuLotGardeeJusquALaFinDuFlux() throws Exception {
+                // Given : un lot démarré, réponse asynchrone pas encore écrite
+                MvcResult enCours = mockMvc.perform(post("/api/v1/heritage/calculate-batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}\n"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+                assertEquals(1, couloirLot.getEnCours());
+
+                // When & Then : un second lot est rejeté
+                mockMvc.perform(post("/api/v1/heritage/calculate-batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}\n"))
+                                .andExpect(status().isServiceUnavailable());
+
+                mockMvc.perform(asyncDispatch(enCours)).andExpect(status().isOk());
+                enCours.getRequest().getAsyncContext().complete();
+                assertEquals(0, couloirLot.getEnCours());
+        }
+}
@@ -0,0 +1,61 @@
+package com.med.frida_calculs_app.surcharge;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = { "calcul.limite.initiale=4", "calcul.limite.min=4", "calcul.limite.max=4",
+                "calcul.limite.retry-after=3" })
+@AutoConfigureMockMvc
+@DisplayName("Tests d'intégration du filtre de limite de concurrence")
+class FiltreLimiteConcurrenceIntegrationTest {
+
+        private static final long MS = 1_000_000;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private LimiteAdaptative limite;
+
+        @Test
+        @DisplayName("Limite atteinte : 503 et Retry-After sur les calculs, /status et l'actuator admis")
+        void testSurcharge() throws Exception {
+                // Given : toutes les places occupées
+                for (int i = 0; i < 4; i++) {
+                        assertTrue(limite.acquerir());
+                }
+                try {
+                        // When & Then
+                        mockMvc.perform(post("/api/v1/heritage/calculate")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}"))
+                                        .andExpect(status().isServiceUnavailable())
+                                        .andExpect(header().string("Retry-After", "3"))
+                                        .andExpect(jsonPath("$.status").value(503))
+                                        .andExpect(jsonPath("$.path").value("/api/v1/heritage/calculate"));
+                        mockMvc.perform(get("/api/v1/heritage/status"))
+                                        .andExpect(status().isOk());
+                        mockMvc.perform(get("/actuator/health"))
+                                        .andExpect(status().isOk());
+                } finally {
+                        for (int i = 0; i < 4; i++) {
+                                limite.liberer(MS);
+                        }
+                }
+
+                mockMvc.perform(post("/api/v1/heritage/calculate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"sexeDefunt\":\"M\",\"nbFilles\":1}"))
+                                .andExpect(status().isOk());
+        }
+}
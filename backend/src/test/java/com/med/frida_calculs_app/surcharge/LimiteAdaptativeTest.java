@@ -0,0 +1,143 @@
+package com.med.frida_calculs_app.surcharge;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests de la limite de concurrence adaptative")
+class LimiteAdaptativeTest {
+
+        private static final long MS = 1_000_000;
+
+        @Test
+        @DisplayName("Au-delà de la limite, les requêtes sont rejetées et comptées")
+        void testRejetAuDelaDeLaLimite() {
+                // Given
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                LimiteAdaptative limite = new LimiteAdaptative(2, 1, 10, "test", registry);
+
+                // When & Then
+                assertTrue(limite.acquerir());
+                assertTrue(limite.acquerir());
+                assertFalse(limite.acquerir());
+                assertEquals(1.0, registry.get("heritage.limite.rejets").tag("limite", "test").counter().count());
+                assertEquals(2.0, registry.get("heritage.limite.en-cours").gauge().value());
+                limite.liberer(MS);
+                assertTrue(limite.acquerir());
+        }
+
+        @Test
+        @DisplayName("Couloir de priorité basse : admis seulement dans sa part de la limite")
+        void testPartDeLaLimite() {
+                // Given
+                LimiteAdaptative limite = new LimiteAdaptative(10, 1, 10, "test", new SimpleMeterRegistry());
+
+                // When & Then : la moitié pour la priorité basse, le reste pour les requêtes à part entière
+                for (int i = 0; i < 5; i++) {
+                        assertTrue(limite.acquerir(0.5));
+                }
+                assertFalse(limite.acquerir(0.5));
+                for (int i = 0; i < 5; i++) {
+                        assertTrue(limite.acquerir());
+                }
+                assertFalse(limite.acquerir());
+        }
+
+        @Test
+        @DisplayName("Latence stable et limite pleinement utilisée : la limite croît jusqu'au maximum")
+        void testCroissanceLatenceStable() {
+                // Given
+                LimiteAdaptative limite = new LimiteAdaptative(10, 4, 100, "test", new SimpleMeterRegistry());
+
+                // When
+                for (int i = 0; i < 500; i++) {
+                        saturer(limite, 10 * MS);
+                }
+
+                // Then
+                assertEquals(100, limite.getLimite());
+        }
+
+        @Test
+        @DisplayName("Limite peu utilisée : elle ne croît pas")
+        void testPasDeCroissanceSansDemande() {
+                // Given
+                LimiteAdaptative limite = new LimiteAdaptative(20, 4, 100, "test", new SimpleMeterRegistry());
+
+                // When
+                for (int i = 0; i < 500; i++) {
+                        assertTrue(limite.acquerir());
+                        limite.liberer(10 * MS);
+                }
+
+                // Then
+                assertEquals(20, limite.getLimite());
+        }
+
+        @Test
+        @DisplayName("La latence monte : la limite redescend, puis remonte quand la latence revient")
+        void testReductionQuandLaLatenceMonte() {
+                // Given : référence établie à 10 ms
+                LimiteAdaptative limite = new LimiteAdaptative(50, 4, 100, "test", new SimpleMeterRegistry());
+                for (int i = 0; i < 600; i++) {
+                        saturer(limite, 10 * MS);
+                }
+                int avant = limite.getLimite();
+
+                // When : file d'attente, latence quadruplée
+                for (int i = 0; i < 30; i++) {
+                        saturer(limite, 40 * MS);
+                }
+                int pendant = limite.getLimite();
+                for (int i = 0; i < 2000; i++) {
+                        saturer(limite, 10 * MS);
+                }
+
+                // Then
+                assertTrue(pendant < avant / 2, avant + " -> " + pendant);
+                assertEquals(100, limite.getLimite());
+        }
+
+        @Test
+        @DisplayName("Requêtes lourdes libérées sans échantillon : la limite des requêtes courtes ne se resserre pas")
+        void testRequetesLourdesHorsGradient() {
+                // Given : référence établie à 10 ms, limite au maximum
+                LimiteAdaptative limite = new LimiteAdaptative(50, 4, 100, "test", new SimpleMeterRegistry());
+                for (int i = 0; i < 600; i++) {
+                        saturer(limite, 10 * MS);
+                }
+
+                // When : requêtes lourdes en parallèle des requêtes courtes, qui restent à 10 ms
+                for (int i = 0; i < 30; i++) {
+                        assertTrue(limite.acquerir(0.5));
+                        saturer(limite, 10 * MS);
+                        limite.libererSansEchantillon();
+                }
+
+                // Then
+                assertEquals(100, limite.getLimite());
+                assertEquals(0, limite.getEnCours());
+        }
+
+        @Test
+        @DisplayName("Bornes incohérentes refusées")
+        void testBornesIncoherentes() {
+                assertThrows(IllegalArgumentException.class,
+                                () -> new LimiteAdaptative(2, 4, 10, "test", new SimpleMeterRegistry()));
+        }
+
+        /**
+         * Occupe toute la limite puis libère chaque requête avec la latence donnée.
+         */
+        private static void saturer(LimiteAdaptative limite, long latence) {
+                int admises = 0;
+                while (limite.acquerir()) {
+                        admises++;
+                }
+                for (int i = 0; i < admises; i++) {
+                        limite.liberer(latence);
+                }
+        }
+}
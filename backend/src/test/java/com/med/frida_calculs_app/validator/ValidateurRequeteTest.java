@@ -0,0 +1,146 @@
+package com.med.frida_calculs_app.validator;
+
+import com.med.frida_calculs_app.enums.LienParente;
+import com.med.frida_calculs_app.enums.Sexe;
+import com.med.frida_calculs_app.exception.InvalidFamilyCompositionException;
+import com.med.frida_calculs_app.model.ErrorResponse;
+import com.med.frida_calculs_app.model.ExtendedFamilyRequest;
+import com.med.frida_calculs_app.model.FamilyRequest;
+import com.med.frida_calculs_app.model.RequeteNormalisee;
+import com.med.frida_calculs_app.model.Tombe;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests de la validation en une passe")
+class ValidateurRequeteTest {
+
+        private static final Validator BEAN_VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+        private final FamilyRequestValidator chaine = new FamilyRequestValidator();
+        private final ValidateurRequete validateur = new ValidateurRequete();
+
+        @Test
+        @DisplayName("Même verdict que Bean Validation + FamilyRequestValidator sur une grille de requêtes")
+        void testEquivalenceChaine() {
+                int comparaisons = 0;
+                for (String sexe : new String[]{"M", "F", "X", null}) {
+                        for (Integer conjoints : new Integer[]{null, 0, 1, 2, 5, -1}) {
+                                for (int ascendants = 0; ascendants < 8; ascendants++) {
+                                        for (Integer filles : new Integer[]{null, 0, 1, 50, 51}) {
+                                                for (Integer garcons : new Integer[]{0, 50}) {
+                                                        for (Integer oncles : new Integer[]{null, 50, -2}) {
+                                                                for (Integer petitsFils : new Integer[]{0, 1}) {
+                                                                        for (String sexeParent : new String[]{null, "M", "f", "Z"}) {
+                                                                                FamilyRequest request = FamilyRequest.builder()
+                                                                                                .sexeDefunt(sexe)
+                                                                                                .nbConjoints(conjoints)
+                                                                                                .pereVivant((ascendants & 1) != 0)
+                                                                                                .grandPerePaternelVivant((ascendants & 2) != 0)
+                                                                                                .mereVivante((ascendants & 4) != 0)
+                                                                                                .nbFilles(filles)
+                                                                                                .nbGarcons(garcons)
+                                                                                                .nbOncles(oncles)
+                                                                                                .nbPetitsFils(petitsFils)
+                                                                                                .sexeParentPredecede(sexeParent)
+                                                                                                .build();
+                                                                                assertMemeVerdict(request);
+                                                                                comparaisons++;
+                                                                        }
+                                                                }
+                                                        }
+                                                }
+                                        }
+                                }
+                        }
+                }
+                assertEquals(46_080, comparaisons);
+        }
+
+        @Test
+        @DisplayName("Contraintes des tombes et normalisation des tombes valides")
+        void testTombes() {
+                // Given
+                ExtendedFamilyRequest invalide = ExtendedFamilyRequest.builder()
+                                .sexeDefunt("M").nbFilles(1)
+                                .tombes(List.of(
+                                                Tombe.builder().sexeParentPredecede("M").lienParente("enfant")
+                                                                .nbDescendantsMales(1).build(),
+                                                Tombe.builder().sexeParentPredecede("Q").nbDescendantesFemelles(-1).build(),
+                                                // Comme pour la requête, seuls M et F sont acceptés
+                                                Tombe.builder().sexeParentPredecede("Homme").lienParente("enfant").build()))
+                                .build();
+                ExtendedFamilyRequest valide = ExtendedFamilyRequest.builder()
+                                .sexeDefunt("Femme").nbFilles(1)
+                                .tombes(List.of(Tombe.builder().identifiant("A").sexeParentPredecede("m")
+                                                .lienParente("frere_soeur").nbDescendantsMales(2).build()))
+                                .build();
+
+                // When
+                ResultatValidation resultatInvalide = validateur.valider(invalide);
+                ResultatValidation resultatValide = validateur.valider(valide);
+
+                // Then
+                assertFalse(resultatInvalide.estValide());
+                assertEquals(List.of("tombes[1].sexeParentPredecede", "tombes[1].lienParente",
+                                                "tombes[1].nbDescendantesFemelles", "tombes[2].sexeParentPredecede"),
+                                resultatInvalide.violations().stream().map(ErrorResponse.ValidationError::getField).toList());
+                RequeteNormalisee requete = resultatValide.requete();
+                assertEquals(Sexe.FEMININ, requete.sexeDefunt());
+                assertEquals(Sexe.MASCULIN, requete.tombes().get(0).sexe());
+                assertEquals(LienParente.FRERE_SOEUR, requete.tombes().get(0).lien());
+                assertEquals(RequeteNormalisee.de(valide), requete);
+        }
+
+        @Test
+        @DisplayName("L'exception de composition ne capture pas de pile")
+        void testExceptionSansPile() {
+                // Given
+                FamilyRequest regle = FamilyRequest.builder().sexeDefunt("M").build();
+
+                // When
+                InvalidFamilyCompositionException composition = assertThrows(InvalidFamilyCompositionException.class,
+                                () -> new FamilyRequestValidator().validate(regle));
+
+                // Then
+                assertEquals(ValidateurRequete.AUCUN_HERITIER, composition.getMessage());
+                assertEquals(0, composition.getStackTrace().length);
+        }
+
+        private void assertMemeVerdict(FamilyRequest request) {
+                String contexte = request.toString();
+                ResultatValidation resultat = validateur.valider(request);
+
+                Set<ConstraintViolation<FamilyRequest>> violations = BEAN_VALIDATOR.validate(request);
+                if (!violations.isEmpty()) {
+                        Set<String> attendues = new HashSet<>();
+                        for (ConstraintViolation<FamilyRequest> v : violations) {
+                                attendues.add(v.getPropertyPath() + "=" + v.getInvalidValue() + ":" + v.getMessage());
+                        }
+                        assertNotNull(resultat.violations(), contexte);
+                        Set<String> obtenues = new HashSet<>();
+                        for (ErrorResponse.ValidationError e : resultat.violations()) {
+                                obtenues.add(e.getField() + "=" + e.getRejectedValue() + ":" + e.getMessage());
+                        }
+                        assertEquals(attendues, obtenues, contexte);
+                        return;
+                }
+                try {
+                        chaine.validate(request);
+                        chaine.validateIslamicRules(request);
+                } catch (InvalidFamilyCompositionException e) {
+                        assertEquals(e.getMessage(), resultat.erreur(), contexte);
+                        return;
+                }
+                assertTrue(resultat.estValide(), contexte);
+                assertEquals(RequeteNormalisee.de(request), resultat.requete(), contexte);
+        }
+}